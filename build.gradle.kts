@@ -13,10 +13,22 @@ java {
     targetCompatibility = JavaVersion.VERSION_21
 }
 
+// Microbenchmarks and offline evaluation tools in src/jmh/java; they can use the test fixtures
+val jmh by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.test.get().output
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.test.get().output
+}
+
 configurations {
     compileOnly {
         extendsFrom(configurations.annotationProcessor.get())
     }
+    named("jmhImplementation") {
+        extendsFrom(configurations.testImplementation.get())
+    }
+    named("jmhRuntimeOnly") {
+        extendsFrom(configurations.testRuntimeOnly.get())
+    }
 }
 
 repositories {
@@ -34,18 +46,20 @@ dependencies {
     implementation(libs.lucene.analysis.common)
     implementation(libs.lucene.queryparser)
     implementation(libs.lucene.facet)
+    implementation(libs.lucene.sandbox)
     
     // Observability
     implementation(libs.micrometer.registry.prometheus)
     implementation(libs.opentelemetry.instrumentation.annotations)
+    implementation(libs.opentelemetry.api)
     
     // OpenAPI
     implementation(libs.springdoc.openapi.starter.webmvc.ui)
     
     // Utilities
     implementation(libs.jsoup)
-    implementation(libs.rome)
     implementation(libs.onnxruntime)
+    implementation(libs.lz4)
     
     // Lombok
     compileOnly(libs.lombok)
@@ -58,6 +72,13 @@ dependencies {
     testImplementation(libs.assertj.core)
     testCompileOnly(libs.lombok)
     testAnnotationProcessor(libs.lombok)
+    
+    // Benchmarks
+    "jmhImplementation"(libs.jmh.core)
+    "jmhImplementation"(libs.hdrhistogram)
+    "jmhAnnotationProcessor"(libs.jmh.generator.annprocess)
+    "jmhCompileOnly"(libs.lombok)
+    "jmhAnnotationProcessor"(libs.lombok)
 }
 
 tasks.withType<Test> {
@@ -65,6 +86,18 @@ tasks.withType<Test> {
     finalizedBy(tasks.jacocoTestReport)
 }
 
+// Unit tests of the tools in src/jmh/java, which the main test source set cannot see
+val jmhTest by tasks.registering(Test::class) {
+    group = "verification"
+    description = "Runs the unit tests of the benchmark and evaluation tools"
+    testClassesDirs = jmh.output.classesDirs
+    classpath = jmh.runtimeClasspath
+}
+
+tasks.check {
+    dependsOn(jmhTest)
+}
+
 tasks.jacocoTestReport {
     dependsOn(tasks.test)
     reports {
@@ -78,7 +111,8 @@ tasks.jacocoTestReport {
                 exclude(
                     "**/config/**",
                     "**/dto/**",
-                    "**/SearchlightApplication.class"
+                    "**/SearchlightApplication.class",
+                    "**/BulkIndexBuilder*.class"
                 )
             }
         })
@@ -95,6 +129,76 @@ tasks.jacocoTestCoverageVerification {
     }
 }
 
+// Offline index build without the web app: ./gradlew bulkIndex --args="--input=... --index=..."
+tasks.register<JavaExec>("bulkIndex") {
+    group = "application"
+    description = "Builds a Lucene index directory from NDJSON chunks or a source-document log"
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("com.searchlight.app.BulkIndexBuilder")
+    jvmArgs("-Xmx8g")
+}
+
+// Recall/latency grid over HNSW settings: ./gradlew evalVectors --args="--base=... --m=8,16 --quantization=NONE,INT8"
+tasks.register<JavaExec>("evalVectors") {
+    group = "application"
+    description = "Measures recall@k, latency, build time and size of vector index configurations on an fvecs dataset"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("com.searchlight.bench.VectorIndexEvaluator")
+    jvmArgs("-Xmx8g")
+}
+
+// Open-loop replay of captured searches: ./gradlew loadReplay --args="--input=... --target=http://localhost:8080 --rate=200"
+tasks.register<JavaExec>("loadReplay") {
+    group = "application"
+    description = "Replays captured search requests at a fixed arrival rate and reports HdrHistogram latency percentiles"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("com.searchlight.bench.SearchLoadReplay")
+}
+
+// Microbenchmarks with the GC profiler: ./gradlew jmh [-Pjmh.include=Fusion]
+// JSON results go to build/reports/jmh/results.json
+val jmhResults = layout.buildDirectory.file("reports/jmh/results.json")
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks and writes JSON results"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    outputs.file(jmhResults)
+    outputs.upToDateWhen { false }
+    doFirst {
+        jmhResults.get().asFile.parentFile.mkdirs()
+    }
+    args(
+        project.findProperty("jmh.include")?.toString() ?: ".*",
+        "-prof", "gc",
+        "-rf", "json",
+        "-rff", jmhResults.get().asFile.absolutePath
+    )
+}
+
+// Indexing throughput grid over a synthetic corpus: ./gradlew indexBench --args="--docs=20000 --threads=1,8"
+tasks.register<JavaExec>("indexBench") {
+    group = "benchmark"
+    description = "Measures indexing throughput, merge time and segment layout across writer settings"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("com.searchlight.bench.IndexingBenchmark")
+    jvmArgs("-Xmx4g")
+}
+
+// Fails when a benchmark regressed: ./gradlew jmhCompare -Pjmh.baseline=baseline.json [-Pjmh.threshold=0.10]
+tasks.register<JavaExec>("jmhCompare") {
+    group = "benchmark"
+    description = "Compares the latest JMH results with a baseline and fails on regressions"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("com.searchlight.bench.JmhResultComparison")
+    args(
+        project.findProperty("jmh.baseline")?.toString() ?: "jmh-baseline.json",
+        jmhResults.get().asFile.absolutePath,
+        project.findProperty("jmh.threshold")?.toString() ?: "0.10"
+    )
+}
+
 tasks.withType<JavaCompile> {
     options.compilerArgs.add("-parameters")
 }
@@ -0,0 +1,322 @@
+package com.searchlight.bench;
+
+import com.searchlight.domain.model.DocumentChunk;
+import com.searchlight.fixtures.SyntheticCorpus;
+import com.searchlight.fixtures.SyntheticCorpus.LengthDistribution;
+import com.searchlight.infra.embeddings.OnnxEmbeddingProvider;
+import com.searchlight.infra.index.IndexSettings;
+import com.searchlight.infra.index.IndexStatsCollector;
+import com.searchlight.infra.index.LuceneIndexer;
+import com.searchlight.infra.index.SimilarityMode;
+import com.searchlight.infra.index.VectorQuantization;
+import com.searchlight.infra.ingest.Chunker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Indexing throughput over a synthetic corpus, without network access.
+ *
+ * Generates a deterministic corpus once, then for every combination of writer threads, RAM buffer
+ * and commit interval indexes it into a fresh directory through {@link Chunker}, the stub
+ * {@link OnnxEmbeddingProvider} and {@link LuceneIndexer}, the same path as ingestion. Reports
+ * docs/sec and chunks/sec while indexing, the time to drain the final commit and pending merges,
+ * total merge time and the final segment layout.
+ *
+ * <pre>
+ * ./gradlew indexBench --args="--docs=20000 --threads=1,4,8 --ram-buffer-mb=64,512 --commit-interval-ms=0,5000"
+ * </pre>
+ */
+public final class IndexingBenchmark {
+    
+    private static final String USAGE = """
+            Usage: IndexingBenchmark [options]
+              --docs=N                    documents in the corpus (default: 20000)
+              --seed=N                    corpus seed (default: 42)
+              --vocabulary=N              distinct words (default: 50000)
+              --zipf=X                    Zipf exponent of word frequencies (default: 1.0)
+              --length=lognormal|uniform|fixed  words per document (default: lognormal)
+              --median-words=N            lognormal median, fixed length (default: 600)
+              --sigma=X                   lognormal spread (default: 0.8)
+              --min-words=N --max-words=N length bounds (default: 50, 20000)
+              --chunk-size=N --chunk-overlap=N  chunker words (default: 512, 50)
+              --dimension=N               stub embedding dimension (default: 384)
+              --threads=N[,N...]          indexing threads (default: 1 and available processors)
+              --ram-buffer-mb=N[,N...]    IndexWriter RAM buffer (default: 64,512)
+              --commit-interval-ms=N[,N...] background commits; 0 commits only at the end (default: 0,5000)
+              --commit-max-pending-docs=N early commit trigger, 0 to disable (default: 0)
+              --refresh-interval-ms=N     near-real-time refresh interval (default: 1000)
+              --hnsw-m=N --hnsw-ef-construction=N  (default: 16, 100)
+              --quantization=NONE|INT8|INT4 (default: NONE)
+              --work-dir=<dir>            where indexes are built (default: a temp directory)
+              --keep-indexes              keep the built indexes
+              --csv=<file>                also write the results as CSV
+            """;
+    
+    /**
+     * Writer settings of one run.
+     */
+    record Config(int threads, double ramBufferMb, long commitIntervalMs) {
+        
+        String name() {
+            return "t" + threads + "-ram" + (int) ramBufferMb + "-commit" + commitIntervalMs;
+        }
+    }
+    
+    /**
+     * Outcome of one run. Merge time is the summed wall time of all merges, which overlap.
+     */
+    record Result(Config config, long docs, long chunks, double indexSeconds, double drainSeconds,
+                  long merges, double mergeSeconds, long commits, int segments, long sizeBytes,
+                  List<IndexStatsCollector.SegmentStats> layout) {
+        
+        double docsPerSecond() {
+            return docs / indexSeconds;
+        }
+        
+        double chunksPerSecond() {
+            return chunks / indexSeconds;
+        }
+    }
+    
+    private final Map<String, String> options;
+    
+    IndexingBenchmark(Map<String, String> options) {
+        this.options = options;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                System.err.print(USAGE);
+                System.exit(2);
+            }
+            int eq = arg.indexOf('=');
+            options.put(eq > 0 ? arg.substring(2, eq) : arg.substring(2), eq > 0 ? arg.substring(eq + 1) : "true");
+        }
+        
+        IndexingBenchmark benchmark = new IndexingBenchmark(options);
+        List<Result> results = benchmark.run();
+        benchmark.print(results, System.out);
+        if (options.containsKey("csv")) {
+            try (PrintStream csv = new PrintStream(Files.newOutputStream(Path.of(options.get("csv"))))) {
+                benchmark.printCsv(results, csv);
+            }
+        }
+    }
+    
+    List<Result> run() throws Exception {
+        String[] corpus = corpus();
+        long words = Arrays.stream(corpus).mapToLong(text -> text.chars().filter(c -> c == ' ').count() + 1).sum();
+        System.out.printf("Corpus: %d documents, ~%d words, %.1f MB of text%n%n",
+                corpus.length, words, Arrays.stream(corpus).mapToLong(String::length).sum() / (1024.0 * 1024.0));
+        
+        boolean keepIndexes = options.containsKey("keep-indexes");
+        Path workDir = options.containsKey("work-dir")
+                ? Files.createDirectories(Path.of(options.get("work-dir")))
+                : Files.createTempDirectory("searchlight-index-bench");
+        
+        List<Result> results = new ArrayList<>();
+        for (int threads : intList("threads", "1," + Runtime.getRuntime().availableProcessors())) {
+            for (double ramBufferMb : doubleList("ram-buffer-mb", "64,512")) {
+                for (double commitIntervalMs : doubleList("commit-interval-ms", "0,5000")) {
+                    Config config = new Config(threads, ramBufferMb, (long) commitIntervalMs);
+                    Path indexPath = workDir.resolve(config.name());
+                    try {
+                        Result result = index(config, indexPath, corpus);
+                        results.add(result);
+                        System.out.printf("%s: %.0f docs/s, %.0f chunks/s, %d segments%n",
+                                config.name(), result.docsPerSecond(), result.chunksPerSecond(), result.segments());
+                    } finally {
+                        if (!keepIndexes) {
+                            deleteRecursively(indexPath);
+                        }
+                    }
+                }
+            }
+        }
+        if (!keepIndexes && !options.containsKey("work-dir")) {
+            deleteRecursively(workDir);
+        }
+        return results;
+    }
+    
+    private Result index(Config config, Path indexPath, String[] corpus) throws Exception {
+        int dimension = intOption("dimension", 384);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IndexSettings settings = IndexSettings.builder()
+                .commitIntervalMs(config.commitIntervalMs())
+                .commitMaxPendingDocs(intOption("commit-max-pending-docs", 0))
+                .refreshIntervalMs(intOption("refresh-interval-ms", 1000))
+                .ramBufferSizeMb(config.ramBufferMb())
+                .indexingThreads(config.threads())
+                .vectorQuantization(VectorQuantization.valueOf(options.getOrDefault("quantization", "NONE").toUpperCase()))
+                .build();
+        LuceneIndexer indexer = new LuceneIndexer(indexPath.toString(), dimension, SimilarityMode.COSINE,
+                intOption("hnsw-m", 16), intOption("hnsw-ef-construction", 100), settings, meterRegistry);
+        indexer.initialize();
+        Chunker chunker = new Chunker(intOption("chunk-size", 512), intOption("chunk-overlap", 50));
+        OnnxEmbeddingProvider embeddingProvider = new OnnxEmbeddingProvider(dimension, "", true, meterRegistry);
+        
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong chunks = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(config.threads());
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < config.threads(); t++) {
+                workers.add(pool.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < corpus.length; i = next.getAndIncrement()) {
+                        String sourceId = "doc-" + i;
+                        List<String> texts = chunker.chunk(corpus[i]);
+                        List<float[]> vectors = embeddingProvider.embedBatch(texts);
+                        List<DocumentChunk> documentChunks = new ArrayList<>(texts.size());
+                        for (int c = 0; c < texts.size(); c++) {
+                            documentChunks.add(DocumentChunk.builder()
+                                    .id(sourceId + "#" + c)
+                                    .sourceId(sourceId)
+                                    .title("Synthetic document " + i)
+                                    .url("https://example.com/doc/" + i)
+                                    .content(texts.get(c))
+                                    .vector(vectors.get(c))
+                                    .keywords(Chunker.leadingWords(texts.get(c), 20))
+                                    .timestamp(Instant.EPOCH.plusSeconds(i))
+                                    .source("synthetic")
+                                    .chunkIndex(c)
+                                    .contentHash(Integer.toString(texts.get(c).hashCode()))
+                                    .build());
+                        }
+                        indexer.indexSource(sourceId, documentChunks);
+                        chunks.addAndGet(documentChunks.size());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        long indexNanos = System.nanoTime() - start;
+        
+        // Final commit, then let natural merges finish so the layout is the steady state
+        long drainStart = System.nanoTime();
+        do {
+            while (!indexer.getRunningMerges().isEmpty()) {
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+            indexer.commit();
+            TimeUnit.MILLISECONDS.sleep(50);
+        } while (!indexer.getRunningMerges().isEmpty());
+        long drainNanos = System.nanoTime() - drainStart;
+        
+        IndexStatsCollector.IndexStats stats = new IndexStatsCollector(indexer, 0, meterRegistry).collect();
+        Timer mergeTimer = meterRegistry.get("index.merge.latency").timer();
+        long commits = (long) meterRegistry.get("index.commits").counter().count();
+        indexer.close();
+        
+        return new Result(config, corpus.length, chunks.get(), indexNanos / 1e9, drainNanos / 1e9,
+                mergeTimer.count(), mergeTimer.totalTime(TimeUnit.SECONDS), commits,
+                stats.segmentCount(), stats.sizeBytes(), stats.segments());
+    }
+    
+    private String[] corpus() {
+        int medianWords = intOption("median-words", 600);
+        int minWords = intOption("min-words", 50);
+        int maxWords = intOption("max-words", 20000);
+        LengthDistribution lengths = switch (options.getOrDefault("length", "lognormal")) {
+            case "fixed" -> LengthDistribution.fixed(medianWords);
+            case "uniform" -> LengthDistribution.uniform(minWords, maxWords);
+            case "lognormal" -> LengthDistribution.logNormal(medianWords, doubleOption("sigma", 0.8), minWords, maxWords);
+            default -> throw new IllegalArgumentException("Unknown length distribution: " + options.get("length"));
+        };
+        SyntheticCorpus generator = new SyntheticCorpus(
+                intOption("seed", 42), intOption("vocabulary", 50000), doubleOption("zipf", 1.0), lengths);
+        String[] corpus = new String[intOption("docs", 20000)];
+        Arrays.parallelSetAll(corpus, generator::document);
+        return corpus;
+    }
+    
+    void print(List<Result> results, PrintStream out) {
+        out.printf("%n%-7s %8s %9s %9s %10s %8s %8s %7s %9s %8s %9s%n", "threads", "ram MB", "commit ms",
+                "docs/s", "chunks/s", "index s", "drain s", "merges", "merge s", "segments", "size MB");
+        for (Result r : results) {
+            out.printf("%-7d %8.0f %9d %9.0f %10.0f %8.1f %8.1f %7d %9.1f %8d %9.1f%n",
+                    r.config().threads(), r.config().ramBufferMb(), r.config().commitIntervalMs(),
+                    r.docsPerSecond(), r.chunksPerSecond(), r.indexSeconds(), r.drainSeconds(),
+                    r.merges(), r.mergeSeconds(), r.segments(), r.sizeBytes() / (1024.0 * 1024.0));
+        }
+        out.println();
+        for (Result r : results) {
+            out.printf("%s segments (docs, MB, source):", r.config().name());
+            r.layout().stream()
+                    .sorted(Comparator.comparingLong(IndexStatsCollector.SegmentStats::sizeBytes).reversed())
+                    .forEach(segment -> out.printf(" %s=%d/%.1f/%s", segment.name(), segment.maxDoc(),
+                            segment.sizeBytes() / (1024.0 * 1024.0), segment.source()));
+            out.println();
+        }
+    }
+    
+    void printCsv(List<Result> results, PrintStream out) {
+        out.println("threads,ram_buffer_mb,commit_interval_ms,docs,chunks,docs_per_sec,chunks_per_sec,"
+                + "index_seconds,drain_seconds,merges,merge_seconds,commits,segments,size_bytes");
+        for (Result r : results) {
+            out.printf("%d,%.0f,%d,%d,%d,%.1f,%.1f,%.2f,%.2f,%d,%.2f,%d,%d,%d%n",
+                    r.config().threads(), r.config().ramBufferMb(), r.config().commitIntervalMs(),
+                    r.docs(), r.chunks(), r.docsPerSecond(), r.chunksPerSecond(), r.indexSeconds(),
+                    r.drainSeconds(), r.merges(), r.mergeSeconds(), r.commits(), r.segments(), r.sizeBytes());
+        }
+    }
+    
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+    
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+    
+    private double doubleOption(String name, double defaultValue) {
+        String value = options.get(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+    
+    private List<Integer> intList(String name, String defaultValue) {
+        return doubleList(name, defaultValue).stream().map(Double::intValue).distinct().toList();
+    }
+    
+    private List<Double> doubleList(String name, String defaultValue) {
+        return Arrays.stream(options.getOrDefault(name, defaultValue).split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(Double::parseDouble)
+                .toList();
+    }
+}
@@ -0,0 +1,123 @@
+package com.searchlight.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and exits non-zero if any benchmark got slower, or allocates
+ * more per operation, than the threshold allows.
+ *
+ * Usage: {@code JmhResultComparison <baseline.json> <results.json> [threshold]}, where the
+ * threshold is a fraction (0.10 = 10%). Benchmarks are matched on name plus parameters;
+ * ones missing from either file are listed but never fail the comparison.
+ */
+public final class JmhResultComparison {
+    
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    
+    record Result(String mode, double score, double allocatedBytes) {}
+    
+    private JmhResultComparison() {
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: JmhResultComparison <baseline.json> <results.json> [threshold]");
+            System.exit(2);
+        }
+        Path baselineFile = Path.of(args[0]);
+        if (!Files.exists(baselineFile)) {
+            System.err.println("No baseline at " + baselineFile + "; copy a results.json there first");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        
+        Map<String, Result> baseline = read(baselineFile);
+        Map<String, Result> current = read(Path.of(args[1]));
+        int regressions = 0;
+        
+        System.out.printf("%-70s %14s %14s %9s %9s%n", "Benchmark", "Baseline", "Current", "Time", "Alloc");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s %9s  new%n", entry.getKey(), "-", now.score(), "", "");
+                continue;
+            }
+            // Throughput is better when higher, every other mode when lower
+            double timeChange = "thrpt".equals(now.mode())
+                    ? before.score() / now.score() - 1
+                    : now.score() / before.score() - 1;
+            double allocChange = before.allocatedBytes() > 0 && now.allocatedBytes() >= 0
+                    ? now.allocatedBytes() / before.allocatedBytes() - 1
+                    : 0;
+            boolean regressed = timeChange > threshold || allocChange > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%% %+8.1f%%%s%n", entry.getKey(), before.score(),
+                    now.score(), timeChange * 100, allocChange * 100, regressed ? "  REGRESSION" : "");
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-70s  missing from current results%n", name);
+            }
+        }
+        
+        if (regressions > 0) {
+            System.err.printf("%d benchmark(s) regressed by more than %.0f%%%n", regressions, threshold * 100);
+            System.exit(1);
+        }
+        System.out.printf("No regressions beyond %.0f%%%n", threshold * 100);
+    }
+    
+    static Map<String, Result> read(Path file) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(file.toFile());
+        Map<String, Result> results = new TreeMap<>();
+        for (JsonNode run : root) {
+            JsonNode primary = run.get("primaryMetric");
+            results.put(key(run), new Result(
+                    run.get("mode").asText(),
+                    primary.get("score").asDouble(),
+                    allocatedBytes(run.get("secondaryMetrics"))));
+        }
+        return results;
+    }
+    
+    private static String key(JsonNode run) {
+        StringBuilder key = new StringBuilder(run.get("benchmark").asText());
+        JsonNode params = run.get("params");
+        if (params != null) {
+            Map<String, String> sorted = new TreeMap<>();
+            params.fields().forEachRemaining(param -> sorted.put(param.getKey(), param.getValue().asText()));
+            key.append(sorted);
+        }
+        return key.toString();
+    }
+    
+    /**
+     * Bytes allocated per operation from the GC profiler, or -1 if it did not run. Older JMH
+     * versions prefix secondary metric names with a middle dot.
+     */
+    private static double allocatedBytes(JsonNode secondary) {
+        if (secondary == null) {
+            return -1;
+        }
+        Map<String, JsonNode> metrics = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = secondary.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            metrics.put(field.getKey().replace("·", ""), field.getValue());
+        }
+        JsonNode allocation = metrics.get(ALLOCATION);
+        return allocation != null ? allocation.get("score").asDouble() : -1;
+    }
+}
@@ -0,0 +1,478 @@
+package com.searchlight.bench;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.searchlight.api.admission.SearchCostModel;
+import com.searchlight.api.dto.SearchRequest;
+import com.searchlight.app.BulkIndexBuilder;
+import com.searchlight.domain.ports.EmbeddingProvider;
+import com.searchlight.infra.embeddings.HttpEmbeddingProvider;
+import com.searchlight.infra.embeddings.OnnxEmbeddingProvider;
+import com.searchlight.infra.index.LuceneIndexer;
+import com.searchlight.infra.index.LuceneSearcher;
+import com.searchlight.infra.index.SimilarityMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop search load replay.
+ *
+ * Replays captured search requests (one {@code /api/v1/search} JSON body per line) at a fixed
+ * arrival rate, either over HTTP or against an index opened in-process. Every request runs on
+ * its own virtual thread, so a slow response never delays the next arrival. Latency is measured
+ * from the request's intended start time, which corrects for coordinated omission: when the
+ * server stalls, the queueing delay of every request scheduled during the stall is counted.
+ * Service time (from the actual send) is recorded alongside for comparison. Failed requests
+ * (errors, non-200 responses and timeouts) and arrivals dropped at {@code --max-in-flight} go to
+ * a separate failure histogram, also measured from the intended start, so a run that fails fast
+ * cannot look faster than one that succeeds slowly.
+ *
+ * <pre>
+ * ./gradlew loadReplay --args="--input=scripts/sample_searches.jsonl --target=http://localhost:8080 \
+ *     --rate=200 --duration=60 --label=$(git rev-parse --short HEAD) --json=build/replay.json"
+ * </pre>
+ *
+ * Latencies are recorded in microseconds in HdrHistogram; {@code --hgrm} writes the percentile
+ * distribution (plottable against other runs with the HdrHistogram plotter) and {@code --json} a
+ * summary that {@code --baseline} compares against.
+ */
+@Slf4j
+public class SearchLoadReplay {
+    
+    private static final String USAGE = """
+            Usage: SearchLoadReplay --input=<jsonl> (--target=<url> | --index=<dir>) [options]
+              --rate=N                  arrivals per second (default: 50)
+              --duration=N              measured seconds (default: 60)
+              --warmup=N                seconds replayed before measuring (default: 10)
+              --arrivals=uniform|poisson spacing of arrivals (default: uniform)
+              --max-in-flight=N         outstanding requests before arrivals are dropped (default: 10000)
+              --timeout-ms=N            per-request timeout over HTTP (default: 10000)
+              --label=NAME              build or run name stored in the JSON summary
+              --json=<file>             write a JSON summary with fixed percentiles
+              --hgrm=<file>             write the corrected latency percentile distribution
+              --hlog=<file>             write per-second interval histograms (HdrHistogram log)
+              --baseline=<file>         JSON summary of an earlier run to compare against
+              --dimension=N             in-process only: vector dimension (default: 384)
+              --similarity=COSINE|DOT_PRODUCT|EUCLIDEAN in-process only (default: COSINE)
+              --embedding=stub|http     in-process only: query embedding provider (default: stub)
+              --embedding-url=URL       in-process only: HTTP embedding endpoint
+            In-process requests are bounded by the search endpoint's default cost limits.
+            """;
+    
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final String SEARCH_PATH = "/api/v1/search";
+    
+    private final Map<String, String> options;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    private final Recorder correctedRecorder = new Recorder(3);
+    private final Recorder serviceRecorder = new Recorder(3);
+    private final Recorder failedRecorder = new Recorder(3);
+    // Totals are package-private so tests can check the accounting
+    final Histogram corrected = new Histogram(3);
+    final Histogram service = new Histogram(3);
+    final Histogram failed = new Histogram(3);
+    final AtomicLong sent = new AtomicLong();
+    final AtomicLong succeeded = new AtomicLong();
+    final AtomicLong dropped = new AtomicLong();
+    final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+    
+    /**
+     * Executes one captured request body and returns its HTTP-style status.
+     */
+    @FunctionalInterface
+    interface Target extends AutoCloseable {
+        
+        int execute(String body, SearchRequest request) throws Exception;
+        
+        @Override
+        default void close() {
+        }
+    }
+    
+    /**
+     * Intended arrival times in nanoseconds from the start of the replay: evenly spaced, or with
+     * exponential gaps for Poisson arrivals. Independent of how long requests take.
+     */
+    static final class Arrivals {
+        
+        private final double intervalNanos;
+        private final Random random;
+        private double offsetNanos;
+        
+        /**
+         * @param random source of Poisson gaps; null for evenly spaced arrivals
+         */
+        Arrivals(double rate, Random random) {
+            this.intervalNanos = 1e9 / rate;
+            this.random = random;
+        }
+        
+        long next() {
+            long offset = (long) offsetNanos;
+            offsetNanos += random != null ? -Math.log(1 - random.nextDouble()) * intervalNanos : intervalNanos;
+            return offset;
+        }
+    }
+    
+    SearchLoadReplay(Map<String, String> options) {
+        this.options = options;
+    }
+    
+    public static void main(String[] args) {
+        Map<String, String> options = BulkIndexBuilder.parseArgs(args);
+        if (options == null || !options.containsKey("input")
+                || options.containsKey("target") == options.containsKey("index")) {
+            System.err.print(USAGE);
+            System.exit(2);
+        }
+        
+        try {
+            new SearchLoadReplay(options).run();
+        } catch (Exception e) {
+            log.error("Load replay failed", e);
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Replay the input at the configured rate and print the report.
+     */
+    void run() throws Exception {
+        List<String> bodies = new ArrayList<>();
+        List<SearchRequest> requests = new ArrayList<>();
+        readRequests(Path.of(options.get("input")), bodies, requests);
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("No search requests in " + options.get("input"));
+        }
+        
+        double rate = doubleOption("rate", 50);
+        int durationSeconds = intOption("duration", 60);
+        int warmupSeconds = intOption("warmup", 10);
+        boolean poisson = "poisson".equalsIgnoreCase(options.getOrDefault("arrivals", "uniform"));
+        Semaphore inFlight = new Semaphore(intOption("max-in-flight", 10000));
+        
+        PrintStream hlogStream = options.containsKey("hlog")
+                ? new PrintStream(Files.newOutputStream(Path.of(options.get("hlog"))))
+                : null;
+        HistogramLogWriter hlog = hlogStream != null ? new HistogramLogWriter(hlogStream) : null;
+        
+        try (Target target = createTarget();
+             ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            log.info("Replaying {} requests from {} at {}/s for {}s after {}s warmup",
+                    requests.size(), options.get("input"), rate, durationSeconds, warmupSeconds);
+            
+            long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+            long measureStart = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long end = measureStart + TimeUnit.SECONDS.toNanos(durationSeconds);
+            ScheduledExecutorService reporter = startReporter(measureStart, hlog);
+            
+            Arrivals arrivals = new Arrivals(rate, poisson ? new Random(42) : null);
+            for (long i = 0; ; i++) {
+                long intended = start + arrivals.next();
+                if (intended >= end) {
+                    break;
+                }
+                for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                
+                boolean measured = intended >= measureStart;
+                if (!inFlight.tryAcquire()) {
+                    recordDropped(intended, measured);
+                    continue;
+                }
+                int index = (int) (i % requests.size());
+                workers.execute(() -> {
+                    try {
+                        execute(target, bodies.get(index), requests.get(index), intended, measured);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            
+            workers.shutdown();
+            workers.awaitTermination(intOption("timeout-ms", 10000) + 5000L, TimeUnit.MILLISECONDS);
+            reporter.shutdownNow();
+            collectInterval(measureStart, hlog);
+            report(rate, durationSeconds);
+        } finally {
+            if (hlogStream != null) {
+                hlogStream.close();
+            }
+        }
+    }
+    
+    /**
+     * Run one request and record it as a success or failure, measured from its intended start.
+     */
+    void execute(Target target, String body, SearchRequest request, long intended, boolean measured) {
+        long sendStart = System.nanoTime();
+        String outcome;
+        try {
+            int status = target.execute(body, request);
+            outcome = status == 200 ? null : String.valueOf(status);
+        } catch (HttpTimeoutException e) {
+            outcome = "timeout";
+        } catch (Exception e) {
+            outcome = e.getClass().getSimpleName();
+            log.debug("Request failed", e);
+        }
+        long now = System.nanoTime();
+        if (!measured) {
+            return;
+        }
+        sent.incrementAndGet();
+        if (outcome != null) {
+            errors.computeIfAbsent(outcome, key -> new AtomicLong()).incrementAndGet();
+            failedRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(now - intended));
+            return;
+        }
+        succeeded.incrementAndGet();
+        correctedRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(now - intended));
+        serviceRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(now - sendStart));
+    }
+    
+    /**
+     * Record an arrival turned away at the in-flight limit as a failure from its intended start.
+     */
+    void recordDropped(long intended, boolean measured) {
+        if (measured) {
+            dropped.incrementAndGet();
+            failedRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended));
+        }
+    }
+    
+    /**
+     * Once a second, fold the interval histograms into the totals and log progress.
+     */
+    private ScheduledExecutorService startReporter(long measureStart, HistogramLogWriter hlog) {
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replay-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (hlog != null) {
+            hlog.outputLogFormatVersion();
+            hlog.outputLegend();
+        }
+        reporter.scheduleAtFixedRate(() -> collectInterval(measureStart, hlog), 1, 1, TimeUnit.SECONDS);
+        return reporter;
+    }
+    
+    synchronized void collectInterval(long measureStart, HistogramLogWriter hlog) {
+        Histogram interval = correctedRecorder.getIntervalHistogram();
+        corrected.add(interval);
+        service.add(serviceRecorder.getIntervalHistogram());
+        failed.add(failedRecorder.getIntervalHistogram());
+        if (System.nanoTime() < measureStart) {
+            return;
+        }
+        if (hlog != null) {
+            hlog.outputIntervalHistogram(interval);
+        }
+        if (interval.getTotalCount() > 0) {
+            log.info("{} ok, {} errors, {} dropped; last second p50={}ms p99={}ms max={}ms",
+                    succeeded.get(), sent.get() - succeeded.get(), dropped.get(),
+                    millis(interval.getValueAtPercentile(50)), millis(interval.getValueAtPercentile(99)),
+                    millis(interval.getMaxValue()));
+        }
+    }
+    
+    private void report(double rate, int durationSeconds) throws IOException {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("label", options.getOrDefault("label", ""));
+        summary.put("target", options.getOrDefault("target", options.get("index")));
+        summary.put("input", options.get("input"));
+        summary.put("rate", rate);
+        summary.put("arrivals", options.getOrDefault("arrivals", "uniform"));
+        summary.put("durationSeconds", durationSeconds);
+        summary.put("sent", sent.get());
+        summary.put("succeeded", succeeded.get());
+        summary.put("dropped", dropped.get());
+        Map<String, Long> errorCounts = new LinkedHashMap<>();
+        errors.forEach((outcome, count) -> errorCounts.put(outcome, count.get()));
+        summary.put("errors", errorCounts);
+        double throughput = succeeded.get() / (double) durationSeconds;
+        summary.put("throughput", throughput);
+        Map<String, Double> correctedMs = percentiles(corrected);
+        Map<String, Double> serviceMs = percentiles(service);
+        Map<String, Double> failedMs = percentiles(failed);
+        summary.put("correctedMs", correctedMs);
+        summary.put("serviceMs", serviceMs);
+        summary.put("failedMs", failedMs);
+        
+        System.out.printf("Target:      %s%n", summary.get("target"));
+        System.out.printf("Arrivals:    %.1f/s %s for %ds%n", rate, summary.get("arrivals"), durationSeconds);
+        System.out.printf("Requests:    %d sent, %d ok, %d dropped, errors %s%n",
+                sent.get(), succeeded.get(), dropped.get(), errorCounts);
+        System.out.printf("Throughput:  %.1f ok/s%n", throughput);
+        System.out.printf("%-12s %14s %14s %14s%n", "percentile", "corrected ms", "service ms", "failed ms");
+        for (String key : correctedMs.keySet()) {
+            System.out.printf("%-12s %14.3f %14.3f %14.3f%n", key, correctedMs.get(key), serviceMs.get(key),
+                    failedMs.get(key));
+        }
+        
+        if (options.containsKey("hgrm")) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(Path.of(options.get("hgrm"))))) {
+                corrected.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        if (options.containsKey("json")) {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(Path.of(options.get("json")).toFile(), summary);
+        }
+        if (options.containsKey("baseline")) {
+            compare(objectMapper.readTree(Path.of(options.get("baseline")).toFile()), correctedMs);
+        }
+    }
+    
+    /**
+     * Print corrected percentiles next to an earlier run's.
+     */
+    private void compare(JsonNode baseline, Map<String, Double> current) {
+        JsonNode previous = baseline.path("correctedMs");
+        System.out.printf("%nBaseline %s (%s/s):%n", baseline.path("label").asText(), baseline.path("rate").asText());
+        System.out.printf("%-12s %14s %14s %9s%n", "percentile", "baseline ms", "current ms", "change");
+        for (Map.Entry<String, Double> entry : current.entrySet()) {
+            if (!previous.has(entry.getKey())) {
+                continue;
+            }
+            double before = previous.get(entry.getKey()).asDouble();
+            double change = before > 0 ? (entry.getValue() - before) / before * 100 : 0;
+            System.out.printf("%-12s %14.3f %14.3f %+8.1f%%%n", entry.getKey(), before, entry.getValue(), change);
+        }
+    }
+    
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        values.put("mean", histogram.getMean() / 1000.0);
+        for (double percentile : PERCENTILES) {
+            values.put("p" + String.valueOf(percentile).replaceAll("\\.0$", ""),
+                    millis(histogram.getValueAtPercentile(percentile)));
+        }
+        values.put("max", millis(histogram.getMaxValue()));
+        return values;
+    }
+    
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+    
+    private void readRequests(Path input, List<String> bodies, List<SearchRequest> requests) throws IOException {
+        long lineNumber = 0;
+        for (String line : Files.readAllLines(input)) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                requests.add(objectMapper.readValue(line, SearchRequest.class));
+                bodies.add(line);
+            } catch (IOException e) {
+                log.warn("Skipping line {}: {}", lineNumber, e.getOriginalMessage());
+            }
+        }
+    }
+    
+    private Target createTarget() throws IOException {
+        if (options.containsKey("target")) {
+            return httpTarget(URI.create(options.get("target").replaceAll("/$", "") + SEARCH_PATH));
+        }
+        return inProcessTarget(Path.of(options.get("index")));
+    }
+    
+    private Target httpTarget(URI uri) {
+        Duration timeout = Duration.ofMillis(intOption("timeout-ms", 10000));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        return (body, request) -> client.send(HttpRequest.newBuilder(uri)
+                        .timeout(timeout)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+    
+    /**
+     * Searches an index directory directly, bounding and mapping requests like the search endpoint.
+     * The index must not be open in a running server.
+     */
+    private Target inProcessTarget(Path indexPath) throws IOException {
+        int dimension = intOption("dimension", 384);
+        LuceneIndexer indexer = new LuceneIndexer(indexPath.toString(), dimension,
+                SimilarityMode.valueOf(options.getOrDefault("similarity", "COSINE").toUpperCase()), 16, 100);
+        indexer.initialize();
+        LuceneSearcher searcher = new LuceneSearcher(indexer, dimension);
+        EmbeddingProvider embeddingProvider = "http".equals(options.getOrDefault("embedding", "stub"))
+                ? new HttpEmbeddingProvider(options.getOrDefault("embedding-url", "http://localhost:8000/embed"),
+                        dimension, 30000, meterRegistry, objectMapper)
+                : new OnnxEmbeddingProvider(dimension, "", true, meterRegistry);
+        SearchCostModel costModel = SearchCostModel.withDefaults();
+        
+        return new Target() {
+            @Override
+            public int execute(String body, SearchRequest request) {
+                try {
+                    costModel.estimate(request);
+                    float[] textVector = request.needsEmbedding() ? embeddingProvider.embed(request.getQ()) : null;
+                    searcher.search(request.toQuery(textVector, null));
+                    return 200;
+                } catch (IllegalArgumentException e) {
+                    return 400;
+                }
+            }
+            
+            @Override
+            public void close() {
+                searcher.close();
+                indexer.close();
+            }
+        };
+    }
+    
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+    
+    private double doubleOption(String name, double defaultValue) {
+        String value = options.get(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+}
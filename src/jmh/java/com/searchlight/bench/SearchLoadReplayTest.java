@@ -0,0 +1,99 @@
+package com.searchlight.bench;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SearchLoadReplayTest {
+    
+    @Test
+    void testUniformArrivalsAreEvenlySpaced() {
+        SearchLoadReplay.Arrivals arrivals = new SearchLoadReplay.Arrivals(200, null);
+        
+        assertThat(arrivals.next()).isZero();
+        assertThat(arrivals.next()).isEqualTo(5_000_000L);
+        assertThat(arrivals.next()).isEqualTo(10_000_000L);
+    }
+    
+    @Test
+    void testPoissonArrivalsKeepTheRequestedRate() {
+        SearchLoadReplay.Arrivals arrivals = new SearchLoadReplay.Arrivals(1000, new Random(7));
+        int count = 100_000;
+        long previous = arrivals.next();
+        boolean varied = false;
+        for (int i = 1; i < count; i++) {
+            long next = arrivals.next();
+            assertThat(next).isGreaterThanOrEqualTo(previous);
+            varied |= next - previous != 1_000_000L;
+            previous = next;
+        }
+        
+        // Mean gap of 1ms, but not a fixed one
+        assertThat(previous / (double) (count - 1)).isCloseTo(1_000_000.0, within(20_000.0));
+        assertThat(varied).isTrue();
+    }
+    
+    @Test
+    void testSuccessesAreMeasuredFromTheIntendedStart() {
+        SearchLoadReplay replay = new SearchLoadReplay(Map.of());
+        long intended = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(50);
+        
+        replay.execute((body, request) -> 200, "{}", null, intended, true);
+        replay.collectInterval(0, null);
+        
+        assertThat(replay.sent.get()).isEqualTo(1);
+        assertThat(replay.succeeded.get()).isEqualTo(1);
+        assertThat(replay.corrected.getTotalCount()).isEqualTo(1);
+        assertThat(replay.service.getTotalCount()).isEqualTo(1);
+        assertThat(replay.failed.getTotalCount()).isZero();
+        // The 50ms the request waited before sending counts against it, but not against service time
+        assertThat(replay.corrected.getMaxValue()).isGreaterThanOrEqualTo(50_000);
+        assertThat(replay.service.getMaxValue()).isLessThan(replay.corrected.getMaxValue());
+    }
+    
+    @Test
+    void testFailuresAndDropsGoToTheFailedHistogram() {
+        SearchLoadReplay replay = new SearchLoadReplay(Map.of());
+        long intended = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(20);
+        
+        replay.execute((body, request) -> 503, "{}", null, intended, true);
+        replay.execute((body, request) -> {
+            throw new HttpTimeoutException("timed out");
+        }, "{}", null, intended, true);
+        replay.execute((body, request) -> {
+            throw new IllegalStateException("boom");
+        }, "{}", null, intended, true);
+        replay.recordDropped(intended, true);
+        replay.collectInterval(0, null);
+        
+        assertThat(replay.sent.get()).isEqualTo(3);
+        assertThat(replay.succeeded.get()).isZero();
+        assertThat(replay.dropped.get()).isEqualTo(1);
+        assertThat(replay.corrected.getTotalCount()).isZero();
+        assertThat(replay.failed.getTotalCount()).isEqualTo(4);
+        assertThat(replay.failed.getMinValue()).isGreaterThanOrEqualTo(20_000);
+        assertThat(replay.errors).containsOnlyKeys("503", "timeout", "IllegalStateException");
+    }
+    
+    @Test
+    void testWarmupRequestsAreNotRecorded() {
+        SearchLoadReplay replay = new SearchLoadReplay(Map.of());
+        long intended = System.nanoTime();
+        
+        replay.execute((body, request) -> 200, "{}", null, intended, false);
+        replay.execute((body, request) -> 500, "{}", null, intended, false);
+        replay.recordDropped(intended, false);
+        replay.collectInterval(0, null);
+        
+        assertThat(replay.sent.get()).isZero();
+        assertThat(replay.dropped.get()).isZero();
+        assertThat(replay.corrected.getTotalCount() + replay.failed.getTotalCount()).isZero();
+        assertThat(replay.errors).isEmpty();
+    }
+}
@@ -0,0 +1,529 @@
+package com.searchlight.bench;
+
+import com.searchlight.app.BulkIndexBuilder;
+import com.searchlight.infra.index.SearchlightCodec;
+import com.searchlight.infra.index.SimilarityMode;
+import com.searchlight.infra.index.VectorQuantization;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Offline recall/latency evaluation of HNSW index configurations.
+ *
+ * Reads base and query vectors in the fvecs format used by the standard ANN datasets (SIFT,
+ * GIST, GloVe, ...), computes the exact top-k for every query by brute force, then builds one
+ * index per combination of M, efConstruction, quantization and similarity with
+ * {@link SearchlightCodec} and searches it at each efSearch. Indexes are reopened from disk, so
+ * searches go through the same codec lookup as the application.
+ *
+ * <pre>
+ * ./gradlew evalVectors --args="--base=sift_base.fvecs --queries=sift_query.fvecs --limit=100000 \
+ *     --m=8,16,32 --ef-construction=100,200 --quantization=NONE,INT8 --ef-search=10,50,100"
+ * </pre>
+ *
+ * "Search RAM" is the bytes HNSW search reads through mmap, the graph plus the vectors it scores
+ * ({@code .vex} + {@code .vec}, or {@code .veq} when quantized); latency assumes they are cached.
+ */
+@Slf4j
+public class VectorIndexEvaluator {
+    
+    private static final String USAGE = """
+            Usage: VectorIndexEvaluator --base=<fvecs> [options]
+              --queries=<fvecs>         query vectors (default: hold out --num-queries base vectors)
+              --num-queries=N           queries used (default: 1000)
+              --limit=N                 base vectors read (default: all)
+              --k=N                     neighbours compared for recall@k (default: 10)
+              --m=N[,N...]              HNSW max connections (default: 16)
+              --ef-construction=N[,N...] HNSW beam width while indexing (default: 100)
+              --quantization=Q[,Q...]   NONE, INT8, INT4 (default: NONE)
+              --similarity=S[,S...]     COSINE, DOT_PRODUCT, EUCLIDEAN (default: COSINE)
+              --ef-search=N[,N...]      candidates per search, at least k (default: 10,50,100)
+              --threads=N               indexing threads (default: available processors)
+              --search-threads=N        concurrent searches for QPS (default: 1)
+              --force-merge=N           segments after building; 0 keeps natural merging (default: 1)
+              --work-dir=<dir>          where indexes are built (default: a temp directory)
+              --keep-indexes            keep the built indexes instead of deleting them
+              --csv=<file>              also write the results as CSV
+            """;
+    
+    private static final String FIELD = "vector";
+    private static final String ORDINAL = "ord";
+    
+    /**
+     * One index build.
+     */
+    record Config(SimilarityMode similarity, VectorQuantization quantization, int m, int efConstruction) {
+        
+        String name() {
+            return similarity + "-" + quantization + "-m" + m + "-efc" + efConstruction;
+        }
+    }
+    
+    /**
+     * Search quality and cost of one configuration at one efSearch.
+     */
+    record Result(
+            Config config,
+            int efSearch,
+            double recall,
+            double qps,
+            double p50Ms,
+            double p99Ms,
+            double buildSeconds,
+            long diskBytes,
+            long searchBytes) {
+    }
+    
+    private final Map<String, String> options;
+    
+    VectorIndexEvaluator(Map<String, String> options) {
+        this.options = options;
+    }
+    
+    public static void main(String[] args) {
+        Map<String, String> options = BulkIndexBuilder.parseArgs(flagsWithValues(args));
+        if (options == null || !options.containsKey("base")) {
+            System.err.print(USAGE);
+            System.exit(2);
+        }
+        
+        try {
+            VectorIndexEvaluator evaluator = new VectorIndexEvaluator(options);
+            List<Result> results = evaluator.run();
+            evaluator.printTable(results, System.out);
+            if (options.containsKey("csv")) {
+                try (PrintStream csv = new PrintStream(Files.newOutputStream(Path.of(options.get("csv"))))) {
+                    evaluator.printCsv(results, csv);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Vector index evaluation failed", e);
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Build and search every configuration in the grid.
+     */
+    List<Result> run() throws Exception {
+        int numQueries = intOption("num-queries", 1000);
+        float[][] base = readFvecs(Path.of(options.get("base")), intOption("limit", 0));
+        float[][] queries;
+        if (options.containsKey("queries")) {
+            queries = readFvecs(Path.of(options.get("queries")), numQueries);
+        } else {
+            if (base.length <= numQueries) {
+                throw new IllegalArgumentException("Need more than " + numQueries + " base vectors to hold out queries");
+            }
+            queries = Arrays.copyOfRange(base, base.length - numQueries, base.length);
+            base = Arrays.copyOf(base, base.length - numQueries);
+        }
+        if (queries[0].length != base[0].length) {
+            throw new IllegalArgumentException("Query dimension " + queries[0].length
+                    + " does not match base dimension " + base[0].length);
+        }
+        
+        int k = intOption("k", 10);
+        List<Integer> efSearches = intList("ef-search", "10,50,100");
+        boolean keepIndexes = options.containsKey("keep-indexes");
+        Path workDir = options.containsKey("work-dir")
+                ? Files.createDirectories(Path.of(options.get("work-dir")))
+                : Files.createTempDirectory("searchlight-eval");
+        log.info("Evaluating {} base and {} query vectors of dimension {} in {}",
+                base.length, queries.length, base[0].length, workDir);
+        
+        List<Result> results = new ArrayList<>();
+        for (String similarityName : list("similarity", "COSINE")) {
+            SimilarityMode similarity = SimilarityMode.valueOf(similarityName.toUpperCase());
+            VectorSimilarityFunction function = function(similarity);
+            float[][] indexed = prepare(base, similarity);
+            float[][] targets = prepare(queries, similarity);
+            
+            long start = System.nanoTime();
+            int[][] truth = groundTruth(indexed, targets, k, function);
+            log.info("Exact top-{} for {} took {}s", k, similarity, String.format("%.1f", (System.nanoTime() - start) / 1e9));
+            
+            for (String quantizationName : list("quantization", "NONE")) {
+                for (int m : intList("m", "16")) {
+                    for (int efConstruction : intList("ef-construction", "100")) {
+                        Config config = new Config(similarity,
+                                VectorQuantization.valueOf(quantizationName.toUpperCase()), m, efConstruction);
+                        Path indexPath = workDir.resolve(config.name());
+                        try {
+                            results.addAll(evaluate(config, indexPath, indexed, targets, truth, k, efSearches));
+                        } finally {
+                            if (!keepIndexes) {
+                                deleteRecursively(indexPath);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (!keepIndexes && !options.containsKey("work-dir")) {
+            deleteRecursively(workDir);
+        }
+        return results;
+    }
+    
+    private List<Result> evaluate(Config config, Path indexPath, float[][] vectors, float[][] queries,
+                                  int[][] truth, int k, List<Integer> efSearches) throws Exception {
+        log.info("Building {}", config.name());
+        long start = System.nanoTime();
+        build(config, indexPath, vectors);
+        double buildSeconds = (System.nanoTime() - start) / 1e9;
+        long diskBytes = directorySize(indexPath);
+        long searchBytes = searchBytes(indexPath, config.quantization());
+        
+        List<Result> results = new ArrayList<>();
+        try (Directory directory = FSDirectory.open(indexPath);
+             DirectoryReader reader = DirectoryReader.open(directory)) {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            int[] ordinals = ordinals(reader);
+            
+            for (int efSearch : efSearches) {
+                int candidates = Math.max(k, efSearch);
+                // One untimed pass warms the JIT and the page cache
+                search(searcher, queries, k, candidates, new long[queries.length], new int[queries.length][]);
+                
+                long[] latencies = new long[queries.length];
+                int[][] hits = new int[queries.length][];
+                long wallNanos = search(searcher, queries, k, candidates, latencies, hits);
+                
+                double recall = 0;
+                for (int q = 0; q < queries.length; q++) {
+                    recall += recall(hits[q], ordinals, truth[q]);
+                }
+                Arrays.sort(latencies);
+                results.add(new Result(config, candidates, recall / queries.length,
+                        queries.length / (wallNanos / 1e9),
+                        percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6,
+                        buildSeconds, diskBytes, searchBytes));
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Index every vector with its ordinal, then merge down so search cost reflects the graph
+     * rather than the segment count.
+     */
+    private void build(Config config, Path indexPath, float[][] vectors) throws Exception {
+        TieredMergePolicy mergePolicy = new TieredMergePolicy();
+        // Separate files, so sizes can be attributed to the graph and the vectors
+        mergePolicy.setNoCFSRatio(0.0);
+        IndexWriterConfig writerConfig = new IndexWriterConfig()
+                .setCodec(new SearchlightCodec(config.m(), config.efConstruction(), config.quantization()))
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE)
+                .setRAMBufferSizeMB(intOption("ram-buffer-mb", 1024))
+                .setUseCompoundFile(false)
+                .setMergePolicy(mergePolicy);
+        VectorSimilarityFunction function = function(config.similarity());
+        int threads = intOption("threads", Runtime.getRuntime().availableProcessors());
+        int forceMerge = intOption("force-merge", 1);
+        
+        try (Directory directory = FSDirectory.open(indexPath);
+             IndexWriter writer = new IndexWriter(directory, writerConfig)) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                AtomicInteger next = new AtomicInteger();
+                List<Future<?>> workers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    workers.add(pool.submit(() -> {
+                        for (int i = next.getAndIncrement(); i < vectors.length; i = next.getAndIncrement()) {
+                            Document doc = new Document();
+                            doc.add(new KnnFloatVectorField(FIELD, vectors[i], function));
+                            doc.add(new NumericDocValuesField(ORDINAL, i));
+                            writer.addDocument(doc);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+            if (forceMerge > 0) {
+                writer.forceMerge(forceMerge);
+            }
+            writer.commit();
+        }
+    }
+    
+    /**
+     * Run every query once, recording per-query latency and the top-k doc ids.
+     *
+     * @return wall-clock nanoseconds for all queries
+     */
+    private long search(IndexSearcher searcher, float[][] queries, int k, int candidates,
+                        long[] latencies, int[][] hits) throws Exception {
+        int threads = intOption("search-threads", 1);
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    for (int q = next.getAndIncrement(); q < queries.length; q = next.getAndIncrement()) {
+                        long queryStart = System.nanoTime();
+                        TopDocs topDocs = searcher.search(new KnnFloatVectorQuery(FIELD, queries[q], candidates), k);
+                        latencies[q] = System.nanoTime() - queryStart;
+                        int[] docs = new int[topDocs.scoreDocs.length];
+                        for (int i = 0; i < docs.length; i++) {
+                            docs[i] = topDocs.scoreDocs[i].doc;
+                        }
+                        hits[q] = docs;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return System.nanoTime() - start;
+    }
+    
+    /**
+     * Exact top-k vector ordinals per query, best first, by scoring every base vector.
+     */
+    static int[][] groundTruth(float[][] vectors, float[][] queries, int k, VectorSimilarityFunction function) {
+        int[][] truth = new int[queries.length][];
+        IntStream.range(0, queries.length).parallel().forEach(q -> {
+            // Min-heap on score; ties keep the lower ordinal, like HNSW results sorted by doc
+            PriorityQueue<ScoreDoc> top = new PriorityQueue<>(k + 1,
+                    Comparator.<ScoreDoc>comparingDouble(hit -> hit.score).thenComparing(hit -> -hit.doc));
+            for (int i = 0; i < vectors.length; i++) {
+                float score = function.compare(queries[q], vectors[i]);
+                if (top.size() < k) {
+                    top.add(new ScoreDoc(i, score));
+                } else if (score > top.peek().score) {
+                    top.poll();
+                    top.add(new ScoreDoc(i, score));
+                }
+            }
+            int[] ordinals = new int[top.size()];
+            for (int i = ordinals.length - 1; i >= 0; i--) {
+                ordinals[i] = top.poll().doc;
+            }
+            truth[q] = ordinals;
+        });
+        return truth;
+    }
+    
+    private static double recall(int[] docs, int[] ordinals, int[] truth) {
+        int found = 0;
+        for (int doc : docs) {
+            int ordinal = ordinals[doc];
+            for (int expected : truth) {
+                if (expected == ordinal) {
+                    found++;
+                    break;
+                }
+            }
+        }
+        return truth.length == 0 ? 1.0 : (double) found / truth.length;
+    }
+    
+    /**
+     * Vector ordinal of every doc id.
+     */
+    private static int[] ordinals(DirectoryReader reader) throws IOException {
+        int[] ordinals = new int[reader.maxDoc()];
+        for (LeafReaderContext leaf : reader.leaves()) {
+            NumericDocValues values = leaf.reader().getNumericDocValues(ORDINAL);
+            for (int doc = values.nextDoc(); doc != NumericDocValues.NO_MORE_DOCS; doc = values.nextDoc()) {
+                ordinals[leaf.docBase + doc] = (int) values.longValue();
+            }
+        }
+        return ordinals;
+    }
+    
+    /**
+     * Copies normalized to unit length where the similarity requires it.
+     */
+    private static float[][] prepare(float[][] vectors, SimilarityMode similarity) {
+        if (similarity != SimilarityMode.DOT_PRODUCT) {
+            return vectors;
+        }
+        float[][] normalized = new float[vectors.length][];
+        for (int i = 0; i < vectors.length; i++) {
+            float[] vector = vectors[i].clone();
+            double norm = 0;
+            for (float v : vector) {
+                norm += v * v;
+            }
+            float scale = norm > 0 ? (float) (1 / Math.sqrt(norm)) : 0;
+            for (int j = 0; j < vector.length; j++) {
+                vector[j] *= scale;
+            }
+            normalized[i] = vector;
+        }
+        return normalized;
+    }
+    
+    private static VectorSimilarityFunction function(SimilarityMode similarity) {
+        return switch (similarity) {
+            case COSINE -> VectorSimilarityFunction.COSINE;
+            case DOT_PRODUCT -> VectorSimilarityFunction.DOT_PRODUCT;
+            case EUCLIDEAN -> VectorSimilarityFunction.EUCLIDEAN;
+        };
+    }
+    
+    /**
+     * Read vectors in fvecs format: per vector a little-endian int32 dimension, then the floats.
+     *
+     * @param limit maximum vectors to read; 0 reads the whole file
+     */
+    static float[][] readFvecs(Path file, int limit) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            int dimension = header.getInt(0);
+            if (dimension <= 0) {
+                throw new IOException("Not an fvecs file: " + file);
+            }
+            long recordBytes = Integer.BYTES + (long) Float.BYTES * dimension;
+            long available = channel.size() / recordBytes;
+            int count = (int) (limit > 0 ? Math.min(limit, available) : available);
+            
+            float[][] vectors = new float[count][dimension];
+            ByteBuffer record = ByteBuffer.allocate((int) recordBytes).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < count; i++) {
+                record.clear();
+                readFully(channel, record, i * recordBytes);
+                if (record.getInt(0) != dimension) {
+                    throw new IOException("Vector " + i + " of " + file + " has dimension " + record.getInt(0));
+                }
+                record.position(Integer.BYTES);
+                record.asFloatBuffer().get(vectors[i]);
+            }
+            return vectors;
+        }
+    }
+    
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+    
+    private static long searchBytes(Path indexPath, VectorQuantization quantization) throws IOException {
+        String vectorExtension = quantization == VectorQuantization.NONE ? ".vec" : ".veq";
+        try (Stream<Path> files = Files.list(indexPath)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.endsWith(".vex") || name.endsWith(vectorExtension);
+            }).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+    
+    private static long directorySize(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+    
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+    
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+    
+    void printTable(List<Result> results, PrintStream out) {
+        int k = intOption("k", 10);
+        out.printf("%-11s %-5s %4s %5s %5s %9s %9s %8s %8s %9s %9s %11s%n", "similarity", "quant", "M", "efC",
+                "efS", "recall@" + k, "QPS", "p50 ms", "p99 ms", "build s", "disk MB", "search MB");
+        for (Result r : results) {
+            out.printf("%-11s %-5s %4d %5d %5d %9.4f %9.0f %8.3f %8.3f %9.1f %9.1f %11.1f%n",
+                    r.config().similarity(), r.config().quantization(), r.config().m(), r.config().efConstruction(),
+                    r.efSearch(), r.recall(), r.qps(), r.p50Ms(), r.p99Ms(), r.buildSeconds(),
+                    r.diskBytes() / (1024.0 * 1024.0), r.searchBytes() / (1024.0 * 1024.0));
+        }
+    }
+    
+    void printCsv(List<Result> results, PrintStream out) {
+        out.println("similarity,quantization,m,ef_construction,ef_search,recall,qps,p50_ms,p99_ms,"
+                + "build_seconds,disk_bytes,search_bytes");
+        for (Result r : results) {
+            out.printf("%s,%s,%d,%d,%d,%.5f,%.1f,%.4f,%.4f,%.2f,%d,%d%n",
+                    r.config().similarity(), r.config().quantization(), r.config().m(), r.config().efConstruction(),
+                    r.efSearch(), r.recall(), r.qps(), r.p50Ms(), r.p99Ms(), r.buildSeconds(),
+                    r.diskBytes(), r.searchBytes());
+        }
+    }
+    
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+    
+    private List<String> list(String name, String defaultValue) {
+        return Arrays.stream(options.getOrDefault(name, defaultValue).split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .toList();
+    }
+    
+    private List<Integer> intList(String name, String defaultValue) {
+        return list(name, defaultValue).stream().map(Integer::parseInt).toList();
+    }
+    
+    /**
+     * Give bare flags such as {@code --keep-indexes} a value so they parse like the other options.
+     */
+    private static String[] flagsWithValues(String[] args) {
+        return Arrays.stream(args)
+                .map(arg -> arg.equals("--keep-indexes") ? arg + "=true" : arg)
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,79 @@
+package com.searchlight.bench;
+
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VectorIndexEvaluatorTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testReadsFvecs() throws Exception {
+        float[][] vectors = {{1, 2, 3}, {-4, 5.5f, 0}, {7, 8, 9}};
+        Path file = writeFvecs(vectors);
+        
+        assertThat(VectorIndexEvaluator.readFvecs(file, 0)).isDeepEqualTo(vectors);
+        assertThat(VectorIndexEvaluator.readFvecs(file, 2)).isDeepEqualTo(new float[][] {vectors[0], vectors[1]});
+        assertThat(VectorIndexEvaluator.readFvecs(file, 10)).hasNumberOfRows(3);
+    }
+    
+    @Test
+    void testRejectsMixedDimensions() throws Exception {
+        Path file = writeFvecs(new float[][] {{1, 2}, {3, 4}});
+        // Second record claims three dimensions
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putInt(12, 3);
+        Files.write(file, bytes.array());
+        
+        assertThatThrownBy(() -> VectorIndexEvaluator.readFvecs(file, 0))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Vector 1");
+    }
+    
+    @Test
+    void testGroundTruthIsExactTopKBestFirst() {
+        float[][] vectors = {{0, 0}, {1, 0}, {2, 0}, {3, 0}, {10, 0}};
+        float[][] queries = {{2.9f, 0}, {-1, 0}};
+        
+        int[][] truth = VectorIndexEvaluator.groundTruth(vectors, queries, 3, VectorSimilarityFunction.EUCLIDEAN);
+        
+        assertThat(truth[0]).containsExactly(3, 2, 1);
+        assertThat(truth[1]).containsExactly(0, 1, 2);
+    }
+    
+    @Test
+    void testGroundTruthReturnsAllWhenKExceedsVectors() {
+        float[][] vectors = {{1, 0}, {0, 1}};
+        float[][] queries = {{0.2f, 1}};
+        
+        int[][] truth = VectorIndexEvaluator.groundTruth(vectors, queries, 5, VectorSimilarityFunction.DOT_PRODUCT);
+        
+        assertThat(truth[0]).containsExactly(1, 0);
+    }
+    
+    private Path writeFvecs(float[][] vectors) throws IOException {
+        int dimension = vectors[0].length;
+        ByteBuffer bytes = ByteBuffer.allocate(vectors.length * (Integer.BYTES + Float.BYTES * dimension))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (float[] vector : vectors) {
+            bytes.putInt(dimension);
+            for (float value : vector) {
+                bytes.putFloat(value);
+            }
+        }
+        Path file = tempDir.resolve("vectors.fvecs");
+        Files.write(file, bytes.array());
+        return file;
+    }
+}
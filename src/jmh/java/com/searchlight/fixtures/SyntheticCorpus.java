@@ -0,0 +1,190 @@
+package com.searchlight.fixtures;
+
+import com.searchlight.domain.model.DocumentChunk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic text, HTML and chunks for the benchmarks.
+ *
+ * Word ranks follow a Zipf distribution over a fixed vocabulary, so common terms match many
+ * documents and rare ones few, roughly like real text under BM25; a larger vocabulary or a smaller
+ * exponent means more distinct terms per document and bigger postings. The static methods use a
+ * default corpus; an instance configures vocabulary size, exponent and document lengths, and its
+ * document {@code i} only depends on the seed and {@code i}, so every run and thread sees the same.
+ */
+public final class SyntheticCorpus {
+    
+    /**
+     * Document length in words.
+     */
+    @FunctionalInterface
+    public interface LengthDistribution {
+        
+        int sample(Random random);
+        
+        static LengthDistribution fixed(int words) {
+            return random -> words;
+        }
+        
+        static LengthDistribution uniform(int minWords, int maxWords) {
+            return random -> minWords + random.nextInt(maxWords - minWords + 1);
+        }
+        
+        /**
+         * Log-normal around a median, as article lengths roughly are, clipped to [min, max].
+         */
+        static LengthDistribution logNormal(int medianWords, double sigma, int minWords, int maxWords) {
+            return random -> (int) Math.max(minWords,
+                    Math.min(maxWords, Math.round(medianWords * Math.exp(sigma * random.nextGaussian()))));
+        }
+    }
+    
+    private static final SyntheticCorpus DEFAULT = new SyntheticCorpus(1, 5000, 1.0, LengthDistribution.fixed(200));
+    
+    private final long seed;
+    private final String[] vocabulary;
+    private final double[] cumulative;
+    private final LengthDistribution lengths;
+    
+    public SyntheticCorpus(long seed, int vocabularySize, double zipfExponent, LengthDistribution lengths) {
+        this.seed = seed;
+        this.vocabulary = vocabulary(new Random(seed), vocabularySize);
+        this.cumulative = new double[vocabularySize];
+        double sum = 0;
+        for (int rank = 0; rank < vocabularySize; rank++) {
+            sum += 1 / Math.pow(rank + 1, zipfExponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < vocabularySize; rank++) {
+            cumulative[rank] /= sum;
+        }
+        this.lengths = lengths;
+    }
+    
+    /**
+     * Text of document {@code index}, with a length drawn from the corpus's distribution.
+     */
+    public String document(int index) {
+        Random random = new Random(seed * 1_000_003 + index);
+        return nextText(random, lengths.sample(random));
+    }
+    
+    /**
+     * One vocabulary word drawn by Zipf rank.
+     */
+    public String nextWord(Random random) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        return vocabulary[Math.min(rank < 0 ? -rank - 1 : rank, vocabulary.length - 1)];
+    }
+    
+    /**
+     * Running text with sentence and paragraph breaks.
+     */
+    public String nextText(Random random, int words) {
+        StringBuilder text = new StringBuilder(words * 7);
+        for (int i = 0; i < words; i++) {
+            text.append(nextWord(random));
+            int punctuation = random.nextInt(100);
+            if (punctuation < 6) {
+                text.append(". ");
+            } else if (punctuation < 7) {
+                text.append(".\n\n");
+            } else {
+                text.append(' ');
+            }
+        }
+        return text.toString();
+    }
+    
+    /**
+     * One word of the default corpus; low ranks are much more likely.
+     */
+    public static String word(Random random) {
+        return DEFAULT.nextWord(random);
+    }
+    
+    /**
+     * Running text of the default corpus.
+     */
+    public static String text(Random random, int words) {
+        return DEFAULT.nextText(random, words);
+    }
+    
+    /**
+     * A space-separated query of the given number of words.
+     */
+    public static String query(Random random, int words) {
+        StringBuilder query = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                query.append(' ');
+            }
+            query.append(word(random));
+        }
+        return query.toString();
+    }
+    
+    /**
+     * Chunks of the given length with unit vectors, built through {@link SampleDocs}. Ids run
+     * from {@code synthetic-<first>}, so batches with distinct ranges do not replace each other.
+     */
+    public static List<DocumentChunk> chunks(Random random, int first, int count, int words, int dimension) {
+        List<DocumentChunk> chunks = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            chunks.add(SampleDocs.createSampleChunk("synthetic-" + i, text(random, words),
+                    SampleDocs.createNormalizedVector(dimension, random.nextInt())));
+        }
+        return chunks;
+    }
+    
+    /**
+     * A news-style article page with the boilerplate the cleaner has to skip.
+     */
+    public static String articleHtml(Random random, int paragraphs, int wordsPerParagraph) {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html><html><head><title>").append(query(random, 6)).append("</title>");
+        html.append("<style>body { font-family: sans-serif; } .nav a { color: #333; }</style>");
+        html.append("<script>window.dataLayer = window.dataLayer || []; dataLayer.push({page: 'article'});</script>");
+        html.append("</head><body><header><nav class=\"nav\">");
+        for (int i = 0; i < 20; i++) {
+            html.append("<a href=\"/section/").append(i).append("\">").append(word(random)).append("</a>");
+        }
+        html.append("</nav></header><main><article><h1>").append(query(random, 8)).append("</h1>");
+        for (int i = 0; i < paragraphs; i++) {
+            html.append("<p>").append(text(random, wordsPerParagraph));
+            if (i % 3 == 0) {
+                html.append(" <a href=\"/related/").append(i).append("\">").append(word(random)).append("</a>");
+                html.append(" <em>").append(query(random, 3)).append("</em>");
+            }
+            html.append("</p>");
+            if (i % 5 == 4) {
+                html.append("<h2>").append(query(random, 4)).append("</h2>");
+            }
+        }
+        html.append("</article><aside><ul>");
+        for (int i = 0; i < 10; i++) {
+            html.append("<li>").append(query(random, 5)).append("</li>");
+        }
+        html.append("</ul></aside></main><footer><p>&copy; Example News</p></footer>");
+        html.append("<script src=\"/static/app.js\"></script></body></html>");
+        return html.toString();
+    }
+    
+    private static String[] vocabulary(Random random, int size) {
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            // Frequent words are short, as in natural language; the rank suffix keeps every word distinct
+            int length = 2 + random.nextInt(3 + Math.min(i / 500, 8));
+            char[] letters = new char[length];
+            for (int j = 0; j < length; j++) {
+                letters[j] = (char) ('a' + random.nextInt(26));
+            }
+            words[i] = new String(letters) + Integer.toString(i, 36);
+        }
+        return words;
+    }
+}
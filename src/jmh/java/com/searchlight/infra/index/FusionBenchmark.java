@@ -0,0 +1,106 @@
+package com.searchlight.infra.index;
+
+import com.searchlight.domain.model.SearchQuery;
+import com.searchlight.domain.model.SearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Score normalization and late fusion of the BM25 and KNN candidate lists, without the index.
+ *
+ * Both steps overwrite scores in place, so every invocation first restores the original scores;
+ * the restore is a plain loop over the lists and is small next to the fusion itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FusionBenchmark {
+    
+    /**
+     * Candidates per leg; the search fetches max(2 * topK, 100).
+     */
+    @Param({"100", "1000"})
+    int candidates;
+    
+    /**
+     * Fraction of KNN candidates that BM25 also returned.
+     */
+    @Param({"0.5"})
+    double overlap;
+    
+    private List<SearchResult> bm25;
+    private List<SearchResult> knn;
+    private float[] bm25Scores;
+    private float[] knnScores;
+    private SearchQuery query;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        bm25 = new ArrayList<>(candidates);
+        knn = new ArrayList<>(candidates);
+        bm25Scores = new float[candidates];
+        knnScores = new float[candidates];
+        
+        for (int i = 0; i < candidates; i++) {
+            bm25Scores[i] = 2 + random.nextFloat() * 18;
+            bm25.add(result("doc-" + i));
+        }
+        int shared = (int) (candidates * overlap);
+        for (int i = 0; i < candidates; i++) {
+            knnScores[i] = 0.5f + random.nextFloat() * 0.5f;
+            knn.add(result(i < shared ? "doc-" + i : "knn-" + i));
+        }
+        query = SearchQuery.builder().queryText("benchmark").topK(10).alpha(0.5f).offset(0).build();
+    }
+    
+    @Benchmark
+    public List<SearchResult> normalizeScores() {
+        restore(bm25, bm25Scores);
+        LuceneSearcher.normalizeScores(bm25);
+        return bm25;
+    }
+    
+    @Benchmark
+    public List<SearchResult> fuse() {
+        restore(bm25, bm25Scores);
+        restore(knn, knnScores);
+        return LuceneSearcher.fuse(bm25, knn, query);
+    }
+    
+    private static void restore(List<SearchResult> results, float[] scores) {
+        for (int i = 0; i < scores.length; i++) {
+            results.get(i).setScore(scores[i]);
+        }
+    }
+    
+    private static SearchResult result(String id) {
+        return SearchResult.builder()
+                .id(id)
+                .sourceId("source-" + id)
+                .title("Title " + id)
+                .url("https://example.com/" + id)
+                .snippet("Snippet of " + id)
+                .source("benchmark")
+                .metadata(new HashMap<>())
+                .build();
+    }
+}
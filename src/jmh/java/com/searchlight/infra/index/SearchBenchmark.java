@@ -0,0 +1,132 @@
+package com.searchlight.infra.index;
+
+import com.searchlight.domain.model.SearchQuery;
+import com.searchlight.domain.model.SearchResult;
+import com.searchlight.fixtures.SampleDocs;
+import com.searchlight.fixtures.SyntheticCorpus;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TopDocs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end hybrid, keyword and vector search over a synthetic corpus plus the {@link SampleDocs}
+ * fixtures, and stored-field loading ({@code convertToResults}) on its own.
+ *
+ * Queries rotate through a fixed set so the benchmark does not measure one hot posting list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    
+    private static final int DIMENSION = 384;
+    private static final int QUERIES = 64;
+    
+    @Param({"10000"})
+    int documents;
+    
+    @Param({"10"})
+    int topK;
+    
+    private Path indexDir;
+    private LuceneIndexer indexer;
+    private LuceneSearcher searcher;
+    private IndexSearcher indexSearcher;
+    private String[] texts;
+    private float[][] vectors;
+    private TopDocs keywordHits;
+    private int next;
+    
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        indexDir = Files.createTempDirectory("searchlight-bench");
+        indexer = new LuceneIndexer(indexDir.toString(), DIMENSION, SimilarityMode.COSINE, 16, 100);
+        indexer.initialize();
+        indexer.indexBatch(SampleDocs.createSampleDocuments(DIMENSION));
+        for (int offset = 0; offset < documents; offset += 1000) {
+            indexer.indexBatch(SyntheticCorpus.chunks(random, offset, Math.min(1000, documents - offset), 200, DIMENSION));
+        }
+        indexer.commit();
+        indexer.forceMerge(1, true);
+        indexer.refresh();
+        searcher = new LuceneSearcher(indexer, DIMENSION);
+        
+        texts = new String[QUERIES];
+        vectors = new float[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            texts[i] = SyntheticCorpus.query(random, 3);
+            vectors[i] = SampleDocs.createNormalizedVector(DIMENSION, random.nextInt());
+        }
+        
+        indexSearcher = indexer.getSearcherManager().acquire();
+        QueryParser parser = new QueryParser("content", new StandardAnalyzer());
+        keywordHits = indexSearcher.search(parser.parse(QueryParser.escape(texts[0])), 100);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        indexer.getSearcherManager().release(indexSearcher);
+        searcher.close();
+        indexer.close();
+        try (Stream<Path> files = Files.walk(indexDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+    
+    @Benchmark
+    public List<SearchResult> hybrid() {
+        return search(0.5f);
+    }
+    
+    @Benchmark
+    public List<SearchResult> keyword() {
+        return search(0.0f);
+    }
+    
+    @Benchmark
+    public List<SearchResult> vector() {
+        return search(1.0f);
+    }
+    
+    @Benchmark
+    public List<SearchResult> convertToResults() throws IOException {
+        return searcher.convertToResults(indexSearcher, keywordHits);
+    }
+    
+    private List<SearchResult> search(float alpha) {
+        int i = next++ & (QUERIES - 1);
+        return searcher.search(SearchQuery.builder()
+                .queryText(texts[i])
+                .queryVector(vectors[i])
+                .topK(topK)
+                .alpha(alpha)
+                .offset(0)
+                .build());
+    }
+}
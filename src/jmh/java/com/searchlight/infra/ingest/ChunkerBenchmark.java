@@ -0,0 +1,83 @@
+package com.searchlight.infra.ingest;
+
+import com.searchlight.fixtures.SyntheticCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Word chunking of an article-sized and a book-sized document: offset spans, materialized chunk
+ * strings, and the split/StringBuilder chunker that {@link Chunker} replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkerBenchmark {
+    
+    @Param({"2000", "1600000"})
+    int words;
+    
+    private final Chunker chunker = new Chunker(512, 50);
+    private String text;
+    
+    @Setup
+    public void setUp() {
+        text = SyntheticCorpus.text(new Random(7), words);
+    }
+    
+    @Benchmark
+    public List<Chunker.Span> split() {
+        return chunker.split(text);
+    }
+    
+    @Benchmark
+    public List<String> chunk() {
+        return chunker.chunk(text);
+    }
+    
+    @Benchmark
+    public List<String> legacySplit() {
+        return legacyChunk(text, 512, 50);
+    }
+    
+    /**
+     * The word chunker {@link Chunker} replaced, kept as a reference point.
+     */
+    private static List<String> legacyChunk(String text, int chunkSize, int chunkOverlap) {
+        List<String> chunks = new ArrayList<>();
+        String[] words = text.split("\\s+");
+        int start = 0;
+        while (start < words.length) {
+            int end = Math.min(start + chunkSize, words.length);
+            StringBuilder chunk = new StringBuilder();
+            for (int i = start; i < end; i++) {
+                if (i > start) {
+                    chunk.append(" ");
+                }
+                chunk.append(words[i]);
+            }
+            chunks.add(chunk.toString());
+            start += chunkSize - chunkOverlap;
+            if (start >= words.length) {
+                break;
+            }
+        }
+        return chunks;
+    }
+}
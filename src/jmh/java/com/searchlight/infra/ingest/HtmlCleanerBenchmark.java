@@ -0,0 +1,60 @@
+package com.searchlight.infra.ingest;
+
+import com.searchlight.fixtures.SyntheticCorpus;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTML cleaning of a synthetic article page: parsing alone, text extraction from a parsed
+ * document, and {@link HtmlCleaner#clean(String)} doing both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlCleanerBenchmark {
+    
+    @Param({"10", "200"})
+    int paragraphs;
+    
+    private final HtmlCleaner cleaner = new HtmlCleaner();
+    private String html;
+    private Document document;
+    
+    @Setup
+    public void setUp() {
+        html = SyntheticCorpus.articleHtml(new Random(11), paragraphs, 80);
+        document = Jsoup.parse(html);
+    }
+    
+    @Benchmark
+    public Document parse() {
+        return Jsoup.parse(html);
+    }
+    
+    @Benchmark
+    public HtmlCleaner.Extracted extract() {
+        return cleaner.extract(document);
+    }
+    
+    @Benchmark
+    public String clean() {
+        return cleaner.clean(html);
+    }
+}
@@ -0,0 +1,168 @@
+package com.searchlight.api.admission;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts with additive increase, multiplicative decrease (AIMD).
+ *
+ * Each request holds a number of slots proportional to its cost while it runs. A request that
+ * completes within the latency threshold while the limit was at least half used raises the limit
+ * by one; a slow or failed request multiplies it by the backoff ratio. Requests that find no free
+ * slots wait in a bounded FIFO queue for at most the given time, so excess load is turned away
+ * quickly instead of piling up behind a saturated index.
+ */
+public class AimdConcurrencyLimiter {
+    
+    /**
+     * Slots held by an admitted request, returned through {@link #release}.
+     */
+    public record Permit(int slots, long startNanos) {
+    }
+    
+    private static final class Waiter {
+        private final int slots;
+        private final Condition granted;
+        private Permit permit;
+        
+        Waiter(int slots, Condition granted) {
+            this.slots = slots;
+            this.granted = granted;
+        }
+    }
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final int queueSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                  long latencyThresholdMs, int queueSize) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.queueSize = queueSize;
+        this.limit = initialLimit;
+    }
+    
+    /**
+     * Take slots for a request, waiting in the queue if none are free.
+     *
+     * @param slots slots the request needs; capped at the current limit so it can always run alone
+     * @return the permit, or null if the queue is full, the wait timed out or the thread was interrupted
+     */
+    public Permit acquire(int slots, long maxWaitMs) {
+        lock.lock();
+        try {
+            int needed = Math.max(1, slots);
+            if (waiters.isEmpty() && fits(needed)) {
+                return grant(needed);
+            }
+            if (waiters.size() >= queueSize || maxWaitMs <= 0) {
+                return null;
+            }
+            
+            Waiter waiter = new Waiter(needed, lock.newCondition());
+            waiters.addLast(waiter);
+            long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+            try {
+                while (waiter.permit == null && remaining > 0) {
+                    remaining = waiter.granted.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (waiter.permit == null) {
+                    waiters.remove(waiter);
+                    // A large request leaving the head may unblock smaller ones behind it
+                    grantWaiters();
+                }
+            }
+            return waiter.permit;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Return a permit's slots and adjust the limit from the request's outcome.
+     *
+     * @param failed whether the request failed for a reason that suggests overload
+     */
+    public void release(Permit permit, boolean failed) {
+        long latencyNanos = System.nanoTime() - permit.startNanos();
+        lock.lock();
+        try {
+            boolean utilized = inFlight * 2 >= limit;
+            inFlight -= permit.slots();
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (utilized) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            grantWaiters();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getQueued() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private boolean fits(int slots) {
+        return inFlight + Math.min(slots, (int) limit) <= limit;
+    }
+    
+    private Permit grant(int slots) {
+        int granted = Math.min(slots, (int) limit);
+        inFlight += granted;
+        return new Permit(granted, System.nanoTime());
+    }
+    
+    private void grantWaiters() {
+        while (!waiters.isEmpty() && fits(waiters.peekFirst().slots)) {
+            Waiter waiter = waiters.pollFirst();
+            waiter.permit = grant(waiter.slots);
+            waiter.granted.signal();
+        }
+    }
+}
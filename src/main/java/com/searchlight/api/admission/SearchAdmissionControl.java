@@ -0,0 +1,121 @@
+package com.searchlight.api.admission;
+
+import com.searchlight.api.admission.AimdConcurrencyLimiter.Permit;
+import com.searchlight.api.admission.SearchCostModel.SearchCost;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for searches: a request takes slots of an adaptive concurrency limit in
+ * proportion to its estimated cost, and is shed when it cannot get them in time.
+ *
+ * Rejected requests should get 429 with {@code Retry-After}, so clients back off instead of
+ * retrying into a queue that is already full.
+ */
+@Component
+public class SearchAdmissionControl {
+    
+    private final boolean enabled;
+    private final AimdConcurrencyLimiter limiter;
+    private final long maxWaitMs;
+    private final int retryAfterSeconds;
+    private final DistributionSummary costSummary;
+    private final Timer waitTimer;
+    private final Counter queueFull;
+    private final Counter timedOut;
+    
+    public SearchAdmissionControl(
+            @Value("${searchlight.search.admission.enabled:true}") boolean enabled,
+            @Value("${searchlight.search.admission.initial-limit:20}") int initialLimit,
+            @Value("${searchlight.search.admission.min-limit:4}") int minLimit,
+            @Value("${searchlight.search.admission.max-limit:200}") int maxLimit,
+            @Value("${searchlight.search.admission.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${searchlight.search.admission.latency-threshold-ms:500}") long latencyThresholdMs,
+            @Value("${searchlight.search.admission.queue-size:100}") int queueSize,
+            @Value("${searchlight.search.admission.max-wait-ms:200}") long maxWaitMs,
+            @Value("${searchlight.search.admission.retry-after-seconds:1}") int retryAfterSeconds,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.limiter = new AimdConcurrencyLimiter(initialLimit, minLimit, maxLimit, backoffRatio,
+                latencyThresholdMs, queueSize);
+        this.maxWaitMs = maxWaitMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        
+        this.costSummary = DistributionSummary.builder("search.cost")
+                .description("Estimated cost of admitted and rejected searches, in default-search units")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("search.admission.wait")
+                .description("Time admitted searches waited for concurrency slots")
+                .register(meterRegistry);
+        this.queueFull = rejections(meterRegistry, "queue_full");
+        this.timedOut = rejections(meterRegistry, "timeout");
+        Gauge.builder("search.admission.limit", limiter, AimdConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit in slots")
+                .register(meterRegistry);
+        Gauge.builder("search.admission.inflight", limiter, AimdConcurrencyLimiter::getInFlight)
+                .description("Concurrency slots held by running searches")
+                .register(meterRegistry);
+        Gauge.builder("search.admission.queued", limiter, AimdConcurrencyLimiter::getQueued)
+                .description("Searches waiting for concurrency slots")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Admit a request, waiting up to {@code max-wait-ms} for slots.
+     *
+     * @return the permit to release when the request completes, or null if it was shed
+     */
+    public Permit admit(SearchCost cost) {
+        costSummary.record(cost.units());
+        if (!enabled) {
+            return new Permit(0, System.nanoTime());
+        }
+        long start = System.nanoTime();
+        Permit permit = limiter.acquire(slots(cost), maxWaitMs);
+        long waited = System.nanoTime() - start;
+        if (permit != null) {
+            waitTimer.record(waited, TimeUnit.NANOSECONDS);
+        } else if (waited < TimeUnit.MILLISECONDS.toNanos(maxWaitMs)) {
+            // Turned away without waiting out the timeout: the queue was full
+            queueFull.increment();
+        } else {
+            timedOut.increment();
+        }
+        return permit;
+    }
+    
+    /**
+     * Return a permit's slots. Failures and slow completions shrink the limit.
+     */
+    public void release(Permit permit, boolean failed) {
+        if (enabled) {
+            limiter.release(permit, failed);
+        }
+    }
+    
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+    
+    /**
+     * Slots for a request: one per default-search unit, at least one.
+     */
+    static int slots(SearchCost cost) {
+        return Math.max(1, (int) Math.ceil(cost.units()));
+    }
+    
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("search.admission.rejected")
+                .description("Searches shed by admission control")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
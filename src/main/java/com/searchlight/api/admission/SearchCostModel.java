@@ -0,0 +1,94 @@
+package com.searchlight.api.admission;
+
+import com.searchlight.api.dto.SearchRequest;
+import com.searchlight.infra.index.LuceneSearcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Estimates what a search request will cost before it runs, and rejects requests that are out of
+ * bounds.
+ *
+ * Cost grows with the candidates each leg fetches (and loads stored fields for), which is driven
+ * by {@code k + from}; with the number of legs, one for pure keyword or pure vector search and two
+ * for hybrid; and with filters, which make vector search visit more of the graph or fall back to
+ * exact search. One unit is a default hybrid search (k=10, from=0, no filters).
+ */
+@Component
+public class SearchCostModel {
+    
+    private static final int BASE_FETCH_SIZE = LuceneSearcher.fetchSize(10, 0);
+    
+    /**
+     * Estimated cost of one request.
+     *
+     * @param window {@code k + from}, the results the fused list must reach
+     * @param fetchSize candidates fetched by each leg
+     * @param legs retrievers that run: 1 for keyword or vector only, 2 for hybrid
+     * @param units cost relative to a default hybrid search
+     */
+    public record SearchCost(int window, int fetchSize, int legs, boolean filtered, double units) {
+    }
+    
+    private final int maxK;
+    private final int maxWindow;
+    private final double maxCost;
+    private final double filterWeight;
+    
+    public SearchCostModel(
+            @Value("${searchlight.search.admission.max-k:1000}") int maxK,
+            @Value("${searchlight.search.admission.max-window:2000}") int maxWindow,
+            @Value("${searchlight.search.admission.max-cost:50}") double maxCost,
+            @Value("${searchlight.search.admission.filter-weight:2.0}") double filterWeight) {
+        this.maxK = maxK;
+        this.maxWindow = maxWindow;
+        this.maxCost = maxCost;
+        this.filterWeight = filterWeight;
+    }
+    
+    /**
+     * A model with the endpoint's default limits, for tools that search without a Spring context.
+     */
+    public static SearchCostModel withDefaults() {
+        return new SearchCostModel(1000, 2000, 50, 2.0);
+    }
+    
+    /**
+     * Estimate the cost of a request.
+     *
+     * @throws IllegalArgumentException if k, from or alpha are out of range, or the estimate
+     *         exceeds the configured maximum
+     */
+    public SearchCost estimate(SearchRequest request) {
+        int k = request.getK() != null ? request.getK() : 10;
+        int from = request.getFrom() != null ? request.getFrom() : 0;
+        float alpha = request.getAlpha() != null ? request.getAlpha() : 0.5f;
+        if (k < 1 || k > maxK) {
+            throw new IllegalArgumentException("k must be between 1 and " + maxK + ", got " + k);
+        }
+        if (from < 0) {
+            throw new IllegalArgumentException("from must not be negative, got " + from);
+        }
+        if ((long) k + from > maxWindow) {
+            throw new IllegalArgumentException("k + from must not exceed " + maxWindow + ", got " + ((long) k + from));
+        }
+        if (alpha < 0 || alpha > 1) {
+            throw new IllegalArgumentException("alpha must be between 0 and 1, got " + alpha);
+        }
+        
+        boolean hasText = request.getQ() != null && !request.getQ().isBlank();
+        boolean keyword = hasText && alpha < 1;
+        boolean vector = (hasText || request.getVector() != null) && alpha > 0;
+        int legs = (keyword ? 1 : 0) + (vector ? 1 : 0);
+        boolean filtered = request.getFilters() != null
+                && (request.getFilters().getSource() != null || request.getFilters().getAfter() != null);
+        
+        int fetchSize = LuceneSearcher.fetchSize(k, from);
+        double units = (double) fetchSize / BASE_FETCH_SIZE * legs / 2 * (filtered ? filterWeight : 1);
+        if (units > maxCost) {
+            throw new IllegalArgumentException(String.format(
+                    "Estimated search cost %.1f exceeds the limit of %.1f; lower k or from", units, maxCost));
+        }
+        return new SearchCost(k + from, fetchSize, legs, filtered, units);
+    }
+}
@@ -1,17 +1,39 @@
 package com.searchlight.api.controller;
 
+import com.searchlight.api.dto.BulkImportResponse;
 import com.searchlight.api.dto.IngestRequest;
 import com.searchlight.api.dto.IngestResponse;
+import com.searchlight.domain.model.SourceDoc;
 import com.searchlight.domain.ports.Indexer;
+import com.searchlight.infra.index.IndexMaintenanceScheduler;
+import com.searchlight.infra.index.IndexStatsCollector;
+import com.searchlight.infra.index.LuceneIndexer;
+import com.searchlight.infra.ingest.BulkImportService;
+import com.searchlight.infra.ingest.FeedPollScheduler;
 import com.searchlight.infra.ingest.RssIngestService;
+import com.searchlight.infra.ingest.SitemapIngestService;
+import com.searchlight.infra.ingest.WarcIngestService;
+import com.searchlight.infra.observability.SlowQueryLog;
+import com.searchlight.infra.observability.jfr.JfrRecordingService;
+import com.searchlight.infra.store.SourceDocLog;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -23,6 +45,16 @@ public class AdminController {
     
     private final RssIngestService ingestService;
     private final Indexer indexer;
+    private final SourceDocLog sourceDocLog;
+    private final LuceneIndexer luceneIndexer;
+    private final IndexMaintenanceScheduler maintenanceScheduler;
+    private final BulkImportService bulkImportService;
+    private final WarcIngestService warcIngestService;
+    private final SitemapIngestService sitemapIngestService;
+    private final FeedPollScheduler feedPollScheduler;
+    private final SlowQueryLog slowQueryLog;
+    private final IndexStatsCollector indexStatsCollector;
+    private final JfrRecordingService jfrRecordingService;
     
     @PostMapping("/ingest")
     @Operation(summary = "Ingest documents from URLs or RSS feeds")
@@ -35,6 +67,10 @@ public class AdminController {
         try {
             if (request.getMode() == IngestRequest.IngestMode.RSS) {
                 documentsIngested = ingestService.ingestRssFeeds(request.getUrls());
+            } else if (request.getMode() == IngestRequest.IngestMode.WARC) {
+                documentsIngested = warcIngestService.ingestArchives(request.getUrls(), request.getSource());
+            } else if (request.getMode() == IngestRequest.IngestMode.SITEMAP) {
+                documentsIngested = sitemapIngestService.ingestSitemaps(request.getUrls(), request.getSource());
             } else {
                 documentsIngested = 0;
                 for (String url : request.getUrls()) {
@@ -45,15 +81,29 @@ public class AdminController {
             
             long timeMs = System.currentTimeMillis() - startTime;
             
+            // Every write above has completed, so this token gives read-your-writes via minSeq
             IngestResponse response = IngestResponse.builder()
                     .documentsIngested(documentsIngested)
                     .urlsProcessed(request.getUrls().size())
                     .timeMs(timeMs)
                     .status("success")
+                    .seq(indexer.getLatestSequence())
                     .build();
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected ingest request: {}", e.getMessage());
+            
+            IngestResponse response = IngestResponse.builder()
+                    .documentsIngested(0)
+                    .urlsProcessed(request.getUrls().size())
+                    .timeMs(System.currentTimeMillis() - startTime)
+                    .status("error: " + e.getMessage())
+                    .build();
+            
+            return ResponseEntity.badRequest().body(response);
+            
         } catch (Exception e) {
             log.error("Ingestion failed", e);
             long timeMs = System.currentTimeMillis() - startTime;
@@ -69,21 +119,74 @@ public class AdminController {
         }
     }
     
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE,
+            MediaType.TEXT_PLAIN_VALUE})
+    @Operation(summary = "Stream NDJSON document chunks with precomputed vectors into the index")
+    public ResponseEntity<BulkImportResponse> bulkImport(InputStream body) {
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            BulkImportService.Result result = bulkImportService.importNdjson(body);
+            
+            BulkImportResponse response = BulkImportResponse.builder()
+                    .linesRead(result.getLinesRead())
+                    .chunksIndexed(result.getChunksIndexed())
+                    .errors(result.getErrors())
+                    .errorDetails(result.getErrorDetails().stream()
+                            .map(error -> BulkImportResponse.LineError.builder()
+                                    .line(error.line())
+                                    .message(error.message())
+                                    .build())
+                            .toList())
+                    .timeMs(result.getTimeMs())
+                    .chunksPerSecond(result.getChunksIndexed() * 1000.0 / Math.max(result.getTimeMs(), 1))
+                    .seq(result.getSeq())
+                    .status(result.getErrors() == 0 ? "success" : "partial")
+                    .build();
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("Bulk import failed", e);
+            
+            BulkImportResponse response = BulkImportResponse.builder()
+                    .timeMs(System.currentTimeMillis() - startTime)
+                    .status("error: " + e.getMessage())
+                    .build();
+            
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
     @PostMapping("/reindex")
-    @Operation(summary = "Clear and rebuild the index")
+    @Operation(summary = "Clear and rebuild the index from the source document log")
     public ResponseEntity<Map<String, Object>> reindex() {
         log.info("Reindexing requested");
         
+        // Clearing is only safe when there is something to rebuild the index from
+        if (!sourceDocLog.isEnabled() || sourceDocLog.size() == 0) {
+            String reason = sourceDocLog.isEnabled()
+                    ? "Source document log is empty"
+                    : "Source document log is disabled (searchlight.doclog.enabled=false)";
+            log.warn("Reindex refused: {}", reason);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "status", "error",
+                    "message", reason + "; the index was left unchanged."
+            ));
+        }
+        
         try {
             long before = indexer.getDocumentCount();
             indexer.clearAll();
+            int replayed = ingestService.reindexFromLog();
             long after = indexer.getDocumentCount();
             
             return ResponseEntity.ok(Map.of(
                     "status", "success",
                     "documentsBefore", before,
                     "documentsAfter", after,
-                    "message", "Index cleared. Use /ingest to add documents."
+                    "sourcesReplayed", replayed,
+                    "message", "Index rebuilt from source document log."
             ));
             
         } catch (Exception e) {
@@ -95,12 +198,170 @@ public class AdminController {
         }
     }
     
+    @GetMapping("/sources")
+    @Operation(summary = "Look up the logged source document for a URL")
+    public ResponseEntity<SourceDoc> getSource(@RequestParam String url) {
+        return sourceDocLog.get(url)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/feeds")
+    @Operation(summary = "List polled feeds with their adaptive intervals and lag")
+    public ResponseEntity<List<FeedPollScheduler.FeedStatus>> getFeeds() {
+        return ResponseEntity.ok(feedPollScheduler.getFeeds());
+    }
+    
+    @PostMapping("/feeds")
+    @Operation(summary = "Register a feed for scheduled polling")
+    public ResponseEntity<Map<String, Object>> registerFeed(@RequestParam String url) {
+        if (!feedPollScheduler.isEnabled()) {
+            return feedPollingDisabled();
+        }
+        try {
+            boolean added = feedPollScheduler.register(url);
+            return ResponseEntity.status(added ? 201 : 200)
+                    .body(Map.of("status", added ? "registered" : "already registered", "url", url));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+        }
+    }
+    
+    @DeleteMapping("/feeds")
+    @Operation(summary = "Stop polling a feed")
+    public ResponseEntity<Map<String, Object>> unregisterFeed(@RequestParam String url) {
+        if (!feedPollScheduler.isEnabled()) {
+            return feedPollingDisabled();
+        }
+        return feedPollScheduler.unregister(url)
+                ? ResponseEntity.ok(Map.of("status", "unregistered", "url", url))
+                : ResponseEntity.notFound().build();
+    }
+    
+    @PostMapping("/feeds/poll")
+    @Operation(summary = "Poll a registered feed now")
+    public ResponseEntity<Map<String, Object>> pollFeed(@RequestParam String url) {
+        if (!feedPollScheduler.isEnabled()) {
+            return feedPollingDisabled();
+        }
+        return feedPollScheduler.pollNow(url)
+                ? ResponseEntity.accepted().body(Map.of("status", "scheduled", "url", url))
+                : ResponseEntity.notFound().build();
+    }
+    
+    @GetMapping("/merges")
+    @Operation(summary = "Show running segment merges and merge totals")
+    public ResponseEntity<Map<String, Object>> getMerges() {
+        Map<String, Object> maintenance = new LinkedHashMap<>();
+        maintenance.put("cron", maintenanceScheduler.getCron());
+        maintenance.put("running", maintenanceScheduler.isRunning());
+        maintenance.put("lastRun", maintenanceScheduler.getLastRun());
+        maintenance.put("nextRun", maintenanceScheduler.getNextRun());
+        
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("running", luceneIndexer.getRunningMerges());
+        body.put("completedMerges", luceneIndexer.getMergeScheduler().getCompletedMerges());
+        body.put("mergedBytes", (long) luceneIndexer.getMergeScheduler().getMergedBytes());
+        body.put("segmentCount", luceneIndexer.getSegmentCount());
+        body.put("maintenance", maintenance);
+        return ResponseEntity.ok(body);
+    }
+    
+    @PostMapping("/merges/force")
+    @Operation(summary = "Start a force-merge down to maxSegments in the background")
+    public ResponseEntity<Map<String, Object>> forceMerge(@RequestParam(defaultValue = "1") int maxSegments) {
+        if (maxSegments < 1) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "maxSegments must be >= 1"));
+        }
+        luceneIndexer.forceMerge(maxSegments, false);
+        return ResponseEntity.accepted().body(Map.of("status", "started", "maxSegments", maxSegments));
+    }
+    
+    @PostMapping("/merges/expunge-deletes")
+    @Operation(summary = "Start merging away deleted documents in the background")
+    public ResponseEntity<Map<String, Object>> expungeDeletes() {
+        luceneIndexer.expungeDeletes(false);
+        return ResponseEntity.accepted().body(Map.of("status", "started"));
+    }
+    
     @GetMapping("/stats")
     @Operation(summary = "Get index statistics")
     public ResponseEntity<Map<String, Object>> getStats() {
+        IndexStatsCollector.IndexStats stats = indexStatsCollector.getSnapshot();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("documentCount", indexer.getDocumentCount());
+        body.put("indexPath", luceneIndexer.getIndexPath().toString());
+        body.put("sourceDocuments", sourceDocLog.size());
+        body.put("segmentCount", stats.segmentCount());
+        body.put("sizeBytes", stats.sizeBytes());
+        body.put("deletedRatio", stats.deletedRatio());
+        body.put("vectorCount", stats.vectorCount());
+        body.put("vectorOffHeapBytes", stats.vectorOffHeapBytes());
+        body.put("readerAgeMs", stats.readerAgeMs());
+        return ResponseEntity.ok(body);
+    }
+    
+    @GetMapping("/stats/index")
+    @Operation(summary = "Detailed index internals: segments, bytes per file type, vector footprint, reader age")
+    public ResponseEntity<IndexStatsCollector.IndexStats> getIndexStats() {
+        return ResponseEntity.ok(indexStatsCollector.collect());
+    }
+    
+    @GetMapping("/slow-queries")
+    @Operation(summary = "Recent searches over the slow-query threshold, newest first")
+    public ResponseEntity<Map<String, Object>> getSlowQueries() {
         return ResponseEntity.ok(Map.of(
-                "documentCount", indexer.getDocumentCount(),
-                "indexPath", "data/index"
+                "enabled", slowQueryLog.isEnabled(),
+                "thresholdMs", slowQueryLog.getThresholdMs(),
+                "queries", slowQueryLog.getRecent()
         ));
     }
+    
+    @GetMapping("/jfr")
+    @Operation(summary = "Show the state of the on-demand Flight Recorder recording")
+    public ResponseEntity<Map<String, Object>> getJfrRecording() {
+        return ResponseEntity.ok(jfrRecordingService.status());
+    }
+    
+    @PostMapping("/jfr/start")
+    @Operation(summary = "Start a bounded Flight Recorder recording with the Searchlight events")
+    public ResponseEntity<Map<String, Object>> startJfrRecording(
+            @RequestParam(defaultValue = "60") long durationSeconds,
+            @RequestParam(defaultValue = "profile") String settings) {
+        if (durationSeconds < 1) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "durationSeconds must be >= 1"));
+        }
+        try {
+            return ResponseEntity.accepted().body(jfrRecordingService.start(Duration.ofSeconds(durationSeconds), settings));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("status", "error", "message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/jfr/stop")
+    @Operation(summary = "Stop the recording and download it as a .jfr file")
+    public ResponseEntity<StreamingResponseBody> stopJfrRecording() {
+        Path file = jfrRecordingService.stop();
+        if (file == null || !Files.exists(file)) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .body(body);
+    }
+    
+    private static ResponseEntity<Map<String, Object>> feedPollingDisabled() {
+        return ResponseEntity.status(409).body(Map.of("status", "error",
+                "message", "Feed polling is disabled (searchlight.ingest.poll.enabled=false)"));
+    }
 }
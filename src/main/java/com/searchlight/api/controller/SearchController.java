@@ -1,24 +1,32 @@
 package com.searchlight.api.controller;
 
+import com.searchlight.api.admission.AimdConcurrencyLimiter.Permit;
+import com.searchlight.api.admission.SearchAdmissionControl;
+import com.searchlight.api.admission.SearchCostModel;
 import com.searchlight.api.dto.SearchRequest;
 import com.searchlight.api.dto.SearchResponse;
 import com.searchlight.domain.model.DocumentChunk;
 import com.searchlight.domain.model.SearchQuery;
 import com.searchlight.domain.model.SearchResult;
+import com.searchlight.domain.model.SearchTimings;
 import com.searchlight.domain.ports.EmbeddingProvider;
 import com.searchlight.domain.ports.Searcher;
-import io.micrometer.core.instrument.Counter;
+import com.searchlight.domain.ports.SequenceNotVisibleException;
+import com.searchlight.infra.observability.SearchStageMetrics;
+import com.searchlight.infra.observability.SearchStageMetrics.Stage;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RestController
@@ -30,51 +38,55 @@ public class SearchController {
     private final Searcher searcher;
     private final EmbeddingProvider embeddingProvider;
     private final MeterRegistry meterRegistry;
+    private final SearchStageMetrics stageMetrics;
+    private final SearchCostModel costModel;
+    private final SearchAdmissionControl admissionControl;
     
     @PostMapping("/search")
     @Operation(summary = "Search documents", description = "Hybrid keyword + vector search")
     public ResponseEntity<SearchResponse> search(@RequestBody SearchRequest request) {
-        Timer.Sample sample = Timer.start(meterRegistry);
+        SearchStageMetrics.Measurement total = stageMetrics.startSearch();
+        SearchTimings timings = new SearchTimings();
         
         try {
-            // Build query
-            SearchQuery.SearchQueryBuilder queryBuilder = SearchQuery.builder()
-                    .topK(request.getK())
-                    .alpha(request.getAlpha())
-                    .offset(request.getFrom());
+            // Bound the request before doing any work for it
+            SearchCostModel.SearchCost cost = costModel.estimate(request);
             
-            // Add text query
-            if (request.getQ() != null && !request.getQ().isBlank()) {
-                queryBuilder.queryText(request.getQ());
-                
-                // Generate vector from text if no vector provided and alpha > 0
-                if (request.getVector() == null && request.getAlpha() > 0) {
-                    float[] vector = embeddingProvider.embed(request.getQ());
-                    queryBuilder.queryVector(vector);
+            // Embed the query text unless the request brought its own vector
+            float[] textVector = null;
+            if (request.needsEmbedding()) {
+                try (SearchStageMetrics.Measurement stage = stageMetrics.start(Stage.EMBED)) {
+                    textVector = embeddingProvider.embed(request.getQ());
+                    timings.setEmbedMs(stage.endMillis());
                 }
             }
+            SearchQuery query = request.toQuery(textVector, timings);
             
-            // Add explicit vector
-            if (request.getVector() != null) {
-                queryBuilder.queryVector(request.getVector());
+            // Wait for read-your-writes outside admission, so the wait neither holds slots nor
+            // counts as search latency for the limiter
+            if (query.getMinSeq() != null && query.getMinSeq() > 0) {
+                searcher.awaitSearchable(query.getMinSeq());
             }
             
-            // Add filters
-            if (request.getFilters() != null) {
-                if (request.getFilters().getSource() != null) {
-                    queryBuilder.sourceFilter(request.getFilters().getSource());
-                }
-                if (request.getFilters().getAfter() != null) {
-                    queryBuilder.afterDate(request.getFilters().getAfter());
-                }
+            // Hold concurrency slots, in proportion to the cost, only while the index is searched
+            Permit permit = admissionControl.admit(cost);
+            if (permit == null) {
+                log.warn("Shed search request with cost {}", cost.units());
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(admissionControl.getRetryAfterSeconds()))
+                        .build();
+            }
+            List<SearchResult> results;
+            boolean failed = true;
+            try {
+                results = searcher.search(query);
+                failed = false;
+            } finally {
+                admissionControl.release(permit, failed);
             }
             
-            SearchQuery query = queryBuilder.build();
-            
-            // Execute search
-            List<SearchResult> results = searcher.search(query);
-            
-            long queryTimeMs = sample.stop(meterRegistry.timer("search.latency"));
+            long totalNanos = total.end();
+            timings.setTotalMs(totalNanos / 1_000_000.0);
             meterRegistry.counter("search.requests").increment();
             
             SearchResponse response = SearchResponse.builder()
@@ -82,20 +94,36 @@ public class SearchController {
                     .total(results.size())
                     .offset(request.getFrom())
                     .limit(request.getK())
-                    .queryTimeMs(queryTimeMs / 1_000_000) // Convert to ms
+                    .queryTimeMs(TimeUnit.NANOSECONDS.toMillis(totalNanos))
                     .query(SearchResponse.QueryInfo.builder()
                             .text(request.getQ())
                             .hasVector(request.getVector() != null || request.getQ() != null)
                             .alpha(request.getAlpha())
                             .build())
+                    .timings(request.isDebug() ? timings : null)
                     .build();
             
             return ResponseEntity.ok(response);
             
+        } catch (SequenceNotVisibleException e) {
+            log.warn("Search gave up waiting for sequence {}", e.getSequence());
+            meterRegistry.counter("search.min_seq.timeouts").increment();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+            
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected search request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+            
         } catch (Exception e) {
             log.error("Search failed", e);
             meterRegistry.counter("search.errors").increment();
             throw e;
+            
+        } finally {
+            // No-op when the search completed; otherwise records the failed attempt
+            total.end();
         }
     }
     
@@ -0,0 +1,26 @@
+package com.searchlight.api.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BulkImportResponse {
+    private long linesRead;
+    private long chunksIndexed;
+    private long errors;
+    private List<LineError> errorDetails;
+    private long timeMs;
+    private double chunksPerSecond;
+    private long seq;
+    private String status;
+    
+    @Data
+    @Builder
+    public static class LineError {
+        private long line;
+        private String message;
+    }
+}
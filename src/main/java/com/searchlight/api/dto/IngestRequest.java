@@ -19,6 +19,10 @@ public class IngestRequest {
     
     public enum IngestMode {
         RSS,
-        URL
+        URL,
+        /** Local WARC archives, given as paths relative to searchlight.ingest.warc.dir */
+        WARC,
+        /** sitemap.xml or sitemap index URLs; listed pages are crawled */
+        SITEMAP
     }
 }
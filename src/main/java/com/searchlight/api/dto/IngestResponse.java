@@ -10,4 +10,5 @@ public class IngestResponse {
     private int urlsProcessed;
     private long timeMs;
     private String status;
+    private long seq;
 }
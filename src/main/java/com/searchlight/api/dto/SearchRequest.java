@@ -1,5 +1,7 @@
 package com.searchlight.api.dto;
 
+import com.searchlight.domain.model.SearchQuery;
+import com.searchlight.domain.model.SearchTimings;
 import lombok.Data;
 
 import java.time.Instant;
@@ -13,6 +15,38 @@ public class SearchRequest {
     private Float alpha = 0.5f;
     private Integer from = 0;
     private FilterParams filters;
+    private Long minSeq;
+    private boolean debug;
+    
+    /**
+     * Whether the query text has to be embedded: there is text, no explicit vector, and the
+     * vector leg runs.
+     */
+    public boolean needsEmbedding() {
+        return q != null && !q.isBlank() && vector == null && alpha > 0;
+    }
+    
+    /**
+     * Map to a domain query. An explicit vector wins over {@code textVector}, the embedding of the
+     * query text when {@link #needsEmbedding()} is true.
+     */
+    public SearchQuery toQuery(float[] textVector, SearchTimings timings) {
+        SearchQuery.SearchQueryBuilder query = SearchQuery.builder()
+                .topK(k)
+                .alpha(alpha)
+                .offset(from)
+                .minSeq(minSeq)
+                .timings(timings)
+                .queryVector(vector != null ? vector : textVector);
+        if (q != null && !q.isBlank()) {
+            query.queryText(q);
+        }
+        if (filters != null) {
+            query.sourceFilter(filters.getSource());
+            query.afterDate(filters.getAfter());
+        }
+        return query.build();
+    }
     
     @Data
     public static class FilterParams {
@@ -1,6 +1,8 @@
 package com.searchlight.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.searchlight.domain.model.SearchResult;
+import com.searchlight.domain.model.SearchTimings;
 import lombok.Builder;
 import lombok.Data;
 
@@ -16,6 +18,8 @@ public class SearchResponse {
     private int limit;
     private long queryTimeMs;
     private QueryInfo query;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private SearchTimings timings; // only with debug=true
     
     @Data
     @Builder
@@ -0,0 +1,366 @@
+package com.searchlight.app;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.searchlight.domain.model.DocumentChunk;
+import com.searchlight.domain.ports.EmbeddingProvider;
+import com.searchlight.infra.embeddings.HttpEmbeddingProvider;
+import com.searchlight.infra.embeddings.OnnxEmbeddingProvider;
+import com.searchlight.infra.embeddings.WordPieceTokenizer;
+import com.searchlight.infra.index.IndexSettings;
+import com.searchlight.infra.index.LuceneIndexer;
+import com.searchlight.infra.index.SimilarityMode;
+import com.searchlight.infra.index.VectorQuantization;
+import com.searchlight.infra.ingest.ChunkNdjsonReader;
+import com.searchlight.infra.ingest.Chunker;
+import com.searchlight.infra.ingest.HtmlCleaner;
+import com.searchlight.infra.ingest.NearDuplicateDetector;
+import com.searchlight.infra.ingest.RssIngestService;
+import com.searchlight.infra.observability.IngestMetrics;
+import com.searchlight.infra.store.SourceDocLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Offline index builder for initial loads and disaster recovery.
+ *
+ * Builds an index directory straight from an NDJSON chunk file (see {@link ChunkNdjsonReader}) or
+ * from a source-document log, without a Spring context or HTTP server. Work is spread over N
+ * writer threads sharing one IndexWriter with a large RAM buffer; commits and NRT refreshes are
+ * off until the end, followed by an optional force-merge.
+ *
+ * <pre>
+ * java -cp searchlight.jar -Dloader.main=com.searchlight.app.BulkIndexBuilder \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher \
+ *     --input=chunks.ndjson.gz --index=data/index-new --threads=16 --force-merge=1
+ * </pre>
+ *
+ * Or from a source tree: {@code ./gradlew bulkIndex --args="--input=data/doclog --format=doclog ..."}
+ */
+@Slf4j
+public class BulkIndexBuilder {
+
+    private static final String USAGE = """
+            Usage: BulkIndexBuilder --input=<file|dir> --index=<dir> [options]
+              --format=ndjson|doclog    input type (default: doclog for directories, ndjson otherwise)
+              --threads=N               writer threads (default: available processors)
+              --ram-buffer-mb=N         IndexWriter RAM buffer (default: 1024)
+              --batch-size=N            NDJSON chunks per writer batch (default: 500)
+              --force-merge=N           merge down to N segments at the end (default: off)
+              --dimension=N             vector dimension (default: 384)
+              --similarity=COSINE|DOT_PRODUCT|EUCLIDEAN (default: COSINE)
+              --hnsw-m=N                HNSW max connections (default: 16)
+              --hnsw-ef-construction=N  HNSW beam width (default: 100)
+              --quantization=NONE|INT8|INT4 scalar quantization of vectors (default: NONE)
+              --embedding=stub|http     doclog only: embedding provider (default: stub)
+              --embedding-url=URL       doclog only: HTTP embedding endpoint
+              --chunk-size=N            doclog only: words per chunk (default: 512)
+              --chunk-overlap=N         doclog only: overlapping words, or tokens with --chunk-vocab (default: 50)
+              --chunk-vocab=PATH        doclog only: WordPiece vocab.txt; chunks are sized in model tokens
+              --max-tokens=N            doclog only: model window with --chunk-vocab (default: 256)
+              --dedup=off|skip|link     doclog only: near-duplicate chunk handling (default: off)
+              --dedup-threshold=X       doclog only: estimated Jaccard similarity for a duplicate (default: 0.8)
+            """;
+
+    private final Map<String, String> options;
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong chunksIndexed = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    BulkIndexBuilder(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseArgs(args);
+        if (options == null || !options.containsKey("input") || !options.containsKey("index")) {
+            System.err.print(USAGE);
+            System.exit(2);
+        }
+
+        try {
+            new BulkIndexBuilder(options).run();
+        } catch (Exception e) {
+            log.error("Bulk index build failed", e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Build the index and print a summary.
+     */
+    void run() throws Exception {
+        Path input = Path.of(options.get("input"));
+        Path indexPath = Path.of(options.get("index"));
+        String format = options.getOrDefault("format", Files.isDirectory(input) ? "doclog" : "ndjson");
+        int threads = intOption("threads", Runtime.getRuntime().availableProcessors());
+        int forceMergeSegments = intOption("force-merge", 0);
+
+        if (!Files.exists(input)) {
+            throw new IllegalArgumentException("Input does not exist: " + input);
+        }
+        if (Files.isDirectory(indexPath)) {
+            try (Stream<Path> files = Files.list(indexPath)) {
+                if (files.findAny().isPresent()) {
+                    throw new IllegalArgumentException("Index directory is not empty: " + indexPath);
+                }
+            }
+        }
+
+        // Durability and visibility only matter at the end, so no group commits or refreshes
+        IndexSettings settings = IndexSettings.builder()
+                .commitIntervalMs(0)
+                .commitMaxPendingDocs(0)
+                .refreshIntervalMs(0)
+                .ramBufferSizeMb(doubleOption("ram-buffer-mb", 1024))
+                .indexingThreads(threads)
+                .vectorQuantization(VectorQuantization.valueOf(options.getOrDefault("quantization", "NONE").toUpperCase()))
+                .build();
+
+        LuceneIndexer indexer = new LuceneIndexer(
+                indexPath.toString(),
+                intOption("dimension", 384),
+                SimilarityMode.valueOf(options.getOrDefault("similarity", "COSINE").toUpperCase()),
+                intOption("hnsw-m", 16),
+                intOption("hnsw-ef-construction", 100),
+                settings,
+                meterRegistry);
+        indexer.initialize();
+
+        ThreadPoolExecutor pool = createPool(threads);
+        long start = System.nanoTime();
+        long records;
+        try {
+            log.info("Building index at {} from {} ({}) with {} threads", indexPath, input, format, threads);
+            records = switch (format) {
+                case "ndjson", "jsonl" -> buildFromNdjson(input, indexer, pool);
+                case "doclog" -> buildFromDocLog(input, indexer, pool);
+                default -> throw new IllegalArgumentException("Unknown format: " + format);
+            };
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        long indexNanos = System.nanoTime() - start;
+
+        long mergeNanos = 0;
+        if (forceMergeSegments > 0) {
+            long mergeStart = System.nanoTime();
+            indexer.forceMerge(forceMergeSegments, true);
+            mergeNanos = System.nanoTime() - mergeStart;
+        }
+        indexer.commit();
+        long documents = indexer.getDocumentCount();
+        int segments = indexer.getSegmentCount();
+        indexer.close();
+
+        double indexSeconds = indexNanos / 1e9;
+        System.out.printf("Records read:      %d (%d errors)%n", records, errors.get());
+        System.out.printf("Chunks indexed:    %d%n", chunksIndexed.get());
+        System.out.printf("Documents:         %d in %d segments%n", documents, segments);
+        System.out.printf("Indexing time:     %.1fs (%.0f %s/sec, %.0f chunks/sec)%n",
+                indexSeconds, records / Math.max(indexSeconds, 1e-9), "doclog".equals(format) ? "docs" : "records",
+                chunksIndexed.get() / Math.max(indexSeconds, 1e-9));
+        if (forceMergeSegments > 0) {
+            System.out.printf("Force-merge time:  %.1fs%n", mergeNanos / 1e9);
+        }
+        System.out.printf("Index size:        %.1f MB%n", directorySize(indexPath) / (1024.0 * 1024.0));
+    }
+
+    private long buildFromNdjson(Path input, LuceneIndexer indexer, ThreadPoolExecutor pool) throws IOException {
+        int batchSize = intOption("batch-size", 500);
+        ChunkNdjsonReader reader = new ChunkNdjsonReader(new JsonFactory(), intOption("dimension", 384));
+
+        try (InputStream in = openInput(input)) {
+            BatchingListener listener = new BatchingListener(batchSize, indexer, pool);
+            long records = reader.read(in, listener);
+            listener.flush();
+            return records;
+        }
+    }
+
+    private long buildFromDocLog(Path input, LuceneIndexer indexer, ThreadPoolExecutor pool) throws IOException {
+        int dimension = intOption("dimension", 384);
+        EmbeddingProvider embeddingProvider = "http".equals(options.getOrDefault("embedding", "stub"))
+                ? new HttpEmbeddingProvider(options.getOrDefault("embedding-url", "http://localhost:8000/embed"),
+                        dimension, 30000, meterRegistry, new ObjectMapper())
+                : new OnnxEmbeddingProvider(dimension, "", true, meterRegistry);
+
+        NearDuplicateDetector nearDuplicateDetector = nearDuplicateDetector();
+        // The input may be a live instance's log, so it must not be truncated or written to
+        SourceDocLog sourceDocLog = SourceDocLog.readOnly(input.toString());
+        sourceDocLog.initialize();
+        try {
+            RssIngestService ingestService = new RssIngestService(
+                    new HtmlCleaner(),
+                    chunker(),
+                    embeddingProvider,
+                    indexer,
+                    sourceDocLog,
+                    nearDuplicateDetector,
+                    new IngestMetrics(meterRegistry),
+                    meterRegistry);
+
+            // Chunking and embedding dominate, so they run on the writer threads too
+            return sourceDocLog.replay(doc -> pool.execute(() -> {
+                try {
+                    NearDuplicateDetector.SourceCheck dedup = nearDuplicateDetector.forSource(doc.getId());
+                    List<DocumentChunk> chunks = ingestService.buildChunks(doc, dedup);
+                    if (!chunks.isEmpty()) {
+                        indexer.indexSource(doc.getId(), chunks);
+                        dedup.commit();
+                        chunksIndexed.addAndGet(chunks.size());
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                    log.warn("Failed to index {}", doc.getUrl(), e);
+                }
+            }));
+        } finally {
+            sourceDocLog.close();
+        }
+    }
+
+    /**
+     * Groups parsed chunks into fixed-size batches for the writer threads.
+     */
+    private class BatchingListener implements ChunkNdjsonReader.Listener {
+
+        private final int batchSize;
+        private final LuceneIndexer indexer;
+        private final ThreadPoolExecutor pool;
+        private List<DocumentChunk> batch;
+
+        BatchingListener(int batchSize, LuceneIndexer indexer, ThreadPoolExecutor pool) {
+            this.batchSize = batchSize;
+            this.indexer = indexer;
+            this.pool = pool;
+            this.batch = new ArrayList<>(batchSize);
+        }
+
+        @Override
+        public void onChunk(DocumentChunk chunk) {
+            batch.add(chunk);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        @Override
+        public void onError(long lineNumber, String message) {
+            errors.incrementAndGet();
+            log.warn("Skipping line {}: {}", lineNumber, message);
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<DocumentChunk> chunks = batch;
+            batch = new ArrayList<>(batchSize);
+            pool.execute(() -> {
+                try {
+                    indexer.indexBatch(chunks);
+                    chunksIndexed.addAndGet(chunks.size());
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                    log.warn("Failed to index batch of {} chunks", chunks.size(), e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Bounded pool whose full queue runs work on the reader thread, so input is never read far
+     * ahead of the writers.
+     */
+    private static ThreadPoolExecutor createPool(int threads) {
+        AtomicInteger threadIds = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                r -> new Thread(r, "bulk-writer-" + threadIds.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private Chunker chunker() throws IOException {
+        String vocab = options.get("chunk-vocab");
+        if (vocab == null) {
+            return new Chunker(intOption("chunk-size", 512), intOption("chunk-overlap", 50));
+        }
+        return new Chunker(Chunker.Mode.TOKENS, 0, intOption("chunk-overlap", 50),
+                WordPieceTokenizer.load(Path.of(vocab), true), intOption("max-tokens", 256), meterRegistry);
+    }
+
+    private NearDuplicateDetector nearDuplicateDetector() {
+        String dedup = options.getOrDefault("dedup", "off");
+        if (dedup.equalsIgnoreCase("off")) {
+            return NearDuplicateDetector.disabled(meterRegistry);
+        }
+        // Kept in memory only: the built index is the artifact
+        return new NearDuplicateDetector(true, null,
+                Double.parseDouble(options.getOrDefault("dedup-threshold", "0.8")), 5, 16, 8,
+                NearDuplicateDetector.Action.valueOf(dedup.toUpperCase()), meterRegistry);
+    }
+
+    private static InputStream openInput(Path input) throws IOException {
+        InputStream in = Files.newInputStream(input);
+        return input.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in;
+    }
+
+    private static long directorySize(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private double doubleOption(String name, double defaultValue) {
+        String value = options.get(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    /**
+     * Parse {@code --name=value} and {@code --name value} arguments; null on anything else.
+     * Shared with the command-line tools next to the benchmarks.
+     */
+    public static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                return null;
+            }
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (i + 1 < args.length) {
+                options.put(arg.substring(2), args[++i]);
+            } else {
+                return null;
+            }
+        }
+        return options;
+    }
+}
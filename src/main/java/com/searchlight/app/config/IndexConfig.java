@@ -0,0 +1,49 @@
+package com.searchlight.app.config;
+
+import com.searchlight.infra.index.IndexSettings;
+import com.searchlight.infra.index.VectorQuantization;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IndexConfig {
+    
+    @Bean
+    public IndexSettings indexSettings(
+            @Value("${searchlight.index.commit.interval-ms:5000}") long commitIntervalMs,
+            @Value("${searchlight.index.commit.max-pending-docs:10000}") int commitMaxPendingDocs,
+            @Value("${searchlight.index.refresh.interval-ms:1000}") long refreshIntervalMs,
+            @Value("${searchlight.index.refresh.min-stale-ms:20}") long refreshMinStaleMs,
+            @Value("${searchlight.index.ram-buffer-mb:128}") double ramBufferSizeMb,
+            @Value("${searchlight.index.indexing-threads:0}") int indexingThreads,
+            @Value("${searchlight.index.hnsw.quantization:NONE}") VectorQuantization vectorQuantization,
+            @Value("${searchlight.index.merge-scheduler.max-thread-count:0}") int mergeMaxThreadCount,
+            @Value("${searchlight.index.merge-scheduler.max-merge-count:0}") int mergeMaxMergeCount,
+            @Value("${searchlight.index.merge.segments-per-tier:10}") double mergeSegmentsPerTier,
+            @Value("${searchlight.index.merge.max-merge-at-once:10}") int mergeMaxMergeAtOnce,
+            @Value("${searchlight.index.merge.max-merged-segment-mb:5120}") double mergeMaxMergedSegmentMb,
+            @Value("${searchlight.index.merge.floor-segment-mb:2}") double mergeFloorSegmentMb,
+            @Value("${searchlight.index.merge.deletes-pct-allowed:20}") double mergeDeletesPctAllowed,
+            @Value("${searchlight.index.merge.max-mb-per-sec:0}") double mergeMaxMbPerSec,
+            @Value("${searchlight.index.merge.auto-io-throttle:true}") boolean mergeAutoIoThrottle) {
+        return IndexSettings.builder()
+                .commitIntervalMs(commitIntervalMs)
+                .commitMaxPendingDocs(commitMaxPendingDocs)
+                .refreshIntervalMs(refreshIntervalMs)
+                .refreshMinStaleMs(refreshMinStaleMs)
+                .ramBufferSizeMb(ramBufferSizeMb)
+                .indexingThreads(indexingThreads)
+                .vectorQuantization(vectorQuantization)
+                .mergeMaxThreadCount(mergeMaxThreadCount)
+                .mergeMaxMergeCount(mergeMaxMergeCount)
+                .mergeSegmentsPerTier(mergeSegmentsPerTier)
+                .mergeMaxMergeAtOnce(mergeMaxMergeAtOnce)
+                .mergeMaxMergedSegmentMb(mergeMaxMergedSegmentMb)
+                .mergeFloorSegmentMb(mergeFloorSegmentMb)
+                .mergeDeletesPctAllowed(mergeDeletesPctAllowed)
+                .mergeMaxMbPerSec(mergeMaxMbPerSec)
+                .mergeAutoIoThrottle(mergeAutoIoThrottle)
+                .build();
+    }
+}
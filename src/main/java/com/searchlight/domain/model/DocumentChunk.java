@@ -23,4 +23,5 @@ public class DocumentChunk {
     private String source;
     private int chunkIndex;
     private String contentHash;
+    private String duplicateOf;
 }
@@ -18,4 +18,6 @@ public class SearchQuery {
     private int offset;
     private String sourceFilter;
     private Instant afterDate;
+    private Long minSeq; // wait until writes up to this sequence number are searchable
+    private SearchTimings timings; // filled in with per-stage latencies when set
 }
@@ -0,0 +1,32 @@
+package com.searchlight.domain.model;
+
+import lombok.Data;
+
+/**
+ * Per-stage wall-clock breakdown of one search, in milliseconds.
+ * Attached to a {@link SearchQuery}, it is filled in as the search runs.
+ */
+@Data
+public class SearchTimings {
+    private double embedMs;
+    private double bm25Ms;
+    private double knnMs;
+    private double storedFieldsMs;
+    private double fusionMs;
+    private double totalMs;
+    private long bm25Hits;
+    private long knnHits;
+    
+    public SearchTimings copy() {
+        SearchTimings copy = new SearchTimings();
+        copy.embedMs = embedMs;
+        copy.bm25Ms = bm25Ms;
+        copy.knnMs = knnMs;
+        copy.storedFieldsMs = storedFieldsMs;
+        copy.fusionMs = fusionMs;
+        copy.totalMs = totalMs;
+        copy.bm25Hits = bm25Hits;
+        copy.knnHits = knnHits;
+        return copy;
+    }
+}
@@ -6,18 +6,33 @@ import java.util.List;
 
 /**
  * Port for indexing document chunks.
+ *
+ * Write operations return a sequence number. A search carrying that number as {@code minSeq}
+ * is guaranteed to observe the write.
  */
 public interface Indexer {
     
     /**
      * Index a single document chunk.
+     *
+     * @return sequence number of the write
      */
-    void index(DocumentChunk chunk);
+    long index(DocumentChunk chunk);
     
     /**
      * Index multiple document chunks in a batch.
+     *
+     * @return sequence number covering every chunk in the batch
      */
-    void indexBatch(List<DocumentChunk> chunks);
+    long indexBatch(List<DocumentChunk> chunks);
+    
+    /**
+     * Atomically replace every chunk of a source document with the given chunks.
+     * Safe to call from many threads at once.
+     *
+     * @return sequence number of the replacement
+     */
+    long indexSource(String sourceId, List<DocumentChunk> chunks);
     
     /**
      * Commit all pending changes to the index.
@@ -26,18 +41,35 @@ public interface Indexer {
     
     /**
      * Delete a document by ID.
+     *
+     * @return sequence number of the delete
      */
-    void delete(String id);
+    long delete(String id);
     
     /**
      * Delete all documents from a source.
+     *
+     * @return sequence number of the delete
      */
-    void deleteBySource(String source);
+    long deleteBySource(String source);
     
     /**
      * Clear the entire index.
+     *
+     * @return sequence number of the clear
+     */
+    long clearAll();
+    
+    /**
+     * Sequence number covering every write that has completed so far.
+     */
+    long getLatestSequence();
+    
+    /**
+     * Run an action once the near-real-time searcher covers the given sequence number, on the
+     * thread that refreshed it, or right away if it already does. The action must be cheap.
      */
-    void clearAll();
+    void whenSearchable(long sequence, Runnable action);
     
     /**
      * Get the total number of documents in the index.
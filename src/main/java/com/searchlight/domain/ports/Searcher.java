@@ -17,6 +17,14 @@ public interface Searcher {
      */
     List<SearchResult> search(SearchQuery query);
     
+    /**
+     * Block until writes up to the given sequence number are searchable. Searches carrying a
+     * {@code minSeq} do this themselves; callers can wait first to keep the wait out of the search.
+     *
+     * @throws SequenceNotVisibleException if they are not searchable within the configured timeout
+     */
+    void awaitSearchable(long sequence);
+    
     /**
      * Get a document by ID.
      */
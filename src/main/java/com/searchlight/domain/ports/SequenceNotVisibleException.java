@@ -0,0 +1,19 @@
+package com.searchlight.domain.ports;
+
+/**
+ * Thrown when a search asked for read-your-writes consistency and the index did not
+ * catch up with the requested sequence number in time.
+ */
+public class SequenceNotVisibleException extends RuntimeException {
+    
+    private final long sequence;
+    
+    public SequenceNotVisibleException(long sequence, long timeoutMs) {
+        super("Sequence " + sequence + " not searchable after " + timeoutMs + "ms");
+        this.sequence = sequence;
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+}
@@ -2,6 +2,7 @@ package com.searchlight.infra.embeddings;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.searchlight.domain.ports.EmbeddingProvider;
+import com.searchlight.infra.observability.jfr.EmbeddingEvent;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
@@ -52,48 +53,18 @@ public class HttpEmbeddingProvider implements EmbeddingProvider {
     
     @Override
     public float[] embed(String text) {
-        return embeddingTimer.record(() -> {
-            try {
-                Map<String, String> requestBody = Map.of("text", text);
-                String jsonBody = objectMapper.writeValueAsString(requestBody);
-                
-                HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create(embeddingUrl))
-                        .header("Content-Type", "application/json")
-                        .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                        .build();
-                
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-                
-                if (response.statusCode() != 200) {
-                    log.error("Embedding service returned status {}: {}", response.statusCode(), response.body());
-                    throw new RuntimeException("Embedding service error: " + response.statusCode());
-                }
-                
-                Map<String, Object> responseBody = objectMapper.readValue(response.body(), Map.class);
-                List<Double> embedding = (List<Double>) responseBody.get("embedding");
-                
-                if (embedding == null || embedding.size() != dimension) {
-                    throw new RuntimeException("Invalid embedding response: expected dimension " + dimension);
-                }
-                
-                float[] result = new float[dimension];
-                for (int i = 0; i < dimension; i++) {
-                    result[i] = embedding.get(i).floatValue();
-                }
-                
-                return result;
-                
-            } catch (IOException | InterruptedException e) {
-                log.error("Failed to get embedding for text", e);
-                throw new RuntimeException("Embedding failed", e);
-            }
-        });
+        EmbeddingEvent event = new EmbeddingEvent();
+        event.begin();
+        float[] embedding = embeddingTimer.record(() -> embedOne(text));
+        commitEvent(event, List.of(text));
+        return embedding;
     }
     
     @Override
     public List<float[]> embedBatch(List<String> texts) {
-        return embeddingTimer.record(() -> {
+        EmbeddingEvent event = new EmbeddingEvent();
+        event.begin();
+        List<float[]> embeddings = embeddingTimer.record(() -> {
             try {
                 Map<String, List<String>> requestBody = Map.of("texts", texts);
                 String jsonBody = objectMapper.writeValueAsString(requestBody);
@@ -111,7 +82,7 @@ public class HttpEmbeddingProvider implements EmbeddingProvider {
                     // Fallback to individual embeds
                     List<float[]> results = new ArrayList<>();
                     for (String text : texts) {
-                        results.add(embed(text));
+                        results.add(embedOne(text));
                     }
                     return results;
                 }
@@ -135,11 +106,54 @@ public class HttpEmbeddingProvider implements EmbeddingProvider {
                 // Fallback to individual embeds
                 List<float[]> results = new ArrayList<>();
                 for (String text : texts) {
-                    results.add(embed(text));
+                    results.add(embedOne(text));
                 }
                 return results;
             }
         });
+        commitEvent(event, texts);
+        return embeddings;
+    }
+    
+    /**
+     * Embed one text with a single request, without its own timing or event.
+     */
+    private float[] embedOne(String text) {
+        try {
+            Map<String, String> requestBody = Map.of("text", text);
+            String jsonBody = objectMapper.writeValueAsString(requestBody);
+            
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(embeddingUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+                    .build();
+            
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            
+            if (response.statusCode() != 200) {
+                log.error("Embedding service returned status {}: {}", response.statusCode(), response.body());
+                throw new RuntimeException("Embedding service error: " + response.statusCode());
+            }
+            
+            Map<String, Object> responseBody = objectMapper.readValue(response.body(), Map.class);
+            List<Double> embedding = (List<Double>) responseBody.get("embedding");
+            
+            if (embedding == null || embedding.size() != dimension) {
+                throw new RuntimeException("Invalid embedding response: expected dimension " + dimension);
+            }
+            
+            float[] result = new float[dimension];
+            for (int i = 0; i < dimension; i++) {
+                result[i] = embedding.get(i).floatValue();
+            }
+            
+            return result;
+            
+        } catch (IOException | InterruptedException e) {
+            log.error("Failed to get embedding for text", e);
+            throw new RuntimeException("Embedding failed", e);
+        }
     }
     
     @Override
@@ -151,4 +165,17 @@ public class HttpEmbeddingProvider implements EmbeddingProvider {
     public String getProviderName() {
         return "http";
     }
+    
+    private void commitEvent(EmbeddingEvent event, List<String> texts) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.provider = getProviderName();
+            event.texts = texts.size();
+            for (String text : texts) {
+                event.characters += text.length();
+            }
+            event.dimension = dimension;
+            event.commit();
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package com.searchlight.infra.embeddings;
 
 import com.searchlight.domain.ports.EmbeddingProvider;
+import com.searchlight.infra.observability.jfr.EmbeddingEvent;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
@@ -49,26 +50,26 @@ public class OnnxEmbeddingProvider implements EmbeddingProvider {
     
     @Override
     public float[] embed(String text) {
-        return embeddingTimer.record(() -> {
-            if (stubMode) {
-                return generateDeterministicVector(text);
-            } else {
-                // TODO: Implement actual ONNX inference
-                // 1. Tokenize text
-                // 2. Run through ONNX model
-                // 3. Pool embeddings (mean pooling)
-                // 4. Normalize vector
-                throw new UnsupportedOperationException("Real ONNX inference not yet implemented");
-            }
-        });
+        EmbeddingEvent event = new EmbeddingEvent();
+        event.begin();
+        float[] embedding = embeddingTimer.record(() -> embedOne(text));
+        commitEvent(event, List.of(text));
+        return embedding;
     }
     
     @Override
     public List<float[]> embedBatch(List<String> texts) {
-        List<float[]> results = new ArrayList<>();
-        for (String text : texts) {
-            results.add(embed(text));
-        }
+        // One event and one timing for the whole batch, as the HTTP provider records
+        EmbeddingEvent event = new EmbeddingEvent();
+        event.begin();
+        List<float[]> results = embeddingTimer.record(() -> {
+            List<float[]> embeddings = new ArrayList<>(texts.size());
+            for (String text : texts) {
+                embeddings.add(embedOne(text));
+            }
+            return embeddings;
+        });
+        commitEvent(event, texts);
         return results;
     }
     
@@ -82,6 +83,32 @@ public class OnnxEmbeddingProvider implements EmbeddingProvider {
         return stubMode ? "onnx-stub" : "onnx";
     }
     
+    private void commitEvent(EmbeddingEvent event, List<String> texts) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.provider = getProviderName();
+            event.texts = texts.size();
+            for (String text : texts) {
+                event.characters += text.length();
+            }
+            event.dimension = dimension;
+            event.commit();
+        }
+    }
+    
+    private float[] embedOne(String text) {
+        if (stubMode) {
+            return generateDeterministicVector(text);
+        } else {
+            // TODO: Implement actual ONNX inference
+            // 1. Tokenize text
+            // 2. Run through ONNX model
+            // 3. Pool embeddings (mean pooling)
+            // 4. Normalize vector
+            throw new UnsupportedOperationException("Real ONNX inference not yet implemented");
+        }
+    }
+    
     /**
      * Generate a deterministic vector based on text hash.
      * This ensures tests are reproducible while simulating embeddings.
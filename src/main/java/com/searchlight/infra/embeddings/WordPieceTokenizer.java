@@ -0,0 +1,300 @@
+package com.searchlight.infra.embeddings;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BERT-style WordPiece tokenizer for counting tokens the way the embedding model will see them.
+ *
+ * Follows the reference BasicTokenizer + WordpieceTokenizer: optional lowercasing and accent
+ * stripping, punctuation and CJK characters split into their own tokens, then greedy
+ * longest-match-first WordPiece with {@code ##} continuation pieces. Matching walks a character
+ * trie stored in a flat open-addressing table, so tokenizing allocates nothing for ASCII text.
+ */
+@Slf4j
+public class WordPieceTokenizer {
+    
+    private static final int MAX_CHARS_PER_WORD = 100;
+    private static final int WORD_START_ROOT = 0;
+    private static final int CONTINUATION_ROOT = 1;
+    
+    private final boolean lowercase;
+    private final int vocabularySize;
+    
+    // Trie edges: key = (node << 16) | char, open addressing with linear probing
+    private long[] edgeKeys;
+    private int[] edgeTargets;
+    private int edgeCount;
+    private int edgeMask;
+    
+    // Token id for a trie node, -1 when the path is only a prefix
+    private int[] terminal;
+    private int nodeCount;
+    
+    public WordPieceTokenizer(List<String> vocabulary, boolean lowercase) {
+        this.lowercase = lowercase;
+        this.vocabularySize = vocabulary.size();
+        
+        int capacity = Integer.highestOneBit(Math.max(16, vocabulary.size() * 8)) << 1;
+        this.edgeKeys = new long[capacity];
+        Arrays.fill(edgeKeys, -1L);
+        this.edgeTargets = new int[capacity];
+        this.edgeMask = capacity - 1;
+        this.terminal = new int[Math.max(16, vocabulary.size() * 2)];
+        Arrays.fill(terminal, -1);
+        this.nodeCount = 2;
+        
+        for (int id = 0; id < vocabulary.size(); id++) {
+            String token = vocabulary.get(id);
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (token.startsWith("##") && token.length() > 2) {
+                insert(CONTINUATION_ROOT, token, 2, id);
+            } else {
+                insert(WORD_START_ROOT, token, 0, id);
+            }
+        }
+    }
+    
+    /**
+     * Load a Hugging Face {@code vocab.txt}: one token per line, token id = line number.
+     */
+    public static WordPieceTokenizer load(Path vocabPath, boolean lowercase) throws IOException {
+        List<String> vocabulary;
+        try (BufferedReader reader = Files.newBufferedReader(vocabPath, StandardCharsets.UTF_8)) {
+            vocabulary = reader.lines().map(String::strip).toList();
+        }
+        log.info("Loaded WordPiece vocabulary of {} tokens from {}", vocabulary.size(), vocabPath);
+        return new WordPieceTokenizer(vocabulary, lowercase);
+    }
+    
+    public int getVocabularySize() {
+        return vocabularySize;
+    }
+    
+    /**
+     * Number of WordPiece tokens in the text, excluding [CLS] and [SEP].
+     */
+    public int countTokens(CharSequence text) {
+        return countTokens(text, 0, text.length());
+    }
+    
+    /**
+     * Number of WordPiece tokens in {@code text[start, end)}, excluding [CLS] and [SEP].
+     */
+    public int countTokens(CharSequence text, int start, int end) {
+        int count = 0;
+        int wordStart = -1;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                // Rare path: normalize the rest, from the current word, so accents and CJK match the reference
+                return count + countNormalized(text.subSequence(wordStart >= 0 ? wordStart : i, end));
+            }
+            if (c <= ' ' || c == 0x7f) {
+                if (wordStart >= 0) {
+                    count += countWord(text, wordStart, i);
+                    wordStart = -1;
+                }
+            } else if (isAsciiPunctuation(c)) {
+                if (wordStart >= 0) {
+                    count += countWord(text, wordStart, i);
+                    wordStart = -1;
+                }
+                count++;
+            } else if (wordStart < 0) {
+                wordStart = i;
+            }
+        }
+        if (wordStart >= 0) {
+            count += countWord(text, wordStart, end);
+        }
+        return count;
+    }
+    
+    private int countNormalized(CharSequence text) {
+        String normalized = text.toString();
+        if (lowercase) {
+            normalized = Normalizer.normalize(normalized.toLowerCase(), Normalizer.Form.NFD);
+        }
+        
+        StringBuilder word = new StringBuilder();
+        int count = 0;
+        for (int i = 0; i < normalized.length(); ) {
+            int cp = normalized.codePointAt(i);
+            i += Character.charCount(cp);
+            int type = Character.getType(cp);
+            
+            if (lowercase && type == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (cp == 0 || cp == 0xfffd || (type == Character.CONTROL && !Character.isWhitespace(cp))) {
+                continue;
+            }
+            if (Character.isWhitespace(cp) || Character.isSpaceChar(cp)) {
+                count += flush(word);
+            } else if (isPunctuation(cp, type) || isCjk(cp)) {
+                count += flush(word) + 1;
+            } else {
+                word.appendCodePoint(cp);
+            }
+        }
+        return count + flush(word);
+    }
+    
+    private int flush(StringBuilder word) {
+        if (word.isEmpty()) {
+            return 0;
+        }
+        int count = countWord(word, 0, word.length());
+        word.setLength(0);
+        return count;
+    }
+    
+    /**
+     * Greedy longest-match-first WordPiece over one word; an unmatchable word is a single [UNK].
+     */
+    private int countWord(CharSequence text, int start, int end) {
+        if (end - start > MAX_CHARS_PER_WORD) {
+            return 1;
+        }
+        int count = 0;
+        int pos = start;
+        int root = WORD_START_ROOT;
+        while (pos < end) {
+            int node = root;
+            int matchEnd = -1;
+            for (int i = pos; i < end; i++) {
+                node = child(node, fold(text.charAt(i)));
+                if (node < 0) {
+                    break;
+                }
+                if (terminal[node] >= 0) {
+                    matchEnd = i + 1;
+                }
+            }
+            if (matchEnd < 0) {
+                return 1;
+            }
+            count++;
+            pos = matchEnd;
+            root = CONTINUATION_ROOT;
+        }
+        return count;
+    }
+    
+    private char fold(char c) {
+        if (!lowercase) {
+            return c;
+        }
+        return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c < 0x80 ? c : Character.toLowerCase(c);
+    }
+    
+    private void insert(int root, String token, int from, int id) {
+        int node = root;
+        for (int i = from; i < token.length(); i++) {
+            char c = token.charAt(i);
+            int next = child(node, c);
+            if (next < 0) {
+                next = addNode();
+                addEdge(node, c, next);
+            }
+            node = next;
+        }
+        if (terminal[node] < 0) {
+            terminal[node] = id;
+        }
+    }
+    
+    private int child(int node, char c) {
+        long key = ((long) node << 16) | c;
+        int slot = hash(key) & edgeMask;
+        while (true) {
+            long existing = edgeKeys[slot];
+            if (existing == key) {
+                return edgeTargets[slot];
+            }
+            if (existing == -1L) {
+                return -1;
+            }
+            slot = (slot + 1) & edgeMask;
+        }
+    }
+    
+    private void addEdge(int node, char c, int target) {
+        if ((edgeCount + 1) * 2 > edgeKeys.length) {
+            rehash();
+        }
+        long key = ((long) node << 16) | c;
+        int slot = hash(key) & edgeMask;
+        while (edgeKeys[slot] != -1L) {
+            slot = (slot + 1) & edgeMask;
+        }
+        edgeKeys[slot] = key;
+        edgeTargets[slot] = target;
+        edgeCount++;
+    }
+    
+    private int addNode() {
+        if (nodeCount == terminal.length) {
+            int oldLength = terminal.length;
+            terminal = Arrays.copyOf(terminal, oldLength * 2);
+            Arrays.fill(terminal, oldLength, terminal.length, -1);
+        }
+        return nodeCount++;
+    }
+    
+    private void rehash() {
+        long[] oldKeys = edgeKeys;
+        int[] oldTargets = edgeTargets;
+        edgeKeys = new long[oldKeys.length * 2];
+        Arrays.fill(edgeKeys, -1L);
+        edgeTargets = new int[oldKeys.length * 2];
+        edgeMask = edgeKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != -1L) {
+                int slot = hash(oldKeys[i]) & edgeMask;
+                while (edgeKeys[slot] != -1L) {
+                    slot = (slot + 1) & edgeMask;
+                }
+                edgeKeys[slot] = oldKeys[i];
+                edgeTargets[slot] = oldTargets[i];
+            }
+        }
+    }
+    
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    private static boolean isAsciiPunctuation(char c) {
+        return (c >= 33 && c <= 47) || (c >= 58 && c <= 64) || (c >= 91 && c <= 96) || (c >= 123 && c <= 126);
+    }
+    
+    private static boolean isPunctuation(int cp, int type) {
+        if (cp < 0x80) {
+            return isAsciiPunctuation((char) cp);
+        }
+        return type == Character.CONNECTOR_PUNCTUATION || type == Character.DASH_PUNCTUATION
+                || type == Character.START_PUNCTUATION || type == Character.END_PUNCTUATION
+                || type == Character.INITIAL_QUOTE_PUNCTUATION || type == Character.FINAL_QUOTE_PUNCTUATION
+                || type == Character.OTHER_PUNCTUATION;
+    }
+    
+    private static boolean isCjk(int cp) {
+        return (cp >= 0x4E00 && cp <= 0x9FFF) || (cp >= 0x3400 && cp <= 0x4DBF) || (cp >= 0x20000 && cp <= 0x2A6DF)
+                || (cp >= 0x2A700 && cp <= 0x2B73F) || (cp >= 0x2B740 && cp <= 0x2B81F)
+                || (cp >= 0x2B820 && cp <= 0x2CEAF) || (cp >= 0xF900 && cp <= 0xFAFF)
+                || (cp >= 0x2F800 && cp <= 0x2FA1F);
+    }
+}
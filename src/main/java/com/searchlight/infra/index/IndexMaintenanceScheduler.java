@@ -0,0 +1,132 @@
+package com.searchlight.infra.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs expunge-deletes and force-merge on a cron schedule so expensive HNSW graph merges
+ * happen off-peak instead of competing with search traffic.
+ */
+@Slf4j
+@Component
+public class IndexMaintenanceScheduler {
+    
+    private final LuceneIndexer indexer;
+    private final String cron;
+    private final int maxSegments;
+    private final boolean expungeDeletes;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ScheduledExecutorService executor;
+    private volatile Instant lastRun;
+    private volatile Instant nextRun;
+    
+    public IndexMaintenanceScheduler(
+            LuceneIndexer indexer,
+            @Value("${searchlight.index.maintenance.cron:}") String cron,
+            @Value("${searchlight.index.maintenance.max-segments:5}") int maxSegments,
+            @Value("${searchlight.index.maintenance.expunge-deletes:true}") boolean expungeDeletes) {
+        this.indexer = indexer;
+        this.cron = cron;
+        this.maxSegments = maxSegments;
+        this.expungeDeletes = expungeDeletes;
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (cron == null || cron.isBlank()) {
+            log.info("Scheduled index maintenance disabled");
+            return;
+        }
+        
+        CronExpression expression = CronExpression.parse(cron);
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "index-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleNext(expression);
+        log.info("Scheduled index maintenance '{}' (maxSegments={}, expungeDeletes={}), next run at {}",
+                cron, maxSegments, expungeDeletes, nextRun);
+    }
+    
+    /**
+     * Run maintenance now on the calling thread.
+     *
+     * @return false if a maintenance run was already in progress
+     */
+    public boolean runMaintenance() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            if (expungeDeletes) {
+                indexer.expungeDeletes(true);
+            }
+            indexer.forceMerge(maxSegments, true);
+            indexer.commit();
+            lastRun = Instant.now();
+            log.info("Index maintenance finished in {}ms, {} segments", 
+                    System.currentTimeMillis() - start, indexer.getSegmentCount());
+            return true;
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    public boolean isRunning() {
+        return running.get();
+    }
+    
+    public String getCron() {
+        return cron;
+    }
+    
+    public Instant getLastRun() {
+        return lastRun;
+    }
+    
+    public Instant getNextRun() {
+        return nextRun;
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+    
+    private void scheduleNext(CronExpression expression) {
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime next = expression.next(now);
+        if (next == null) {
+            nextRun = null;
+            return;
+        }
+        nextRun = next.toInstant();
+        long delayMs = Duration.between(now, next).toMillis();
+        executor.schedule(() -> {
+            try {
+                runMaintenance();
+            } catch (Exception e) {
+                log.error("Scheduled index maintenance failed", e);
+            } finally {
+                scheduleNext(expression);
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,112 @@
+package com.searchlight.infra.index;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Tuning for the index writer lifecycle: when changes become durable and when they become visible.
+ * Defaults match application.yaml so tests can use {@code IndexSettings.builder().build()}.
+ */
+@Data
+@Builder
+public class IndexSettings {
+    
+    /**
+     * Interval between background commits. 0 disables the time-based trigger.
+     */
+    @Builder.Default
+    private long commitIntervalMs = 5000;
+    
+    /**
+     * Number of uncommitted document updates/deletes that triggers an early commit. 0 disables it.
+     */
+    @Builder.Default
+    private int commitMaxPendingDocs = 10_000;
+    
+    /**
+     * Maximum staleness of the near-real-time searcher when nobody is waiting on a sequence number.
+     * 0 means refreshes happen only on demand (commits and {@code minSeq} waits).
+     */
+    @Builder.Default
+    private long refreshIntervalMs = 1000;
+    
+    /**
+     * Minimum time between refreshes when a search is waiting on a sequence number.
+     */
+    @Builder.Default
+    private long refreshMinStaleMs = 20;
+    
+    /**
+     * IndexWriter RAM buffer; larger buffers mean fewer, bigger flushed segments.
+     */
+    @Builder.Default
+    private double ramBufferSizeMb = 128;
+    
+    /**
+     * Threads in the parallel indexing pool. 0 uses one per available processor.
+     */
+    @Builder.Default
+    private int indexingThreads = 0;
+    
+    /**
+     * Scalar quantization of new vector segments. Existing segments keep their format until merged.
+     */
+    @Builder.Default
+    private VectorQuantization vectorQuantization = VectorQuantization.NONE;
+    
+    /**
+     * ConcurrentMergeScheduler thread limit. 0 lets Lucene auto-detect based on the disk type.
+     */
+    @Builder.Default
+    private int mergeMaxThreadCount = 0;
+    
+    /**
+     * Merges allowed to queue before incoming indexing threads are stalled. 0 derives it from
+     * {@link #mergeMaxThreadCount}.
+     */
+    @Builder.Default
+    private int mergeMaxMergeCount = 0;
+    
+    /**
+     * TieredMergePolicy: segments allowed per tier before a merge is selected.
+     */
+    @Builder.Default
+    private double mergeSegmentsPerTier = 10;
+    
+    /**
+     * TieredMergePolicy: segments merged at once during natural merging.
+     */
+    @Builder.Default
+    private int mergeMaxMergeAtOnce = 10;
+    
+    /**
+     * TieredMergePolicy: upper bound on merged segment size. Smaller values keep HNSW graph
+     * merges cheaper at the cost of more segments to search.
+     */
+    @Builder.Default
+    private double mergeMaxMergedSegmentMb = 5 * 1024;
+    
+    /**
+     * TieredMergePolicy: segments below this size are treated as this size when picking merges.
+     */
+    @Builder.Default
+    private double mergeFloorSegmentMb = 2;
+    
+    /**
+     * TieredMergePolicy: tolerated percentage of deleted docs, between 20 and 50.
+     */
+    @Builder.Default
+    private double mergeDeletesPctAllowed = 20;
+    
+    /**
+     * Hard cap on the combined write rate of all merges. 0 means unlimited.
+     */
+    @Builder.Default
+    private double mergeMaxMbPerSec = 0;
+    
+    /**
+     * Let ConcurrentMergeScheduler adapt merge I/O to the indexing rate.
+     */
+    @Builder.Default
+    private boolean mergeAutoIoThrottle = true;
+}
@@ -0,0 +1,297 @@
+package com.searchlight.infra.index;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.codecs.CompoundDirectory;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.FloatVectorValues;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Collects segment, file and vector statistics from the current near-real-time reader.
+ *
+ * Compound files are opened so their contents count towards the real extensions ({@code .vec},
+ * {@code .vex}, {@code .fdt}, ...) rather than {@code .cfs}. HNSW search reads the raw vectors and
+ * the graph through mmap, so {@code .vec} plus {@code .vex} is the page cache a node needs to
+ * keep vector search off the disk; in quantized segments the smaller {@code .veq} replaces {@code .vec}.
+ *
+ * The gauges read a snapshot that is refreshed at most every
+ * {@code searchlight.index.stats.cache-ms}, so a scrape does not walk the index for every meter.
+ */
+@Slf4j
+@Component
+public class IndexStatsCollector {
+    
+    private static final String VECTOR_FIELD = "vector";
+    private static final Set<String> POSTINGS_EXTENSIONS = Set.of("doc", "pos", "pay", "tim", "tip", "tmd", "psm");
+    
+    /**
+     * Index-wide statistics.
+     */
+    public record IndexStats(
+            String indexPath,
+            Instant collectedAt,
+            long documentCount,
+            long maxDoc,
+            long deletedDocs,
+            double deletedRatio,
+            int segmentCount,
+            long sizeBytes,
+            long postingsBytes,
+            Map<String, Long> bytesByExtension,
+            long vectorCount,
+            int vectorDimension,
+            long vectorBytes,
+            long graphBytes,
+            long vectorOffHeapBytes,
+            long readerVersion,
+            long commitGeneration,
+            Instant readerOpenedAt,
+            long readerAgeMs,
+            List<SegmentStats> segments) {
+    }
+    
+    /**
+     * One segment of the current reader. {@code source} is "flush", "merge" or "addIndexes".
+     */
+    public record SegmentStats(
+            String name,
+            int maxDoc,
+            int deletedDocs,
+            long vectorCount,
+            long sizeBytes,
+            boolean compound,
+            String source) {
+    }
+    
+    private final LuceneIndexer indexer;
+    private final long cacheMs;
+    private volatile IndexStats snapshot;
+    private volatile long snapshotNanos;
+    
+    public IndexStatsCollector(
+            LuceneIndexer indexer,
+            @Value("${searchlight.index.stats.cache-ms:10000}") long cacheMs,
+            MeterRegistry meterRegistry) {
+        this.indexer = indexer;
+        this.cacheMs = cacheMs;
+        
+        Gauge.builder("index.docs.count", indexer, LuceneIndexer::getDocumentCount)
+                .description("Live documents in the index")
+                .register(meterRegistry);
+        gauge(meterRegistry, "index.segments", "Segments in the current reader", IndexStats::segmentCount);
+        gauge(meterRegistry, "index.size.bytes", "Bytes of all segment files", IndexStats::sizeBytes);
+        gauge(meterRegistry, "index.deleted.ratio", "Deleted documents as a fraction of maxDoc", IndexStats::deletedRatio);
+        gauge(meterRegistry, "index.vectors.count", "Indexed vectors", IndexStats::vectorCount);
+        gauge(meterRegistry, "index.vectors.offheap.bytes", "Searched vector and HNSW graph bytes (.vec or .veq, + .vex)",
+                IndexStats::vectorOffHeapBytes);
+        gauge(meterRegistry, "index.reader.age.seconds", "Time since the near-real-time reader was reopened",
+                stats -> stats.readerAgeMs() / 1000.0);
+        gauge(meterRegistry, "index.reader.version", "Version of the near-real-time reader", IndexStats::readerVersion);
+        for (String type : List.of("postings", "stored", "vectors", "hnsw", "points", "norms", "docvalues")) {
+            Gauge.builder("index.files.bytes", this, c -> c.gaugeValue(stats -> bytesOfType(stats, type)))
+                    .description("Bytes of index files by data structure")
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+    }
+    
+    /**
+     * Collect fresh statistics from the current near-real-time reader.
+     */
+    public IndexStats collect() {
+        SearcherManager manager = indexer.getSearcherManager();
+        Directory directory = indexer.getDirectory();
+        try {
+            IndexSearcher searcher = manager.acquire();
+            try {
+                DirectoryReader reader = (DirectoryReader) searcher.getIndexReader();
+                Map<String, Long> bytesByExtension = new TreeMap<>();
+                List<SegmentStats> segments = new ArrayList<>(reader.leaves().size());
+                long sizeBytes = 0;
+                long vectorCount = 0;
+                long searchedVectorBytes = 0;
+                
+                for (LeafReaderContext leaf : reader.leaves()) {
+                    SegmentReader segmentReader = (SegmentReader) FilterLeafReader.unwrap(leaf.reader());
+                    SegmentCommitInfo info = segmentReader.getSegmentInfo();
+                    Map<String, Long> segmentFiles = new TreeMap<>();
+                    long segmentBytes = addFileSizes(directory, info, segmentFiles);
+                    segmentFiles.forEach((extension, bytes) -> bytesByExtension.merge(extension, bytes, Long::sum));
+                    // Quantized segments search their .veq copy; the raw .vec is only read for merges.
+                    // Decided per segment, since segments written before a quantization change keep .vec
+                    Long quantizedBytes = segmentFiles.get("veq");
+                    searchedVectorBytes += quantizedBytes != null ? quantizedBytes : segmentFiles.getOrDefault("vec", 0L);
+                    FloatVectorValues vectors = segmentReader.getFloatVectorValues(VECTOR_FIELD);
+                    int segmentVectors = vectors != null ? vectors.size() : 0;
+                    
+                    segments.add(new SegmentStats(
+                            info.info.name,
+                            segmentReader.maxDoc(),
+                            segmentReader.numDeletedDocs(),
+                            segmentVectors,
+                            segmentBytes,
+                            info.info.getUseCompoundFile(),
+                            info.info.getDiagnostics().getOrDefault("source", "unknown")));
+                    sizeBytes += segmentBytes;
+                    vectorCount += segmentVectors;
+                }
+                
+                long vectorBytes = bytesByExtension.getOrDefault("vec", 0L);
+                long graphBytes = bytesByExtension.getOrDefault("vex", 0L);
+                long postingsBytes = 0;
+                for (String extension : POSTINGS_EXTENSIONS) {
+                    postingsBytes += bytesByExtension.getOrDefault(extension, 0L);
+                }
+                Instant now = Instant.now();
+                Instant openedAt = indexer.getReaderOpenedAt();
+                
+                return new IndexStats(
+                        indexer.getIndexPath().toString(),
+                        now,
+                        reader.numDocs(),
+                        reader.maxDoc(),
+                        reader.numDeletedDocs(),
+                        reader.maxDoc() > 0 ? (double) reader.numDeletedDocs() / reader.maxDoc() : 0.0,
+                        segments.size(),
+                        sizeBytes,
+                        postingsBytes,
+                        bytesByExtension,
+                        vectorCount,
+                        indexer.getVectorDimension(),
+                        vectorBytes,
+                        graphBytes,
+                        searchedVectorBytes + graphBytes,
+                        reader.getVersion(),
+                        SegmentInfos.getLastCommitGeneration(directory),
+                        openedAt,
+                        openedAt != null ? Duration.between(openedAt, now).toMillis() : 0,
+                        segments);
+            } finally {
+                manager.release(searcher);
+            }
+        } catch (IOException e) {
+            log.error("Failed to collect index statistics", e);
+            throw new RuntimeException("Index statistics failed", e);
+        }
+    }
+    
+    /**
+     * Statistics no older than the cache interval.
+     */
+    public IndexStats getSnapshot() {
+        IndexStats current = snapshot;
+        if (current == null || System.nanoTime() - snapshotNanos > cacheMs * 1_000_000L) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null || System.nanoTime() - snapshotNanos > cacheMs * 1_000_000L) {
+                    current = collect();
+                    snapshot = current;
+                    snapshotNanos = System.nanoTime();
+                }
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Add the sizes of a segment's files to the per-extension totals, looking inside compound files.
+     *
+     * @return the on-disk size of the segment
+     */
+    private static long addFileSizes(Directory directory, SegmentCommitInfo info, Map<String, Long> bytesByExtension)
+            throws IOException {
+        long total = 0;
+        for (String file : info.files()) {
+            long length;
+            try {
+                length = directory.fileLength(file);
+            } catch (NoSuchFileException e) {
+                // Deletes of a newer generation may have replaced it since the reader opened
+                continue;
+            }
+            total += length;
+            
+            String extension = IndexFileNames.getExtension(file);
+            if ("cfs".equals(extension)) {
+                try (CompoundDirectory compound = info.info.getCodec().compoundFormat()
+                        .getCompoundReader(directory, info.info, IOContext.READONCE)) {
+                    for (String inner : compound.listAll()) {
+                        bytesByExtension.merge(extensionOf(inner), compound.fileLength(inner), Long::sum);
+                    }
+                }
+            } else {
+                bytesByExtension.merge(extensionOf(file), length, Long::sum);
+            }
+        }
+        return total;
+    }
+    
+    private static String extensionOf(String file) {
+        String extension = IndexFileNames.getExtension(file);
+        return extension != null ? extension : file;
+    }
+    
+    private static long bytesOfType(IndexStats stats, String type) {
+        long total = 0;
+        for (Map.Entry<String, Long> entry : stats.bytesByExtension().entrySet()) {
+            if (type.equals(typeOf(entry.getKey()))) {
+                total += entry.getValue();
+            }
+        }
+        return total;
+    }
+    
+    private static String typeOf(String extension) {
+        if (POSTINGS_EXTENSIONS.contains(extension)) {
+            return "postings";
+        }
+        return switch (extension) {
+            case "fdt", "fdx", "fdm" -> "stored";
+            case "vec", "vemf", "veq", "vemq" -> "vectors";
+            case "vex", "vem" -> "hnsw";
+            case "kdd", "kdi", "kdm" -> "points";
+            case "nvd", "nvm" -> "norms";
+            case "dvd", "dvm" -> "docvalues";
+            default -> "other";
+        };
+    }
+    
+    private void gauge(MeterRegistry meterRegistry, String name, String description, ToDoubleFunction<IndexStats> value) {
+        Gauge.builder(name, this, c -> c.gaugeValue(value))
+                .description(description)
+                .register(meterRegistry);
+    }
+    
+    private double gaugeValue(ToDoubleFunction<IndexStats> value) {
+        try {
+            return value.applyAsDouble(getSnapshot());
+        } catch (RuntimeException e) {
+            // Index not open yet, or already closed
+            return Double.NaN;
+        }
+    }
+}
@@ -2,12 +2,23 @@ package com.searchlight.infra.index;
 
 import com.searchlight.domain.model.DocumentChunk;
 import com.searchlight.domain.ports.Indexer;
+import com.searchlight.infra.observability.jfr.IndexBatchEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.*;
 import org.apache.lucene.index.*;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -15,10 +26,39 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Lucene-based indexer with HNSW vector support.
+ *
+ * Writes are made visible through a near-real-time {@link SearcherManager} and made durable by
+ * group commits: a background commit runs on a fixed interval, or early once enough updates are
+ * pending. {@link #commit()} remains the explicit flush for callers that need durability now.
+ *
+ * Searcher refreshes are driven by a {@link ControlledRealTimeReopenThread}: on the refresh
+ * interval, or sooner when a reader waits for a sequence number via {@link #awaitSearchable}.
+ *
+ * IndexWriter accepts concurrent writers, so per-source updates can be fanned out over a bounded
+ * indexing pool with {@link #submitSource} or {@link #indexSourcesParallel}.
+ *
+ * Merges use a tunable {@link TieredMergePolicy}, an optional write-rate cap, and a
+ * {@link TrackingMergeScheduler} that exposes running merges and merge metrics.
  */
 @Slf4j
 @Component
@@ -29,29 +69,72 @@ public class LuceneIndexer implements Indexer {
     private final SimilarityMode similarityMode;
     private final int hnswM;
     private final int hnswEfConstruction;
+    private final IndexSettings settings;
     
     private Directory directory;
     private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+    private ScheduledExecutorService scheduler;
+    private ThreadPoolExecutor indexingPool;
     private final StandardAnalyzer analyzer;
     
+    private final AtomicLong pendingChanges = new AtomicLong();
+    private volatile Instant readerOpenedAt;
+    private volatile long searchableSequence = -1;
+    private long refreshStartSequence;
+    private final ConcurrentSkipListMap<Long, List<Runnable>> searchableActions = new ConcurrentSkipListMap<>();
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
+    private final MeterRegistry meterRegistry;
+    private TrackingMergeScheduler mergeScheduler;
+    private final Timer commitTimer;
+    private final Counter commitCounter;
+    
+    public LuceneIndexer(
+            String indexPath,
+            int vectorDimension,
+            SimilarityMode similarityMode,
+            int hnswM,
+            int hnswEfConstruction) {
+        this(indexPath, vectorDimension, similarityMode, hnswM, hnswEfConstruction,
+                IndexSettings.builder().build(), new SimpleMeterRegistry());
+    }
+    
+    @Autowired
     public LuceneIndexer(
             @Value("${searchlight.index.path:data/index}") String indexPath,
             @Value("${searchlight.embedding.dimension:384}") int vectorDimension,
             @Value("${searchlight.index.similarity:COSINE}") SimilarityMode similarityMode,
             @Value("${searchlight.index.hnsw.m:16}") int hnswM,
-            @Value("${searchlight.index.hnsw.ef-construction:100}") int hnswEfConstruction) {
+            @Value("${searchlight.index.hnsw.ef-construction:100}") int hnswEfConstruction,
+            IndexSettings settings,
+            MeterRegistry meterRegistry) {
         this.indexPath = Path.of(indexPath);
         this.vectorDimension = vectorDimension;
         this.similarityMode = similarityMode;
         this.hnswM = hnswM;
         this.hnswEfConstruction = hnswEfConstruction;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
         this.analyzer = new StandardAnalyzer();
+        this.commitTimer = Timer.builder("index.commit.latency")
+                .description("Time spent in IndexWriter.commit")
+                .register(meterRegistry);
+        this.commitCounter = meterRegistry.counter("index.commits");
+        Gauge.builder("index.commit.pending", pendingChanges, AtomicLong::get)
+                .description("Document updates and deletes not yet committed")
+                .register(meterRegistry);
+        Gauge.builder("ingest.queue.depth", this, i -> i.indexingPool != null ? i.indexingPool.getQueue().size() : 0)
+                .description("Work waiting in an ingestion queue")
+                .tag("queue", "indexing")
+                .register(meterRegistry);
     }
     
     @PostConstruct
     public void initialize() throws IOException {
-        log.info("Initializing Lucene index at {} with dimension={}, similarity={}, M={}, efConstruction={}", 
-                indexPath, vectorDimension, similarityMode, hnswM, hnswEfConstruction);
+        log.info("Initializing Lucene index at {} with dimension={}, similarity={}, M={}, efConstruction={}, "
+                        + "quantization={}",
+                indexPath, vectorDimension, similarityMode, hnswM, hnswEfConstruction, settings.getVectorQuantization());
         
         this.indexPath.toFile().mkdirs();
         this.directory = FSDirectory.open(this.indexPath);
@@ -59,20 +142,90 @@ public class LuceneIndexer implements Indexer {
         IndexWriterConfig config = new IndexWriterConfig(analyzer);
         config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
         config.setCommitOnClose(true);
+        config.setRAMBufferSizeMB(settings.getRamBufferSizeMb());
+        config.setMergePolicy(createMergePolicy());
+        this.mergeScheduler = createMergeScheduler();
+        config.setMergeScheduler(mergeScheduler);
         
         // Use custom codec with HNSW parameters
-        config.setCodec(new SearchlightCodec(hnswM, hnswEfConstruction));
+        config.setCodec(new SearchlightCodec(hnswM, hnswEfConstruction, settings.getVectorQuantization()));
         
-        this.writer = new IndexWriter(directory, config);
+        Directory writerDirectory = settings.getMergeMaxMbPerSec() > 0
+                ? new MergeRateLimitedDirectory(directory, settings.getMergeMaxMbPerSec())
+                : directory;
+        this.writer = new IndexWriter(writerDirectory, config);
+        this.searcherManager = new SearcherManager(writer, null);
+        this.readerOpenedAt = Instant.now();
+        this.searchableSequence = writer.getMaxCompletedSequenceNumber();
+        // Refreshes are serialized, and a refresh covers every write completed before it started
+        searcherManager.addListener(new ReferenceManager.RefreshListener() {
+            @Override
+            public void beforeRefresh() {
+                refreshStartSequence = writer.getMaxCompletedSequenceNumber();
+            }
+            
+            @Override
+            public void afterRefresh(boolean didRefresh) {
+                if (didRefresh) {
+                    readerOpenedAt = Instant.now();
+                }
+                searchableSequence = Math.max(searchableSequence, refreshStartSequence);
+                runSearchableActions(searchableSequence);
+            }
+        });
         
-        log.info("Lucene index initialized with {} documents", writer.getDocStats().numDocs);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "index-commit-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (settings.getCommitIntervalMs() > 0) {
+            scheduler.scheduleWithFixedDelay(this::commitIfPending,
+                    settings.getCommitIntervalMs(), settings.getCommitIntervalMs(), TimeUnit.MILLISECONDS);
+        }
+        
+        // A zero interval means demand-only; an hour keeps the reopen thread effectively idle
+        long maxStaleMs = settings.getRefreshIntervalMs() > 0 ? settings.getRefreshIntervalMs() : 3_600_000L;
+        this.reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager,
+                maxStaleMs / 1000.0, settings.getRefreshMinStaleMs() / 1000.0);
+        reopenThread.setName("index-nrt-reopen");
+        reopenThread.setDaemon(true);
+        reopenThread.start();
+        
+        int threads = settings.getIndexingThreads() > 0
+                ? settings.getIndexingThreads()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIds = new AtomicInteger();
+        // A full queue runs the batch on the submitting thread, which throttles producers;
+        // once the pool is shut down the submission is rejected instead of silently dropped
+        this.indexingPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                r -> {
+                    Thread thread = new Thread(r, "index-writer-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> {
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("Indexing pool is shut down");
+                    }
+                    task.run();
+                });
+        
+        log.info("Lucene index initialized with {} documents (commit every {}ms or {} pending, refresh every {}ms, "
+                        + "{} indexing threads, {}MB RAM buffer)",
+                writer.getDocStats().numDocs, settings.getCommitIntervalMs(),
+                settings.getCommitMaxPendingDocs(), settings.getRefreshIntervalMs(),
+                threads, settings.getRamBufferSizeMb());
     }
     
     @Override
-    public void index(DocumentChunk chunk) {
+    public long index(DocumentChunk chunk) {
         try {
             Document doc = createDocument(chunk);
-            writer.updateDocument(new Term("id", chunk.getId()), doc);
+            long seq = writer.updateDocument(new Term("id", chunk.getId()), doc);
+            onChanges(1);
+            return seq;
         } catch (IOException e) {
             log.error("Failed to index document {}", chunk.getId(), e);
             throw new RuntimeException("Indexing failed", e);
@@ -80,28 +233,240 @@ public class LuceneIndexer implements Indexer {
     }
     
     @Override
-    public void indexBatch(List<DocumentChunk> chunks) {
+    public long indexBatch(List<DocumentChunk> chunks) {
+        IndexBatchEvent event = new IndexBatchEvent();
+        event.begin();
+        long seq = writer.getMaxCompletedSequenceNumber();
         for (DocumentChunk chunk : chunks) {
-            index(chunk);
+            seq = Math.max(seq, index(chunk));
         }
-        commit();
+        commitEvent(event, "batch", chunks, seq);
+        return seq;
     }
     
     @Override
-    public void commit() {
+    public long indexSource(String sourceId, List<DocumentChunk> chunks) {
+        IndexBatchEvent event = new IndexBatchEvent();
+        event.begin();
+        try {
+            List<Document> docs = new ArrayList<>(chunks.size());
+            for (DocumentChunk chunk : chunks) {
+                docs.add(createDocument(chunk));
+            }
+            // One block update: the old chunks disappear and the new ones appear together
+            long seq = writer.updateDocuments(new Term("sourceId", sourceId), docs);
+            onChanges(docs.size());
+            commitEvent(event, "source", chunks, seq);
+            return seq;
+        } catch (IOException e) {
+            log.error("Failed to index source {}", sourceId, e);
+            throw new RuntimeException("Indexing failed", e);
+        }
+    }
+    
+    /**
+     * Index a source on the indexing pool. When the pool's queue is full the batch runs on the
+     * calling thread instead, so fast producers are slowed down rather than buffered without bound.
+     */
+    public CompletableFuture<Long> submitSource(String sourceId, List<DocumentChunk> chunks) {
+        return submit(() -> indexSource(sourceId, chunks));
+    }
+    
+    /**
+     * Index a batch of independent chunks (updated by id) on the indexing pool, with the same
+     * caller-runs backpressure as {@link #submitSource}.
+     */
+    public CompletableFuture<Long> submitBatch(List<DocumentChunk> chunks) {
+        return submit(() -> indexBatch(chunks));
+    }
+    
+    /**
+     * Run work on the indexing pool; after shutdown the future fails instead of never completing.
+     */
+    private CompletableFuture<Long> submit(Supplier<Long> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, indexingPool);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Index many per-source batches in parallel and wait for all of them.
+     * Each batch must hold the chunks of exactly one source.
+     *
+     * @return sequence number covering every batch
+     */
+    public long indexSourcesParallel(List<List<DocumentChunk>> batches) {
+        List<CompletableFuture<Long>> futures = new ArrayList<>(batches.size());
+        for (List<DocumentChunk> batch : batches) {
+            if (!batch.isEmpty()) {
+                futures.add(submitSource(batch.get(0).getSourceId(), batch));
+            }
+        }
+        
+        long seq = writer.getMaxCompletedSequenceNumber();
+        try {
+            for (CompletableFuture<Long> future : futures) {
+                seq = Math.max(seq, future.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+        return seq;
+    }
+    
+    /**
+     * Merge down to at most the given number of segments, waiting for completion if requested.
+     * Expensive for HNSW graphs; meant for off-peak maintenance.
+     */
+    public void forceMerge(int maxSegments, boolean doWait) {
         try {
-            writer.commit();
-            log.debug("Index committed successfully");
+            log.info("Force merging index to {} segments", maxSegments);
+            writer.forceMerge(maxSegments, doWait);
         } catch (IOException e) {
+            log.error("Force merge failed", e);
+            throw new RuntimeException("Force merge failed", e);
+        }
+    }
+    
+    /**
+     * Merge away segments carrying deleted documents, waiting for completion if requested.
+     */
+    public void expungeDeletes(boolean doWait) {
+        try {
+            log.info("Expunging deletes");
+            writer.forceMergeDeletes(doWait);
+        } catch (IOException e) {
+            log.error("Expunge deletes failed", e);
+            throw new RuntimeException("Expunge deletes failed", e);
+        }
+    }
+    
+    public List<TrackingMergeScheduler.MergeStatus> getRunningMerges() {
+        return mergeScheduler.getRunningMerges();
+    }
+    
+    public TrackingMergeScheduler getMergeScheduler() {
+        return mergeScheduler;
+    }
+    
+    /**
+     * Number of segments visible to the current near-real-time searcher.
+     */
+    public int getSegmentCount() {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return searcher.getIndexReader().leaves().size();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            log.error("Failed to read segment count", e);
+            throw new RuntimeException("Segment count failed", e);
+        }
+    }
+    
+    /**
+     * Explicit flush: make every change so far durable and visible to searches.
+     */
+    @Override
+    public void commit() {
+        // Taken before the commit so changes that land during it are left for the next one
+        long pending = pendingChanges.getAndSet(0);
+        try {
+            commitTimer.recordCallable(() -> writer.commit());
+        } catch (Exception e) {
+            // Nothing was made durable, so the next commit still owes these changes
+            pendingChanges.addAndGet(pending);
             log.error("Failed to commit index", e);
             throw new RuntimeException("Commit failed", e);
         }
+        commitCounter.increment();
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            log.error("Failed to refresh searcher after commit", e);
+            throw new RuntimeException("Refresh failed", e);
+        }
+        log.debug("Index committed successfully ({} pending changes)", pending);
+    }
+    
+    /**
+     * Reopen the near-real-time searcher so recent changes become visible without a commit.
+     */
+    public void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            log.error("Failed to refresh searcher", e);
+            throw new RuntimeException("Refresh failed", e);
+        }
+    }
+    
+    /**
+     * Block until the near-real-time searcher covers the given sequence number.
+     *
+     * @return false if the timeout elapsed first
+     * @throws IllegalArgumentException if the sequence number was never issued by this writer
+     */
+    public boolean awaitSearchable(long sequence, long timeoutMs) {
+        if (sequence > writer.getMaxCompletedSequenceNumber()) {
+            throw new IllegalArgumentException("Sequence number " + sequence + " has not been issued");
+        }
+        try {
+            return reopenThread.waitForGeneration(sequence, (int) Math.min(timeoutMs, Integer.MAX_VALUE));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
     
     @Override
-    public void delete(String id) {
+    public void whenSearchable(long sequence, Runnable action) {
+        if (sequence <= searchableSequence) {
+            action.run();
+            return;
+        }
+        searchableActions.merge(sequence, List.of(action), (existing, added) -> {
+            List<Runnable> merged = new ArrayList<>(existing);
+            merged.addAll(added);
+            return merged;
+        });
+        // A refresh may have finished between the check and the merge
+        if (sequence <= searchableSequence) {
+            runSearchableActions(searchableSequence);
+        }
+    }
+    
+    private void runSearchableActions(long upTo) {
+        Map.Entry<Long, List<Runnable>> entry;
+        while ((entry = searchableActions.firstEntry()) != null && entry.getKey() <= upTo) {
+            if (!searchableActions.remove(entry.getKey(), entry.getValue())) {
+                continue;
+            }
+            for (Runnable action : entry.getValue()) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    log.warn("Searchable action for sequence {} failed", entry.getKey(), e);
+                }
+            }
+        }
+    }
+    
+    @Override
+    public long getLatestSequence() {
+        return writer.getMaxCompletedSequenceNumber();
+    }
+    
+    @Override
+    public long delete(String id) {
         try {
-            writer.deleteDocuments(new Term("id", id));
+            long seq = writer.deleteDocuments(new Term("id", id));
+            onChanges(1);
+            return seq;
         } catch (IOException e) {
             log.error("Failed to delete document {}", id, e);
             throw new RuntimeException("Delete failed", e);
@@ -109,10 +474,11 @@ public class LuceneIndexer implements Indexer {
     }
     
     @Override
-    public void deleteBySource(String source) {
+    public long deleteBySource(String source) {
         try {
-            writer.deleteDocuments(new Term("source", source));
-            commit();
+            long seq = writer.deleteDocuments(new Term("source", source));
+            onChanges(1);
+            return seq;
         } catch (IOException e) {
             log.error("Failed to delete documents from source {}", source, e);
             throw new RuntimeException("Delete by source failed", e);
@@ -120,11 +486,12 @@ public class LuceneIndexer implements Indexer {
     }
     
     @Override
-    public void clearAll() {
+    public long clearAll() {
         try {
-            writer.deleteAll();
-            commit();
+            long seq = writer.deleteAll();
+            onChanges(1);
             log.info("Index cleared");
+            return seq;
         } catch (IOException e) {
             log.error("Failed to clear index", e);
             throw new RuntimeException("Clear failed", e);
@@ -136,10 +503,52 @@ public class LuceneIndexer implements Indexer {
         return writer.getDocStats().numDocs;
     }
     
+    /**
+     * Near-real-time searcher manager shared with {@link LuceneSearcher}.
+     */
+    SearcherManager getSearcherManager() {
+        return searcherManager;
+    }
+    
+    /**
+     * Directory the index files live in, without the merge rate limiter.
+     */
+    Directory getDirectory() {
+        return directory;
+    }
+    
+    public Path getIndexPath() {
+        return indexPath;
+    }
+    
+    public int getVectorDimension() {
+        return vectorDimension;
+    }
+    
+    /**
+     * When the current near-real-time reader was opened.
+     */
+    public Instant getReaderOpenedAt() {
+        return readerOpenedAt;
+    }
+    
     @Override
     @PreDestroy
     public void close() {
         try {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+            if (indexingPool != null) {
+                indexingPool.shutdown();
+                indexingPool.awaitTermination(30, TimeUnit.SECONDS);
+            }
+            if (reopenThread != null) {
+                reopenThread.close();
+            }
+            if (searcherManager != null) {
+                searcherManager.close();
+            }
             if (writer != null) {
                 writer.close();
             }
@@ -150,6 +559,75 @@ public class LuceneIndexer implements Indexer {
             log.info("Lucene index closed");
         } catch (IOException e) {
             log.error("Error closing index", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while draining indexing pool", e);
+        }
+    }
+    
+    private TieredMergePolicy createMergePolicy() {
+        TieredMergePolicy policy = new TieredMergePolicy();
+        policy.setSegmentsPerTier(settings.getMergeSegmentsPerTier());
+        policy.setMaxMergeAtOnce(settings.getMergeMaxMergeAtOnce());
+        policy.setMaxMergedSegmentMB(settings.getMergeMaxMergedSegmentMb());
+        policy.setFloorSegmentMB(settings.getMergeFloorSegmentMb());
+        policy.setDeletesPctAllowed(settings.getMergeDeletesPctAllowed());
+        return policy;
+    }
+    
+    private TrackingMergeScheduler createMergeScheduler() {
+        TrackingMergeScheduler tracking = new TrackingMergeScheduler(meterRegistry);
+        int maxThreads = settings.getMergeMaxThreadCount();
+        if (maxThreads > 0) {
+            int maxMerges = settings.getMergeMaxMergeCount() > 0
+                    ? Math.max(settings.getMergeMaxMergeCount(), maxThreads)
+                    : maxThreads + 5;
+            tracking.setMaxMergesAndThreads(maxMerges, maxThreads);
+        }
+        if (settings.isMergeAutoIoThrottle()) {
+            tracking.enableAutoIOThrottle();
+        } else {
+            tracking.disableAutoIOThrottle();
+        }
+        return tracking;
+    }
+    
+    /**
+     * Track uncommitted changes and hand off an early commit once the size threshold is reached.
+     */
+    private void onChanges(int count) {
+        long pending = pendingChanges.addAndGet(count);
+        int threshold = settings.getCommitMaxPendingDocs();
+        if (threshold > 0 && pending >= threshold && commitScheduled.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                commitScheduled.set(false);
+                commitIfPending();
+            });
+        }
+    }
+    
+    private static void commitEvent(IndexBatchEvent event, String operation, List<DocumentChunk> chunks, long seq) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.documents = chunks.size();
+            for (DocumentChunk chunk : chunks) {
+                if (chunk.getVector() != null) {
+                    event.vectors++;
+                }
+            }
+            event.sequence = seq;
+            event.commit();
+        }
+    }
+    
+    private void commitIfPending() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                commit();
+            }
+        } catch (Exception e) {
+            log.error("Scheduled commit failed", e);
         }
     }
     
@@ -177,6 +655,11 @@ public class LuceneIndexer implements Indexer {
         doc.add(new IntPoint("chunkIndex", chunk.getChunkIndex()));
         doc.add(new StoredField("chunkIndex", chunk.getChunkIndex()));
         
+        // Near-duplicates link to the chunk they repeat and carry no vector
+        if (chunk.getDuplicateOf() != null) {
+            doc.add(new StringField("duplicateOf", chunk.getDuplicateOf(), Field.Store.YES));
+        }
+        
         // Timestamp
         if (chunk.getTimestamp() != null) {
             long epochMilli = chunk.getTimestamp().toEpochMilli();
@@ -3,85 +3,102 @@ package com.searchlight.infra.index;
 import com.searchlight.domain.model.DocumentChunk;
 import com.searchlight.domain.model.SearchQuery;
 import com.searchlight.domain.model.SearchResult;
+import com.searchlight.domain.model.SearchTimings;
 import com.searchlight.domain.ports.Searcher;
+import com.searchlight.domain.ports.SequenceNotVisibleException;
+import com.searchlight.infra.observability.SearchStageMetrics;
+import com.searchlight.infra.observability.SearchStageMetrics.Stage;
+import com.searchlight.infra.observability.SlowQueryLog;
+import com.searchlight.infra.observability.jfr.SearchEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.LongPoint;
-import org.apache.lucene.index.DirectoryReader;
-import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.sandbox.search.QueryProfilerIndexSearcher;
+import org.apache.lucene.sandbox.search.QueryProfilerResult;
 import org.apache.lucene.search.*;
-import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.io.IOException;
-import java.nio.file.Path;
 import java.time.Instant;
 import java.util.*;
 
 /**
  * Lucene-based searcher with hybrid keyword + vector search.
+ *
+ * Searches run against the indexer's near-real-time {@link SearcherManager}, so uncommitted
+ * writes are visible without reopening the index from disk. Queries never force a refresh
+ * unless they carry a {@code minSeq}, in which case they wait until it is searchable.
+ *
+ * BM25, KNN, stored-field loading and fusion are timed separately; see {@link SearchStageMetrics}.
+ * Searches over the slow-query threshold are recorded in the {@link SlowQueryLog}, and re-run under
+ * a profiling searcher in the background.
  */
 @Slf4j
 @Component
 public class LuceneSearcher implements Searcher {
     
-    private final Path indexPath;
+    private final LuceneIndexer indexer;
     private final int vectorDimension;
-    
-    private Directory directory;
-    private IndexReader reader;
-    private IndexSearcher searcher;
+    private final long minSeqTimeoutMs;
+    private final SearchStageMetrics stageMetrics;
+    private final SlowQueryLog slowQueryLog;
     private final StandardAnalyzer analyzer;
     
+    public LuceneSearcher(LuceneIndexer indexer, int vectorDimension) {
+        this(indexer, vectorDimension, 5000, new SearchStageMetrics(new SimpleMeterRegistry()), SlowQueryLog.disabled());
+    }
+    
+    @Autowired
     public LuceneSearcher(
-            @Value("${searchlight.index.path:data/index}") String indexPath,
-            @Value("${searchlight.embedding.dimension:384}") int vectorDimension) {
-        this.indexPath = Path.of(indexPath);
+            LuceneIndexer indexer,
+            @Value("${searchlight.embedding.dimension:384}") int vectorDimension,
+            @Value("${searchlight.search.min-seq-timeout-ms:5000}") long minSeqTimeoutMs,
+            SearchStageMetrics stageMetrics,
+            SlowQueryLog slowQueryLog) {
+        this.indexer = indexer;
         this.vectorDimension = vectorDimension;
+        this.minSeqTimeoutMs = minSeqTimeoutMs;
+        this.stageMetrics = stageMetrics;
+        this.slowQueryLog = slowQueryLog;
         this.analyzer = new StandardAnalyzer();
     }
     
-    @PostConstruct
-    public void initialize() throws IOException {
-        log.info("Initializing Lucene searcher at {}", indexPath);
-        this.directory = FSDirectory.open(this.indexPath);
-        reopenReader();
-    }
-    
-    private void reopenReader() throws IOException {
-        if (DirectoryReader.indexExists(directory)) {
-            IndexReader newReader = DirectoryReader.open(directory);
-            if (reader != null) {
-                reader.close();
-            }
-            reader = newReader;
-            searcher = new IndexSearcher(reader);
-            log.debug("Reader reopened, {} documents in index", reader.numDocs());
-        } else {
-            log.warn("Index does not exist yet at {}", indexPath);
-        }
-    }
-    
     @Override
     public List<SearchResult> search(SearchQuery query) {
+        long start = System.nanoTime();
+        SearchTimings timings = query.getTimings() != null ? query.getTimings() : new SearchTimings();
+        SearchEvent event = new SearchEvent();
+        event.begin();
         try {
-            // Reopen reader to get latest changes
-            reopenReader();
-            
-            if (searcher == null) {
-                return Collections.emptyList();
+            // Read-your-writes: wait for the NRT searcher to cover the caller's last write
+            if (query.getMinSeq() != null && query.getMinSeq() > 0) {
+                awaitSearchable(query.getMinSeq());
             }
             
-            // Perform late-fusion hybrid search
-            return hybridLateFusion(query);
+            SearcherManager manager = indexer.getSearcherManager();
+            IndexSearcher searcher = manager.acquire();
+            try {
+                // Perform late-fusion hybrid search
+                List<SearchResult> results = hybridLateFusion(searcher, query, timings);
+                
+                // Embedding happened before this call, so add it back for the end-to-end time
+                double elapsedMs = timings.getEmbedMs() + (System.nanoTime() - start) / 1_000_000.0;
+                if (slowQueryLog.isSlow(elapsedMs)) {
+                    recordSlowQuery(manager, searcher, query, timings, elapsedMs);
+                }
+                commitEvent(event, query, timings, results.size());
+                return results;
+            } finally {
+                manager.release(searcher);
+            }
             
         } catch (IOException e) {
             log.error("Search failed", e);
@@ -89,40 +106,94 @@ public class LuceneSearcher implements Searcher {
         }
     }
     
+    private static void commitEvent(SearchEvent event, SearchQuery query, SearchTimings timings, int results) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.query = query.getQueryText();
+            event.topK = query.getTopK();
+            event.alpha = query.getAlpha();
+            event.bm25Hits = timings.getBm25Hits();
+            event.knnHits = timings.getKnnHits();
+            event.results = results;
+            event.bm25 = (long) (timings.getBm25Ms() * 1_000_000);
+            event.knn = (long) (timings.getKnnMs() * 1_000_000);
+            event.storedFields = (long) (timings.getStoredFieldsMs() * 1_000_000);
+            event.fusion = (long) (timings.getFusionMs() * 1_000_000);
+            event.commit();
+        }
+    }
+    
     /**
      * Hybrid late-fusion scoring: run BM25 and KNN separately, normalize, and fuse.
      */
-    private List<SearchResult> hybridLateFusion(SearchQuery query) throws IOException {
-        Map<String, SearchResult> resultsMap = new HashMap<>();
+    private List<SearchResult> hybridLateFusion(IndexSearcher searcher, SearchQuery query, SearchTimings timings) throws IOException {
+        List<SearchResult> bm25Results = List.of();
+        List<SearchResult> knnResults = List.of();
         
         // Run BM25 query if alpha < 1.0
-        if (query.getQueryText() != null && !query.getQueryText().isBlank() && query.getAlpha() < 1.0f) {
-            List<SearchResult> bm25Results = runBM25Search(query);
-            normalizeScores(bm25Results);
-            
-            for (SearchResult result : bm25Results) {
-                result.setKeywordScore(result.getScore());
-                result.setVectorScore(0.0f);
-                resultsMap.put(result.getId(), result);
+        if (usesBM25(query)) {
+            TopDocs topDocs;
+            try (SearchStageMetrics.Measurement stage = stageMetrics.start(Stage.BM25)) {
+                topDocs = runBM25Search(searcher, query);
+                timings.setBm25Ms(stage.endMillis());
             }
+            timings.setBm25Hits(topDocs.totalHits.value);
+            bm25Results = loadResults(searcher, topDocs, timings);
         }
         
         // Run KNN query if alpha > 0 and vector is present
-        if (query.getQueryVector() != null && query.getQueryVector().length == vectorDimension && query.getAlpha() > 0) {
-            List<SearchResult> knnResults = runKNNSearch(query);
-            normalizeScores(knnResults);
-            
-            for (SearchResult result : knnResults) {
-                if (resultsMap.containsKey(result.getId())) {
-                    // Merge with existing BM25 result
-                    SearchResult existing = resultsMap.get(result.getId());
-                    existing.setVectorScore(result.getScore());
-                } else {
-                    // New result from KNN only
-                    result.setVectorScore(result.getScore());
-                    result.setKeywordScore(0.0f);
-                    resultsMap.put(result.getId(), result);
-                }
+        if (usesKNN(query)) {
+            TopDocs topDocs;
+            try (SearchStageMetrics.Measurement stage = stageMetrics.start(Stage.KNN)) {
+                topDocs = runKNNSearch(searcher, query);
+                timings.setKnnMs(stage.endMillis());
+            }
+            timings.setKnnHits(topDocs.totalHits.value);
+            knnResults = loadResults(searcher, topDocs, timings);
+        }
+        
+        try (SearchStageMetrics.Measurement stage = stageMetrics.start(Stage.FUSION)) {
+            List<SearchResult> fused = fuse(bm25Results, knnResults, query);
+            timings.setFusionMs(stage.endMillis());
+            return fused;
+        }
+    }
+    
+    /**
+     * Load stored fields for the hits of one retriever, adding to the stored-field time.
+     */
+    private List<SearchResult> loadResults(IndexSearcher searcher, TopDocs topDocs, SearchTimings timings) throws IOException {
+        try (SearchStageMetrics.Measurement stage = stageMetrics.start(Stage.STORED_FIELDS)) {
+            List<SearchResult> results = convertToResults(searcher, topDocs);
+            timings.setStoredFieldsMs(timings.getStoredFieldsMs() + stage.endMillis());
+            return results;
+        }
+    }
+    
+    /**
+     * Normalize both result lists and combine them: score = (1-alpha) * bm25 + alpha * knn.
+     */
+    static List<SearchResult> fuse(List<SearchResult> bm25Results, List<SearchResult> knnResults, SearchQuery query) {
+        Map<String, SearchResult> resultsMap = new HashMap<>();
+        
+        normalizeScores(bm25Results);
+        for (SearchResult result : bm25Results) {
+            result.setKeywordScore(result.getScore());
+            result.setVectorScore(0.0f);
+            resultsMap.put(result.getId(), result);
+        }
+        
+        normalizeScores(knnResults);
+        for (SearchResult result : knnResults) {
+            if (resultsMap.containsKey(result.getId())) {
+                // Merge with existing BM25 result
+                SearchResult existing = resultsMap.get(result.getId());
+                existing.setVectorScore(result.getScore());
+            } else {
+                // New result from KNN only
+                result.setVectorScore(result.getScore());
+                result.setKeywordScore(0.0f);
+                resultsMap.put(result.getId(), result);
             }
         }
         
@@ -147,10 +218,44 @@ public class LuceneSearcher implements Searcher {
         return finalResults;
     }
     
+    private boolean usesBM25(SearchQuery query) {
+        return query.getQueryText() != null && !query.getQueryText().isBlank() && query.getAlpha() < 1.0f;
+    }
+    
+    private boolean usesKNN(SearchQuery query) {
+        return query.getQueryVector() != null && query.getQueryVector().length == vectorDimension && query.getAlpha() > 0;
+    }
+    
+    /**
+     * Number of candidates each leg fetches; more than topK so fusion has something to merge.
+     */
+    private static int fetchSize(SearchQuery query) {
+        return fetchSize(query.getTopK(), query.getOffset());
+    }
+    
+    /**
+     * Candidates per leg for a page of {@code topK} results starting at {@code offset}. The page
+     * is cut from the fused list, so each leg has to reach past the offset.
+     */
+    public static int fetchSize(int topK, int offset) {
+        return Math.max((offset + topK) * 2, 100);
+    }
+    
     /**
      * Run BM25 keyword search.
      */
-    private List<SearchResult> runBM25Search(SearchQuery query) throws IOException {
+    private TopDocs runBM25Search(IndexSearcher searcher, SearchQuery query) throws IOException {
+        Query bm25Query = buildBM25Query(query);
+        if (bm25Query == null) {
+            return new TopDocs(new TotalHits(0, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]);
+        }
+        return searcher.search(bm25Query, fetchSize(query));
+    }
+    
+    /**
+     * Build the filtered BM25 query, or null if the query text does not parse.
+     */
+    private Query buildBM25Query(SearchQuery query) {
         try {
             MultiFieldQueryParser parser = new MultiFieldQueryParser(
                     new String[]{"title", "content", "keywords"},
@@ -163,33 +268,102 @@ public class LuceneSearcher implements Searcher {
             BooleanQuery.Builder builder = new BooleanQuery.Builder();
             builder.add(textQuery, BooleanClause.Occur.MUST);
             addFilters(builder, query);
-            
-            int fetchSize = Math.max(query.getTopK() * 2, 100); // Fetch more for fusion
-            TopDocs topDocs = searcher.search(builder.build(), fetchSize);
-            
-            return convertToResults(topDocs);
+            return builder.build();
             
         } catch (ParseException e) {
             log.warn("Failed to parse query text: {}", query.getQueryText(), e);
-            return Collections.emptyList();
+            return null;
         }
     }
     
     /**
      * Run KNN vector search.
      */
-    private List<SearchResult> runKNNSearch(SearchQuery query) throws IOException {
-        Query vectorQuery = new KnnFloatVectorQuery("vector", query.getQueryVector(), 
-                Math.max(query.getTopK() * 2, 100)); // Fetch more for fusion
-        
+    private TopDocs runKNNSearch(IndexSearcher searcher, SearchQuery query) throws IOException {
+        Query vectorQuery = new KnnFloatVectorQuery("vector", query.getQueryVector(), fetchSize(query));
+        return searcher.search(buildKNNQuery(vectorQuery, query), fetchSize(query));
+    }
+    
+    private Query buildKNNQuery(Query vectorQuery, SearchQuery query) {
         // Apply filters
         BooleanQuery.Builder builder = new BooleanQuery.Builder();
         builder.add(vectorQuery, BooleanClause.Occur.MUST);
         addFilters(builder, query);
+        return builder.build();
+    }
+    
+    /**
+     * Log a slow search, and queue a re-run of its legs under a profiling searcher. The profiler
+     * holds its own reference to the searcher, so the re-run sees the same point-in-time reader
+     * as the original search without keeping the request waiting.
+     */
+    private void recordSlowQuery(SearcherManager manager, IndexSearcher searcher, SearchQuery query,
+                                 SearchTimings timings, double elapsedMs) throws IOException {
+        SlowQueryLog.Entry entry = slowQueryLog.record(query, timings, elapsedMs, List.of());
+        if (!slowQueryLog.shouldProfile()) {
+            return;
+        }
+        // Released by the profiler, or here if the profile is dropped
+        searcher.getIndexReader().incRef();
+        boolean queued = slowQueryLog.profileAsync(entry, () -> {
+            try {
+                return profile(searcher, query);
+            } finally {
+                manager.release(searcher);
+            }
+        });
+        if (!queued) {
+            manager.release(searcher);
+        }
+    }
+    
+    private List<SlowQueryLog.LegProfile> profile(IndexSearcher searcher, SearchQuery query) throws IOException {
+        List<SlowQueryLog.LegProfile> legs = new ArrayList<>(2);
+        if (usesBM25(query)) {
+            Query bm25Query = buildBM25Query(query);
+            if (bm25Query != null) {
+                legs.add(profileLeg("bm25", searcher, bm25Query, fetchSize(query), null));
+            }
+        }
+        if (usesKNN(query)) {
+            VisitCountingKnnQuery vectorQuery = new VisitCountingKnnQuery("vector", query.getQueryVector(), fetchSize(query));
+            legs.add(profileLeg("knn", searcher, buildKNNQuery(vectorQuery, query), fetchSize(query), vectorQuery));
+        }
+        return legs;
+    }
+    
+    /**
+     * Run one leg under a {@link QueryProfilerIndexSearcher}. KNN does its graph search while
+     * rewriting, so the rewrite is timed on its own.
+     */
+    private SlowQueryLog.LegProfile profileLeg(String leg, IndexSearcher searcher, Query luceneQuery, int n,
+                                               VisitCountingKnnQuery knn) throws IOException {
+        QueryProfilerIndexSearcher profiler = new QueryProfilerIndexSearcher(searcher.getIndexReader());
+        profiler.setSimilarity(searcher.getSimilarity());
         
-        TopDocs topDocs = searcher.search(builder.build(), Math.max(query.getTopK() * 2, 100));
+        long start = System.nanoTime();
+        Query rewritten = profiler.rewrite(luceneQuery);
+        long rewriteNanos = System.nanoTime() - start;
+        profiler.search(rewritten, n);
         
-        return convertToResults(topDocs);
+        return new SlowQueryLog.LegProfile(leg, rewriteNanos, knn != null ? knn.getVisitedCount() : null,
+                toClauseProfiles(profiler.getProfileResult()));
+    }
+    
+    private static List<SlowQueryLog.ClauseProfile> toClauseProfiles(List<QueryProfilerResult> results) {
+        List<SlowQueryLog.ClauseProfile> clauses = new ArrayList<>(results.size());
+        for (QueryProfilerResult result : results) {
+            // Only report the parts of the breakdown that took any time
+            Map<String, Long> breakdown = new LinkedHashMap<>();
+            result.getTimeBreakdown().forEach((type, value) -> {
+                if (value > 0) {
+                    breakdown.put(type, value);
+                }
+            });
+            clauses.add(new SlowQueryLog.ClauseProfile(result.getQueryName(), result.getLuceneDescription(),
+                    result.getTotalTime(), breakdown, toClauseProfiles(result.getProfiledChildren())));
+        }
+        return clauses;
     }
     
     /**
@@ -211,7 +385,7 @@ public class LuceneSearcher implements Searcher {
     /**
      * Convert Lucene TopDocs to SearchResults.
      */
-    private List<SearchResult> convertToResults(TopDocs topDocs) throws IOException {
+    List<SearchResult> convertToResults(IndexSearcher searcher, TopDocs topDocs) throws IOException {
         List<SearchResult> results = new ArrayList<>();
         
         for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
@@ -243,7 +417,7 @@ public class LuceneSearcher implements Searcher {
     /**
      * Min-max normalize scores to [0, 1] range.
      */
-    private void normalizeScores(List<SearchResult> results) {
+    static void normalizeScores(List<SearchResult> results) {
         if (results.isEmpty()) {
             return;
         }
@@ -271,26 +445,32 @@ public class LuceneSearcher implements Searcher {
         }
     }
     
+    @Override
+    public void awaitSearchable(long sequence) {
+        if (!indexer.awaitSearchable(sequence, minSeqTimeoutMs)) {
+            throw new SequenceNotVisibleException(sequence, minSeqTimeoutMs);
+        }
+    }
+    
     @Override
     public Optional<DocumentChunk> getById(String id) {
         try {
-            // Reopen reader to get latest changes
-            reopenReader();
-
-            if (searcher == null) {
-                return Optional.empty();
-            }
+            SearcherManager manager = indexer.getSearcherManager();
+            IndexSearcher searcher = manager.acquire();
+            try {
+                Query query = new TermQuery(new Term("id", id));
+                TopDocs topDocs = searcher.search(query, 1);
 
-            Query query = new TermQuery(new Term("id", id));
-            TopDocs topDocs = searcher.search(query, 1);
+                if (topDocs.scoreDocs.length == 0) {
+                    return Optional.empty();
+                }
 
-            if (topDocs.scoreDocs.length == 0) {
-                return Optional.empty();
+                Document doc = searcher.doc(topDocs.scoreDocs[0].doc);
+                return Optional.of(documentToChunk(doc));
+            } finally {
+                manager.release(searcher);
             }
 
-            Document doc = searcher.doc(topDocs.scoreDocs[0].doc);
-            return Optional.of(documentToChunk(doc));
-
         } catch (IOException e) {
             log.error("Failed to get document by id {}", id, e);
             return Optional.empty();
@@ -300,21 +480,23 @@ public class LuceneSearcher implements Searcher {
     @Override
     public List<DocumentChunk> getBySourceId(String sourceId) {
         try {
-            if (searcher == null) {
-                return Collections.emptyList();
-            }
-            
-            Query query = new TermQuery(new Term("sourceId", sourceId));
-            TopDocs topDocs = searcher.search(query, 1000);
-            
-            List<DocumentChunk> chunks = new ArrayList<>();
-            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
-                Document doc = searcher.doc(scoreDoc.doc);
-                chunks.add(documentToChunk(doc));
+            SearcherManager manager = indexer.getSearcherManager();
+            IndexSearcher searcher = manager.acquire();
+            try {
+                Query query = new TermQuery(new Term("sourceId", sourceId));
+                TopDocs topDocs = searcher.search(query, 1000);
+                
+                List<DocumentChunk> chunks = new ArrayList<>();
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    Document doc = searcher.doc(scoreDoc.doc);
+                    chunks.add(documentToChunk(doc));
+                }
+                
+                return chunks;
+            } finally {
+                manager.release(searcher);
             }
             
-            return chunks;
-            
         } catch (IOException e) {
             log.error("Failed to get documents by sourceId {}", sourceId, e);
             return Collections.emptyList();
@@ -324,18 +506,9 @@ public class LuceneSearcher implements Searcher {
     @Override
     @PreDestroy
     public void close() {
-        try {
-            if (reader != null) {
-                reader.close();
-            }
-            if (directory != null) {
-                directory.close();
-            }
-            analyzer.close();
-            log.info("Lucene searcher closed");
-        } catch (IOException e) {
-            log.error("Error closing searcher", e);
-        }
+        // Reader lifecycle belongs to the indexer's SearcherManager
+        analyzer.close();
+        log.info("Lucene searcher closed");
     }
     
     private DocumentChunk documentToChunk(Document doc) {
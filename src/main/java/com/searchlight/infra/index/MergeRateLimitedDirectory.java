@@ -0,0 +1,39 @@
+package com.searchlight.infra.index;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RateLimitedIndexOutput;
+import org.apache.lucene.store.RateLimiter;
+
+import java.io.IOException;
+
+/**
+ * Directory wrapper that caps the combined write rate of all segment merges.
+ *
+ * Flushes and commits are left untouched so indexing latency is not affected; only outputs
+ * opened with a MERGE context share the rate limiter.
+ */
+public class MergeRateLimitedDirectory extends FilterDirectory {
+    
+    private final RateLimiter rateLimiter;
+    
+    public MergeRateLimitedDirectory(Directory in, double maxMbPerSec) {
+        super(in);
+        this.rateLimiter = new RateLimiter.SimpleRateLimiter(maxMbPerSec);
+    }
+    
+    @Override
+    public IndexOutput createOutput(String name, IOContext context) throws IOException {
+        IndexOutput output = super.createOutput(name, context);
+        if (context.context == IOContext.Context.MERGE) {
+            return new RateLimitedIndexOutput(rateLimiter, output);
+        }
+        return output;
+    }
+    
+    public double getMaxMbPerSec() {
+        return rateLimiter.getMBPerSec();
+    }
+}
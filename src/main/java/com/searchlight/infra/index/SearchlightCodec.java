@@ -2,14 +2,23 @@ package com.searchlight.infra.index;
 
 import org.apache.lucene.codecs.FilterCodec;
 import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.KnnVectorsReader;
+import org.apache.lucene.codecs.KnnVectorsWriter;
 import org.apache.lucene.codecs.lucene99.Lucene99Codec;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
 import org.apache.lucene.codecs.lucene99.Lucene99HnswVectorsFormat;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+
+import java.io.IOException;
+import java.util.Set;
 
 /**
  * Custom Lucene codec that configures HNSW parameters for vector search.
  *
  * Uses Lucene99HnswVectorsFormat with configurable M and efConstruction parameters
- * for optimal vector search performance.
+ * for optimal vector search performance, or its scalar-quantized variant.
  */
 public final class SearchlightCodec extends FilterCodec {
 
@@ -30,12 +39,71 @@ public final class SearchlightCodec extends FilterCodec {
      * @param efConstruction Size of the dynamic candidate list during construction (default: 100)
      */
     public SearchlightCodec(int M, int efConstruction) {
+        this(M, efConstruction, VectorQuantization.NONE);
+    }
+
+    /**
+     * Creates a new SearchlightCodec that writes vectors with the given quantization.
+     */
+    public SearchlightCodec(int M, int efConstruction, VectorQuantization quantization) {
         super("Searchlight", new Lucene99Codec());
-        this.vectorsFormat = new Lucene99HnswVectorsFormat(M, efConstruction);
+        KnnVectorsFormat writeFormat = quantization == VectorQuantization.NONE
+                ? new Lucene99HnswVectorsFormat(M, efConstruction)
+                : new Lucene99HnswScalarQuantizedVectorsFormat(M, efConstruction, 1, quantization.bits(),
+                        quantization == VectorQuantization.INT4, null, null);
+        this.vectorsFormat = new SearchlightVectorsFormat(writeFormat);
     }
 
     @Override
     public KnnVectorsFormat knnVectorsFormat() {
         return vectorsFormat;
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes with the configured format and reads whichever format a segment was written with.
+     *
+     * Segments are opened through SPI with the no-argument codec, which cannot know how they were
+     * written; quantized segments are recognized by their {@code .veq} file. The format parameters
+     * only matter when writing, so default instances are enough for reading.
+     */
+    private static final class SearchlightVectorsFormat extends KnnVectorsFormat {
+
+        private static final String QUANTIZED_EXTENSION = "veq";
+        private static final KnnVectorsFormat HNSW = new Lucene99HnswVectorsFormat();
+        private static final KnnVectorsFormat QUANTIZED_HNSW = new Lucene99HnswScalarQuantizedVectorsFormat();
+
+        private final KnnVectorsFormat writeFormat;
+
+        SearchlightVectorsFormat(KnnVectorsFormat writeFormat) {
+            super("SearchlightHnsw");
+            this.writeFormat = writeFormat;
+        }
+
+        @Override
+        public KnnVectorsWriter fieldsWriter(SegmentWriteState state) throws IOException {
+            return writeFormat.fieldsWriter(state);
+        }
+
+        @Override
+        public KnnVectorsReader fieldsReader(SegmentReadState state) throws IOException {
+            String quantizedFile = IndexFileNames.segmentFileName(
+                    state.segmentInfo.name, state.segmentSuffix, QUANTIZED_EXTENSION);
+            // A compound segment only lists its .cfs/.cfe, but its reader lists just the entries inside
+            Set<String> files = state.segmentInfo.getUseCompoundFile()
+                    ? Set.of(state.directory.listAll())
+                    : state.segmentInfo.files();
+            boolean quantized = files.contains(quantizedFile);
+            return (quantized ? QUANTIZED_HNSW : HNSW).fieldsReader(state);
+        }
+
+        @Override
+        public int getMaxDimensions(String fieldName) {
+            return writeFormat.getMaxDimensions(fieldName);
+        }
+
+        @Override
+        public String toString() {
+            return "SearchlightHnsw(" + writeFormat + ")";
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.searchlight.infra.index;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.index.ConcurrentMergeScheduler;
+import org.apache.lucene.index.MergePolicy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConcurrentMergeScheduler that records merge time, bytes and docs, and keeps a view of the
+ * merges currently running so they can be inspected from the admin API.
+ */
+@Slf4j
+public class TrackingMergeScheduler extends ConcurrentMergeScheduler {
+    
+    private final Map<MergePolicy.OneMerge, Long> running = new ConcurrentHashMap<>();
+    private final Timer mergeTimer;
+    private final Counter mergeBytes;
+    private final Counter mergeDocs;
+    
+    /**
+     * Snapshot of a running merge.
+     */
+    public record MergeStatus(String segments, int segmentCount, long totalBytes, int totalDocs,
+                              long runningMs, boolean forced) {}
+    
+    public TrackingMergeScheduler(MeterRegistry meterRegistry) {
+        this.mergeTimer = Timer.builder("index.merge.latency")
+                .description("Wall time of completed segment merges")
+                .register(meterRegistry);
+        this.mergeBytes = Counter.builder("index.merge.bytes")
+                .description("Bytes of input segments merged")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.mergeDocs = meterRegistry.counter("index.merge.docs");
+        Gauge.builder("index.merge.running", running, Map::size)
+                .description("Segment merges currently running")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    protected void doMerge(MergeSource mergeSource, MergePolicy.OneMerge merge) throws IOException {
+        long start = System.nanoTime();
+        running.put(merge, start);
+        try {
+            super.doMerge(mergeSource, merge);
+        } finally {
+            running.remove(merge);
+            long elapsed = System.nanoTime() - start;
+            mergeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            mergeBytes.increment(merge.totalBytesSize());
+            mergeDocs.increment(merge.totalNumDocs());
+            log.debug("Merged {} segments ({} bytes, {} docs) in {}ms", merge.segments.size(),
+                    merge.totalBytesSize(), merge.totalNumDocs(), elapsed / 1_000_000);
+        }
+    }
+    
+    public List<MergeStatus> getRunningMerges() {
+        long now = System.nanoTime();
+        List<MergeStatus> statuses = new ArrayList<>();
+        running.forEach((merge, start) -> statuses.add(new MergeStatus(
+                merge.segString(),
+                merge.segments.size(),
+                merge.totalBytesSize(),
+                merge.totalNumDocs(),
+                (now - start) / 1_000_000,
+                merge.getStoreMergeInfo().mergeMaxNumSegments > 0)));
+        return statuses;
+    }
+    
+    public long getCompletedMerges() {
+        return mergeTimer.count();
+    }
+    
+    public double getMergedBytes() {
+        return mergeBytes.count();
+    }
+}
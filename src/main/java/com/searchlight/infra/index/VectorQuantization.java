@@ -0,0 +1,24 @@
+package com.searchlight.infra.index;
+
+/**
+ * Scalar quantization of indexed vectors. Quantized indexes keep the raw vectors for merging and
+ * rescoring but search the graph over 1-byte (INT8) or half-byte (INT4) values.
+ */
+public enum VectorQuantization {
+    NONE(0),
+    INT8(7),
+    INT4(4);
+
+    private final int bits;
+
+    VectorQuantization(int bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Bits per dimension as Lucene's scalar quantizer counts them; 0 for NONE.
+     */
+    public int bits() {
+        return bits;
+    }
+}
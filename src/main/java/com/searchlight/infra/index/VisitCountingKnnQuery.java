@@ -0,0 +1,33 @@
+package com.searchlight.infra.index;
+
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.TopDocs;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * KNN query that remembers how many vectors its rewrite scored.
+ *
+ * Each segment's result carries the number of HNSW nodes visited (or documents scored, when the
+ * segment falls back to exact search) as its total hit count; they are summed before merging.
+ */
+class VisitCountingKnnQuery extends KnnFloatVectorQuery {
+    
+    private final AtomicLong visited = new AtomicLong();
+    
+    VisitCountingKnnQuery(String field, float[] target, int k) {
+        super(field, target, k);
+    }
+    
+    @Override
+    protected TopDocs mergeLeafResults(TopDocs[] perLeafResults) {
+        for (TopDocs leaf : perLeafResults) {
+            visited.addAndGet(leaf.totalHits.value);
+        }
+        return super.mergeLeafResults(perLeafResults);
+    }
+    
+    long getVisitedCount() {
+        return visited.get();
+    }
+}
@@ -0,0 +1,142 @@
+package com.searchlight.infra.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.searchlight.domain.model.DocumentChunk;
+import com.searchlight.infra.index.LuceneIndexer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams pre-embedded chunks into the index without re-fetching or re-embedding.
+ *
+ * Records are parsed line by line and handed to the indexer's parallel writers in fixed-size
+ * batches; the indexing pool pushes back on the reader when it is saturated, so memory use
+ * stays bounded by the batch size times the pool queue regardless of the body size.
+ */
+@Slf4j
+@Service
+public class BulkImportService {
+    
+    private final LuceneIndexer indexer;
+    private final ChunkNdjsonReader reader;
+    private final int batchSize;
+    private final int maxErrorDetails;
+    private final Counter chunkCounter;
+    private final Counter errorCounter;
+    
+    /**
+     * Outcome of one import. Errors beyond {@code maxErrorDetails} are counted but not listed.
+     */
+    @Data
+    @Builder
+    public static class Result {
+        private long linesRead;
+        private long chunksIndexed;
+        private long errors;
+        private List<LineError> errorDetails;
+        private long timeMs;
+        private long seq;
+    }
+    
+    public record LineError(long line, String message) {}
+    
+    public BulkImportService(
+            LuceneIndexer indexer,
+            ObjectMapper objectMapper,
+            @Value("${searchlight.embedding.dimension:384}") int vectorDimension,
+            @Value("${searchlight.bulk.batch-size:500}") int batchSize,
+            @Value("${searchlight.bulk.max-error-details:100}") int maxErrorDetails,
+            MeterRegistry meterRegistry) {
+        this.indexer = indexer;
+        this.reader = new ChunkNdjsonReader(objectMapper.getFactory(), vectorDimension);
+        this.batchSize = batchSize;
+        this.maxErrorDetails = maxErrorDetails;
+        this.chunkCounter = meterRegistry.counter("bulk.chunks");
+        this.errorCounter = meterRegistry.counter("bulk.errors");
+    }
+    
+    public Result importNdjson(InputStream in) throws IOException {
+        long start = System.currentTimeMillis();
+        BatchingListener listener = new BatchingListener();
+        long lines = reader.read(in, listener);
+        listener.flush();
+        
+        long seq = 0;
+        try {
+            for (CompletableFuture<Long> future : listener.pending) {
+                seq = Math.max(seq, future.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+        indexer.commit();
+        
+        long timeMs = System.currentTimeMillis() - start;
+        log.info("Bulk import indexed {} chunks from {} lines with {} errors in {}ms",
+                listener.indexed.get(), lines, listener.errors, timeMs);
+        
+        return Result.builder()
+                .linesRead(lines)
+                .chunksIndexed(listener.indexed.get())
+                .errors(listener.errors)
+                .errorDetails(listener.errorDetails)
+                .timeMs(timeMs)
+                .seq(seq)
+                .build();
+    }
+    
+    /**
+     * Groups parsed chunks into batches and submits each full batch to the indexing pool.
+     */
+    private class BatchingListener implements ChunkNdjsonReader.Listener {
+        
+        private final List<CompletableFuture<Long>> pending = new ArrayList<>();
+        private final List<LineError> errorDetails = new ArrayList<>();
+        private final AtomicLong indexed = new AtomicLong();
+        private List<DocumentChunk> batch = new ArrayList<>(batchSize);
+        private long errors;
+        
+        @Override
+        public void onChunk(DocumentChunk chunk) {
+            batch.add(chunk);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+        
+        @Override
+        public void onError(long lineNumber, String message) {
+            errors++;
+            errorCounter.increment();
+            if (errorDetails.size() < maxErrorDetails) {
+                errorDetails.add(new LineError(lineNumber, message));
+            }
+        }
+        
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<DocumentChunk> chunks = batch;
+            batch = new ArrayList<>(batchSize);
+            pending.add(indexer.submitBatch(chunks).thenApply(seq -> {
+                indexed.addAndGet(chunks.size());
+                chunkCounter.increment(chunks.size());
+                return seq;
+            }));
+        }
+    }
+}
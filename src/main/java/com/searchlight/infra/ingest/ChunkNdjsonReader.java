@@ -0,0 +1,163 @@
+package com.searchlight.infra.ingest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.searchlight.domain.model.DocumentChunk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams newline-delimited JSON {@link DocumentChunk} records, one per line.
+ *
+ * Each line is parsed with Jackson's token-level parser straight into the chunk builder, so
+ * vectors are read as floats without an intermediate tree, and a malformed line is reported
+ * and skipped without aborting the rest of the stream.
+ */
+public class ChunkNdjsonReader {
+    
+    private static final int READ_BUFFER_CHARS = 1 << 16;
+    
+    private final JsonFactory jsonFactory;
+    private final int vectorDimension;
+    
+    /**
+     * Receives parsed chunks and per-line failures in input order.
+     */
+    public interface Listener {
+        void onChunk(DocumentChunk chunk);
+        
+        void onError(long lineNumber, String message);
+    }
+    
+    public ChunkNdjsonReader(JsonFactory jsonFactory, int vectorDimension) {
+        this.jsonFactory = jsonFactory;
+        this.vectorDimension = vectorDimension;
+    }
+    
+    /**
+     * Read every record from the stream.
+     *
+     * @return number of non-blank lines read
+     */
+    public long read(InputStream in, Listener listener) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_CHARS);
+        
+        long lineNumber = 0;
+        long records = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            records++;
+            try {
+                listener.onChunk(parseLine(line));
+            } catch (JsonProcessingException e) {
+                listener.onError(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                listener.onError(lineNumber, e.getMessage());
+            }
+        }
+        return records;
+    }
+    
+    DocumentChunk parseLine(String line) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Expected a JSON object");
+            }
+            
+            DocumentChunk.DocumentChunkBuilder builder = DocumentChunk.builder();
+            String id = null;
+            String content = null;
+            
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (field) {
+                    case "id" -> builder.id(id = parser.getValueAsString());
+                    case "sourceId" -> builder.sourceId(parser.getValueAsString());
+                    case "title" -> builder.title(parser.getValueAsString());
+                    case "url" -> builder.url(parser.getValueAsString());
+                    case "content" -> builder.content(content = parser.getValueAsString());
+                    case "source" -> builder.source(parser.getValueAsString());
+                    case "contentHash" -> builder.contentHash(parser.getValueAsString());
+                    case "duplicateOf" -> builder.duplicateOf(parser.getValueAsString());
+                    case "chunkIndex" -> builder.chunkIndex(parser.getValueAsInt());
+                    case "timestamp" -> builder.timestamp(parseTimestamp(parser));
+                    case "vector" -> builder.vector(parseVector(parser));
+                    case "keywords" -> builder.keywords(parseStrings(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+            
+            if (id == null || id.isBlank()) {
+                throw new IllegalArgumentException("Missing required field 'id'");
+            }
+            if (content == null) {
+                throw new IllegalArgumentException("Missing required field 'content' for id " + id);
+            }
+            
+            DocumentChunk chunk = builder.build();
+            if (chunk.getSourceId() == null) {
+                chunk.setSourceId(id);
+            }
+            return chunk;
+        }
+    }
+    
+    private float[] parseVector(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Field 'vector' must be an array");
+        }
+        float[] vector = new float[vectorDimension];
+        int i = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (i >= vectorDimension) {
+                throw new IllegalArgumentException("Vector longer than dimension " + vectorDimension);
+            }
+            vector[i++] = parser.getFloatValue();
+        }
+        if (i != vectorDimension) {
+            throw new IllegalArgumentException("Vector has " + i + " values, expected " + vectorDimension);
+        }
+        return vector;
+    }
+    
+    private static String[] parseStrings(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Field 'keywords' must be an array");
+        }
+        List<String> values = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            values.add(parser.getValueAsString());
+        }
+        return values.toArray(String[]::new);
+    }
+    
+    private static Instant parseTimestamp(JsonParser parser) throws IOException {
+        if (parser.currentToken().isNumeric()) {
+            return Instant.ofEpochMilli(parser.getLongValue());
+        }
+        try {
+            return Instant.parse(parser.getValueAsString());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid timestamp: " + parser.getValueAsString());
+        }
+    }
+}
@@ -1,79 +1,291 @@
 package com.searchlight.infra.ingest;
 
+import com.searchlight.infra.embeddings.WordPieceTokenizer;
+import com.searchlight.infra.observability.jfr.ChunkEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Chunks text into smaller pieces for embedding.
  * Uses a simple token-based approach with overlap.
+ *
+ * The text is scanned once. Word offsets for the current window live in a ring buffer of
+ * {@code size + 1} slots, so memory does not grow with the document and no per-word strings are
+ * created. Chunks are returned as {@link Span} views over the original text. When a window is
+ * full the cut is moved back to a paragraph break near the end of the window, else to the last
+ * sentence break in its second half, else it falls on the word limit.
+ *
+ * In {@link Mode#TOKENS} each word is weighted by its WordPiece token count under the embedding
+ * model's vocabulary, and a window is full when it would no longer fit the model's context with
+ * [CLS] and [SEP], so chunks fill the window instead of being silently truncated by the embedder.
+ * Whenever a vocabulary is configured, every chunk's token count is recorded and chunks longer
+ * than the model window are counted as truncated.
  */
 @Slf4j
 @Component
 public class Chunker {
     
+    private static final byte NO_BREAK = 0;
+    private static final byte SENTENCE_BREAK = 1;
+    private static final byte PARAGRAPH_BREAK = 2;
+    
+    private static final int SPECIAL_TOKENS = 2;
+    
+    /**
+     * What the chunk size is measured in.
+     */
+    public enum Mode {
+        /** Whitespace-separated words, limited by {@code searchlight.chunker.size}. */
+        WORDS,
+        /** WordPiece tokens, limited by the model window {@code searchlight.chunker.max-tokens}. */
+        TOKENS
+    }
+    
+    private final Mode mode;
     private final int chunkSize;
     private final int chunkOverlap;
+    private final WordPieceTokenizer tokenizer;
+    private final int maxTokens;
+    private final Counter chunkCounter;
+    private final Counter truncatedCounter;
+    private final DistributionSummary tokenSummary;
+    
+    /**
+     * Zero-copy view of {@code source[start, end)}. {@link #toString()} copies.
+     */
+    public record Span(CharSequence source, int start, int end) implements CharSequence {
+        
+        @Override
+        public int length() {
+            return end - start;
+        }
+        
+        @Override
+        public char charAt(int index) {
+            return source.charAt(start + index);
+        }
+        
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new Span(source, start + from, start + to);
+        }
+        
+        @Override
+        public String toString() {
+            return source.subSequence(start, end).toString();
+        }
+    }
     
+    public Chunker(int chunkSize, int chunkOverlap) {
+        this(Mode.WORDS, chunkSize, chunkOverlap, null, 0, new SimpleMeterRegistry());
+    }
+    
+    @Autowired
     public Chunker(
+            @Value("${searchlight.chunker.mode:WORDS}") Mode mode,
             @Value("${searchlight.chunker.size:512}") int chunkSize,
-            @Value("${searchlight.chunker.overlap:50}") int chunkOverlap) {
+            @Value("${searchlight.chunker.overlap:50}") int chunkOverlap,
+            @Value("${searchlight.chunker.vocab-path:}") String vocabPath,
+            @Value("${searchlight.chunker.lowercase:true}") boolean lowercase,
+            @Value("${searchlight.chunker.max-tokens:256}") int maxTokens,
+            MeterRegistry meterRegistry) {
+        this(mode, chunkSize, chunkOverlap, loadTokenizer(mode, vocabPath, lowercase), maxTokens, meterRegistry);
+    }
+    
+    /**
+     * @param tokenizer required for {@link Mode#TOKENS}; optional otherwise, enabling truncation metrics
+     * @param maxTokens model context window including [CLS] and [SEP]
+     */
+    public Chunker(Mode mode, int chunkSize, int chunkOverlap, WordPieceTokenizer tokenizer, int maxTokens,
+                   MeterRegistry meterRegistry) {
+        if (mode == Mode.TOKENS) {
+            if (tokenizer == null) {
+                throw new IllegalArgumentException("Token chunking requires a WordPiece vocabulary");
+            }
+            chunkSize = maxTokens - SPECIAL_TOKENS;
+        }
+        if (chunkSize < 1 || chunkOverlap < 0 || chunkOverlap >= chunkSize) {
+            throw new IllegalArgumentException(
+                    "Chunk overlap must be in [0, size) and size positive: size=" + chunkSize + ", overlap=" + chunkOverlap);
+        }
+        this.mode = mode;
         this.chunkSize = chunkSize;
         this.chunkOverlap = chunkOverlap;
-        log.info("Initialized chunker: size={}, overlap={}", chunkSize, chunkOverlap);
+        this.tokenizer = tokenizer;
+        this.maxTokens = maxTokens;
+        this.chunkCounter = meterRegistry.counter("chunker.chunks");
+        this.truncatedCounter = meterRegistry.counter("chunker.truncated");
+        this.tokenSummary = DistributionSummary.builder("chunker.chunk.tokens")
+                .description("WordPiece tokens per chunk including [CLS] and [SEP]")
+                .register(meterRegistry);
+        Gauge.builder("chunker.truncation.ratio", this, Chunker::getTruncationRatio)
+                .description("Fraction of chunks longer than the embedding model window")
+                .register(meterRegistry);
+        log.info("Initialized chunker: mode={}, size={}, overlap={}, maxTokens={}, tokenizer={}",
+                mode, chunkSize, chunkOverlap, maxTokens, tokenizer != null);
+    }
+    
+    private static WordPieceTokenizer loadTokenizer(Mode mode, String vocabPath, boolean lowercase) {
+        if (vocabPath == null || vocabPath.isBlank()) {
+            if (mode == Mode.TOKENS) {
+                throw new IllegalStateException("searchlight.chunker.mode=TOKENS requires searchlight.chunker.vocab-path");
+            }
+            return null;
+        }
+        try {
+            return WordPieceTokenizer.load(Path.of(vocabPath), lowercase);
+        } catch (IOException e) {
+            log.error("Failed to load WordPiece vocabulary from {}", vocabPath, e);
+            throw new UncheckedIOException(e);
+        }
     }
     
     /**
      * Chunk text into overlapping segments.
-     * Uses word-based chunking as a simple approximation of token chunking.
      */
     public List<String> chunk(String text) {
-        if (text == null || text.isBlank()) {
-            return List.of();
+        List<Span> spans = split(text);
+        List<String> chunks = new ArrayList<>(spans.size());
+        for (Span span : spans) {
+            chunks.add(span.toString());
         }
-        
-        List<String> chunks = new ArrayList<>();
-        String[] words = text.split("\\s+");
-        
-        if (words.length == 0) {
+        return chunks;
+    }
+    
+    /**
+     * Split text into overlapping chunks of at most {@code size} words, or in token mode at most
+     * the model window in tokens, as views over the text. A single word longer than the window
+     * becomes its own (truncated) chunk.
+     */
+    public List<Span> split(CharSequence text) {
+        if (text == null) {
             return List.of();
         }
+        ChunkEvent event = new ChunkEvent();
+        event.begin();
         
-        // If text is shorter than chunk size, return as single chunk
-        if (words.length <= chunkSize) {
-            chunks.add(text);
-            return chunks;
-        }
+        int capacity = chunkSize + 1;
+        int[] starts = new int[capacity];
+        int[] ends = new int[capacity];
+        byte[] breaks = new byte[capacity];
+        int[] weights = new int[capacity];
+        List<Span> spans = new ArrayList<>();
         
-        int start = 0;
-        while (start < words.length) {
-            int end = Math.min(start + chunkSize, words.length);
-            
-            // Join words into chunk
-            StringBuilder chunk = new StringBuilder();
-            for (int i = start; i < end; i++) {
-                if (i > start) {
-                    chunk.append(" ");
+        int length = text.length();
+        int pos = 0;
+        int words = 0;
+        int first = 0;
+        int windowWeight = 0;
+        boolean sentenceEnded = false;
+        
+        while (true) {
+            int newlines = 0;
+            while (pos < length && Character.isWhitespace(text.charAt(pos))) {
+                if (text.charAt(pos) == '\n') {
+                    newlines++;
                 }
-                chunk.append(words[i]);
+                pos++;
+            }
+            if (pos >= length) {
+                break;
             }
             
-            chunks.add(chunk.toString());
+            int wordStart = pos;
+            while (pos < length && !Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
             
-            // Move start position with overlap
-            start += chunkSize - chunkOverlap;
+            int slot = words % capacity;
+            starts[slot] = wordStart;
+            ends[slot] = pos;
+            breaks[slot] = newlines >= 2 ? PARAGRAPH_BREAK : sentenceEnded ? SENTENCE_BREAK : NO_BREAK;
+            // A word of only control characters has no tokens but still occupies a slot
+            weights[slot] = mode == Mode.TOKENS ? Math.max(1, tokenizer.countTokens(text, wordStart, pos)) : 1;
+            sentenceEnded = endsSentence(text, wordStart, pos);
+            windowWeight += weights[slot];
+            words++;
             
-            // Avoid infinite loop
-            if (start >= words.length) {
-                break;
+            // Only cut once a word past the window is known, so a text of exactly size words is one chunk
+            while (windowWeight > chunkSize && words - first > 1) {
+                int cut = findCut(breaks, capacity, first, words - 1);
+                emit(text, spans, starts, ends, weights, capacity, first, cut);
+                
+                // Step back from the cut by up to the overlap, always advancing at least one word
+                int next = cut;
+                int overlap = 0;
+                while (next > first + 1 && overlap + weights[(next - 1) % capacity] <= chunkOverlap) {
+                    next--;
+                    overlap += weights[next % capacity];
+                }
+                for (int j = first; j < next; j++) {
+                    windowWeight -= weights[j % capacity];
+                }
+                first = next;
             }
         }
         
-        log.debug("Chunked text of {} words into {} chunks", words.length, chunks.size());
-        return chunks;
+        if (words > first) {
+            emit(text, spans, starts, ends, weights, capacity, first, words);
+        }
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.mode = mode.name();
+            event.characters = length;
+            event.words = words;
+            event.chunks = spans.size();
+            event.commit();
+        }
+        
+        log.debug("Chunked text of {} words into {} chunks", words, spans.size());
+        return spans;
+    }
+    
+    public Mode getMode() {
+        return mode;
+    }
+    
+    /**
+     * Fraction of chunks so far whose token count exceeded the model window; 0 without a vocabulary.
+     */
+    public double getTruncationRatio() {
+        double chunks = tokenSummary.count();
+        return chunks == 0 ? 0.0 : truncatedCounter.count() / chunks;
+    }
+    
+    private void emit(CharSequence text, List<Span> spans, int[] starts, int[] ends, int[] weights, int capacity,
+                      int first, int end) {
+        Span span = new Span(text, starts[first % capacity], ends[(end - 1) % capacity]);
+        spans.add(span);
+        chunkCounter.increment();
+        if (tokenizer == null) {
+            return;
+        }
+        int tokens = SPECIAL_TOKENS;
+        if (mode == Mode.TOKENS) {
+            for (int j = first; j < end; j++) {
+                tokens += weights[j % capacity];
+            }
+        } else {
+            tokens += tokenizer.countTokens(span);
+        }
+        tokenSummary.record(tokens);
+        if (tokens > maxTokens) {
+            truncatedCounter.increment();
+        }
     }
     
     /**
@@ -84,12 +296,86 @@ public class Chunker {
             return 0;
         }
         
-        String[] words = text.split("\\s+");
-        if (words.length <= chunkSize) {
+        int units = mode == Mode.TOKENS ? tokenizer.countTokens(text) : countWords(text);
+        if (units <= chunkSize) {
             return 1;
         }
         
         int stride = chunkSize - chunkOverlap;
-        return (int) Math.ceil((double) (words.length - chunkSize) / stride) + 1;
+        return (int) Math.ceil((double) (units - chunkSize) / stride) + 1;
+    }
+    
+    /**
+     * The first {@code max} whitespace-separated words of the text.
+     */
+    public static String[] leadingWords(CharSequence text, int max) {
+        List<String> words = new ArrayList<>(max);
+        int length = text.length();
+        int pos = 0;
+        while (words.size() < max) {
+            while (pos < length && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+            if (pos >= length) {
+                break;
+            }
+            int start = pos;
+            while (pos < length && !Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+            words.add(text.subSequence(start, pos).toString());
+        }
+        return words.toArray(new String[0]);
+    }
+    
+    /**
+     * Word index to end the chunk starting at {@code first} before (exclusive), at most {@code limit}.
+     */
+    private static int findCut(byte[] breaks, int capacity, int first, int limit) {
+        int size = limit - first;
+        
+        // A paragraph break in the last quarter of the window
+        for (int j = limit; j > first + size - size / 4 && j > first; j--) {
+            if (breaks[j % capacity] == PARAGRAPH_BREAK) {
+                return j;
+            }
+        }
+        // Otherwise the last sentence or paragraph break in the second half
+        for (int j = limit; j > first + size / 2 && j > first; j--) {
+            if (breaks[j % capacity] != NO_BREAK) {
+                return j;
+            }
+        }
+        return limit;
+    }
+    
+    private static boolean endsSentence(CharSequence text, int start, int end) {
+        int i = end - 1;
+        while (i > start && isClosing(text.charAt(i))) {
+            i--;
+        }
+        char c = text.charAt(i);
+        if (c == '!' || c == '?' || c == '…') {
+            return true;
+        }
+        // Skip initials and short abbreviations such as "J." or "e.g."
+        return c == '.' && i - start >= 2 && text.charAt(i - 2) != '.';
+    }
+    
+    private static boolean isClosing(char c) {
+        return c == '"' || c == '\'' || c == ')' || c == ']' || c == '”' || c == '’' || c == '»';
+    }
+    
+    private static int countWords(CharSequence text) {
+        int count = 0;
+        boolean inWord = false;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            boolean whitespace = Character.isWhitespace(text.charAt(i));
+            if (!whitespace && !inWord) {
+                count++;
+            }
+            inWord = !whitespace;
+        }
+        return count;
     }
 }
@@ -0,0 +1,498 @@
+package com.searchlight.infra.ingest;
+
+import com.searchlight.infra.store.SeenGuidStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls registered RSS/Atom feeds on adaptive per-feed intervals.
+ *
+ * Each feed's interval tracks how often it publishes: after a poll that found new entries it
+ * moves towards the observed time per new entry, and after an empty poll it backs off, always
+ * within [min-interval, max-interval]. Failures back off exponentially. Delays carry random
+ * jitter so feeds registered together drift apart, and at most max-concurrent feeds are fetched
+ * at once. Entries whose GUID (or link, without one) is in the {@link SeenGuidStore} are skipped
+ * without fetching the article.
+ *
+ * Feeds come from the seed file on first start and are then kept in the state directory, where
+ * the admin API adds and removes them.
+ */
+@Slf4j
+@Component
+public class FeedPollScheduler {
+
+    private static final String FEEDS_FILE = "feeds.txt";
+    private static final double EWMA_ALPHA = 0.5;
+    private static final double EMPTY_POLL_BACKOFF = 1.5;
+    private static final int MAX_FAILURE_SHIFT = 6;
+
+    private final RssIngestService ingestService;
+    private final SeenGuidStore seenGuids;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Path seedFile;
+    private final Path feedsFile;
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final long initialIntervalMs;
+    private final double jitter;
+    private final int maxConcurrent;
+    private final long checkpointIntervalMs;
+
+    private final Map<String, FeedState> feeds = new ConcurrentHashMap<>();
+    private final AtomicBoolean ingestedSinceCheckpoint = new AtomicBoolean();
+    private final Counter pollCounter;
+    private final Counter newEntryCounter;
+    private final Counter seenEntryCounter;
+    private final Counter errorCounter;
+    private final DistributionSummary lagSummary;
+
+    private ScheduledExecutorService timer;
+    private ThreadPoolExecutor pollers;
+
+    /**
+     * Scheduling state of one feed, written by its polls and read by the admin API.
+     *
+     * {@code scheduled}, {@code generation}, {@code polling} and {@code pollRequested} are guarded
+     * by the state's monitor. Every schedule bumps the generation, and a poll whose generation is
+     * no longer current drops itself, so a feed never has more than one poll chain.
+     */
+    static class FeedState {
+        final String url;
+        volatile long intervalMs;
+        volatile Instant nextPoll;
+        volatile Instant lastPoll;
+        volatile Instant lastNewEntry;
+        volatile int lastNewEntries;
+        volatile long totalNewEntries;
+        volatile int failures;
+        volatile String lastError;
+        volatile double lagSeconds = Double.NaN;
+        ScheduledFuture<?> scheduled;
+        long generation;
+        boolean polling;
+        boolean pollRequested;
+        Gauge lagGauge;
+
+        FeedState(String url, long intervalMs) {
+            this.url = url;
+            this.intervalMs = intervalMs;
+        }
+    }
+
+    /**
+     * Snapshot of a feed for the admin API.
+     */
+    public record FeedStatus(String url, long intervalMs, Instant nextPoll, Instant lastPoll, Instant lastNewEntry,
+                             int lastNewEntries, long totalNewEntries, int failures, String lastError,
+                             Double lagSeconds) {}
+
+    public FeedPollScheduler(
+            RssIngestService ingestService,
+            SeenGuidStore seenGuids,
+            @Value("${searchlight.ingest.poll.enabled:false}") boolean enabled,
+            @Value("${searchlight.ingest.poll.seed-file:scripts/seed_rss.txt}") String seedFile,
+            @Value("${searchlight.ingest.poll.state-dir:data/feeds}") String stateDir,
+            @Value("${searchlight.ingest.poll.min-interval-ms:60000}") long minIntervalMs,
+            @Value("${searchlight.ingest.poll.max-interval-ms:21600000}") long maxIntervalMs,
+            @Value("${searchlight.ingest.poll.initial-interval-ms:900000}") long initialIntervalMs,
+            @Value("${searchlight.ingest.poll.jitter:0.1}") double jitter,
+            @Value("${searchlight.ingest.poll.max-concurrent:4}") int maxConcurrent,
+            @Value("${searchlight.ingest.poll.checkpoint-interval-ms:60000}") long checkpointIntervalMs,
+            MeterRegistry meterRegistry) {
+        this.ingestService = ingestService;
+        this.seenGuids = seenGuids;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.seedFile = Path.of(seedFile);
+        this.feedsFile = Path.of(stateDir).resolve(FEEDS_FILE);
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.initialIntervalMs = Math.max(minIntervalMs, Math.min(maxIntervalMs, initialIntervalMs));
+        this.jitter = jitter;
+        this.maxConcurrent = maxConcurrent;
+        this.checkpointIntervalMs = checkpointIntervalMs;
+
+        this.pollCounter = meterRegistry.counter("ingest.feed.polls");
+        this.newEntryCounter = meterRegistry.counter("ingest.feed.entries.new");
+        this.seenEntryCounter = meterRegistry.counter("ingest.feed.entries.seen");
+        this.errorCounter = meterRegistry.counter("ingest.feed.errors");
+        this.lagSummary = DistributionSummary.builder("ingest.feed.entry.lag")
+                .description("Seconds from an entry's publication to its ingestion")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("ingest.feed.registered", feeds, Map::size)
+                .description("Feeds registered for polling")
+                .register(meterRegistry);
+        Gauge.builder("ingest.queue.depth", this, s -> s.pollers != null ? s.pollers.getQueue().size() : 0)
+                .description("Work waiting in an ingestion queue")
+                .tag("queue", "feed_poll")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Feed polling disabled");
+            return;
+        }
+
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "feed-poll-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        pollers = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "feed-poller-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        for (String url : loadFeedList()) {
+            FeedState state = new FeedState(url, initialIntervalMs);
+            if (feeds.putIfAbsent(url, state) == null) {
+                registerLagGauge(state);
+                // Spread the first polls over the initial interval instead of fetching everything at once
+                schedule(state, (long) (ThreadLocalRandom.current().nextDouble() * Math.min(initialIntervalMs, 60_000)));
+            }
+        }
+        saveFeedList();
+        timer.scheduleWithFixedDelay(this::checkpoint, checkpointIntervalMs, checkpointIntervalMs, TimeUnit.MILLISECONDS);
+
+        log.info("Feed polling started for {} feeds (interval {}..{}ms, maxConcurrent={})",
+                feeds.size(), minIntervalMs, maxIntervalMs, maxConcurrent);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Add a feed and poll it right away.
+     *
+     * @return false if the feed was already registered
+     */
+    public boolean register(String url) {
+        requireEnabled();
+        String feedUrl = validate(url);
+        FeedState state = new FeedState(feedUrl, initialIntervalMs);
+        if (feeds.putIfAbsent(feedUrl, state) != null) {
+            return false;
+        }
+        registerLagGauge(state);
+        saveFeedList();
+        schedule(state, 0);
+        log.info("Registered feed {}", feedUrl);
+        return true;
+    }
+
+    /**
+     * Stop polling a feed. A poll already in progress finishes.
+     *
+     * @return false if the feed was not registered
+     */
+    public boolean unregister(String url) {
+        requireEnabled();
+        FeedState state = feeds.remove(url);
+        if (state == null) {
+            return false;
+        }
+        synchronized (state) {
+            if (state.scheduled != null) {
+                state.scheduled.cancel(false);
+            }
+        }
+        if (state.lagGauge != null) {
+            meterRegistry.remove(state.lagGauge);
+        }
+        saveFeedList();
+        log.info("Unregistered feed {}", url);
+        return true;
+    }
+
+    /**
+     * Poll a registered feed now instead of at its scheduled time. If a poll is in progress, the
+     * feed is polled again as soon as it finishes.
+     *
+     * @return false if the feed is not registered
+     */
+    public boolean pollNow(String url) {
+        requireEnabled();
+        FeedState state = feeds.get(url);
+        if (state == null) {
+            return false;
+        }
+        synchronized (state) {
+            if (state.polling) {
+                state.pollRequested = true;
+            } else {
+                schedule(state, 0);
+            }
+        }
+        return true;
+    }
+
+    public List<FeedStatus> getFeeds() {
+        List<FeedStatus> statuses = new ArrayList<>(feeds.size());
+        for (FeedState state : feeds.values()) {
+            statuses.add(new FeedStatus(state.url, state.intervalMs, state.nextPoll, state.lastPoll,
+                    state.lastNewEntry, state.lastNewEntries, state.totalNewEntries, state.failures, state.lastError,
+                    Double.isNaN(state.lagSeconds) ? null : state.lagSeconds));
+        }
+        statuses.sort(Comparator.comparing(FeedStatus::url));
+        return statuses;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (timer == null) {
+            return;
+        }
+        timer.shutdownNow();
+        pollers.shutdown();
+        try {
+            if (!pollers.awaitTermination(30, TimeUnit.SECONDS)) {
+                pollers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pollers.shutdownNow();
+        }
+        checkpoint();
+    }
+
+    /**
+     * Next base interval for a feed: towards the observed time per new entry after a productive
+     * poll, multiplicatively longer after an empty one, clamped to [min, max].
+     */
+    static long nextInterval(long currentMs, long elapsedMs, int newEntries, long minMs, long maxMs) {
+        double next;
+        if (newEntries > 0) {
+            double observed = (double) elapsedMs / newEntries;
+            next = EWMA_ALPHA * observed + (1 - EWMA_ALPHA) * currentMs;
+        } else {
+            next = currentMs * EMPTY_POLL_BACKOFF;
+        }
+        return Math.max(minMs, Math.min(maxMs, Math.round(next)));
+    }
+
+    /**
+     * Replace the feed's pending poll, if any, with one after the given delay.
+     */
+    private void schedule(FeedState state, long delayMs) {
+        synchronized (state) {
+            if (state.scheduled != null) {
+                state.scheduled.cancel(false);
+            }
+            long generation = ++state.generation;
+            state.nextPoll = Instant.now().plusMillis(delayMs);
+            state.scheduled = timer.schedule(() -> pollers.execute(() -> poll(state, generation)),
+                    delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void poll(FeedState state, long generation) {
+        synchronized (state) {
+            // A poll that was already queued when it was replaced or cancelled
+            if (feeds.get(state.url) != state || state.generation != generation || state.polling) {
+                return;
+            }
+            state.polling = true;
+        }
+        Instant started = Instant.now();
+        AtomicInteger fresh = new AtomicInteger();
+        boolean failed = false;
+
+        try {
+            ingestService.readFeed(state.url, entry -> {
+                String link = entry.link();
+                if (link == null || link.isBlank()) {
+                    return;
+                }
+                String guid = entry.guid() != null && !entry.guid().isBlank() ? entry.guid() : link;
+                if (seenGuids.contains(guid)) {
+                    seenEntryCounter.increment();
+                    return;
+                }
+
+                try {
+                    ingestService.ingestUrl(link, entry.feedTitle(), entry.published());
+                    seenGuids.add(guid);
+                    fresh.incrementAndGet();
+                    newEntryCounter.increment();
+                    if (entry.published() != null) {
+                        double lag = Math.max(0, Duration.between(entry.published(), Instant.now()).toMillis() / 1000.0);
+                        lagSummary.record(lag);
+                        state.lagSeconds = lag;
+                    }
+                } catch (Exception e) {
+                    // Not marked as seen, so the next poll retries it
+                    log.warn("Failed to ingest feed entry {}", link, e);
+                    errorCounter.increment();
+                }
+            });
+            state.lastError = null;
+
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            failed = true;
+            state.lastError = e.getMessage();
+            log.warn("Failed to poll feed {}: {}", state.url, e.getMessage());
+            errorCounter.increment();
+        }
+
+        pollCounter.increment();
+        long delayMs;
+        if (failed) {
+            state.failures++;
+            delayMs = Math.min(maxIntervalMs, state.intervalMs << Math.min(state.failures, MAX_FAILURE_SHIFT));
+        } else {
+            state.failures = 0;
+            // The first poll sees the whole backlog, which says nothing about the publishing rate
+            if (state.lastPoll != null) {
+                long elapsedMs = Duration.between(state.lastPoll, started).toMillis();
+                state.intervalMs = nextInterval(state.intervalMs, elapsedMs, fresh.get(), minIntervalMs, maxIntervalMs);
+            }
+            state.lastPoll = started;
+            state.lastNewEntries = fresh.get();
+            if (fresh.get() > 0) {
+                state.totalNewEntries += fresh.get();
+                state.lastNewEntry = started;
+                ingestedSinceCheckpoint.set(true);
+            }
+            delayMs = state.intervalMs;
+        }
+
+        log.debug("Polled feed {}: {} new entries, next poll in {}ms", state.url, fresh.get(), delayMs);
+        synchronized (state) {
+            state.polling = false;
+            boolean requested = state.pollRequested;
+            state.pollRequested = false;
+            if (feeds.get(state.url) == state && state.generation == generation && !timer.isShutdown()) {
+                schedule(state, requested ? 0 : withJitter(delayMs));
+            }
+        }
+    }
+
+    private long withJitter(long delayMs) {
+        double factor = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Math.max(0, Math.round(delayMs * factor));
+    }
+
+    /**
+     * Make ingested documents and seen GUIDs durable; runs periodically rather than per poll.
+     */
+    private void checkpoint() {
+        try {
+            seenGuids.flush();
+            if (ingestedSinceCheckpoint.getAndSet(false)) {
+                ingestService.sync();
+            }
+        } catch (Exception e) {
+            log.error("Feed poll checkpoint failed", e);
+        }
+    }
+
+    private void registerLagGauge(FeedState state) {
+        state.lagGauge = Gauge.builder("ingest.feed.lag", state, s -> s.lagSeconds)
+                .description("Seconds from publication to ingestion of the feed's latest new entry")
+                .baseUnit("seconds")
+                .tag("feed", state.url)
+                .register(meterRegistry);
+    }
+
+    private List<String> loadFeedList() {
+        Path source = Files.exists(feedsFile) ? feedsFile : seedFile;
+        if (!Files.exists(source)) {
+            log.warn("No feed list at {} or {}", feedsFile, seedFile);
+            return List.of();
+        }
+        try {
+            List<String> urls = new ArrayList<>();
+            for (String line : Files.readAllLines(source, StandardCharsets.UTF_8)) {
+                String url = line.strip();
+                if (url.isEmpty() || url.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    urls.add(validate(url));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipping invalid feed URL in {}: {}", source, url);
+                }
+            }
+            log.info("Loaded {} feeds from {}", urls.size(), source);
+            return urls;
+        } catch (IOException e) {
+            log.error("Failed to read feed list {}", source, e);
+            throw new UncheckedIOException("Feed list read failed", e);
+        }
+    }
+
+    private synchronized void saveFeedList() {
+        try {
+            Files.createDirectories(feedsFile.toAbsolutePath().getParent());
+            Path tmp = feedsFile.resolveSibling(FEEDS_FILE + ".tmp");
+            List<String> urls = new ArrayList<>(feeds.keySet());
+            urls.sort(null);
+            Files.write(tmp, urls, StandardCharsets.UTF_8);
+            Files.move(tmp, feedsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Failed to save feed list {}", feedsFile, e);
+            throw new UncheckedIOException("Feed list save failed", e);
+        }
+    }
+
+    private void requireEnabled() {
+        if (!enabled) {
+            throw new IllegalStateException("Feed polling is disabled (searchlight.ingest.poll.enabled=false)");
+        }
+    }
+
+    private static String validate(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url.strip());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid feed URL: " + url, e);
+        }
+        if (uri.getHost() == null || !("http".equals(uri.getScheme()) || "https".equals(uri.getScheme()))) {
+            throw new IllegalArgumentException("Feed URL must be absolute http(s): " + url);
+        }
+        return uri.toString();
+    }
+}
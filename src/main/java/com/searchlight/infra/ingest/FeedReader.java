@@ -0,0 +1,178 @@
+package com.searchlight.infra.ingest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.function.Consumer;
+
+/**
+ * Streaming RSS 2.0, RSS 1.0 (RDF) and Atom parser.
+ *
+ * Entries are emitted as soon as their closing tag is read, so the parser's memory use does not
+ * depend on the feed size. The consumer runs while the input is still being read; callers that
+ * fetch articles from it read from a local copy of the feed rather than its connection (see
+ * {@link RssIngestService#readFeed}). Only the fields ingestion needs are captured;
+ * descriptions and inline content are skipped. DTDs and external entities are disabled.
+ */
+@Slf4j
+public class FeedReader {
+
+    /**
+     * One feed item. {@code feedTitle} is the channel title when it precedes the items, as it
+     * does in practice; {@code published} is null when absent or unparseable.
+     */
+    public record Entry(String feedTitle, String link, String title, String guid, Instant published) {}
+
+    private final XMLInputFactory factory;
+
+    public FeedReader() {
+        this.factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    /**
+     * Parse a feed, emitting entries in document order.
+     *
+     * @return number of entries emitted
+     */
+    public int read(InputStream in, Consumer<Entry> consumer) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(in);
+            int count = 0;
+            int depth = 0;
+            int itemDepth = -1;
+            String feedTitle = null;
+            String link = null;
+            String title = null;
+            String guid = null;
+            Instant published = null;
+            boolean publishedIsFinal = false;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String name = reader.getLocalName();
+
+                    if (itemDepth < 0 && (name.equals("item") || name.equals("entry"))) {
+                        itemDepth = depth;
+                        link = null;
+                        title = null;
+                        guid = null;
+                        published = null;
+                        publishedIsFinal = false;
+                    } else if (itemDepth < 0 && feedTitle == null && name.equals("title")) {
+                        feedTitle = readText(reader);
+                        depth--;
+                    } else if (itemDepth > 0 && depth == itemDepth + 1) {
+                        switch (name) {
+                            case "link" -> {
+                                // Atom: <link rel="alternate" href="..."/>; RSS: <link>url</link>
+                                String href = reader.getAttributeValue(null, "href");
+                                String rel = reader.getAttributeValue(null, "rel");
+                                String text = readText(reader);
+                                depth--;
+                                if (href == null) {
+                                    link = text;
+                                } else if ((rel == null || rel.equals("alternate")) && link == null) {
+                                    link = href.trim();
+                                }
+                            }
+                            case "title" -> {
+                                title = readText(reader);
+                                depth--;
+                            }
+                            case "guid", "id" -> {
+                                guid = readText(reader);
+                                depth--;
+                            }
+                            case "pubDate", "published", "date", "updated" -> {
+                                Instant date = parseDate(readText(reader));
+                                depth--;
+                                // Prefer the publication date over Atom's updated
+                                if (!publishedIsFinal && date != null) {
+                                    published = date;
+                                    publishedIsFinal = !name.equals("updated");
+                                }
+                            }
+                            default -> {
+                            }
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (depth == itemDepth) {
+                        itemDepth = -1;
+                        if ((link == null || link.isEmpty()) && guid != null && guid.startsWith("http")) {
+                            link = guid;
+                        }
+                        consumer.accept(new Entry(feedTitle, link, title, guid, published));
+                        count++;
+                    }
+                    depth--;
+                }
+            }
+            return count;
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed feed: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    log.debug("Failed to close feed reader", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Concatenated text of the current element, skipping any child markup; leaves the reader on
+     * the element's end tag.
+     */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int level = 1;
+        while (level > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                        text.append(reader.getText());
+                case XMLStreamConstants.START_ELEMENT -> level++;
+                case XMLStreamConstants.END_ELEMENT -> level--;
+                default -> {
+                }
+            }
+        }
+        return text.toString().trim();
+    }
+
+    /**
+     * RFC 822 dates (RSS 2.0) or ISO-8601 with offset (Atom, Dublin Core).
+     */
+    static Instant parseDate(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            if (Character.isDigit(value.charAt(0)) && value.length() > 10 && value.charAt(4) == '-') {
+                return OffsetDateTime.parse(value).toInstant();
+            }
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            log.debug("Ignoring unparseable feed date: {}", value);
+            return null;
+        }
+    }
+}
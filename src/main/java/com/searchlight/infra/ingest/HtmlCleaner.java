@@ -1,18 +1,72 @@
 package com.searchlight.infra.ingest;
 
+import com.searchlight.infra.observability.jfr.HtmlCleanEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
 import org.jsoup.safety.Safelist;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
 import org.springframework.stereotype.Component;
 
+import java.util.Set;
+
 /**
  * Cleans HTML content to extract plain text.
+ *
+ * {@link #extract(Document)} works from an already-parsed document and collects title and body
+ * text in a single traversal, skipping boilerplate subtrees instead of removing them, and
+ * normalizing whitespace as text is appended rather than with a regex afterwards. Paragraph
+ * structure is kept as blank lines between blocks.
  */
 @Slf4j
 @Component
 public class HtmlCleaner {
     
+    private static final Set<String> SKIPPED_TAGS = Set.of("script", "style", "nav", "footer", "header", "aside",
+            "noscript", "template");
+    
+    /**
+     * Title and cleaned body text of a page.
+     */
+    public record Extracted(String title, String text) {}
+    
+    /**
+     * Extract title and clean text from a parsed document without modifying it.
+     */
+    public Extracted extract(Document doc) {
+        HtmlCleanEvent event = new HtmlCleanEvent();
+        event.begin();
+        Extracted extracted = extractText(doc);
+        event.end();
+        if (event.shouldCommit()) {
+            event.titleLength = extracted.title().length();
+            event.textLength = extracted.text().length();
+            event.commit();
+        }
+        return extracted;
+    }
+    
+    private Extracted extractText(Document doc) {
+        String title = doc.title();
+        if (title.isBlank()) {
+            // Try to get h1
+            Element h1 = doc.selectFirst("h1");
+            title = h1 != null ? h1.text() : "";
+        }
+        
+        Element body = doc.body();
+        if (body == null) {
+            return new Extracted(title.trim(), "");
+        }
+        TextCollector collector = new TextCollector();
+        NodeTraversor.filter(collector, body);
+        return new Extracted(title.trim(), collector.text());
+    }
+    
     /**
      * Extract clean text from HTML content.
      */
@@ -22,20 +76,8 @@ public class HtmlCleaner {
         }
         
         try {
-            // Parse HTML
-            Document doc = Jsoup.parse(html);
-            
-            // Remove script and style elements
-            doc.select("script, style, nav, footer, header, aside").remove();
-            
-            // Get text content
-            String text = doc.body().text();
-            
-            // Normalize whitespace
-            text = text.replaceAll("\\s+", " ").trim();
-            
-            return text;
-            
+            return extract(Jsoup.parse(html)).text();
+        
         } catch (Exception e) {
             log.warn("Failed to clean HTML, returning raw text", e);
             // Fallback: strip all HTML tags
@@ -52,20 +94,105 @@ public class HtmlCleaner {
         }
         
         try {
-            Document doc = Jsoup.parse(html);
-            String title = doc.title();
-            
-            if (title == null || title.isBlank()) {
-                // Try to get h1
-                title = doc.select("h1").first() != null ? 
-                        doc.select("h1").first().text() : "";
-            }
-            
-            return title.trim();
-            
+            return extract(Jsoup.parse(html)).title();
+        
         } catch (Exception e) {
             log.warn("Failed to extract title", e);
             return "";
         }
     }
+    
+    /**
+     * Appends text nodes with whitespace collapsed. Block elements are separated by a blank line
+     * and {@code <br>} by a newline, so the chunker can still see paragraph boundaries.
+     */
+    private static class TextCollector implements NodeFilter {
+        
+        private final StringBuilder text = new StringBuilder();
+        
+        @Override
+        public FilterResult head(Node node, int depth) {
+            if (node instanceof TextNode textNode) {
+                appendCollapsed(textNode.getWholeText());
+            } else if (node instanceof Element element) {
+                if (SKIPPED_TAGS.contains(element.normalName())) {
+                    return FilterResult.SKIP_ENTIRELY;
+                }
+                if (element.normalName().equals("br")) {
+                    separate(1);
+                } else if (element.isBlock()) {
+                    separate(2);
+                }
+            }
+            return FilterResult.CONTINUE;
+        }
+        
+        @Override
+        public FilterResult tail(Node node, int depth) {
+            if (node instanceof Element element && element.isBlock()) {
+                separate(2);
+            }
+            return FilterResult.CONTINUE;
+        }
+        
+        String text() {
+            return text.substring(0, contentEnd());
+        }
+        
+        /**
+         * Replace trailing whitespace with the stronger of it and the requested number of newlines.
+         */
+        private void separate(int newlines) {
+            int end = contentEnd();
+            if (end == 0) {
+                text.setLength(0);
+                return;
+            }
+            int existing = 0;
+            for (int i = end; i < text.length(); i++) {
+                if (text.charAt(i) == '\n') {
+                    existing++;
+                }
+            }
+            text.setLength(end);
+            text.append("\n".repeat(Math.max(existing, newlines)));
+        }
+        
+        /**
+         * Append with each whitespace run (including no-break spaces) as one space, dropping
+         * zero-width spaces and soft hyphens.
+         */
+        private void appendCollapsed(String value) {
+            boolean whitespace = endsWithWhitespace();
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case ' ', '\t', '\n', '\f', '\r', '\u00a0' -> {
+                        if (!whitespace) {
+                            text.append(' ');
+                            whitespace = true;
+                        }
+                    }
+                    case '\u200b', '\u00ad' -> {
+                    }
+                    default -> {
+                        text.append(c);
+                        whitespace = false;
+                    }
+                }
+            }
+        }
+        
+        private int contentEnd() {
+            int end = text.length();
+            while (end > 0 && (text.charAt(end - 1) == ' ' || text.charAt(end - 1) == '\n')) {
+                end--;
+            }
+            return end;
+        }
+        
+        private boolean endsWithWhitespace() {
+            return text.isEmpty() || text.charAt(text.length() - 1) == ' ' || text.charAt(text.length() - 1) == '\n';
+        }
+    }
 }
@@ -0,0 +1,537 @@
+package com.searchlight.infra.ingest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Near-duplicate chunk detection with MinHash signatures and banded LSH.
+ *
+ * Each chunk is reduced to word shingles; {@code bands * rows} MinHash values are kept as their
+ * lowest byte (b-bit MinHash), so a signature costs one byte per hash. Chunks that agree on every
+ * row of some band become candidates, and a candidate is a duplicate when the Jaccard similarity
+ * estimated from the full signatures reaches the threshold. Chunks of the same source never match
+ * each other, so re-ingesting a page replaces its own entries instead of flagging itself.
+ *
+ * Checks only read the index: a source's chunks are checked through a {@link SourceCheck}, and
+ * its unique chunks replace its previous entries when the check is committed after the chunks
+ * have been indexed. A source whose embedding or indexing fails leaves the index as it was.
+ *
+ * The index lives in memory and is snapshotted to disk by {@link #save()}, written to a temporary
+ * file and moved into place so a crash never leaves a partial snapshot.
+ */
+@Slf4j
+@Component
+public class NearDuplicateDetector {
+
+    private static final int MAGIC = 0x4D48534C;
+    private static final int FORMAT_VERSION = 1;
+    private static final double COMPACT_TOMBSTONE_RATIO = 0.25;
+    private static final int COMPACT_MIN_ENTRIES = 1024;
+
+    /**
+     * What ingestion does with a near-duplicate chunk.
+     */
+    public enum Action {
+        /** Drop the chunk before embedding. */
+        SKIP,
+        /** Index the chunk for keyword search without a vector, linked to the chunk it duplicates. */
+        LINK
+    }
+
+    /**
+     * The earlier chunk a new chunk duplicates, with the estimated Jaccard similarity.
+     */
+    public record Match(String chunkId, String sourceId, double similarity) {}
+
+    private final boolean enabled;
+    private final Path snapshotPath;
+    private final double threshold;
+    private final int shingleSize;
+    private final int bands;
+    private final int rows;
+    private final int numHashes;
+    private final Action action;
+    private final long[] seeds;
+
+    // Entry i: signature bytes [i * numHashes, (i + 1) * numHashes); sourceIds[i] == null once removed.
+    // Removed entries stay in the band chains until tombstones pass COMPACT_TOMBSTONE_RATIO.
+    private byte[] signatures = new byte[0];
+    private final List<String> chunkIds = new ArrayList<>();
+    private final List<String> sourceIds = new ArrayList<>();
+    private final Map<String, int[]> entriesBySource = new HashMap<>();
+    private BandTable bandTable;
+    private int liveEntries;
+    private boolean dirty;
+
+    private final Counter checkedCounter;
+    private final Counter duplicateCounter;
+
+    @Autowired
+    public NearDuplicateDetector(
+            @Value("${searchlight.ingest.dedup.enabled:true}") boolean enabled,
+            @Value("${searchlight.ingest.dedup.path:data/dedup/minhash.bin}") String snapshotPath,
+            @Value("${searchlight.ingest.dedup.threshold:0.8}") double threshold,
+            @Value("${searchlight.ingest.dedup.shingle-size:5}") int shingleSize,
+            @Value("${searchlight.ingest.dedup.bands:16}") int bands,
+            @Value("${searchlight.ingest.dedup.rows:8}") int rows,
+            @Value("${searchlight.ingest.dedup.action:LINK}") Action action,
+            MeterRegistry meterRegistry) {
+        if (threshold <= 0 || threshold > 1 || shingleSize < 1 || bands < 1 || rows < 1 || rows > 8) {
+            throw new IllegalArgumentException("Invalid near-duplicate settings: threshold=" + threshold
+                    + ", shingleSize=" + shingleSize + ", bands=" + bands + ", rows=" + rows);
+        }
+        this.enabled = enabled;
+        this.snapshotPath = snapshotPath == null || snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        this.threshold = threshold;
+        this.shingleSize = shingleSize;
+        this.bands = bands;
+        this.rows = rows;
+        this.numHashes = bands * rows;
+        this.action = action;
+        this.seeds = new long[numHashes];
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < numHashes; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            seeds[i] = seed;
+        }
+        this.bandTable = new BandTable();
+
+        this.checkedCounter = meterRegistry.counter("ingest.dedup.checked");
+        this.duplicateCounter = meterRegistry.counter("ingest.dedup.duplicates");
+        Gauge.builder("ingest.dedup.entries", this, NearDuplicateDetector::size)
+                .description("Chunks in the near-duplicate index")
+                .register(meterRegistry);
+        Gauge.builder("ingest.dedup.rate", this, NearDuplicateDetector::getDuplicateRate)
+                .description("Fraction of checked chunks found to be near-duplicates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Detector that never reports duplicates.
+     */
+    public static NearDuplicateDetector disabled(MeterRegistry meterRegistry) {
+        return new NearDuplicateDetector(false, null, 0.8, 5, 16, 8, Action.LINK, meterRegistry);
+    }
+
+    @PostConstruct
+    public synchronized void initialize() throws IOException {
+        if (!enabled || snapshotPath == null || !Files.exists(snapshotPath)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                    || in.readInt() != numHashes || in.readInt() != shingleSize) {
+                log.warn("Ignoring near-duplicate snapshot {} written with different settings", snapshotPath);
+                return;
+            }
+            int count = in.readInt();
+            byte[] signature = new byte[numHashes];
+            for (int i = 0; i < count; i++) {
+                String chunkId = in.readUTF();
+                String sourceId = in.readUTF();
+                in.readFully(signature);
+                add(sourceId, chunkId, signature);
+            }
+        }
+        dirty = false;
+        log.info("Loaded near-duplicate index with {} chunks from {}", liveEntries, snapshotPath);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public synchronized int size() {
+        return liveEntries;
+    }
+
+    public double getDuplicateRate() {
+        double checked = checkedCounter.count();
+        return checked == 0 ? 0.0 : duplicateCounter.count() / checked;
+    }
+
+    /**
+     * Start checking the chunks of a source.
+     */
+    public SourceCheck forSource(String sourceId) {
+        return new SourceCheck(sourceId);
+    }
+
+    /**
+     * Forget every chunk of a source. Entries are tombstoned, and the index is compacted once
+     * tombstones make up too large a share of it.
+     */
+    public synchronized void removeSource(String sourceId) {
+        int[] entries = entriesBySource.remove(sourceId);
+        if (entries == null) {
+            return;
+        }
+        for (int entry : entries) {
+            if (entry >= 0 && sourceIds.get(entry) != null) {
+                sourceIds.set(entry, null);
+                liveEntries--;
+            }
+        }
+        dirty = true;
+        int total = chunkIds.size();
+        if (total >= COMPACT_MIN_ENTRIES && total - liveEntries > total * COMPACT_TOMBSTONE_RATIO) {
+            compact();
+        }
+    }
+
+    /**
+     * Near-duplicate checks for the chunks of one source.
+     */
+    public final class SourceCheck {
+
+        private final String sourceId;
+        private final List<String> uniqueChunkIds = new ArrayList<>();
+        private final List<byte[]> uniqueSignatures = new ArrayList<>();
+
+        private SourceCheck(String sourceId) {
+            this.sourceId = sourceId;
+        }
+
+        /**
+         * Check a chunk against the committed index without changing it. A chunk that is not a
+         * duplicate is remembered for {@link #commit()}.
+         *
+         * @return the chunk it duplicates, or null
+         */
+        public Match check(String chunkId, CharSequence text) {
+            if (!enabled) {
+                return null;
+            }
+            byte[] signature = signature(text);
+            if (signature == null) {
+                return null;
+            }
+            checkedCounter.increment();
+
+            Match match;
+            synchronized (NearDuplicateDetector.this) {
+                match = findMatch(sourceId, signature);
+            }
+            if (match != null) {
+                duplicateCounter.increment();
+                return match;
+            }
+            uniqueChunkIds.add(chunkId);
+            uniqueSignatures.add(signature);
+            return null;
+        }
+
+        /**
+         * Replace the source's entries with its unique chunks. Call once the chunks are indexed;
+         * a check that is never committed leaves the index unchanged.
+         */
+        public void commit() {
+            if (!enabled) {
+                return;
+            }
+            synchronized (NearDuplicateDetector.this) {
+                removeSource(sourceId);
+                for (int i = 0; i < uniqueChunkIds.size(); i++) {
+                    add(sourceId, uniqueChunkIds.get(i), uniqueSignatures.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the index to disk if it changed since the last snapshot.
+     */
+    public synchronized void save() {
+        if (!enabled || snapshotPath == null || !dirty) {
+            return;
+        }
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(numHashes);
+                out.writeInt(shingleSize);
+                out.writeInt(liveEntries);
+                for (int i = 0; i < chunkIds.size(); i++) {
+                    if (sourceIds.get(i) != null) {
+                        out.writeUTF(chunkIds.get(i));
+                        out.writeUTF(sourceIds.get(i));
+                        out.write(signatures, i * numHashes, numHashes);
+                    }
+                }
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+            log.debug("Saved near-duplicate index with {} chunks to {}", liveEntries, snapshotPath);
+        } catch (IOException e) {
+            log.error("Failed to save near-duplicate index to {}", snapshotPath, e);
+            throw new UncheckedIOException("Near-duplicate snapshot failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            save();
+        } catch (UncheckedIOException e) {
+            log.error("Near-duplicate index not saved on shutdown", e);
+        }
+    }
+
+    /**
+     * Estimated Jaccard similarity of two texts' shingle sets.
+     */
+    public double similarity(CharSequence a, CharSequence b) {
+        byte[] first = signature(a);
+        byte[] second = signature(b);
+        return first == null || second == null ? 0.0 : estimate(first, 0, second);
+    }
+
+    synchronized int tombstones() {
+        return chunkIds.size() - liveEntries;
+    }
+
+    private Match findMatch(String sourceId, byte[] signature) {
+        Match best = null;
+        for (int band = 0; band < bands; band++) {
+            for (int node = bandTable.head(bandKey(signature, band)); node >= 0; node = bandTable.next(node)) {
+                int entry = node / bands;
+                String candidateSource = sourceIds.get(entry);
+                if (candidateSource == null || candidateSource.equals(sourceId)) {
+                    continue;
+                }
+                double similarity = estimate(signatures, entry * numHashes, signature);
+                if (similarity >= threshold && (best == null || similarity > best.similarity())) {
+                    best = new Match(chunkIds.get(entry), candidateSource, similarity);
+                }
+            }
+        }
+        return best;
+    }
+
+    private void add(String sourceId, String chunkId, byte[] signature) {
+        int entry = chunkIds.size();
+        if ((entry + 1) * numHashes > signatures.length) {
+            signatures = Arrays.copyOf(signatures, Math.max(numHashes * 1024, signatures.length * 2));
+        }
+        System.arraycopy(signature, 0, signatures, entry * numHashes, numHashes);
+        chunkIds.add(chunkId);
+        sourceIds.add(sourceId);
+        for (int band = 0; band < bands; band++) {
+            bandTable.add(bandKey(signature, band), entry * bands + band);
+        }
+
+        int[] entries = entriesBySource.get(sourceId);
+        if (entries == null) {
+            entriesBySource.put(sourceId, new int[] {entry});
+        } else {
+            int[] grown = Arrays.copyOf(entries, entries.length + 1);
+            grown[entries.length] = entry;
+            entriesBySource.put(sourceId, grown);
+        }
+        liveEntries++;
+        dirty = true;
+    }
+
+    /**
+     * Rebuild the signature array, band table and source map from the live entries.
+     */
+    private void compact() {
+        byte[] oldSignatures = signatures;
+        List<String> oldChunkIds = new ArrayList<>(chunkIds);
+        List<String> oldSourceIds = new ArrayList<>(sourceIds);
+        signatures = new byte[0];
+        chunkIds.clear();
+        sourceIds.clear();
+        entriesBySource.clear();
+        bandTable = new BandTable();
+        liveEntries = 0;
+        for (int i = 0; i < oldChunkIds.size(); i++) {
+            if (oldSourceIds.get(i) != null) {
+                add(oldSourceIds.get(i), oldChunkIds.get(i),
+                        Arrays.copyOfRange(oldSignatures, i * numHashes, (i + 1) * numHashes));
+            }
+        }
+        log.debug("Compacted near-duplicate index from {} to {} entries", oldChunkIds.size(), liveEntries);
+    }
+
+    /**
+     * b-bit MinHash over hashed word shingles; null for text without words.
+     */
+    private byte[] signature(CharSequence text) {
+        long[] mins = new long[numHashes];
+        Arrays.fill(mins, Long.MAX_VALUE);
+        long[] window = new long[shingleSize];
+        int words = 0;
+        int length = text.length();
+        int pos = 0;
+
+        while (pos < length) {
+            while (pos < length && !Character.isLetterOrDigit(text.charAt(pos))) {
+                pos++;
+            }
+            if (pos >= length) {
+                break;
+            }
+            long hash = 0xcbf29ce484222325L;
+            while (pos < length && Character.isLetterOrDigit(text.charAt(pos))) {
+                hash = (hash ^ Character.toLowerCase(text.charAt(pos))) * 0x100000001b3L;
+                pos++;
+            }
+            window[words % shingleSize] = hash;
+            words++;
+            if (words >= shingleSize) {
+                addShingle(mins, window, words);
+            }
+        }
+
+        if (words == 0) {
+            return null;
+        }
+        if (words < shingleSize) {
+            // Shorter than one shingle: the whole text is the only shingle
+            addShingle(mins, window, words);
+        }
+        byte[] signature = new byte[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            signature[i] = (byte) mins[i];
+        }
+        return signature;
+    }
+
+    private void addShingle(long[] mins, long[] window, int words) {
+        int size = Math.min(words, shingleSize);
+        long shingle = 0;
+        for (int j = words - size; j < words; j++) {
+            shingle = mix(shingle ^ window[j % shingleSize]);
+        }
+        for (int i = 0; i < numHashes; i++) {
+            long value = mix(shingle ^ seeds[i]);
+            if (Long.compareUnsigned(value, mins[i]) < 0) {
+                mins[i] = value;
+            }
+        }
+    }
+
+    private long bandKey(byte[] signature, int band) {
+        long key = 0;
+        for (int r = 0; r < rows; r++) {
+            key = (key << 8) | (signature[band * rows + r] & 0xff);
+        }
+        return mix(key + band * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Jaccard estimate corrected for accidental 8-bit collisions: P(equal) = J + (1 - J) / 256.
+     */
+    private double estimate(byte[] stored, int offset, byte[] signature) {
+        int equal = 0;
+        for (int i = 0; i < numHashes; i++) {
+            if (stored[offset + i] == signature[i]) {
+                equal++;
+            }
+        }
+        double agreement = (double) equal / numHashes;
+        return Math.max(0.0, (agreement - 1.0 / 256) / (1.0 - 1.0 / 256));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * Band buckets as chained lists over node ids {@code entry * bands + band}: an open-addressing
+     * table maps a band key (which already encodes the band) to the newest node, and {@code next}
+     * links older nodes with that key.
+     */
+    private static class BandTable {
+
+        private long[] keys = new long[1024];
+        private int[] heads = new int[1024];
+        private int[] next = new int[1024];
+        private int size;
+
+        BandTable() {
+            Arrays.fill(heads, -1);
+        }
+
+        int head(long key) {
+            int slot = find(key);
+            return heads[slot];
+        }
+
+        int next(int node) {
+            return next[node];
+        }
+
+        void add(long key, int node) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            if (node >= next.length) {
+                next = Arrays.copyOf(next, Math.max(node + 1, next.length * 2));
+            }
+            int slot = find(key);
+            if (heads[slot] < 0) {
+                keys[slot] = key;
+                size++;
+            }
+            next[node] = heads[slot];
+            heads[slot] = node;
+        }
+
+        private int find(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) key & mask;
+            while (heads[slot] >= 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldHeads = heads;
+            keys = new long[oldKeys.length * 2];
+            heads = new int[oldKeys.length * 2];
+            Arrays.fill(heads, -1);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldHeads[i] >= 0) {
+                    int slot = find(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    heads[slot] = oldHeads[i];
+                }
+            }
+        }
+    }
+}
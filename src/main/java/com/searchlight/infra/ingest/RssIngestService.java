@@ -1,25 +1,37 @@
 package com.searchlight.infra.ingest;
 
-import com.rometools.rome.feed.synd.SyndEntry;
-import com.rometools.rome.feed.synd.SyndFeed;
-import com.rometools.rome.io.SyndFeedInput;
-import com.rometools.rome.io.XmlReader;
 import com.searchlight.domain.model.DocumentChunk;
 import com.searchlight.domain.model.SourceDoc;
 import com.searchlight.domain.ports.EmbeddingProvider;
 import com.searchlight.domain.ports.Indexer;
+import com.searchlight.infra.observability.IngestMetrics;
+import com.searchlight.infra.observability.IngestMetrics.Stage;
+import com.searchlight.infra.store.SourceDocLog;
 import com.searchlight.infra.util.IdCodec;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.net.URL;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Service for ingesting documents from RSS feeds and URLs.
@@ -32,19 +44,33 @@ public class RssIngestService {
     private final Chunker chunker;
     private final EmbeddingProvider embeddingProvider;
     private final Indexer indexer;
+    private final SourceDocLog sourceDocLog;
+    private final NearDuplicateDetector nearDuplicateDetector;
+    private final IngestMetrics ingestMetrics;
     private final Counter ingestCounter;
     private final Counter errorCounter;
+    private final FeedReader feedReader = new FeedReader();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(30))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
     
     public RssIngestService(
             HtmlCleaner htmlCleaner,
             Chunker chunker,
             EmbeddingProvider embeddingProvider,
             Indexer indexer,
+            SourceDocLog sourceDocLog,
+            NearDuplicateDetector nearDuplicateDetector,
+            IngestMetrics ingestMetrics,
             MeterRegistry meterRegistry) {
         this.htmlCleaner = htmlCleaner;
         this.chunker = chunker;
         this.embeddingProvider = embeddingProvider;
         this.indexer = indexer;
+        this.sourceDocLog = sourceDocLog;
+        this.nearDuplicateDetector = nearDuplicateDetector;
+        this.ingestMetrics = ingestMetrics;
         this.ingestCounter = meterRegistry.counter("ingest.documents");
         this.errorCounter = meterRegistry.counter("ingest.errors");
     }
@@ -66,71 +92,130 @@ public class RssIngestService {
         }
         
         indexer.commit();
+        sync();
         log.info("Ingested {} documents from {} feeds", totalIngested, feedUrls.size());
         return totalIngested;
     }
     
     /**
-     * Ingest a single RSS feed.
+     * Re-chunk, re-embed and re-index every document in the source log.
+     * No network access is needed, so this runs at full CPU speed.
+     */
+    public int reindexFromLog() {
+        int replayed = sourceDocLog.replay(this::processAndIndex);
+        indexer.commit();
+        nearDuplicateDetector.save();
+        log.info("Reindexed {} documents from source log", replayed);
+        return replayed;
+    }
+    
+    /**
+     * Make the source log and the near-duplicate index durable after a batch of ingestion.
+     */
+    public void sync() {
+        sourceDocLog.sync();
+        nearDuplicateDetector.save();
+    }
+    
+    /**
+     * Ingest a single RSS or Atom feed, fetching each article as its entry is parsed.
      */
     private int ingestRssFeed(String feedUrl) throws Exception {
-        SyndFeedInput input = new SyndFeedInput();
-        SyndFeed feed = input.build(new XmlReader(new URL(feedUrl)));
-        
-        int count = 0;
-        for (SyndEntry entry : feed.getEntries()) {
+        AtomicInteger count = new AtomicInteger();
+        readFeed(feedUrl, entry -> {
             try {
-                String url = entry.getLink();
+                String url = entry.link();
                 if (url == null || url.isBlank()) {
-                    continue;
+                    return;
                 }
                 
                 log.debug("Ingesting entry: {}", url);
-                ingestUrl(url, feed.getTitle());
-                count++;
+                ingestUrl(url, entry.feedTitle(), entry.published());
+                count.incrementAndGet();
                 ingestCounter.increment();
                 
             } catch (Exception e) {
-                log.warn("Failed to ingest entry: {}", entry.getLink(), e);
+                log.warn("Failed to ingest entry: {}", entry.link(), e);
                 errorCounter.increment();
             }
-        }
+        });
         
-        return count;
+        return count.get();
+    }
+    
+    /**
+     * Stream a feed's entries to a consumer that may fetch articles.
+     *
+     * The body is first spooled to a temporary file and the connection closed, so slow article
+     * fetches cannot hold it open and let the server time the feed out; entries are then parsed
+     * from the file one at a time, so memory does not grow with the feed.
+     *
+     * @return number of entries emitted
+     */
+    int readFeed(String feedUrl, Consumer<FeedReader.Entry> consumer) throws IOException, InterruptedException {
+        Path spool = Files.createTempFile("searchlight-feed-", ".xml");
+        try {
+            try (InputStream in = openFeed(feedUrl)) {
+                Files.copy(in, spool, StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (InputStream in = Files.newInputStream(spool)) {
+                return feedReader.read(new BufferedInputStream(in, 1 << 16), consumer);
+            }
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+    
+    /**
+     * Open a feed for streaming, transparently gunzipping it.
+     */
+    InputStream openFeed(String feedUrl) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(feedUrl))
+                .timeout(Duration.ofSeconds(30))
+                .header("User-Agent", "Mozilla/5.0 (compatible; Searchlight/1.0)")
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("HTTP " + response.statusCode() + " fetching feed " + feedUrl);
+        }
+        boolean gzipped = response.headers().firstValue("Content-Encoding").orElse("").equalsIgnoreCase("gzip");
+        return gzipped ? new GZIPInputStream(response.body(), 1 << 16) : response.body();
     }
     
     /**
      * Ingest a single URL.
      */
     public void ingestUrl(String url, String source) {
+        ingestUrl(url, source, null);
+    }
+    
+    /**
+     * Ingest a single URL published at a known time, e.g. a feed entry. The publication time is
+     * kept on the document and is the start of the {@code ingest.lag} measurement.
+     */
+    public void ingestUrl(String url, String source, Instant publishedAt) {
         try {
             log.debug("Fetching URL: {}", url);
             
             // Fetch HTML
-            org.jsoup.nodes.Document doc = Jsoup.connect(url)
-                    .userAgent("Mozilla/5.0 (compatible; Searchlight/1.0)")
-                    .timeout(30000)
-                    .get();
-            
-            String html = doc.html();
-            String title = htmlCleaner.extractTitle(html);
-            String cleanText = htmlCleaner.clean(html);
-            
-            // Create source document
-            SourceDoc sourceDoc = SourceDoc.builder()
-                    .id(IdCodec.generateId())
-                    .url(url)
-                    .title(title)
-                    .content(cleanText)
-                    .htmlContent(html)
-                    .source(source != null ? source : "web")
-                    .publishedAt(Instant.now())
-                    .fetchedAt(Instant.now())
-                    .contentType("text/html")
-                    .build();
+            org.jsoup.nodes.Document doc = ingestMetrics.time(Stage.FETCH, () -> {
+                Connection.Response response = Jsoup.connect(url)
+                        .userAgent("Mozilla/5.0 (compatible; Searchlight/1.0)")
+                        .timeout(30000)
+                        .execute();
+                ingestMetrics.recordFetchBytes(response.bodyAsBytes().length);
+                return response.parse();
+            });
+            Instant fetchedAt = Instant.now();
             
-            // Chunk and index
-            processAndIndex(sourceDoc);
+            long seq = ingestDocument(url, doc, source, fetchedAt, publishedAt);
+            if (seq >= 0) {
+                indexer.whenSearchable(seq, () -> ingestMetrics.recordSearchable(publishedAt, fetchedAt));
+            }
             
         } catch (IOException e) {
             log.error("Failed to fetch URL: {}", url, e);
@@ -139,35 +224,129 @@ public class RssIngestService {
         }
     }
     
+    /**
+     * Clean, log and index an already-fetched HTML page, e.g. a response from a WARC archive.
+     * Safe to call from several threads.
+     */
+    public void ingestHtml(String url, String html, String source, Instant fetchedAt) {
+        ingestDocument(url, Jsoup.parse(html, url), source, fetchedAt, null);
+    }
+    
+    /**
+     * Clean, log and index a parsed page. The document is traversed once for title and text,
+     * and the raw HTML is not kept.
+     *
+     * @return sequence number of the index update, or -1 if the page produced no chunks
+     */
+    private long ingestDocument(String url, org.jsoup.nodes.Document doc, String source,
+                                Instant fetchedAt, Instant publishedAt) {
+        HtmlCleaner.Extracted extracted = ingestMetrics.time(Stage.CLEAN, () -> htmlCleaner.extract(doc));
+        
+        // Create source document
+        // Deterministic per URL so re-ingesting replaces the previous chunks
+        SourceDoc sourceDoc = SourceDoc.builder()
+                .id(IdCodec.generateIdFrom(url))
+                .url(url)
+                .title(extracted.title())
+                .content(extracted.text())
+                .source(source != null ? source : "web")
+                .publishedAt(publishedAt != null ? publishedAt : fetchedAt)
+                .fetchedAt(fetchedAt)
+                .contentType("text/html")
+                .build();
+        
+        // Keep the cleaned document so it can be replayed without re-crawling
+        sourceDocLog.append(sourceDoc);
+        
+        // Chunk and index
+        return processAndIndex(sourceDoc);
+    }
+    
     /**
      * Process a source document: chunk, embed, and index.
+     *
+     * @return sequence number of the index update, or -1 if there was nothing to index
+     */
+    private long processAndIndex(SourceDoc sourceDoc) {
+        NearDuplicateDetector.SourceCheck dedup = nearDuplicateDetector.forSource(sourceDoc.getId());
+        List<DocumentChunk> documentChunks = buildChunks(sourceDoc, dedup);
+        if (documentChunks.isEmpty()) {
+            return -1;
+        }
+        
+        // Replace all chunks of this source in one block update
+        long seq = ingestMetrics.time(Stage.INDEX, () -> indexer.indexSource(sourceDoc.getId(), documentChunks));
+        // Signatures only point at chunks that made it into the index
+        dedup.commit();
+        
+        log.info("Indexed {} chunks for document: {}", documentChunks.size(), sourceDoc.getTitle());
+        return seq;
+    }
+    
+    /**
+     * Chunk and embed a source document without indexing it. Near-duplicates of chunks from other
+     * sources are dropped or, in LINK mode, kept without a vector, and are never embedded.
+     * The near-duplicate index is only read; commit {@code dedup} once the chunks are indexed.
+     * Safe to call from several threads; used by the offline index builder.
      */
-    private void processAndIndex(SourceDoc sourceDoc) {
-        List<String> chunks = chunker.chunk(sourceDoc.getContent());
+    public List<DocumentChunk> buildChunks(SourceDoc sourceDoc, NearDuplicateDetector.SourceCheck dedup) {
+        // Each chunk is copied out of the document exactly once
+        List<String> chunks = ingestMetrics.time(Stage.CHUNK, () -> {
+            List<Chunker.Span> spans = chunker.split(sourceDoc.getContent());
+            List<String> texts = new ArrayList<>(spans.size());
+            for (Chunker.Span span : spans) {
+                texts.add(span.toString());
+            }
+            return texts;
+        });
+        ingestMetrics.recordChunks(chunks.size());
         
         if (chunks.isEmpty()) {
             log.warn("No chunks generated for document: {}", sourceDoc.getUrl());
-            return;
+            return List.of();
         }
         
         log.debug("Generated {} chunks for document: {}", chunks.size(), sourceDoc.getUrl());
         
+        // Only embed chunks that are not near-duplicates of another source's chunks
+        String[] duplicateOf = new String[chunks.size()];
+        List<String> toEmbed = ingestMetrics.time(Stage.DEDUP, () -> {
+            List<String> unique = new ArrayList<>(chunks.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                NearDuplicateDetector.Match match = dedup.check(chunkId(sourceDoc, i), chunks.get(i));
+                if (match != null) {
+                    duplicateOf[i] = match.chunkId();
+                    log.debug("Chunk {} of {} duplicates {} (similarity {})",
+                            i, sourceDoc.getUrl(), match.chunkId(), match.similarity());
+                } else {
+                    unique.add(chunks.get(i));
+                }
+            }
+            return unique;
+        });
+        
         // Embed chunks
-        List<float[]> embeddings = embeddingProvider.embedBatch(chunks);
+        List<float[]> embeddings = List.of();
+        if (!toEmbed.isEmpty()) {
+            ingestMetrics.recordEmbedBatch(toEmbed.size());
+            embeddings = ingestMetrics.time(Stage.EMBED, () -> embeddingProvider.embedBatch(toEmbed));
+        }
         
-        // Create and index document chunks
+        // Create document chunks
         List<DocumentChunk> documentChunks = new ArrayList<>();
+        int embedded = 0;
         for (int i = 0; i < chunks.size(); i++) {
+            if (duplicateOf[i] != null && nearDuplicateDetector.getAction() == NearDuplicateDetector.Action.SKIP) {
+                continue;
+            }
             String chunkText = chunks.get(i);
-            float[] embedding = embeddings.get(i);
+            float[] embedding = duplicateOf[i] == null ? embeddings.get(embedded++) : null;
             
-            // Extract keywords (simple: split on whitespace and take first 20 words)
-            String[] words = chunkText.split("\\s+");
-            String[] keywords = new String[Math.min(20, words.length)];
-            System.arraycopy(words, 0, keywords, 0, keywords.length);
+            // Extract keywords (simple: take the first 20 words)
+            String[] keywords = Chunker.leadingWords(chunkText, 20);
             
             DocumentChunk chunk = DocumentChunk.builder()
-                    .id(IdCodec.generateId())
+                    .id(chunkId(sourceDoc, i))
                     .sourceId(sourceDoc.getId())
                     .title(sourceDoc.getTitle())
                     .url(sourceDoc.getUrl())
@@ -178,14 +357,16 @@ public class RssIngestService {
                     .source(sourceDoc.getSource())
                     .chunkIndex(i)
                     .contentHash(Integer.toString(chunkText.hashCode()))
+                    .duplicateOf(duplicateOf[i])
                     .build();
             
             documentChunks.add(chunk);
         }
         
-        // Index all chunks
-        indexer.indexBatch(documentChunks);
-        
-        log.info("Indexed {} chunks for document: {}", documentChunks.size(), sourceDoc.getTitle());
+        return documentChunks;
+    }
+    
+    private static String chunkId(SourceDoc sourceDoc, int index) {
+        return IdCodec.generateIdFrom(sourceDoc.getId() + "#" + index);
     }
 }
@@ -0,0 +1,444 @@
+package com.searchlight.infra.ingest;
+
+import com.searchlight.domain.model.SourceDoc;
+import com.searchlight.domain.ports.Indexer;
+import com.searchlight.infra.store.SourceDocLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Crawls the pages listed in sitemap.xml files, following sitemap indexes.
+ *
+ * Sitemaps are streamed by one producer thread into a bounded frontier queue; when the fetchers
+ * fall behind the producer blocks, so memory stays flat however many URLs a site lists. URLs are
+ * deduplicated by 64-bit fingerprint within a bounded window of recent URLs, and pages whose
+ * {@code lastmod} is not newer than the copy in the source-document log are skipped.
+ *
+ * Concurrent fetches to any one origin are capped per host. A fetcher that takes a page for a
+ * busy host parks it on that host's backlog and moves on, and whoever finishes a fetch on the
+ * host picks the backlog up, so one slow host does not stall the others. Once the backlogs hold
+ * as many pages as the frontier, fetchers wait for the host instead. Fetched pages take the normal
+ * clean → chunk → embed → index path.
+ */
+@Slf4j
+@Service
+public class SitemapIngestService {
+
+    private static final Page END = new Page("", null);
+
+    private record Page(String url, Instant lastModified) {}
+
+    private final RssIngestService ingestService;
+    private final Indexer indexer;
+    private final SourceDocLog sourceDocLog;
+    private final SitemapReader sitemapReader = new SitemapReader();
+    private final HttpClient httpClient;
+    private final int frontierCapacity;
+    private final int workers;
+    private final int perHostConcurrency;
+    private final int maxUrls;
+    private final int maxSitemaps;
+    private final int seenUrls;
+    private final Duration timeout;
+    private final Counter discoveredCounter;
+    private final Counter skippedCounter;
+    private final Counter documentCounter;
+    private final Counter errorCounter;
+    private final Set<BlockingQueue<Page>> frontiers = ConcurrentHashMap.newKeySet();
+
+    public SitemapIngestService(
+            RssIngestService ingestService,
+            Indexer indexer,
+            SourceDocLog sourceDocLog,
+            @Value("${searchlight.ingest.sitemap.frontier-capacity:10000}") int frontierCapacity,
+            @Value("${searchlight.ingest.sitemap.workers:16}") int workers,
+            @Value("${searchlight.ingest.sitemap.per-host:4}") int perHostConcurrency,
+            @Value("${searchlight.ingest.sitemap.max-urls:0}") int maxUrls,
+            @Value("${searchlight.ingest.sitemap.max-sitemaps:1000}") int maxSitemaps,
+            @Value("${searchlight.ingest.sitemap.seen-urls:1000000}") int seenUrls,
+            @Value("${searchlight.ingest.sitemap.timeout-ms:30000}") int timeoutMs,
+            MeterRegistry meterRegistry) {
+        this.ingestService = ingestService;
+        this.indexer = indexer;
+        this.sourceDocLog = sourceDocLog;
+        this.frontierCapacity = frontierCapacity;
+        this.workers = workers;
+        this.perHostConcurrency = perHostConcurrency;
+        this.maxUrls = maxUrls;
+        this.maxSitemaps = maxSitemaps;
+        this.seenUrls = seenUrls;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.discoveredCounter = meterRegistry.counter("ingest.sitemap.urls");
+        this.skippedCounter = meterRegistry.counter("ingest.sitemap.skipped");
+        this.documentCounter = meterRegistry.counter("ingest.documents");
+        this.errorCounter = meterRegistry.counter("ingest.errors");
+        Gauge.builder("ingest.queue.depth", frontiers, f -> f.stream().mapToInt(BlockingQueue::size).sum())
+                .description("Work waiting in an ingestion queue")
+                .tag("queue", "sitemap_frontier")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Crawl every page reachable from the given sitemaps or sitemap indexes.
+     *
+     * @return number of pages fetched and indexed
+     */
+    public int ingestSitemaps(List<String> sitemapUrls, String source) {
+        BlockingQueue<Page> frontier = new ArrayBlockingQueue<>(frontierCapacity);
+        HostQueues hostQueues = new HostQueues();
+        AtomicInteger ingested = new AtomicInteger();
+        frontiers.add(frontier);
+
+        ExecutorService fetchers = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "sitemap-fetcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            fetchers.execute(() -> fetchLoop(frontier, hostQueues, source, ingested));
+        }
+
+        try {
+            int discovered = produce(sitemapUrls, frontier);
+            log.info("Sitemap crawl discovered {} URLs from {} root sitemaps", discovered, sitemapUrls.size());
+
+            // One end marker per fetcher, queued behind the remaining pages
+            for (int i = 0; i < workers; i++) {
+                frontier.put(END);
+            }
+            fetchers.shutdown();
+            fetchers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Sitemap crawl interrupted", e);
+        } finally {
+            fetchers.shutdownNow();
+            frontiers.remove(frontier);
+        }
+
+        indexer.commit();
+        ingestService.sync();
+        log.info("Ingested {} documents from sitemaps", ingested.get());
+        return ingested.get();
+    }
+
+    /**
+     * Walk the sitemap tree depth-first, putting page URLs on the frontier.
+     */
+    private int produce(List<String> sitemapUrls, BlockingQueue<Page> frontier) throws InterruptedException {
+        Deque<String> pendingSitemaps = new ArrayDeque<>(sitemapUrls);
+        Set<String> visitedSitemaps = new HashSet<>();
+        RecentFingerprints seenPages = new RecentFingerprints(seenUrls);
+        AtomicInteger discovered = new AtomicInteger();
+
+        while (!pendingSitemaps.isEmpty() && visitedSitemaps.size() < maxSitemaps) {
+            String sitemapUrl = pendingSitemaps.pop();
+            if (!visitedSitemaps.add(sitemapUrl)) {
+                continue;
+            }
+
+            List<String> children = new ArrayList<>();
+            try (InputStream in = openSitemap(sitemapUrl)) {
+                sitemapReader.read(in, entry -> {
+                    if (entry.sitemap()) {
+                        children.add(entry.location());
+                    } else {
+                        enqueue(new Page(entry.location(), entry.lastModified()), frontier, seenPages, discovered);
+                    }
+                });
+            } catch (IOException e) {
+                log.warn("Failed to read sitemap {}: {}", sitemapUrl, e.getMessage());
+                errorCounter.increment();
+            } catch (StopCrawl e) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException("Sitemap crawl interrupted");
+                }
+                log.info("Sitemap crawl reached max-urls={}", maxUrls);
+                break;
+            }
+
+            // Depth-first keeps the number of pending child sitemaps small
+            for (int i = children.size() - 1; i >= 0; i--) {
+                pendingSitemaps.push(children.get(i));
+            }
+        }
+        return discovered.get();
+    }
+
+    /**
+     * Put a new URL on the frontier, blocking while it is full.
+     */
+    private void enqueue(Page page, BlockingQueue<Page> frontier, RecentFingerprints seenPages,
+                         AtomicInteger discovered) {
+        if (maxUrls > 0 && discovered.get() >= maxUrls) {
+            throw new StopCrawl();
+        }
+        if (!seenPages.add(fingerprint(page.url()))) {
+            return;
+        }
+        try {
+            frontier.put(page);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StopCrawl();
+        }
+        discoveredCounter.increment();
+        discovered.incrementAndGet();
+    }
+
+    private void fetchLoop(BlockingQueue<Page> frontier, HostQueues hostQueues, String source, AtomicInteger ingested) {
+        try {
+            while (true) {
+                Page page = frontier.take();
+                if (page == END) {
+                    return;
+                }
+                if (!isModified(page)) {
+                    skippedCounter.increment();
+                    continue;
+                }
+
+                HostQueue host = hostQueues.get(hostOf(page.url()));
+                if (!host.start(page, hostQueues.mayPark())) {
+                    // Parked: a fetcher already working on this host will get to it
+                    continue;
+                }
+                // Keep the host's slot while it has parked pages, so none is left behind
+                for (Page next = page; next != null; next = host.next()) {
+                    fetch(next, source, ingested);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fetch(Page page, String source, AtomicInteger ingested) {
+        try {
+            ingestService.ingestUrl(page.url(), source != null ? source : "sitemap", page.lastModified());
+            ingested.incrementAndGet();
+            documentCounter.increment();
+        } catch (Exception e) {
+            log.warn("Failed to ingest sitemap URL {}: {}", page.url(), e.getMessage());
+            errorCounter.increment();
+        }
+    }
+
+    /**
+     * A page needs fetching unless the logged copy is at least as new as its lastmod.
+     */
+    private boolean isModified(Page page) {
+        if (page.lastModified() == null || !sourceDocLog.contains(page.url())) {
+            return true;
+        }
+        Optional<SourceDoc> logged = sourceDocLog.get(page.url());
+        return logged.map(doc -> doc.getFetchedAt() == null || doc.getFetchedAt().isBefore(page.lastModified()))
+                .orElse(true);
+    }
+
+    private InputStream openSitemap(String url) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(timeout)
+                .header("User-Agent", "Mozilla/5.0 (compatible; Searchlight/1.0)")
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() != 200) {
+                response.body().close();
+                throw new IOException("HTTP " + response.statusCode());
+            }
+            boolean gzipped = url.endsWith(".gz")
+                    || response.headers().firstValue("Content-Encoding").orElse("").equalsIgnoreCase("gzip");
+            return gzipped ? new GZIPInputStream(response.body(), 1 << 16) : response.body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching sitemap", e);
+        }
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase() : "";
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over the URL; keeps the dedup set at a fraction of the size of the strings.
+     */
+    static long fingerprint(String url) {
+        long hash = 0xcbf29ce484222325L;
+        byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Per-host fetch slots and backlogs of one crawl, created on first use.
+     */
+    private class HostQueues {
+        private final ConcurrentHashMap<String, HostQueue> hosts = new ConcurrentHashMap<>();
+        private final AtomicInteger parked = new AtomicInteger();
+
+        HostQueue get(String host) {
+            return hosts.computeIfAbsent(host, h -> new HostQueue(perHostConcurrency, parked));
+        }
+
+        boolean mayPark() {
+            return parked.get() < frontierCapacity;
+        }
+    }
+
+    /**
+     * Fetch slots of one host and the pages parked while all of them were taken.
+     */
+    private static class HostQueue {
+        private final int slots;
+        private final AtomicInteger parked;
+        private final Deque<Page> backlog = new ArrayDeque<>();
+        private int active;
+
+        HostQueue(int slots, AtomicInteger parked) {
+            this.slots = slots;
+            this.parked = parked;
+        }
+
+        /**
+         * Take a slot for a page. If none is free the page is parked, or with {@code mayPark}
+         * false the caller waits for a slot.
+         *
+         * @return true if the caller holds a slot and should fetch the page now
+         */
+        synchronized boolean start(Page page, boolean mayPark) throws InterruptedException {
+            if (active >= slots && mayPark) {
+                backlog.addLast(page);
+                parked.incrementAndGet();
+                return false;
+            }
+            while (active >= slots) {
+                wait();
+            }
+            active++;
+            return true;
+        }
+
+        /**
+         * Hand the caller's slot to the next parked page, or release it if there is none.
+         */
+        synchronized Page next() {
+            Page page = backlog.pollFirst();
+            if (page != null) {
+                parked.decrementAndGet();
+                return page;
+            }
+            active--;
+            notify();
+            return null;
+        }
+    }
+
+    /**
+     * URL fingerprints seen recently, in two fixed-size open-addressing generations. When the
+     * current generation fills it replaces the previous one, so memory stays bounded however long
+     * the crawl runs. A URL listed again after falling out of both generations is enqueued twice,
+     * which costs a second lastmod check, never a missed page.
+     */
+    static class RecentFingerprints {
+        private final int generationSize;
+        private long[] current;
+        private long[] previous;
+        private int size;
+
+        RecentFingerprints(int capacity) {
+            this.generationSize = Math.max(1, capacity / 2);
+            int tableSize = Integer.highestOneBit(Math.max(2, generationSize * 2 - 1)) << 1;
+            this.current = new long[tableSize];
+            this.previous = new long[tableSize];
+        }
+
+        /**
+         * @return false if the fingerprint was seen recently
+         */
+        boolean add(long fingerprint) {
+            // Zero marks an empty slot
+            long key = fingerprint != 0 ? fingerprint : 1;
+            if (contains(previous, key) || contains(current, key)) {
+                return false;
+            }
+            if (size >= generationSize) {
+                long[] recycled = previous;
+                Arrays.fill(recycled, 0);
+                previous = current;
+                current = recycled;
+                size = 0;
+            }
+            current[slot(current, key)] = key;
+            size++;
+            return true;
+        }
+
+        private static boolean contains(long[] table, long key) {
+            return table[slot(table, key)] == key;
+        }
+
+        private static int slot(long[] table, long key) {
+            int mask = table.length - 1;
+            int slot = (int) (key ^ (key >>> 32)) & mask;
+            while (table[slot] != 0 && table[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * Thrown from the parse callback to stop reading once the URL budget is spent.
+     */
+    private static class StopCrawl extends RuntimeException {
+        StopCrawl() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.searchlight.infra.ingest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for sitemap.xml files and sitemap indexes (sitemaps.org protocol).
+ *
+ * Uses StAX so a 50,000-URL sitemap is never held in memory; each {@code <url>} or
+ * {@code <sitemap>} entry is handed to the consumer as soon as its closing tag is read.
+ * DTDs and external entities are disabled.
+ */
+@Slf4j
+public class SitemapReader {
+
+    /**
+     * One sitemap entry. {@code sitemap} is true for entries of a sitemap index, which point at
+     * further sitemaps rather than pages. {@code lastModified} is null when absent or unparseable.
+     */
+    public record Entry(String location, Instant lastModified, boolean sitemap) {}
+
+    private final XMLInputFactory factory;
+
+    public SitemapReader() {
+        this.factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    /**
+     * Parse a sitemap or sitemap index, emitting entries in document order.
+     *
+     * @return number of entries emitted
+     */
+    public int read(InputStream in, Consumer<Entry> consumer) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(in);
+            int count = 0;
+            boolean inEntry = false;
+            boolean sitemapEntry = false;
+            String location = null;
+            Instant lastModified = null;
+
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        String name = reader.getLocalName();
+                        if (name.equals("url") || name.equals("sitemap")) {
+                            inEntry = true;
+                            sitemapEntry = name.equals("sitemap");
+                            location = null;
+                            lastModified = null;
+                        } else if (inEntry && name.equals("loc")) {
+                            location = reader.getElementText().trim();
+                        } else if (inEntry && name.equals("lastmod")) {
+                            lastModified = parseLastModified(reader.getElementText().trim());
+                        }
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        String name = reader.getLocalName();
+                        if (inEntry && (name.equals("url") || name.equals("sitemap"))) {
+                            inEntry = false;
+                            if (location != null && !location.isEmpty()) {
+                                consumer.accept(new Entry(location, lastModified, sitemapEntry));
+                                count++;
+                            }
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+            return count;
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed sitemap: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    log.debug("Failed to close sitemap reader", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * W3C datetime as used by sitemaps: a plain date or a date-time with offset.
+     */
+    static Instant parseLastModified(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            if (value.length() == 10) {
+                return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant();
+            }
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException e) {
+            log.debug("Ignoring unparseable lastmod: {}", value);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.searchlight.infra.ingest;
+
+import com.searchlight.domain.ports.Indexer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ingests HTML responses from local WARC crawl archives instead of re-fetching them.
+ *
+ * Each archive is read sequentially by one thread (see {@link WarcReader}); several archives are
+ * processed in parallel. Responses go through the same clean → chunk → embed → index path as
+ * fetched URLs. Only archives under the configured WARC directory can be ingested.
+ */
+@Slf4j
+@Service
+public class WarcIngestService {
+
+    private final RssIngestService ingestService;
+    private final Indexer indexer;
+    private final WarcReader warcReader;
+    private final Path warcDirectory;
+    private final int parallelism;
+    private final Counter recordCounter;
+    private final Counter documentCounter;
+    private final Counter errorCounter;
+
+    public WarcIngestService(
+            RssIngestService ingestService,
+            Indexer indexer,
+            @Value("${searchlight.ingest.warc.dir:data/warc}") String warcDirectory,
+            @Value("${searchlight.ingest.warc.parallelism:0}") int parallelism,
+            @Value("${searchlight.ingest.warc.max-record-mb:16}") int maxRecordMb,
+            MeterRegistry meterRegistry) {
+        this.ingestService = ingestService;
+        this.indexer = indexer;
+        this.warcReader = new WarcReader((long) maxRecordMb << 20);
+        this.warcDirectory = Path.of(warcDirectory).toAbsolutePath().normalize();
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.recordCounter = meterRegistry.counter("ingest.warc.records");
+        this.documentCounter = meterRegistry.counter("ingest.documents");
+        this.errorCounter = meterRegistry.counter("ingest.errors");
+    }
+
+    /**
+     * Ingest the given archives, resolved against the WARC directory, in parallel.
+     *
+     * @return number of HTML documents indexed
+     * @throws IllegalArgumentException if an archive lies outside the WARC directory or is missing
+     */
+    public int ingestArchives(List<String> archives, String source) {
+        List<Path> paths = new ArrayList<>(archives.size());
+        for (String archive : archives) {
+            paths.add(resolve(archive));
+        }
+
+        AtomicInteger ingested = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, paths.size()), r -> {
+            Thread thread = new Thread(r, "warc-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(paths.size());
+            for (Path path : paths) {
+                futures.add(executor.submit(() -> ingested.addAndGet(ingestArchive(path, source))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("WARC ingestion interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("WARC ingestion failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        indexer.commit();
+        ingestService.sync();
+        log.info("Ingested {} documents from {} WARC archives", ingested.get(), paths.size());
+        return ingested.get();
+    }
+
+    private int ingestArchive(Path archive, String source) {
+        long start = System.currentTimeMillis();
+        AtomicInteger count = new AtomicInteger();
+        try {
+            long records = warcReader.read(archive, response -> {
+                try {
+                    ingestService.ingestHtml(response.targetUri(), response.text(),
+                            source != null ? source : "warc", response.date());
+                    count.incrementAndGet();
+                    documentCounter.increment();
+                } catch (Exception e) {
+                    log.warn("Failed to ingest WARC response: {}", response.targetUri(), e);
+                    errorCounter.increment();
+                }
+            });
+            recordCounter.increment(records);
+            log.info("Ingested {} of {} records from {} in {}ms",
+                    count.get(), records, archive.getFileName(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to read WARC archive: {}", archive, e);
+            errorCounter.increment();
+        }
+        return count.get();
+    }
+
+    private Path resolve(String archive) {
+        Path path = warcDirectory.resolve(archive).toAbsolutePath().normalize();
+        if (!path.startsWith(warcDirectory)) {
+            throw new IllegalArgumentException("WARC archive must be under " + warcDirectory + ": " + archive);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("WARC archive not found: " + archive);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,328 @@
+package com.searchlight.infra.ingest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Sequential reader for WARC/1.0 and WARC/1.1 archives that yields successful HTML responses.
+ *
+ * Plain archives are read through memory-mapped windows so the kernel can read ahead without
+ * copying through a heap buffer; {@code .gz} archives (one gzip member per record, or one for the
+ * whole file) are decompressed from a large buffered stream. Records that are not HTML responses
+ * are skipped without being copied.
+ */
+@Slf4j
+public class WarcReader {
+
+    private static final int MAP_WINDOW_BYTES = 256 << 20;
+    private static final int GZIP_BUFFER_BYTES = 1 << 20;
+    private static final int MAX_LINE_BYTES = 64 << 10;
+
+    /**
+     * One HTTP response captured in an archive, with transfer and content encodings removed.
+     */
+    public record Response(String targetUri, Instant date, int status, String contentType, byte[] body,
+                           Charset charset) {
+
+        public String text() {
+            return new String(body, charset);
+        }
+    }
+
+    private final long maxRecordBytes;
+
+    public WarcReader(long maxRecordBytes) {
+        this.maxRecordBytes = maxRecordBytes;
+    }
+
+    /**
+     * Stream every HTML response with status 200 in the archive to the consumer. Records, and
+     * response bodies after content decoding, larger than the record limit are skipped.
+     *
+     * @return number of WARC records read, of any type
+     */
+    public long read(Path archive, Consumer<Response> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            // Header lines are read byte by byte, so the gzip stream needs a buffer on top as well
+            InputStream in = archive.getFileName().toString().endsWith(".gz")
+                    ? new BufferedInputStream(new GZIPInputStream(new BufferedInputStream(
+                            Channels.newInputStream(channel), GZIP_BUFFER_BYTES), GZIP_BUFFER_BYTES), 1 << 16)
+                    : new MappedInputStream(channel);
+            return read(in, consumer);
+        }
+    }
+
+    long read(InputStream in, Consumer<Response> consumer) throws IOException {
+        long records = 0;
+        String versionLine;
+        while ((versionLine = readNonEmptyLine(in)) != null) {
+            if (!versionLine.startsWith("WARC/")) {
+                throw new IOException("Expected WARC record header, got: " + abbreviate(versionLine));
+            }
+            Map<String, String> headers = readHeaders(in);
+            long contentLength = parseLong(headers.get("content-length"), -1);
+            if (contentLength < 0) {
+                throw new IOException("WARC record without Content-Length after record " + records);
+            }
+            records++;
+
+            String type = headers.getOrDefault("warc-type", "");
+            String blockType = headers.getOrDefault("content-type", "").toLowerCase(Locale.ROOT);
+            if (!type.equals("response") || !blockType.startsWith("application/http")
+                    || contentLength > maxRecordBytes) {
+                in.skipNBytes(contentLength);
+                continue;
+            }
+
+            byte[] block = in.readNBytes((int) contentLength);
+            if (block.length < contentLength) {
+                throw new EOFException("Truncated WARC record for " + headers.get("warc-target-uri"));
+            }
+            try {
+                Response response = parseHttpResponse(headers, block);
+                if (response != null) {
+                    consumer.accept(response);
+                }
+            } catch (IOException e) {
+                log.warn("Skipping malformed HTTP response for {}: {}", headers.get("warc-target-uri"), e.getMessage());
+            }
+        }
+        return records;
+    }
+
+    private Response parseHttpResponse(Map<String, String> warcHeaders, byte[] block) throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(block);
+        String statusLine = readLine(in);
+        if (statusLine == null || !statusLine.startsWith("HTTP/")) {
+            return null;
+        }
+        String[] parts = statusLine.split(" ", 3);
+        int status = parts.length > 1 ? (int) parseLong(parts[1], -1) : -1;
+        Map<String, String> httpHeaders = readHeaders(in);
+
+        String contentType = httpHeaders.getOrDefault("content-type", "");
+        if (status != 200 || !contentType.toLowerCase(Locale.ROOT).contains("html")) {
+            return null;
+        }
+
+        InputStream body = in;
+        if (httpHeaders.getOrDefault("transfer-encoding", "").equalsIgnoreCase("chunked")) {
+            body = new ByteArrayInputStream(dechunk(in));
+        }
+        if (httpHeaders.getOrDefault("content-encoding", "").equalsIgnoreCase("gzip")) {
+            body = new GZIPInputStream(body);
+        }
+        // A compressed body can expand far beyond the record, so hold it to the same limit
+        byte[] bytes = body.readNBytes((int) Math.min(maxRecordBytes + 1, Integer.MAX_VALUE - 8));
+        if (bytes.length > maxRecordBytes) {
+            log.warn("Skipping {}: decoded body exceeds {} bytes", warcHeaders.get("warc-target-uri"), maxRecordBytes);
+            return null;
+        }
+
+        return new Response(
+                warcHeaders.get("warc-target-uri"),
+                parseDate(warcHeaders.get("warc-date")),
+                status,
+                contentType,
+                bytes,
+                charsetOf(contentType));
+    }
+
+    private static byte[] dechunk(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String sizeLine;
+        while ((sizeLine = readLine(in)) != null) {
+            int semicolon = sizeLine.indexOf(';');
+            String hex = (semicolon >= 0 ? sizeLine.substring(0, semicolon) : sizeLine).trim();
+            if (hex.isEmpty()) {
+                continue;
+            }
+            int size = Integer.parseInt(hex, 16);
+            if (size == 0) {
+                break;
+            }
+            out.write(in.readNBytes(size));
+            readLine(in);
+        }
+        return out.toByteArray();
+    }
+
+    private static Map<String, String> readHeaders(InputStream in) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * Skip the blank lines separating records; null at end of stream.
+     */
+    private static String readNonEmptyLine(InputStream in) throws IOException {
+        String line;
+        while ((line = readLine(in)) != null) {
+            if (!line.isEmpty()) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read a CRLF- or LF-terminated header line as ISO-8859-1; null at end of stream.
+     */
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                return line.toString();
+            }
+            if (line.length() >= MAX_LINE_BYTES) {
+                throw new IOException("Header line too long");
+            }
+            line.append((char) b);
+        }
+        return line.isEmpty() ? null : line.toString();
+    }
+
+    private static Charset charsetOf(String contentType) {
+        int index = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (index >= 0) {
+            String name = contentType.substring(index + 8).split("[;\\s]")[0].replace("\"", "");
+            try {
+                return Charset.forName(name);
+            } catch (Exception e) {
+                log.debug("Unknown charset {}, falling back to UTF-8", name);
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static Instant parseDate(String value) {
+        if (value == null) {
+            return Instant.now();
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            return Instant.now();
+        }
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static String abbreviate(String line) {
+        return line.length() > 80 ? line.substring(0, 80) + "..." : line;
+    }
+
+    /**
+     * Input stream over a file mapped in fixed-size read-only windows, so archives larger than
+     * 2GB can be read without a single huge mapping.
+     */
+    static class MappedInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedInputStream(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureRemaining()) {
+                return -1;
+            }
+            return window.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!ensureRemaining()) {
+                return -1;
+            }
+            int n = Math.min(length, window.remaining());
+            window.get(buffer, offset, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long position = windowStart + window.position();
+            long target = Math.min(size, position + Math.max(n, 0));
+            if (target - windowStart <= window.limit()) {
+                window.position((int) (target - windowStart));
+            } else {
+                map(target);
+            }
+            return target - position;
+        }
+
+        @Override
+        public int available() {
+            return window.remaining();
+        }
+
+        private boolean ensureRemaining() throws IOException {
+            if (window.hasRemaining()) {
+                return true;
+            }
+            long next = windowStart + window.limit();
+            if (next >= size) {
+                return false;
+            }
+            map(next);
+            return true;
+        }
+
+        private void map(long position) throws IOException {
+            this.windowStart = position;
+            this.window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW_BYTES, size - position));
+        }
+    }
+}
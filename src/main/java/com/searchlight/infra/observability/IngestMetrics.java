@@ -0,0 +1,155 @@
+package com.searchlight.infra.observability;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of the ingestion pipeline, stage by stage.
+ *
+ * Every stage is an {@code ingest.stage.latency} timer and an {@code ingest.stage.errors} counter
+ * tagged with the stage name, so the stage holding back throughput shows up as the one with the
+ * largest rate x latency. {@code ingest.lag} runs from an entry's publication to the moment the
+ * near-real-time searcher can see it; {@code ingest.searchable.latency} runs from the fetch, which
+ * leaves out the time the page spent waiting in its feed.
+ */
+@Component
+public class IngestMetrics {
+    
+    private static final Duration[] STAGE_SLO_BUCKETS = {
+            Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(30)
+    };
+    private static final Duration[] LAG_SLO_BUCKETS = {
+            Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(1),
+            Duration.ofMinutes(5), Duration.ofMinutes(15), Duration.ofHours(1), Duration.ofHours(6)
+    };
+    
+    /**
+     * Ingestion stages, in execution order.
+     */
+    public enum Stage {
+        FETCH("fetch"),
+        CLEAN("clean"),
+        CHUNK("chunk"),
+        DEDUP("dedup"),
+        EMBED("embed"),
+        INDEX("index");
+        
+        private final String tag;
+        
+        Stage(String tag) {
+            this.tag = tag;
+        }
+        
+        public String tag() {
+            return tag;
+        }
+    }
+    
+    /**
+     * Work done by a stage, which may throw a checked exception such as an IOException from a fetch.
+     */
+    @FunctionalInterface
+    public interface StageWork<T, E extends Exception> {
+        T run() throws E;
+    }
+    
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Stage, Counter> stageErrors = new EnumMap<>(Stage.class);
+    private final DistributionSummary fetchBytes;
+    private final DistributionSummary chunksPerDocument;
+    private final DistributionSummary embedBatchSize;
+    private final Timer lagTimer;
+    private final Timer searchableTimer;
+    
+    public IngestMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("ingest.stage.latency")
+                    .description("Latency of one ingestion stage for one document")
+                    .tag("stage", stage.tag())
+                    .publishPercentileHistogram()
+                    .serviceLevelObjectives(STAGE_SLO_BUCKETS)
+                    .register(meterRegistry));
+            stageErrors.put(stage, Counter.builder("ingest.stage.errors")
+                    .description("Documents that failed in one ingestion stage")
+                    .tag("stage", stage.tag())
+                    .register(meterRegistry));
+        }
+        this.fetchBytes = DistributionSummary.builder("ingest.fetch.bytes")
+                .description("Size of fetched pages")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.chunksPerDocument = DistributionSummary.builder("ingest.chunks.per.document")
+                .description("Chunks produced per document")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.embedBatchSize = DistributionSummary.builder("ingest.embed.batch.size")
+                .description("Chunks per embedding request")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("ingest.lag")
+                .description("Time from an entry's publication until it is searchable")
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(LAG_SLO_BUCKETS)
+                .register(meterRegistry);
+        this.searchableTimer = Timer.builder("ingest.searchable.latency")
+                .description("Time from fetching a page until it is searchable")
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(LAG_SLO_BUCKETS)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Run a stage, recording its latency, and count it as failed if it throws.
+     */
+    public <T, E extends Exception> T time(Stage stage, StageWork<T, E> work) throws E {
+        long start = System.nanoTime();
+        try {
+            return work.run();
+        } catch (Exception e) {
+            stageErrors.get(stage).increment();
+            throw e;
+        } finally {
+            stageTimers.get(stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    public void recordFetchBytes(long bytes) {
+        fetchBytes.record(bytes);
+    }
+    
+    public void recordChunks(int chunks) {
+        chunksPerDocument.record(chunks);
+    }
+    
+    public void recordEmbedBatch(int size) {
+        embedBatchSize.record(size);
+    }
+    
+    /**
+     * Record that a document became searchable now. Times in the future, e.g. from a feed with a
+     * skewed clock, count as zero.
+     */
+    public void recordSearchable(Instant publishedAt, Instant fetchedAt) {
+        Instant now = Instant.now();
+        if (publishedAt != null) {
+            lagTimer.record(nonNegative(Duration.between(publishedAt, now)));
+        }
+        if (fetchedAt != null) {
+            searchableTimer.record(nonNegative(Duration.between(fetchedAt, now)));
+        }
+    }
+    
+    private static Duration nonNegative(Duration duration) {
+        return duration.isNegative() ? Duration.ZERO : duration;
+    }
+}
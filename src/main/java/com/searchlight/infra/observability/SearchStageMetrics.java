@@ -0,0 +1,137 @@
+package com.searchlight.infra.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms and OpenTelemetry spans for the stages of a search.
+ *
+ * Every stage is a {@code search.stage.latency} timer tagged with the stage name, alongside the
+ * end-to-end {@code search.latency}; both publish percentile histograms with SLO buckets so
+ * p99 regressions can be attributed to a stage. Spans come from the global OpenTelemetry
+ * instance, which is a no-op unless an agent or SDK is installed.
+ */
+@Component
+public class SearchStageMetrics {
+    
+    private static final Duration[] SLO_BUCKETS = {
+            Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50),
+            Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1)
+    };
+    
+    /**
+     * Search stages, in execution order.
+     */
+    public enum Stage {
+        EMBED("embed"),
+        BM25("bm25"),
+        KNN("knn"),
+        STORED_FIELDS("stored_fields"),
+        FUSION("fusion");
+        
+        private final String tag;
+        
+        Stage(String tag) {
+            this.tag = tag;
+        }
+        
+        public String tag() {
+            return tag;
+        }
+    }
+    
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Timer searchTimer;
+    private final Tracer tracer = GlobalOpenTelemetry.getTracer("com.searchlight.search");
+    
+    public SearchStageMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("search.stage.latency")
+                    .description("Latency of one search stage")
+                    .tag("stage", stage.tag())
+                    .publishPercentileHistogram()
+                    .serviceLevelObjectives(SLO_BUCKETS)
+                    .register(meterRegistry));
+        }
+        this.searchTimer = Timer.builder("search.latency")
+                .description("End-to-end search latency")
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(SLO_BUCKETS)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Open the span covering a whole search; stages started on this thread become its children.
+     */
+    public Measurement startSearch() {
+        return new Measurement(searchTimer, tracer.spanBuilder("search").startSpan());
+    }
+    
+    /**
+     * Start timing a stage. Must be ended on the same thread.
+     */
+    public Measurement start(Stage stage) {
+        return new Measurement(stageTimers.get(stage), tracer.spanBuilder("search." + stage.tag()).startSpan());
+    }
+    
+    /**
+     * A running stage: its span is current until {@link #end()} records the timer and ends it.
+     * Closing without ending, e.g. when the stage throws, records it the same way.
+     */
+    public static final class Measurement implements AutoCloseable {
+        
+        private final Timer timer;
+        private final Span span;
+        private final Scope scope;
+        private final long startNanos;
+        private long elapsedNanos = -1;
+        
+        private Measurement(Timer timer, Span span) {
+            this.timer = timer;
+            this.span = span;
+            this.scope = span.makeCurrent();
+            this.startNanos = System.nanoTime();
+        }
+        
+        public Span span() {
+            return span;
+        }
+        
+        /**
+         * Stop the stage. Later calls return the same value.
+         *
+         * @return elapsed nanoseconds
+         */
+        public long end() {
+            if (elapsedNanos < 0) {
+                elapsedNanos = System.nanoTime() - startNanos;
+                timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+                scope.close();
+                span.end();
+            }
+            return elapsedNanos;
+        }
+        
+        /**
+         * Stop the stage and return the elapsed time in fractional milliseconds.
+         */
+        public double endMillis() {
+            return end() / 1_000_000.0;
+        }
+        
+        @Override
+        public void close() {
+            end();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.searchlight.infra.observability;
+
+import com.searchlight.domain.model.SearchQuery;
+import com.searchlight.domain.model.SearchTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures searches slower than a threshold, with their leg timings and, optionally, a per-clause
+ * Lucene profile.
+ *
+ * Entries go to the {@code searchlight.slow-query} logger, which logback-spring.xml routes to
+ * its own rolling file, and to a bounded in-memory ring buffer for the admin API. A slow query is
+ * logged on the request thread without a profile; a sample of them is re-run under the profiler
+ * on a single background thread with a small queue, and the profile is attached to the entry
+ * when it is done. Profiles that do not fit in the queue are dropped.
+ */
+@Component
+public class SlowQueryLog {
+    
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final Logger SLOW_LOG = LoggerFactory.getLogger("searchlight.slow-query");
+    
+    /**
+     * One slow search. The query vector itself is omitted; only its dimension is kept.
+     */
+    public record Entry(
+            Instant at,
+            double elapsedMs,
+            String queryText,
+            int topK,
+            float alpha,
+            int offset,
+            String sourceFilter,
+            Instant afterDate,
+            Long minSeq,
+            int vectorDimension,
+            SearchTimings timings,
+            List<LegProfile> profile) {
+    }
+    
+    /**
+     * Profile of the BM25 or KNN leg. For KNN, {@code visitedNodes} is the number of HNSW nodes
+     * (or documents, for exact search) scored across all segments.
+     */
+    public record LegProfile(String leg, long rewriteNanos, Long visitedNodes, List<ClauseProfile> clauses) {
+    }
+    
+    /**
+     * Time spent in one query clause, broken down by Lucene into weight creation, scorer
+     * construction, iteration and scoring.
+     */
+    public record ClauseProfile(String type, String description, long totalNanos,
+                                Map<String, Long> breakdown, List<ClauseProfile> children) {
+    }
+    
+    private final boolean enabled;
+    private final long thresholdMs;
+    private final boolean profile;
+    private final double profileSampleRate;
+    private final int capacity;
+    private final Deque<Entry> recent;
+    private final ThreadPoolExecutor profiler;
+    private final Counter slowQueries;
+    private final Counter droppedProfiles;
+    
+    public SlowQueryLog(boolean enabled, long thresholdMs, boolean profile, int capacity, MeterRegistry meterRegistry) {
+        this(enabled, thresholdMs, profile, 1.0, 2, capacity, meterRegistry);
+    }
+    
+    @Autowired
+    public SlowQueryLog(
+            @Value("${searchlight.search.slow-query.enabled:true}") boolean enabled,
+            @Value("${searchlight.search.slow-query.threshold-ms:500}") long thresholdMs,
+            @Value("${searchlight.search.slow-query.profile:true}") boolean profile,
+            @Value("${searchlight.search.slow-query.profile-sample-rate:1.0}") double profileSampleRate,
+            @Value("${searchlight.search.slow-query.profile-queue-size:2}") int profileQueueSize,
+            @Value("${searchlight.search.slow-query.buffer-size:100}") int capacity,
+            MeterRegistry meterRegistry) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("searchlight.search.slow-query.buffer-size must be >= 1");
+        }
+        if (profileQueueSize < 1) {
+            throw new IllegalArgumentException("searchlight.search.slow-query.profile-queue-size must be >= 1");
+        }
+        this.enabled = enabled;
+        this.thresholdMs = thresholdMs;
+        this.profile = profile;
+        this.profileSampleRate = profileSampleRate;
+        this.capacity = capacity;
+        this.recent = new ArrayDeque<>(capacity);
+        // Threads start on the first profile, so a log that never profiles costs nothing
+        this.profiler = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(profileQueueSize), r -> {
+                    Thread thread = new Thread(r, "slow-query-profiler");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.slowQueries = meterRegistry.counter("search.slow_queries");
+        this.droppedProfiles = meterRegistry.counter("search.slow_queries.profiles_dropped");
+    }
+    
+    /**
+     * A log that never records, for tests and tools that construct a searcher directly.
+     */
+    public static SlowQueryLog disabled() {
+        return new SlowQueryLog(false, Long.MAX_VALUE, false, 1, new SimpleMeterRegistry());
+    }
+    
+    public boolean isSlow(double elapsedMs) {
+        return enabled && elapsedMs >= thresholdMs;
+    }
+    
+    /**
+     * Whether to profile this slow query: profiling is on and the query falls in the sample.
+     */
+    public boolean shouldProfile() {
+        return profile && (profileSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < profileSampleRate);
+    }
+    
+    /**
+     * Queue a profile of a recorded slow query and attach it to the entry when it finishes.
+     *
+     * @return false if the queue is full and the profile was dropped; {@code profiler} never runs then
+     */
+    public boolean profileAsync(Entry entry, Callable<List<LegProfile>> profiler) {
+        try {
+            this.profiler.execute(() -> {
+                try {
+                    attachProfile(entry, profiler.call());
+                } catch (Exception e) {
+                    log.warn("Failed to profile slow query: {}", entry.queryText(), e);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            droppedProfiles.increment();
+            return false;
+        }
+    }
+    
+    /**
+     * Record a slow search.
+     */
+    public Entry record(SearchQuery query, SearchTimings timings, double elapsedMs, List<LegProfile> legProfiles) {
+        SearchTimings snapshot = timings.copy();
+        snapshot.setTotalMs(elapsedMs);
+        Entry entry = new Entry(
+                Instant.now(),
+                elapsedMs,
+                query.getQueryText(),
+                query.getTopK(),
+                query.getAlpha(),
+                query.getOffset(),
+                query.getSourceFilter(),
+                query.getAfterDate(),
+                query.getMinSeq(),
+                query.getQueryVector() != null ? query.getQueryVector().length : 0,
+                snapshot,
+                legProfiles);
+        
+        synchronized (recent) {
+            if (recent.size() == capacity) {
+                recent.removeLast();
+            }
+            recent.addFirst(entry);
+        }
+        slowQueries.increment();
+        
+        SLOW_LOG.warn("{}ms q=\"{}\" k={} alpha={} offset={} source={} after={} minSeq={} vectorDim={} "
+                        + "embed={}ms bm25={}ms/{} hits knn={}ms/{} hits storedFields={}ms fusion={}ms{}",
+                format(elapsedMs), entry.queryText(), entry.topK(), entry.alpha(), entry.offset(),
+                entry.sourceFilter(), entry.afterDate(), entry.minSeq(), entry.vectorDimension(),
+                format(timings.getEmbedMs()), format(timings.getBm25Ms()), timings.getBm25Hits(),
+                format(timings.getKnnMs()), timings.getKnnHits(), format(timings.getStoredFieldsMs()),
+                format(timings.getFusionMs()), describe(legProfiles));
+        return entry;
+    }
+    
+    private void attachProfile(Entry entry, List<LegProfile> legProfiles) {
+        Entry profiled = new Entry(entry.at(), entry.elapsedMs(), entry.queryText(), entry.topK(), entry.alpha(),
+                entry.offset(), entry.sourceFilter(), entry.afterDate(), entry.minSeq(), entry.vectorDimension(),
+                entry.timings(), legProfiles);
+        synchronized (recent) {
+            // The entry may already have been pushed out of the buffer
+            List<Entry> entries = new ArrayList<>(recent);
+            int index = entries.indexOf(entry);
+            if (index >= 0) {
+                entries.set(index, profiled);
+                recent.clear();
+                recent.addAll(entries);
+            }
+        }
+        SLOW_LOG.warn("profile of {}ms q=\"{}\" at {}{}", format(entry.elapsedMs()), entry.queryText(), entry.at(),
+                describe(legProfiles));
+    }
+    
+    /**
+     * Recorded slow queries, newest first.
+     */
+    public List<Entry> getRecent() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public long getThresholdMs() {
+        return thresholdMs;
+    }
+    
+    @PreDestroy
+    public void close() {
+        profiler.shutdownNow();
+    }
+    
+    private static String describe(List<LegProfile> legProfiles) {
+        StringBuilder sb = new StringBuilder();
+        for (LegProfile leg : legProfiles) {
+            sb.append(" | ").append(leg.leg()).append(": rewrite=").append(format(leg.rewriteNanos() / 1_000_000.0)).append("ms");
+            if (leg.visitedNodes() != null) {
+                sb.append(" visited=").append(leg.visitedNodes());
+            }
+            for (ClauseProfile clause : leg.clauses()) {
+                describe(clause, sb);
+            }
+        }
+        return sb.toString();
+    }
+    
+    private static void describe(ClauseProfile clause, StringBuilder sb) {
+        sb.append(' ').append(clause.type()).append('=').append(format(clause.totalNanos() / 1_000_000.0)).append("ms");
+        sb.append(clause.breakdown());
+        if (!clause.children().isEmpty()) {
+            sb.append(" (");
+            for (ClauseProfile child : clause.children()) {
+                describe(child, sb);
+            }
+            sb.append(" )");
+        }
+    }
+    
+    private static String format(double ms) {
+        return String.format(Locale.ROOT, "%.2f", ms);
+    }
+}
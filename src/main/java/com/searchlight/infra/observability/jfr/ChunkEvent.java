@@ -0,0 +1,31 @@
+package com.searchlight.infra.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Splitting one document into chunks.
+ */
+@Name("com.searchlight.Chunk")
+@Label("Chunk")
+@Category({"Searchlight", "Ingest"})
+@Description("Splitting a document into overlapping chunks")
+@StackTrace(false)
+public final class ChunkEvent extends Event {
+    
+    @Label("Mode")
+    public String mode;
+    
+    @Label("Characters")
+    public int characters;
+    
+    @Label("Words")
+    public int words;
+    
+    @Label("Chunks")
+    public int chunks;
+}
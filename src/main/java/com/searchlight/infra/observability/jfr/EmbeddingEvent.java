@@ -0,0 +1,31 @@
+package com.searchlight.infra.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to an embedding provider, for a single text or a batch.
+ */
+@Name("com.searchlight.Embedding")
+@Label("Embedding")
+@Category({"Searchlight", "Embedding"})
+@Description("Embedding of one text or a batch of texts")
+@StackTrace(false)
+public final class EmbeddingEvent extends Event {
+    
+    @Label("Provider")
+    public String provider;
+    
+    @Label("Texts")
+    public int texts;
+    
+    @Label("Characters")
+    public long characters;
+    
+    @Label("Dimension")
+    public int dimension;
+}
@@ -0,0 +1,25 @@
+package com.searchlight.infra.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Extracting title and text from one parsed page.
+ */
+@Name("com.searchlight.HtmlClean")
+@Label("HTML Clean")
+@Category({"Searchlight", "Ingest"})
+@Description("Title and body text extraction from a parsed HTML page")
+@StackTrace(false)
+public final class HtmlCleanEvent extends Event {
+    
+    @Label("Title Length")
+    public int titleLength;
+    
+    @Label("Text Length")
+    public int textLength;
+}
@@ -0,0 +1,32 @@
+package com.searchlight.infra.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Adding a batch of chunks to the IndexWriter.
+ */
+@Name("com.searchlight.IndexBatch")
+@Label("Index Batch")
+@Category({"Searchlight", "Index"})
+@Description("Chunks written to the IndexWriter in one call")
+@StackTrace(false)
+public final class IndexBatchEvent extends Event {
+    
+    @Label("Operation")
+    @Description("batch (update by id) or source (block update of one source)")
+    public String operation;
+    
+    @Label("Documents")
+    public int documents;
+    
+    @Label("Vectors")
+    public int vectors;
+    
+    @Label("Sequence Number")
+    public long sequence;
+}
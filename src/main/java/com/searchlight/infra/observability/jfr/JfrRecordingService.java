@@ -0,0 +1,159 @@
+package com.searchlight.infra.observability.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts and stops a single bounded Flight Recorder recording on demand, so a node can be
+ * profiled under real load without attaching an agent or restarting with -XX:StartFlightRecording.
+ *
+ * The recording uses one of the JDK's settings ("default" or "profile") with the Searchlight
+ * events enabled on top. It stops by itself after its duration and is capped in size; the file
+ * is written to {@code searchlight.jfr.dir} and handed to the caller on {@link #stop()}.
+ */
+@Slf4j
+@Component
+public class JfrRecordingService {
+    
+    private static final List<Class<? extends jdk.jfr.Event>> EVENTS = List.of(
+            SearchEvent.class, EmbeddingEvent.class, ChunkEvent.class, HtmlCleanEvent.class, IndexBatchEvent.class);
+    
+    private final Path directory;
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+    private Recording recording;
+    private Path destination;
+    
+    public JfrRecordingService(
+            @Value("${searchlight.jfr.dir:data/jfr}") String directory,
+            @Value("${searchlight.jfr.max-duration-seconds:600}") long maxDurationSeconds,
+            @Value("${searchlight.jfr.max-size-mb:256}") long maxSizeMb) {
+        this.directory = Path.of(directory);
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+    
+    /**
+     * Start a recording. The duration is capped at {@code searchlight.jfr.max-duration-seconds}.
+     *
+     * @throws IllegalStateException if a recording is already running
+     * @throws IllegalArgumentException if the settings name is unknown
+     */
+    public synchronized Map<String, Object> start(Duration duration, String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        discard();
+        
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settings, e);
+        }
+        
+        try {
+            Files.createDirectories(directory);
+            destination = directory.resolve("searchlight-" + System.currentTimeMillis() + ".jfr");
+            recording = new Recording(configuration);
+            for (Class<? extends jdk.jfr.Event> event : EVENTS) {
+                recording.enable(event);
+            }
+            recording.setName("searchlight");
+            recording.setToDisk(true);
+            recording.setMaxSize(maxSizeBytes);
+            recording.setDuration(duration.compareTo(maxDuration) > 0 ? maxDuration : duration);
+            // Written here on stop, including the automatic stop at the end of the duration
+            recording.setDestination(destination);
+            recording.start();
+        } catch (IOException e) {
+            log.error("Failed to start JFR recording", e);
+            throw new UncheckedIOException("JFR recording failed to start", e);
+        }
+        
+        log.info("Started JFR recording ({} settings, {}) to {}", settings, recording.getDuration(), destination);
+        return status();
+    }
+    
+    /**
+     * Stop the recording, if it is still running, and return its file. The caller owns the file.
+     *
+     * @return null if no recording was started
+     */
+    public synchronized Path stop() {
+        if (recording == null) {
+            return null;
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        recording.close();
+        recording = null;
+        
+        Path file = destination;
+        destination = null;
+        log.info("Stopped JFR recording, {} bytes at {}", sizeOf(file), file);
+        return file;
+    }
+    
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("startTime", recording.getStartTime());
+        status.put("duration", recording.getDuration());
+        status.put("maxSizeBytes", recording.getMaxSize());
+        status.put("file", destination.toString());
+        status.put("bytesWritten", sizeOf(destination));
+        return status;
+    }
+    
+    @PreDestroy
+    public synchronized void close() {
+        discard();
+    }
+    
+    /**
+     * Drop the current recording and its file without handing it out.
+     */
+    private void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (destination != null) {
+            try {
+                Files.deleteIfExists(destination);
+            } catch (IOException e) {
+                log.warn("Failed to delete JFR file {}", destination, e);
+            }
+            destination = null;
+        }
+    }
+    
+    private static long sizeOf(Path file) {
+        try {
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
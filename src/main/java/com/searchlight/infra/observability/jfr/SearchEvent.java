@@ -0,0 +1,54 @@
+package com.searchlight.infra.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One hybrid search in {@code LuceneSearcher}, with the time spent in each leg.
+ */
+@Name("com.searchlight.Search")
+@Label("Search")
+@Category({"Searchlight", "Search"})
+@Description("Hybrid BM25 + KNN search against the near-real-time reader")
+@StackTrace(false)
+public final class SearchEvent extends Event {
+    
+    @Label("Query")
+    public String query;
+    
+    @Label("Top K")
+    public int topK;
+    
+    @Label("Alpha")
+    public float alpha;
+    
+    @Label("BM25 Hits")
+    public long bm25Hits;
+    
+    @Label("KNN Hits")
+    public long knnHits;
+    
+    @Label("Results")
+    public int results;
+    
+    @Label("BM25")
+    @Timespan(Timespan.NANOSECONDS)
+    public long bm25;
+    
+    @Label("KNN")
+    @Timespan(Timespan.NANOSECONDS)
+    public long knn;
+    
+    @Label("Stored Fields")
+    @Timespan(Timespan.NANOSECONDS)
+    public long storedFields;
+    
+    @Label("Fusion")
+    @Timespan(Timespan.NANOSECONDS)
+    public long fusion;
+}
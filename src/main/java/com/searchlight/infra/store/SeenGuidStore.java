@@ -0,0 +1,120 @@
+package com.searchlight.infra.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent set of feed entry GUIDs that have already been ingested.
+ *
+ * Lookups go to an in-memory set, so they never touch the disk and never wrongly skip an entry.
+ * GUIDs are appended to a log file, one per line, and the set is rebuilt from it on startup.
+ */
+@Slf4j
+@Component
+public class SeenGuidStore {
+
+    private static final String LOG_FILE = "seen-guids.log";
+
+    private final Path logPath;
+    private final Set<String> exact = ConcurrentHashMap.newKeySet();
+    private BufferedWriter writer;
+
+    public SeenGuidStore(@Value("${searchlight.ingest.poll.state-dir:data/feeds}") String stateDir) {
+        this.logPath = Path.of(stateDir).resolve(LOG_FILE);
+    }
+
+    @PostConstruct
+    public synchronized void initialize() throws IOException {
+        Files.createDirectories(logPath.toAbsolutePath().getParent());
+        if (Files.exists(logPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(logPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isEmpty()) {
+                        exact.add(line);
+                    }
+                }
+            }
+        }
+        writer = Files.newBufferedWriter(logPath, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.info("Seen-GUID store opened at {} with {} GUIDs", logPath, exact.size());
+    }
+
+    /**
+     * Whether an entry with this GUID was already ingested.
+     */
+    public boolean contains(String guid) {
+        return exact.contains(normalize(guid));
+    }
+
+    /**
+     * Record a GUID as ingested.
+     *
+     * @return false if it was already recorded
+     */
+    public synchronized boolean add(String guid) {
+        String key = normalize(guid);
+        if (!exact.add(key)) {
+            return false;
+        }
+        try {
+            writer.write(key);
+            writer.newLine();
+        } catch (IOException e) {
+            log.error("Failed to record seen GUID {}", key, e);
+            throw new UncheckedIOException("Seen-GUID append failed", e);
+        }
+        return true;
+    }
+
+    /**
+     * Write buffered GUIDs to the log file.
+     */
+    public synchronized void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            log.error("Failed to flush seen-GUID log", e);
+            throw new UncheckedIOException("Seen-GUID flush failed", e);
+        }
+    }
+
+    public int size() {
+        return exact.size();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        try {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        } catch (IOException e) {
+            log.error("Error closing seen-GUID log", e);
+        }
+    }
+
+    private static String normalize(String guid) {
+        // One GUID per line in the log
+        return guid.strip().replace('\n', ' ').replace('\r', ' ');
+    }
+}
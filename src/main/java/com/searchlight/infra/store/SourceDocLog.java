@@ -0,0 +1,497 @@
+package com.searchlight.infra.store;
+
+import com.searchlight.domain.model.SourceDoc;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, segment-rolled log of cleaned source documents.
+ *
+ * Records are framed as [body length][crc32][url][raw length][LZ4 payload]. The URL is kept
+ * outside the compressed payload so the in-memory URL index can be rebuilt on startup with a
+ * sequential scan that never decompresses. Only the newest segment is written to; once it grows
+ * past the configured size a new segment is started.
+ *
+ * A log opened with {@link #readOnly(String)} serves lookups and replay without creating,
+ * truncating or writing any file.
+ */
+@Slf4j
+@Component
+public class SourceDocLog {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+    private static final int READ_BUFFER_BYTES = 1 << 20;
+    private static final int MAX_BODY_BYTES = 256 << 20;
+
+    private final Path logPath;
+    private final boolean enabled;
+    private final boolean readOnly;
+    private final long segmentSizeBytes;
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+
+    private final Map<String, Position> urlIndex = new ConcurrentHashMap<>();
+    private final List<Long> segmentIds = new ArrayList<>();
+    private FileChannel activeChannel;
+    private long activeSegmentId;
+
+    /**
+     * Location of a record: segment id and byte offset of its header.
+     */
+    record Position(long segmentId, long offset) {}
+
+    @Autowired
+    public SourceDocLog(
+            @Value("${searchlight.doclog.path:data/doclog}") String logPath,
+            @Value("${searchlight.doclog.enabled:true}") boolean enabled,
+            @Value("${searchlight.doclog.segment-size-mb:64}") int segmentSizeMb) {
+        this(logPath, enabled, segmentSizeMb, false);
+    }
+
+    private SourceDocLog(String logPath, boolean enabled, int segmentSizeMb, boolean readOnly) {
+        this.logPath = Path.of(logPath);
+        this.enabled = enabled;
+        this.readOnly = readOnly;
+        this.segmentSizeBytes = segmentSizeMb * 1024L * 1024L;
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    /**
+     * An existing log opened for lookups and replay only, e.g. to rebuild an index from it.
+     * {@link #initialize()} fails if the directory does not exist, and a torn tail is left as is.
+     */
+    public static SourceDocLog readOnly(String logPath) {
+        return new SourceDocLog(logPath, true, 64, true);
+    }
+
+    @PostConstruct
+    public synchronized void initialize() throws IOException {
+        if (!enabled) {
+            log.info("Source document log disabled");
+            return;
+        }
+
+        if (!readOnly) {
+            Files.createDirectories(logPath);
+        } else if (!Files.isDirectory(logPath)) {
+            throw new NoSuchFileException(logPath.toString(), null, "source document log not found");
+        }
+        try (Stream<Path> files = Files.list(logPath)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .forEach(segmentIds::add);
+        }
+
+        long validEnd = 0;
+        for (long segmentId : segmentIds) {
+            validEnd = rebuildIndex(segmentId);
+        }
+
+        if (readOnly) {
+            log.info("Source document log opened read-only at {} with {} segments and {} URLs",
+                    logPath, segmentIds.size(), urlIndex.size());
+            return;
+        }
+        if (segmentIds.isEmpty()) {
+            segmentIds.add(1L);
+        }
+        activeSegmentId = segmentIds.get(segmentIds.size() - 1);
+        activeChannel = FileChannel.open(segmentPath(activeSegmentId),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (activeChannel.size() > validEnd) {
+            log.warn("Truncating torn tail of segment {} from {} to {} bytes",
+                    activeSegmentId, activeChannel.size(), validEnd);
+            activeChannel.truncate(validEnd);
+        }
+        activeChannel.position(activeChannel.size());
+
+        log.info("Source document log opened at {} with {} segments and {} URLs",
+                logPath, segmentIds.size(), urlIndex.size());
+    }
+
+    /**
+     * Append a cleaned source document. The latest record for a URL wins on lookup and replay.
+     */
+    public synchronized void append(SourceDoc doc) {
+        if (!enabled) {
+            return;
+        }
+        if (readOnly) {
+            throw new IllegalStateException("Source document log at " + logPath + " is read-only");
+        }
+
+        try {
+            byte[] raw = encode(doc);
+            byte[] compressed = compressor.compress(raw);
+            byte[] url = doc.getUrl().getBytes(StandardCharsets.UTF_8);
+
+            int bodyLength = 4 + url.length + 4 + compressed.length;
+            if (bodyLength > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Source document " + doc.getUrl() + " is too large to log: "
+                        + bodyLength + " bytes compressed");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+            buffer.putInt(bodyLength);
+            buffer.putInt(0);
+            buffer.putInt(url.length).put(url);
+            buffer.putInt(raw.length).put(compressed);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), HEADER_BYTES, bodyLength);
+            buffer.putInt(4, (int) crc.getValue());
+            buffer.flip();
+
+            if (activeChannel.position() > 0 && activeChannel.position() + buffer.remaining() > segmentSizeBytes) {
+                roll();
+            }
+
+            long offset = activeChannel.position();
+            while (buffer.hasRemaining()) {
+                activeChannel.write(buffer);
+            }
+            urlIndex.put(doc.getUrl(), new Position(activeSegmentId, offset));
+
+        } catch (IOException e) {
+            log.error("Failed to append source document {}", doc.getUrl(), e);
+            throw new UncheckedIOException("Source log append failed", e);
+        }
+    }
+
+    /**
+     * Look up the most recent record for a URL.
+     */
+    public Optional<SourceDoc> get(String url) {
+        Position position = urlIndex.get(url);
+        if (position == null) {
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(segmentPath(position.segmentId()), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, position.offset());
+            header.flip();
+            int bodyLength = header.getInt();
+            int expectedCrc = header.getInt();
+
+            ByteBuffer body = ByteBuffer.allocate(bodyLength);
+            readFully(channel, body, position.offset() + HEADER_BYTES);
+            byte[] bytes = body.array();
+            if (!checksumMatches(bytes, expectedCrc)) {
+                log.warn("Checksum mismatch for {} in segment {}", url, position.segmentId());
+                return Optional.empty();
+            }
+            return Optional.of(decodeBody(bytes));
+
+        } catch (IOException e) {
+            log.error("Failed to read source document {}", url, e);
+            return Optional.empty();
+        }
+    }
+
+    public boolean contains(String url) {
+        return urlIndex.containsKey(url);
+    }
+
+    /**
+     * Sequentially replay the latest version of every logged document, oldest segment first.
+     *
+     * @return number of documents passed to the consumer
+     */
+    public int replay(Consumer<SourceDoc> consumer) {
+        if (!enabled) {
+            return 0;
+        }
+
+        List<Long> snapshot;
+        synchronized (this) {
+            snapshot = List.copyOf(segmentIds);
+        }
+
+        int replayed = 0;
+        for (long segmentId : snapshot) {
+            Path segment = segmentPath(segmentId);
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(segment), READ_BUFFER_BYTES)) {
+                DataInputStream data = new DataInputStream(in);
+                long segmentLength = Files.size(segment);
+                long offset = 0;
+                byte[] body;
+                while ((body = readRecord(data, segmentId, offset, segmentLength)) != null) {
+                    long recordOffset = offset;
+                    offset += HEADER_BYTES + body.length;
+
+                    // Skip versions that a later append for the same URL has superseded
+                    Position latest = urlIndex.get(decodeUrl(body));
+                    if (latest == null || latest.segmentId() != segmentId || latest.offset() != recordOffset) {
+                        continue;
+                    }
+                    consumer.accept(decodeBody(body));
+                    replayed++;
+                }
+            } catch (IOException e) {
+                log.error("Failed to replay segment {}", segmentId, e);
+                throw new UncheckedIOException("Source log replay failed", e);
+            }
+        }
+
+        log.info("Replayed {} source documents from {} segments", replayed, snapshot.size());
+        return replayed;
+    }
+
+    /**
+     * Force appended records to stable storage.
+     */
+    public synchronized void sync() {
+        if (activeChannel == null) {
+            return;
+        }
+        try {
+            activeChannel.force(false);
+        } catch (IOException e) {
+            log.error("Failed to sync source document log", e);
+            throw new UncheckedIOException("Source log sync failed", e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        return urlIndex.size();
+    }
+
+    public synchronized int getSegmentCount() {
+        return segmentIds.size();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        try {
+            if (activeChannel != null) {
+                activeChannel.force(true);
+                activeChannel.close();
+                activeChannel = null;
+            }
+            log.info("Source document log closed");
+        } catch (IOException e) {
+            log.error("Error closing source document log", e);
+        }
+    }
+
+    private void roll() throws IOException {
+        activeChannel.force(true);
+        activeChannel.close();
+        activeSegmentId++;
+        segmentIds.add(activeSegmentId);
+        activeChannel = FileChannel.open(segmentPath(activeSegmentId),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        log.debug("Rolled source document log to segment {}", activeSegmentId);
+    }
+
+    /**
+     * Scan a segment and index every intact record by URL.
+     *
+     * @return byte offset just past the last intact record
+     */
+    private long rebuildIndex(long segmentId) throws IOException {
+        Path segment = segmentPath(segmentId);
+        long offset = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(segment), READ_BUFFER_BYTES)) {
+            DataInputStream data = new DataInputStream(in);
+            long segmentLength = Files.size(segment);
+            byte[] body;
+            while ((body = readRecord(data, segmentId, offset, segmentLength)) != null) {
+                urlIndex.put(decodeUrl(body), new Position(segmentId, offset));
+                offset += HEADER_BYTES + body.length;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Read the record at {@code offset}, or null at the end of the segment.
+     *
+     * A torn tail left by a crash (a record cut short, a last record with a bad checksum, or zero
+     * fill) also ends the segment. Any other invalid record throws with its position rather than
+     * silently dropping the records behind it, and lengths are checked against the segment before
+     * anything is allocated.
+     */
+    private byte[] readRecord(DataInputStream data, long segmentId, long offset, long segmentLength) throws IOException {
+        long remaining = segmentLength - offset - HEADER_BYTES;
+        try {
+            if (remaining < 0) {
+                if (segmentLength > offset) {
+                    log.warn("Ignoring torn record header at offset {} of segment {}", offset, segmentId);
+                }
+                return null;
+            }
+            int bodyLength = data.readInt();
+            int expectedCrc = data.readInt();
+            if (bodyLength == 0 && expectedCrc == 0) {
+                log.warn("Ignoring zero-filled tail from offset {} of segment {}", offset, segmentId);
+                return null;
+            }
+            if (bodyLength <= 0 || bodyLength > MAX_BODY_BYTES) {
+                throw corruptRecord(segmentId, offset, "invalid body length " + bodyLength);
+            }
+            if (bodyLength > remaining) {
+                log.warn("Ignoring torn record at offset {} of segment {}: {} of {} body bytes present",
+                        offset, segmentId, remaining, bodyLength);
+                return null;
+            }
+            byte[] body = new byte[bodyLength];
+            data.readFully(body);
+            if (!checksumMatches(body, expectedCrc)) {
+                if (bodyLength == remaining) {
+                    log.warn("Ignoring torn last record at offset {} of segment {}", offset, segmentId);
+                    return null;
+                }
+                throw corruptRecord(segmentId, offset, "checksum mismatch");
+            }
+            return body;
+        } catch (EOFException e) {
+            // The segment shrank while it was read
+            return null;
+        }
+    }
+
+    private IOException corruptRecord(long segmentId, long offset, String reason) {
+        String message = String.format("Corrupt record in %s at offset %d: %s; records behind it are unreadable "
+                + "until the segment is repaired or truncated", segmentPath(segmentId), offset, reason);
+        log.error(message);
+        return new IOException(message);
+    }
+
+    private static boolean checksumMatches(byte[] body, int expectedCrc) {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        return (int) crc.getValue() == expectedCrc;
+    }
+
+    private static String decodeUrl(byte[] body) {
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        int urlLength = buffer.getInt();
+        return new String(body, 4, urlLength, StandardCharsets.UTF_8);
+    }
+
+    private SourceDoc decodeBody(byte[] body) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        int urlLength = buffer.getInt();
+        buffer.position(4 + urlLength);
+        int rawLength = buffer.getInt();
+        byte[] raw = decompressor.decompress(body, buffer.position(), rawLength);
+        return decode(raw);
+    }
+
+    private static byte[] encode(SourceDoc doc) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                doc.getContent() != null ? doc.getContent().length() + 256 : 256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeString(out, doc.getId());
+        writeString(out, doc.getUrl());
+        writeString(out, doc.getTitle());
+        writeString(out, doc.getContent());
+        writeString(out, doc.getSource());
+        writeString(out, doc.getContentType());
+        writeInstant(out, doc.getPublishedAt());
+        writeInstant(out, doc.getFetchedAt());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static SourceDoc decode(byte[] raw) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+        return SourceDoc.builder()
+                .id(readString(in))
+                .url(readString(in))
+                .title(readString(in))
+                .content(readString(in))
+                .source(readString(in))
+                .contentType(readString(in))
+                .publishedAt(readInstant(in))
+                .fetchedAt(readInstant(in))
+                .build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant value) throws IOException {
+        out.writeLong(value != null ? value.toEpochMilli() : Long.MIN_VALUE);
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        long epochMilli = in.readLong();
+        return epochMilli != Long.MIN_VALUE ? Instant.ofEpochMilli(epochMilli) : null;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of segment at " + position);
+            }
+        }
+    }
+
+    private Path segmentPath(long segmentId) {
+        return logPath.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+    }
+}
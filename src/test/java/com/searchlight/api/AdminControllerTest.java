@@ -0,0 +1,82 @@
+package com.searchlight.api;
+
+import com.searchlight.api.controller.AdminController;
+import com.searchlight.domain.ports.Indexer;
+import com.searchlight.infra.index.IndexMaintenanceScheduler;
+import com.searchlight.infra.index.IndexStatsCollector;
+import com.searchlight.infra.index.LuceneIndexer;
+import com.searchlight.infra.ingest.BulkImportService;
+import com.searchlight.infra.ingest.FeedPollScheduler;
+import com.searchlight.infra.ingest.RssIngestService;
+import com.searchlight.infra.ingest.SitemapIngestService;
+import com.searchlight.infra.ingest.WarcIngestService;
+import com.searchlight.infra.observability.SlowQueryLog;
+import com.searchlight.infra.observability.jfr.JfrRecordingService;
+import com.searchlight.infra.store.SourceDocLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdminControllerTest {
+    
+    private RssIngestService ingestService;
+    private Indexer indexer;
+    private SourceDocLog sourceDocLog;
+    private AdminController controller;
+    
+    @BeforeEach
+    void setUp() {
+        ingestService = mock(RssIngestService.class);
+        indexer = mock(Indexer.class);
+        sourceDocLog = mock(SourceDocLog.class);
+        controller = new AdminController(ingestService, indexer, sourceDocLog, mock(LuceneIndexer.class),
+                mock(IndexMaintenanceScheduler.class), mock(BulkImportService.class), mock(WarcIngestService.class),
+                mock(SitemapIngestService.class), mock(FeedPollScheduler.class), mock(SlowQueryLog.class),
+                mock(IndexStatsCollector.class), mock(JfrRecordingService.class));
+    }
+    
+    @Test
+    void testReindexRefusesWhenLogIsDisabled() {
+        when(sourceDocLog.isEnabled()).thenReturn(false);
+        
+        ResponseEntity<Map<String, Object>> response = controller.reindex();
+        
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody()).containsEntry("status", "error");
+        verify(indexer, never()).clearAll();
+        verify(ingestService, never()).reindexFromLog();
+    }
+    
+    @Test
+    void testReindexRefusesWhenLogIsEmpty() {
+        when(sourceDocLog.isEnabled()).thenReturn(true);
+        when(sourceDocLog.size()).thenReturn(0);
+        
+        ResponseEntity<Map<String, Object>> response = controller.reindex();
+        
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        verify(indexer, never()).clearAll();
+    }
+    
+    @Test
+    void testReindexClearsAndReplaysWhenLogHasDocuments() {
+        when(sourceDocLog.isEnabled()).thenReturn(true);
+        when(sourceDocLog.size()).thenReturn(3);
+        when(ingestService.reindexFromLog()).thenReturn(3);
+        
+        ResponseEntity<Map<String, Object>> response = controller.reindex();
+        
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsEntry("sourcesReplayed", 3);
+        verify(indexer).clearAll();
+    }
+}
@@ -7,6 +7,7 @@ import com.searchlight.domain.model.SearchResult;
 import com.searchlight.domain.ports.EmbeddingProvider;
 import com.searchlight.domain.ports.Searcher;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -18,6 +19,9 @@ import java.time.Instant;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -65,6 +69,59 @@ class SearchControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.results").isArray())
                 .andExpect(jsonPath("$.results[0].title").value("Test Document"))
-                .andExpect(jsonPath("$.total").value(1));
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.timings").doesNotExist());
+    }
+    
+    @Test
+    void testSearchDebugTimings() throws Exception {
+        when(searcher.search(any(SearchQuery.class))).thenReturn(List.of());
+        when(embeddingProvider.embed(any())).thenReturn(new float[384]);
+        
+        SearchRequest request = new SearchRequest();
+        request.setQ("test query");
+        request.setDebug(true);
+        
+        mockMvc.perform(post("/api/v1/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.timings.embedMs").isNumber())
+                .andExpect(jsonPath("$.timings.totalMs").isNumber());
+    }
+    
+    @Test
+    void testSearchRejectsUnboundedK() throws Exception {
+        SearchRequest request = new SearchRequest();
+        request.setQ("test query");
+        request.setK(100000);
+        
+        mockMvc.perform(post("/api/v1/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+        
+        verify(searcher, never()).search(any(SearchQuery.class));
+        verify(embeddingProvider, never()).embed(any());
+    }
+    
+    @Test
+    void testSearchWaitsForMinSeqBeforeSearching() throws Exception {
+        when(searcher.search(any(SearchQuery.class))).thenReturn(List.of());
+        when(embeddingProvider.embed(any())).thenReturn(new float[384]);
+        
+        SearchRequest request = new SearchRequest();
+        request.setQ("test query");
+        request.setMinSeq(42L);
+        
+        mockMvc.perform(post("/api/v1/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+        
+        InOrder order = inOrder(embeddingProvider, searcher);
+        order.verify(embeddingProvider).embed("test query");
+        order.verify(searcher).awaitSearchable(42L);
+        order.verify(searcher).search(any(SearchQuery.class));
     }
 }
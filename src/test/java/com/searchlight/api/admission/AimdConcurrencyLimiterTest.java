@@ -0,0 +1,96 @@
+package com.searchlight.api.admission;
+
+import com.searchlight.api.admission.AimdConcurrencyLimiter.Permit;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AimdConcurrencyLimiterTest {
+    
+    @Test
+    void testAdmitsUpToLimitInSlots() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 1, 10, 0.5, 1000, 0);
+        
+        Permit large = limiter.acquire(3, 0);
+        Permit small = limiter.acquire(1, 0);
+        
+        assertThat(large.slots()).isEqualTo(3);
+        assertThat(small.slots()).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isEqualTo(4);
+        assertThat(limiter.acquire(1, 0)).isNull();
+    }
+    
+    @Test
+    void testRequestLargerThanLimitIsCappedAtLimit() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 1, 10, 0.5, 1000, 0);
+        
+        Permit permit = limiter.acquire(50, 0);
+        
+        assertThat(permit.slots()).isEqualTo(4);
+    }
+    
+    @Test
+    void testQueuedRequestIsAdmittedWhenSlotsFreeUp() throws Exception {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 1, 10, 0.5, 1000, 1);
+        Permit running = limiter.acquire(2, 0);
+        
+        CompletableFuture<Permit> queued = CompletableFuture.supplyAsync(() -> limiter.acquire(1, 5000));
+        while (limiter.getQueued() == 0) {
+            Thread.sleep(5);
+        }
+        // The queue holds one request, so the next one is shed immediately
+        assertThat(limiter.acquire(1, 5000)).isNull();
+        
+        limiter.release(running, false);
+        
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(limiter.getQueued()).isZero();
+    }
+    
+    @Test
+    void testQueuedRequestTimesOut() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(1, 1, 10, 0.5, 1000, 10);
+        limiter.acquire(1, 0);
+        
+        assertThat(limiter.acquire(1, 20)).isNull();
+        assertThat(limiter.getQueued()).isZero();
+    }
+    
+    @Test
+    void testLimitGrowsAdditivelyAndShrinksMultiplicatively() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 2, 10, 0.5, 1000, 0);
+        
+        Permit first = limiter.acquire(2, 0);
+        Permit second = limiter.acquire(2, 0);
+        limiter.release(first, false);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+        
+        limiter.release(second, true);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        
+        // Never below the minimum
+        limiter.release(limiter.acquire(1, 0), true);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+    
+    @Test
+    void testLimitDoesNotGrowWhenUnderused() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(10, 1, 20, 0.5, 1000, 0);
+        
+        limiter.release(limiter.acquire(1, 0), false);
+        
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+    
+    @Test
+    void testRejectsInvalidLimits() {
+        assertThatThrownBy(() -> new AimdConcurrencyLimiter(20, 1, 10, 0.5, 1000, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AimdConcurrencyLimiter(4, 1, 10, 1.5, 1000, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,80 @@
+package com.searchlight.api.admission;
+
+import com.searchlight.api.admission.SearchCostModel.SearchCost;
+import com.searchlight.api.dto.SearchRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchCostModelTest {
+    
+    private final SearchCostModel costModel = new SearchCostModel(1000, 2000, 50, 2.0);
+    
+    @Test
+    void testDefaultHybridSearchCostsOneUnit() {
+        SearchCost cost = costModel.estimate(request("machine learning", 10, 0, 0.5f));
+        
+        assertThat(cost.legs()).isEqualTo(2);
+        assertThat(cost.window()).isEqualTo(10);
+        assertThat(cost.units()).isEqualTo(1.0);
+    }
+    
+    @Test
+    void testSingleLegCostsHalf() {
+        assertThat(costModel.estimate(request("machine learning", 10, 0, 0.0f)).legs()).isEqualTo(1);
+        assertThat(costModel.estimate(request("machine learning", 10, 0, 1.0f)).units()).isEqualTo(0.5);
+    }
+    
+    @Test
+    void testCostGrowsWithWindowAndFilters() {
+        SearchCost deepPage = costModel.estimate(request("machine learning", 100, 400, 0.5f));
+        assertThat(deepPage.fetchSize()).isEqualTo(1000);
+        assertThat(deepPage.units()).isEqualTo(10.0);
+        
+        SearchRequest filtered = request("machine learning", 10, 0, 0.5f);
+        filtered.setFilters(new SearchRequest.FilterParams());
+        filtered.getFilters().setAfter(Instant.parse("2024-01-01T00:00:00Z"));
+        assertThat(costModel.estimate(filtered).units()).isEqualTo(2.0);
+    }
+    
+    @Test
+    void testRejectsOutOfBoundsRequests() {
+        assertThatThrownBy(() -> costModel.estimate(request("q", 100000, 0, 0.5f)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("k must be between");
+        assertThatThrownBy(() -> costModel.estimate(request("q", 0, 0, 0.5f)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> costModel.estimate(request("q", 10, -1, 0.5f)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> costModel.estimate(request("q", 500, 1900, 0.5f)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("k + from");
+        assertThatThrownBy(() -> costModel.estimate(request("q", 10, 0, 1.5f)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void testRejectsRequestsOverMaxCost() {
+        SearchRequest filtered = request("q", 1000, 0, 0.5f);
+        filtered.setFilters(new SearchRequest.FilterParams());
+        filtered.getFilters().setSource("hn");
+        
+        // 2000 candidates per leg over two legs is 20 units, doubled by the filter past a limit of 30
+        assertThat(costModel.estimate(request("q", 1000, 0, 0.5f)).units()).isEqualTo(20.0);
+        assertThatThrownBy(() -> new SearchCostModel(1000, 2000, 30, 2.0).estimate(filtered))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Estimated search cost");
+    }
+    
+    private static SearchRequest request(String q, int k, int from, float alpha) {
+        SearchRequest request = new SearchRequest();
+        request.setQ(q);
+        request.setK(k);
+        request.setFrom(from);
+        request.setAlpha(alpha);
+        return request;
+    }
+}
@@ -0,0 +1,112 @@
+package com.searchlight.app;
+
+import com.searchlight.domain.model.SourceDoc;
+import com.searchlight.infra.store.SourceDocLog;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkIndexBuilderTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testParsesBothArgumentForms() {
+        Map<String, String> options = BulkIndexBuilder.parseArgs(
+                new String[] {"--input=data/doclog", "--index", "data/index-new", "--threads=4"});
+        
+        assertThat(options).containsEntry("input", "data/doclog")
+                .containsEntry("index", "data/index-new")
+                .containsEntry("threads", "4");
+    }
+    
+    @Test
+    void testRejectsMalformedArguments() {
+        assertThat(BulkIndexBuilder.parseArgs(new String[] {"chunks.ndjson"})).isNull();
+        assertThat(BulkIndexBuilder.parseArgs(new String[] {"--input=chunks.ndjson", "--index"})).isNull();
+        assertThat(BulkIndexBuilder.parseArgs(new String[0])).isEmpty();
+    }
+    
+    @Test
+    void testBuildsFromNdjson() throws Exception {
+        Path input = tempDir.resolve("chunks.ndjson");
+        Files.writeString(input, """
+                {"id":"c1","sourceId":"s1","content":"first chunk","vector":[0.1,0.2,0.3]}
+                {"id":"c2","sourceId":"s1","content":"second chunk","vector":[0.3,0.2,0.1]}
+                not json
+                {"id":"c3","sourceId":"s2","content":"third chunk","vector":[0.2,0.2,0.2]}
+                """, StandardCharsets.UTF_8);
+        Path index = tempDir.resolve("index");
+        
+        new BulkIndexBuilder(Map.of(
+                "input", input.toString(),
+                "index", index.toString(),
+                "dimension", "3",
+                "threads", "2",
+                "batch-size", "2")).run();
+        
+        assertThat(numDocs(index)).isEqualTo(3);
+    }
+    
+    @Test
+    void testBuildsFromDocLogWithoutModifyingIt() throws Exception {
+        Path docLog = tempDir.resolve("doclog");
+        SourceDocLog sourceDocLog = new SourceDocLog(docLog.toString(), true, 64);
+        sourceDocLog.initialize();
+        sourceDocLog.append(createDoc("https://example.com/a", "Vector search finds documents by meaning."));
+        sourceDocLog.append(createDoc("https://example.com/b", "Keyword search ranks documents with BM25."));
+        sourceDocLog.close();
+        // A torn tail that a writable open would truncate
+        Path segment = segments(docLog).get(0);
+        Files.write(segment, new byte[] {0, 0, 1}, StandardOpenOption.APPEND);
+        byte[] before = Files.readAllBytes(segment);
+        Path index = tempDir.resolve("index");
+        
+        new BulkIndexBuilder(Map.of(
+                "input", docLog.toString(),
+                "index", index.toString(),
+                "threads", "2")).run();
+        
+        assertThat(numDocs(index)).isEqualTo(2);
+        assertThat(segments(docLog)).containsExactly(segment);
+        assertThat(Files.readAllBytes(segment)).isEqualTo(before);
+    }
+    
+    private static int numDocs(Path index) throws Exception {
+        try (DirectoryReader reader = DirectoryReader.open(FSDirectory.open(index))) {
+            return reader.numDocs();
+        }
+    }
+    
+    private static List<Path> segments(Path docLog) throws Exception {
+        try (Stream<Path> files = Files.list(docLog)) {
+            return files.sorted().toList();
+        }
+    }
+    
+    private static SourceDoc createDoc(String url, String content) {
+        return SourceDoc.builder()
+                .id(url)
+                .url(url)
+                .title("Title for " + url)
+                .content(content)
+                .source("test")
+                .publishedAt(Instant.now())
+                .fetchedAt(Instant.now())
+                .contentType("text/html")
+                .build();
+    }
+}
@@ -44,6 +44,7 @@ class EndToEndSmokeTest {
         
         List<DocumentChunk> docs = SampleDocs.createSampleDocuments(384);
         indexer.indexBatch(docs);
+        indexer.commit();
     }
     
     @Test
@@ -82,6 +83,17 @@ class EndToEndSmokeTest {
     void testAdminStats() throws Exception {
         mockMvc.perform(get("/api/v1/admin/stats"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.documentCount").value(5));
+                .andExpect(jsonPath("$.documentCount").value(5))
+                .andExpect(jsonPath("$.indexPath").isString());
+    }
+    
+    @Test
+    void testAdminIndexStats() throws Exception {
+        mockMvc.perform(get("/api/v1/admin/stats/index"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documentCount").value(5))
+                .andExpect(jsonPath("$.segmentCount").isNumber())
+                .andExpect(jsonPath("$.vectorCount").value(5))
+                .andExpect(jsonPath("$.segments").isArray());
     }
 }
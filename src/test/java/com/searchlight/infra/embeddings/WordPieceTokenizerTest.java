@@ -0,0 +1,68 @@
+package com.searchlight.infra.embeddings;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WordPieceTokenizerTest {
+    
+    private static final List<String> VOCAB = List.of(
+            "[PAD]", "[UNK]", "[CLS]", "[SEP]", "the", "un", "##aff", "##able", "runn", "##ing",
+            "run", ",", ".", "cafe", "日", "本");
+    
+    @Test
+    void testGreedyLongestMatchFirst() {
+        WordPieceTokenizer tokenizer = new WordPieceTokenizer(VOCAB, true);
+        
+        // un ##aff ##able
+        assertThat(tokenizer.countTokens("unaffable")).isEqualTo(3);
+        // runn ##ing, not run + unmatchable remainder
+        assertThat(tokenizer.countTokens("running")).isEqualTo(2);
+        assertThat(tokenizer.countTokens("The  UNAFFABLE")).isEqualTo(4);
+    }
+    
+    @Test
+    void testUnknownWordIsOneToken() {
+        WordPieceTokenizer tokenizer = new WordPieceTokenizer(VOCAB, true);
+        
+        // "unaffx" matches un ##aff but then fails, so the whole word is [UNK]
+        assertThat(tokenizer.countTokens("unaffx")).isEqualTo(1);
+        assertThat(tokenizer.countTokens("zzz")).isEqualTo(1);
+        assertThat(tokenizer.countTokens("a".repeat(101))).isEqualTo(1);
+    }
+    
+    @Test
+    void testPunctuationAndCjkSplitIntoTokens() {
+        WordPieceTokenizer tokenizer = new WordPieceTokenizer(VOCAB, true);
+        
+        assertThat(tokenizer.countTokens("the,running.")).isEqualTo(5);
+        assertThat(tokenizer.countTokens("日本")).isEqualTo(2);
+        // Accents are stripped for uncased vocabularies
+        assertThat(tokenizer.countTokens("the Café")).isEqualTo(2);
+        assertThat(tokenizer.countTokens("")).isZero();
+    }
+    
+    @Test
+    void testCountsRange() {
+        WordPieceTokenizer tokenizer = new WordPieceTokenizer(VOCAB, true);
+        String text = "xx unaffable yy";
+        
+        assertThat(tokenizer.countTokens(text, 3, 12)).isEqualTo(3);
+    }
+    
+    @Test
+    void testLoadsVocabFile(@TempDir Path dir) throws Exception {
+        Path vocab = dir.resolve("vocab.txt");
+        Files.write(vocab, VOCAB);
+        
+        WordPieceTokenizer tokenizer = WordPieceTokenizer.load(vocab, true);
+        
+        assertThat(tokenizer.getVocabularySize()).isEqualTo(VOCAB.size());
+        assertThat(tokenizer.countTokens("unaffable running")).isEqualTo(5);
+    }
+}
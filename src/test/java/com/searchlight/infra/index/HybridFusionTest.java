@@ -3,7 +3,11 @@ package com.searchlight.infra.index;
 import com.searchlight.domain.model.DocumentChunk;
 import com.searchlight.domain.model.SearchQuery;
 import com.searchlight.domain.model.SearchResult;
+import com.searchlight.domain.model.SearchTimings;
 import com.searchlight.fixtures.SampleDocs;
+import com.searchlight.infra.observability.SearchStageMetrics;
+import com.searchlight.infra.observability.SlowQueryLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,11 +40,11 @@ class HybridFusionTest {
         indexer = new LuceneIndexer(indexPath, DIMENSION, SimilarityMode.COSINE, 16, 100);
         indexer.initialize();
         
-        searcher = new LuceneSearcher(indexPath, DIMENSION);
-        searcher.initialize();
+        searcher = new LuceneSearcher(indexer, DIMENSION);
         
-        // Index sample documents
-        indexer.indexBatch(SampleDocs.createSampleDocuments(DIMENSION));
+        // Index sample documents and wait until the NRT searcher sees them
+        long seq = indexer.indexBatch(SampleDocs.createSampleDocuments(DIMENSION));
+        indexer.awaitSearchable(seq, 5000);
     }
     
     @AfterEach
@@ -192,4 +196,76 @@ class HybridFusionTest {
             }
         }
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testStageTimingsAreRecorded() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LuceneSearcher timedSearcher = new LuceneSearcher(indexer, DIMENSION, 5000,
+                new SearchStageMetrics(registry), SlowQueryLog.disabled());
+        SearchTimings timings = new SearchTimings();
+        
+        SearchQuery query = SearchQuery.builder()
+                .queryText("machine learning")
+                .queryVector(SampleDocs.createNormalizedVector(DIMENSION, 1))
+                .topK(5)
+                .alpha(0.5f)
+                .offset(0)
+                .timings(timings)
+                .build();
+        
+        assertThat(timedSearcher.search(query)).isNotEmpty();
+        
+        assertThat(timings.getBm25Hits()).isPositive();
+        assertThat(timings.getKnnHits()).isPositive();
+        assertThat(timings.getBm25Ms()).isPositive();
+        assertThat(timings.getKnnMs()).isPositive();
+        assertThat(timings.getStoredFieldsMs()).isPositive();
+        for (String stage : List.of("bm25", "knn", "fusion")) {
+            assertThat(registry.get("search.stage.latency").tag("stage", stage).timer().count()).isEqualTo(1);
+        }
+        // Stored fields are loaded once per retriever
+        assertThat(registry.get("search.stage.latency").tag("stage", "stored_fields").timer().count()).isEqualTo(2);
+        assertThat(registry.get("search.stage.latency").tag("stage", "embed").timer().count()).isZero();
+    }
+    
+    @Test
+    void testSlowQueryIsProfiled() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SlowQueryLog slowQueryLog = new SlowQueryLog(true, 0, true, 10, registry);
+        LuceneSearcher profiledSearcher = new LuceneSearcher(indexer, DIMENSION, 5000,
+                new SearchStageMetrics(registry), slowQueryLog);
+        
+        SearchQuery query = SearchQuery.builder()
+                .queryText("machine learning")
+                .queryVector(SampleDocs.createNormalizedVector(DIMENSION, 1))
+                .topK(5)
+                .alpha(0.5f)
+                .offset(0)
+                .build();
+        
+        profiledSearcher.search(query);
+        
+        // Logged right away; the profile is attached by the background profiler
+        List<SlowQueryLog.Entry> recent = slowQueryLog.getRecent();
+        assertThat(recent).hasSize(1);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (slowQueryLog.getRecent().get(0).profile().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        SlowQueryLog.Entry entry = slowQueryLog.getRecent().get(0);
+        assertThat(entry.queryText()).isEqualTo("machine learning");
+        assertThat(entry.vectorDimension()).isEqualTo(DIMENSION);
+        assertThat(entry.timings().getBm25Hits()).isPositive();
+        assertThat(entry.profile()).extracting(SlowQueryLog.LegProfile::leg).containsExactly("bm25", "knn");
+        
+        SlowQueryLog.LegProfile bm25 = entry.profile().get(0);
+        assertThat(bm25.visitedNodes()).isNull();
+        assertThat(bm25.clauses()).isNotEmpty();
+        assertThat(bm25.clauses().get(0).breakdown()).containsKey("create_weight");
+        
+        SlowQueryLog.LegProfile knn = entry.profile().get(1);
+        assertThat(knn.visitedNodes()).isPositive();
+        assertThat(registry.counter("search.slow_queries").count()).isEqualTo(1);
+        slowQueryLog.close();
+    }
+}
@@ -0,0 +1,100 @@
+package com.searchlight.infra.index;
+
+import com.searchlight.fixtures.SampleDocs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexStatsCollectorTest {
+    
+    private static final int DIMENSION = 384;
+    
+    @TempDir
+    Path tempDir;
+    
+    private LuceneIndexer indexer;
+    private SimpleMeterRegistry registry;
+    private IndexStatsCollector collector;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        indexer = new LuceneIndexer(tempDir.resolve("index").toString(), DIMENSION, SimilarityMode.COSINE, 16, 100);
+        indexer.initialize();
+        registry = new SimpleMeterRegistry();
+        collector = new IndexStatsCollector(indexer, 0, registry);
+        
+        indexer.indexBatch(SampleDocs.createSampleDocuments(DIMENSION));
+        indexer.commit();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        indexer.close();
+    }
+    
+    @Test
+    void testCollectsSegmentsFilesAndVectors() {
+        IndexStatsCollector.IndexStats stats = collector.collect();
+        
+        assertThat(stats.indexPath()).isEqualTo(tempDir.resolve("index").toString());
+        assertThat(stats.documentCount()).isEqualTo(5);
+        assertThat(stats.segmentCount()).isEqualTo(stats.segments().size()).isPositive();
+        assertThat(stats.vectorCount()).isEqualTo(5);
+        assertThat(stats.vectorDimension()).isEqualTo(DIMENSION);
+        
+        // Compound files are unpacked, so the raw vectors show up under their own extension
+        assertThat(stats.bytesByExtension()).containsKeys("vec", "vex", "fdt");
+        assertThat(stats.vectorBytes()).isGreaterThanOrEqualTo(5L * DIMENSION * Float.BYTES);
+        assertThat(stats.vectorOffHeapBytes()).isEqualTo(stats.vectorBytes() + stats.graphBytes());
+        assertThat(stats.postingsBytes()).isPositive();
+        assertThat(stats.sizeBytes()).isEqualTo(stats.segments().stream()
+                .mapToLong(IndexStatsCollector.SegmentStats::sizeBytes).sum());
+        assertThat(stats.deletedRatio()).isZero();
+        assertThat(stats.readerOpenedAt()).isNotNull();
+    }
+    
+    @Test
+    void testDeletedRatioAndGauges() {
+        indexer.delete("1");
+        indexer.refresh();
+        
+        IndexStatsCollector.IndexStats stats = collector.collect();
+        assertThat(stats.documentCount()).isEqualTo(4);
+        assertThat(stats.deletedRatio()).isEqualTo(stats.deletedDocs() / (double) stats.maxDoc()).isPositive();
+        
+        assertThat(registry.get("index.docs.count").gauge().value()).isEqualTo(4);
+        assertThat(registry.get("index.vectors.count").gauge().value()).isEqualTo(stats.vectorCount());
+        assertThat(registry.get("index.files.bytes").tag("type", "hnsw").gauge().value()).isPositive();
+    }
+    
+    @Test
+    void testMixedIndexCountsSearchedVectorsPerSegment() throws Exception {
+        // Reopen with quantization on: the first segment keeps .vec, the next one gets .veq
+        indexer.close();
+        indexer = new LuceneIndexer(tempDir.resolve("index").toString(), DIMENSION, SimilarityMode.COSINE, 16, 100,
+                IndexSettings.builder().vectorQuantization(VectorQuantization.INT8).build(), new SimpleMeterRegistry());
+        indexer.initialize();
+        indexer.indexBatch(IntStream.rangeClosed(6, 10)
+                .mapToObj(i -> SampleDocs.createSampleChunk(String.valueOf(i), "Quantized sample document " + i,
+                        SampleDocs.createNormalizedVector(DIMENSION, i)))
+                .toList());
+        indexer.commit();
+        
+        IndexStatsCollector.IndexStats stats = new IndexStatsCollector(indexer, 0, new SimpleMeterRegistry()).collect();
+        long quantizedBytes = stats.bytesByExtension().getOrDefault("veq", 0L);
+        
+        assertThat(stats.segmentCount()).isEqualTo(2);
+        assertThat(quantizedBytes).isPositive();
+        // The unquantized segment's .vec is searched; the quantized segment's .vec is not
+        assertThat(stats.vectorOffHeapBytes())
+                .isGreaterThanOrEqualTo(quantizedBytes + stats.graphBytes() + 5L * DIMENSION * Float.BYTES)
+                .isLessThan(quantizedBytes + stats.graphBytes() + stats.vectorBytes());
+    }
+}
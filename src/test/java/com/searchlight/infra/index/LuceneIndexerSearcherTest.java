@@ -4,16 +4,25 @@ import com.searchlight.domain.model.DocumentChunk;
 import com.searchlight.domain.model.SearchQuery;
 import com.searchlight.domain.model.SearchResult;
 import com.searchlight.fixtures.SampleDocs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class LuceneIndexerSearcherTest {
     
@@ -24,16 +33,16 @@ class LuceneIndexerSearcherTest {
     
     private LuceneIndexer indexer;
     private LuceneSearcher searcher;
+    private String indexPath;
     
     @BeforeEach
     void setUp() throws Exception {
-        String indexPath = tempDir.resolve("test-index").toString();
+        indexPath = tempDir.resolve("test-index").toString();
         
         indexer = new LuceneIndexer(indexPath, DIMENSION, SimilarityMode.COSINE, 16, 100);
         indexer.initialize();
         
-        searcher = new LuceneSearcher(indexPath, DIMENSION);
-        searcher.initialize();
+        searcher = new LuceneSearcher(indexer, DIMENSION);
     }
     
     @AfterEach
@@ -63,13 +72,14 @@ class LuceneIndexerSearcherTest {
     @Test
     void testKeywordSearch() {
         List<DocumentChunk> docs = SampleDocs.createSampleDocuments(DIMENSION);
-        indexer.indexBatch(docs);
+        long seq = indexer.indexBatch(docs);
         
         SearchQuery query = SearchQuery.builder()
                 .queryText("machine learning")
                 .topK(10)
                 .alpha(0.0f) // Pure keyword search
                 .offset(0)
+                .minSeq(seq)
                 .build();
         
         List<SearchResult> results = searcher.search(query);
@@ -84,7 +94,7 @@ class LuceneIndexerSearcherTest {
     @Test
     void testVectorSearch() {
         List<DocumentChunk> docs = SampleDocs.createSampleDocuments(DIMENSION);
-        indexer.indexBatch(docs);
+        long seq = indexer.indexBatch(docs);
         
         // Search with a vector similar to doc 1
         float[] queryVector = SampleDocs.createNormalizedVector(DIMENSION, 1);
@@ -94,6 +104,7 @@ class LuceneIndexerSearcherTest {
                 .topK(5)
                 .alpha(1.0f) // Pure vector search
                 .offset(0)
+                .minSeq(seq)
                 .build();
         
         List<SearchResult> results = searcher.search(query);
@@ -104,7 +115,7 @@ class LuceneIndexerSearcherTest {
     @Test
     void testHybridSearch() {
         List<DocumentChunk> docs = SampleDocs.createSampleDocuments(DIMENSION);
-        indexer.indexBatch(docs);
+        long seq = indexer.indexBatch(docs);
         
         SearchQuery query = SearchQuery.builder()
                 .queryText("neural networks")
@@ -112,6 +123,7 @@ class LuceneIndexerSearcherTest {
                 .topK(5)
                 .alpha(0.5f) // Hybrid search
                 .offset(0)
+                .minSeq(seq)
                 .build();
         
         List<SearchResult> results = searcher.search(query);
@@ -146,4 +158,146 @@ class LuceneIndexerSearcherTest {
         
         assertThat(indexer.getDocumentCount()).isEqualTo(5);
     }
+    
+    @Test
+    void testWritesVisibleBeforeCommitAndDurableAfterFlush() throws Exception {
+        long seq = indexer.indexBatch(SampleDocs.createSampleDocuments(DIMENSION));
+        
+        // Near-real-time searcher sees the batch without a commit
+        assertThat(indexer.awaitSearchable(seq, 5000)).isTrue();
+        assertThat(searcher.getById("1")).isPresent();
+        assertThat(committedDocCount()).isZero();
+        
+        indexer.commit();
+        
+        assertThat(committedDocCount()).isEqualTo(5);
+    }
+    
+    @Test
+    void testPendingThresholdTriggersGroupCommit() throws Exception {
+        indexer.close();
+        IndexSettings settings = IndexSettings.builder()
+                .commitIntervalMs(0)
+                .commitMaxPendingDocs(5)
+                .refreshIntervalMs(0)
+                .build();
+        indexer = new LuceneIndexer(indexPath, DIMENSION, SimilarityMode.COSINE, 16, 100,
+                settings, new SimpleMeterRegistry());
+        indexer.initialize();
+        searcher = new LuceneSearcher(indexer, DIMENSION);
+        
+        indexer.indexBatch(SampleDocs.createSampleDocuments(DIMENSION));
+        
+        long deadline = System.currentTimeMillis() + 5000;
+        while (committedDocCount() < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(committedDocCount()).isEqualTo(5);
+    }
+    
+    @Test
+    void testWhenSearchableRunsOnceRefreshCoversWrite() throws Exception {
+        indexer.close();
+        indexer = new LuceneIndexer(indexPath, DIMENSION, SimilarityMode.COSINE, 16, 100,
+                IndexSettings.builder().commitIntervalMs(0).refreshIntervalMs(0).build(), new SimpleMeterRegistry());
+        indexer.initialize();
+        searcher = new LuceneSearcher(indexer, DIMENSION);
+        
+        long seq = indexer.indexSource("article", List.of(chunkOf("article", "a-0", 0)));
+        AtomicInteger runs = new AtomicInteger();
+        indexer.whenSearchable(seq, runs::incrementAndGet);
+        assertThat(runs).hasValue(0);
+        
+        indexer.refresh();
+        assertThat(runs).hasValue(1);
+        
+        // Already visible, so it runs right away
+        indexer.whenSearchable(seq, runs::incrementAndGet);
+        assertThat(runs).hasValue(2);
+    }
+    
+    private int committedDocCount() throws Exception {
+        try (Directory directory = FSDirectory.open(Path.of(indexPath))) {
+            if (!DirectoryReader.indexExists(directory)) {
+                return 0;
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                return reader.numDocs();
+            }
+        }
+    }
+    
+    @Test
+    void testMinSeqWaitsForUncommittedWrite() {
+        long seq = indexer.index(SampleDocs.createSampleChunk(
+                "fresh-1",
+                "Freshly written quantum annealing notes",
+                SampleDocs.createNormalizedVector(DIMENSION, 7)
+        ));
+        
+        SearchQuery query = SearchQuery.builder()
+                .queryText("quantum annealing")
+                .topK(5)
+                .alpha(0.0f)
+                .offset(0)
+                .minSeq(seq)
+                .build();
+        
+        assertThat(searcher.search(query))
+                .extracting(SearchResult::getId)
+                .contains("fresh-1");
+    }
+    
+    @Test
+    void testIndexSourceReplacesAllChunksOfSource() {
+        indexer.indexSource("article", List.of(
+                chunkOf("article", "a-0", 0),
+                chunkOf("article", "a-1", 1),
+                chunkOf("article", "a-2", 2)));
+        long seq = indexer.indexSource("article", List.of(chunkOf("article", "a-0", 0)));
+        indexer.awaitSearchable(seq, 5000);
+        
+        assertThat(searcher.getBySourceId("article")).extracting(DocumentChunk::getId)
+                .containsExactly("a-0");
+    }
+    
+    @Test
+    void testIndexSourcesParallel() {
+        List<List<DocumentChunk>> batches = new ArrayList<>();
+        for (int s = 0; s < 20; s++) {
+            batches.add(List.of(chunkOf("src-" + s, "src-" + s + "-0", 0), chunkOf("src-" + s, "src-" + s + "-1", 1)));
+        }
+        
+        long seq = indexer.indexSourcesParallel(batches);
+        indexer.awaitSearchable(seq, 5000);
+        
+        assertThat(indexer.getDocumentCount()).isEqualTo(40);
+        assertThat(searcher.getBySourceId("src-7")).hasSize(2);
+    }
+    
+    @Test
+    void testSubmitAfterCloseFailsInsteadOfHanging() throws Exception {
+        LuceneIndexer closed = new LuceneIndexer(tempDir.resolve("closed-index").toString(), DIMENSION,
+                SimilarityMode.COSINE, 16, 100);
+        closed.initialize();
+        closed.close();
+        
+        CompletableFuture<Long> future = closed.submitSource("src-0", List.of(chunkOf("src-0", "src-0-0", 0)));
+        
+        assertThat(future).isCompletedExceptionally();
+        assertThatThrownBy(() -> closed.indexSourcesParallel(List.of(List.of(chunkOf("src-1", "src-1-0", 0)))))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+    
+    private DocumentChunk chunkOf(String sourceId, String id, int chunkIndex) {
+        return DocumentChunk.builder()
+                .id(id)
+                .sourceId(sourceId)
+                .title("Source " + sourceId)
+                .content("Chunk " + chunkIndex + " of " + sourceId)
+                .vector(SampleDocs.createNormalizedVector(DIMENSION, id.hashCode()))
+                .source("test")
+                .chunkIndex(chunkIndex)
+                .build();
+    }
 }
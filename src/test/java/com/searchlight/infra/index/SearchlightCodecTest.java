@@ -0,0 +1,99 @@
+package com.searchlight.infra.index;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchlightCodecTest {
+    
+    private static final int DIMENSION = 32;
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testQuantizedSegmentsReopenThroughSpi() throws Exception {
+        writeAndSearch(false);
+        
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .anyMatch(name -> name.endsWith(".veq"));
+        }
+    }
+    
+    @Test
+    void testQuantizedCompoundSegmentsReopenThroughSpi() throws Exception {
+        writeAndSearch(true);
+        
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .anyMatch(name -> name.endsWith(".cfs"))
+                    .noneMatch(name -> name.endsWith(".veq"));
+        }
+    }
+    
+    private void writeAndSearch(boolean compound) throws Exception {
+        float[][] vectors = randomVectors(200);
+        
+        try (Directory directory = FSDirectory.open(tempDir)) {
+            // One segment per quantization, all written by differently configured codecs
+            for (VectorQuantization quantization : VectorQuantization.values()) {
+                IndexWriterConfig config = new IndexWriterConfig()
+                        .setCodec(new SearchlightCodec(16, 100, quantization))
+                        .setUseCompoundFile(compound);
+                try (IndexWriter writer = new IndexWriter(directory, config)) {
+                    for (int i = 0; i < vectors.length; i++) {
+                        Document doc = new Document();
+                        doc.add(new StringField("id", quantization + "-" + i, Field.Store.YES));
+                        doc.add(new KnnFloatVectorField("vector", vectors[i], VectorSimilarityFunction.COSINE));
+                        writer.addDocument(doc);
+                    }
+                    writer.commit();
+                }
+            }
+            
+            // Reopening resolves "Searchlight" through SPI, i.e. the no-argument codec
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                assertThat(reader.leaves()).hasSize(3);
+                IndexSearcher searcher = new IndexSearcher(reader);
+                TopDocs top = searcher.search(new KnnFloatVectorQuery("vector", vectors[42], 30), 3);
+                
+                assertThat(top.scoreDocs).hasSize(3);
+                for (int i = 0; i < 3; i++) {
+                    String id = searcher.doc(top.scoreDocs[i].doc).get("id");
+                    assertThat(id).endsWith("-42");
+                }
+            }
+        }
+    }
+    
+    private static float[][] randomVectors(int count) {
+        Random random = new Random(3);
+        float[][] vectors = new float[count][DIMENSION];
+        for (float[] vector : vectors) {
+            for (int j = 0; j < DIMENSION; j++) {
+                vector[j] = random.nextFloat() * 2 - 1;
+            }
+        }
+        return vectors;
+    }
+}
@@ -0,0 +1,53 @@
+package com.searchlight.infra.ingest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.searchlight.domain.model.DocumentChunk;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkNdjsonReaderTest {
+    
+    private final ChunkNdjsonReader reader = new ChunkNdjsonReader(new JsonFactory(), 3);
+    
+    @Test
+    void testParsesRecordsAndReportsBadLines() throws Exception {
+        String ndjson = """
+                {"id":"c1","sourceId":"s1","content":"first","vector":[0.1,0.2,0.3],"timestamp":"2024-01-01T00:00:00Z","keywords":["a","b"]}
+                {"id":"c2","content":"second","vector":[0.1,0.2]}
+                not json
+                
+                {"content":"no id"}
+                {"id":"c3","content":"third","chunkIndex":2,"timestamp":1700000000000,"extra":{"ignored":true}}
+                """;
+        
+        List<DocumentChunk> chunks = new ArrayList<>();
+        List<Long> errorLines = new ArrayList<>();
+        long records = reader.read(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+                new ChunkNdjsonReader.Listener() {
+                    @Override
+                    public void onChunk(DocumentChunk chunk) {
+                        chunks.add(chunk);
+                    }
+                    
+                    @Override
+                    public void onError(long lineNumber, String message) {
+                        errorLines.add(lineNumber);
+                    }
+                });
+        
+        assertThat(records).isEqualTo(5);
+        assertThat(errorLines).containsExactly(2L, 3L, 5L);
+        assertThat(chunks).extracting(DocumentChunk::getId).containsExactly("c1", "c3");
+        assertThat(chunks.get(0).getVector()).containsExactly(0.1f, 0.2f, 0.3f);
+        assertThat(chunks.get(0).getKeywords()).containsExactly("a", "b");
+        assertThat(chunks.get(1).getSourceId()).isEqualTo("c3");
+        assertThat(chunks.get(1).getChunkIndex()).isEqualTo(2);
+        assertThat(chunks.get(1).getTimestamp().toEpochMilli()).isEqualTo(1700000000000L);
+    }
+}
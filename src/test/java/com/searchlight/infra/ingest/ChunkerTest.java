@@ -0,0 +1,149 @@
+package com.searchlight.infra.ingest;
+
+import com.searchlight.infra.embeddings.WordPieceTokenizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChunkerTest {
+    
+    @Test
+    void testShortTextIsSingleChunk() {
+        Chunker chunker = new Chunker(10, 2);
+        
+        assertThat(chunker.chunk("  one two   three ")).containsExactly("one two   three");
+        assertThat(chunker.chunk("a b c d e f g h i j")).hasSize(1);
+        assertThat(chunker.chunk("   ")).isEmpty();
+        assertThat(chunker.chunk(null)).isEmpty();
+    }
+    
+    @Test
+    void testSpansAreViewsOverTheText() {
+        Chunker chunker = new Chunker(4, 1);
+        String text = "w1 w2 w3 w4 w5 w6 w7 w8 w9";
+        
+        List<Chunker.Span> spans = chunker.split(text);
+        
+        assertThat(spans).allSatisfy(span -> {
+            assertThat(span.source()).isSameAs(text);
+            assertThat(span.toString()).isEqualTo(text.substring(span.start(), span.end()));
+        });
+        assertThat(spans).extracting(Chunker.Span::toString)
+                .containsExactly("w1 w2 w3 w4", "w4 w5 w6 w7", "w7 w8 w9");
+    }
+    
+    @Test
+    void testCutsAtSentenceBoundaryInSecondHalf() {
+        Chunker chunker = new Chunker(8, 0);
+        String text = "One two three four five. Six seven eight nine ten eleven twelve.";
+        
+        assertThat(chunker.chunk(text))
+                .containsExactly("One two three four five.", "Six seven eight nine ten eleven twelve.");
+    }
+    
+    @Test
+    void testPrefersParagraphBreakNearEndOfWindow() {
+        Chunker chunker = new Chunker(8, 0);
+        String text = "a b. c d e f g\n\nh i j k";
+        
+        assertThat(chunker.chunk(text)).containsExactly("a b. c d e f g", "h i j k");
+    }
+    
+    @Test
+    void testIgnoresAbbreviations() {
+        Chunker chunker = new Chunker(6, 0);
+        String text = "Mr J. Smith e.g. went to the market today";
+        
+        assertThat(chunker.chunk(text)).containsExactly("Mr J. Smith e.g. went to", "the market today");
+    }
+    
+    @Test
+    void testEveryWordIsCoveredWithBoundedChunks() {
+        Chunker chunker = new Chunker(50, 10);
+        String text = randomText(new Random(42), 5_000);
+        
+        List<Chunker.Span> spans = chunker.split(text);
+        
+        assertThat(spans).allSatisfy(span -> assertThat(span.toString().split("\\s+").length).isBetween(1, 50));
+        for (int i = 1; i < spans.size(); i++) {
+            // Consecutive chunks advance and overlap
+            assertThat(spans.get(i).start()).isGreaterThan(spans.get(i - 1).start());
+            assertThat(spans.get(i).start()).isLessThan(spans.get(i - 1).end());
+        }
+        assertThat(spans.get(0).start()).isZero();
+        assertThat(spans.get(spans.size() - 1).end()).isEqualTo(text.stripTrailing().length());
+    }
+    
+    @Test
+    void testRejectsOverlapNotSmallerThanSize() {
+        assertThatThrownBy(() -> new Chunker(10, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void testTokenModeFillsModelWindow() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        // 4 tokens of content plus [CLS] and [SEP]
+        Chunker chunker = new Chunker(Chunker.Mode.TOKENS, 0, 0, tokenizer(), 6, registry);
+        
+        // unaffable = un ##aff ##able, running = runn ##ing
+        assertThat(chunker.chunk("unaffable the the running")).containsExactly("unaffable the", "the running");
+        assertThat(chunker.estimateChunkCount("unaffable the the running")).isEqualTo(2);
+        assertThat(registry.counter("chunker.truncated").count()).isZero();
+        assertThat(registry.summary("chunker.chunk.tokens").max()).isEqualTo(6.0);
+    }
+    
+    @Test
+    void testWordModeReportsTruncation() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Chunker chunker = new Chunker(Chunker.Mode.WORDS, 3, 0, tokenizer(), 6, registry);
+        
+        chunker.chunk("unaffable unaffable the the");
+        
+        // 3 + 3 + 1 tokens overflow the window; the trailing "the" fits
+        assertThat(registry.counter("chunker.chunks").count()).isEqualTo(2.0);
+        assertThat(registry.counter("chunker.truncated").count()).isEqualTo(1.0);
+        assertThat(chunker.getTruncationRatio()).isEqualTo(0.5);
+    }
+    
+    @Test
+    void testTokenModeRequiresVocabulary() {
+        assertThatThrownBy(() -> new Chunker(Chunker.Mode.TOKENS, 0, 0, null, 256, new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void testLeadingWords() {
+        assertThat(Chunker.leadingWords("  alpha beta\ngamma  ", 2)).containsExactly("alpha", "beta");
+        assertThat(Chunker.leadingWords("alpha", 20)).containsExactly("alpha");
+    }
+    
+    private static WordPieceTokenizer tokenizer() {
+        return new WordPieceTokenizer(
+                List.of("[PAD]", "[UNK]", "[CLS]", "[SEP]", "the", "un", "##aff", "##able", "runn", "##ing"), true);
+    }
+    
+    private static String randomText(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int length = 1 + random.nextInt(10);
+            for (int j = 0; j < length; j++) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+            int punctuation = random.nextInt(100);
+            if (punctuation < 6) {
+                text.append(". ");
+            } else if (punctuation < 7) {
+                text.append(".\n\n");
+            } else {
+                text.append(' ');
+            }
+        }
+        return text.toString();
+    }
+}
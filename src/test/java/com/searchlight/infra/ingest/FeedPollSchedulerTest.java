@@ -0,0 +1,102 @@
+package com.searchlight.infra.ingest;
+
+import com.searchlight.infra.store.SeenGuidStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FeedPollSchedulerTest {
+    
+    private static final long MIN = 60_000;
+    private static final long MAX = 6 * 3_600_000;
+    private static final String FEED = "https://example.com/feed.xml";
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testBusyFeedConvergesTowardsTimePerEntry() {
+        long interval = 900_000;
+        // 10 new entries every poll: one entry per 90s at the current interval
+        for (int i = 0; i < 10; i++) {
+            interval = FeedPollScheduler.nextInterval(interval, interval, 10, MIN, MAX);
+        }
+        
+        assertThat(interval).isEqualTo(MIN);
+    }
+    
+    @Test
+    void testQuietFeedBacksOffToMaximum() {
+        long interval = 900_000;
+        
+        long next = FeedPollScheduler.nextInterval(interval, interval, 0, MIN, MAX);
+        assertThat(next).isEqualTo(1_350_000);
+        
+        for (int i = 0; i < 20; i++) {
+            next = FeedPollScheduler.nextInterval(next, next, 0, MIN, MAX);
+        }
+        assertThat(next).isEqualTo(MAX);
+    }
+    
+    @Test
+    void testSteadyFeedKeepsItsInterval() {
+        // One new entry per poll means the interval already matches the publishing rate
+        assertThat(FeedPollScheduler.nextInterval(600_000, 600_000, 1, MIN, MAX)).isEqualTo(600_000);
+        // Two entries in 20 minutes moves halfway towards 10 minutes
+        assertThat(FeedPollScheduler.nextInterval(1_200_000, 1_200_000, 2, MIN, MAX)).isEqualTo(900_000);
+    }
+    
+    @Test
+    void testPollNowDuringPollKeepsOneChain() throws Exception {
+        RssIngestService ingestService = mock(RssIngestService.class);
+        AtomicInteger polls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        when(ingestService.readFeed(eq(FEED), any())).thenAnswer(invocation -> {
+            if (polls.incrementAndGet() == 1) {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return 0;
+        });
+        SeenGuidStore seenGuids = new SeenGuidStore(tempDir.resolve("state").toString());
+        seenGuids.initialize();
+        FeedPollScheduler scheduler = new FeedPollScheduler(ingestService, seenGuids, true,
+                tempDir.resolve("seed.txt").toString(), tempDir.resolve("state").toString(),
+                MIN, MAX, MIN, 0.0, 4, 60_000, new SimpleMeterRegistry());
+        scheduler.start();
+        try {
+            scheduler.register(FEED);
+            for (int i = 0; i < 100 && polls.get() < 1; i++) {
+                Thread.sleep(50);
+            }
+            assertThat(polls.get()).isEqualTo(1);
+            
+            // Both requests land while the first poll holds the feed
+            scheduler.pollNow(FEED);
+            scheduler.pollNow(FEED);
+            release.countDown();
+            
+            for (int i = 0; i < 100 && polls.get() < 2; i++) {
+                Thread.sleep(50);
+            }
+            // A second chain would poll again right away instead of waiting an interval
+            Thread.sleep(500);
+            assertThat(polls.get()).isEqualTo(2);
+            assertThat(scheduler.getFeeds().get(0).nextPoll()).isAfter(Instant.now().plusSeconds(30));
+        } finally {
+            scheduler.stop();
+            seenGuids.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.searchlight.infra.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeedReaderTest {
+    
+    private final FeedReader reader = new FeedReader();
+    
+    @Test
+    void testReadsRss2() throws IOException {
+        String xml = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <rss version="2.0" xmlns:content="http://purl.org/rss/1.0/modules/content/">
+                  <channel>
+                    <title>Example News</title>
+                    <link>https://example.com/</link>
+                    <image><title>Logo</title><url>https://example.com/logo.png</url></image>
+                    <item>
+                      <title>First &amp; foremost</title>
+                      <link>https://example.com/1</link>
+                      <description><![CDATA[<p>Summary</p>]]></description>
+                      <content:encoded><![CDATA[<p>Body</p>]]></content:encoded>
+                      <pubDate>Tue, 10 Jun 2003 04:00:00 GMT</pubDate>
+                      <guid isPermaLink="false">item-1</guid>
+                    </item>
+                    <item>
+                      <guid>https://example.com/2</guid>
+                    </item>
+                  </channel>
+                </rss>
+                """;
+        
+        List<FeedReader.Entry> entries = read(xml);
+        
+        assertThat(entries).hasSize(2);
+        assertThat(entries.get(0).feedTitle()).isEqualTo("Example News");
+        assertThat(entries.get(0).title()).isEqualTo("First & foremost");
+        assertThat(entries.get(0).link()).isEqualTo("https://example.com/1");
+        assertThat(entries.get(0).guid()).isEqualTo("item-1");
+        assertThat(entries.get(0).published()).isEqualTo(Instant.parse("2003-06-10T04:00:00Z"));
+        assertThat(entries.get(1).link()).isEqualTo("https://example.com/2");
+    }
+    
+    @Test
+    void testReadsAtom() throws IOException {
+        String xml = """
+                <feed xmlns="http://www.w3.org/2005/Atom">
+                  <title>Example Blog</title>
+                  <id>urn:feed</id>
+                  <entry>
+                    <title type="xhtml"><div xmlns="http://www.w3.org/1999/xhtml">Hello <b>World</b></div></title>
+                    <link rel="self" href="https://example.com/self"/>
+                    <link rel="alternate" href="https://example.com/post"/>
+                    <id>urn:post</id>
+                    <updated>2024-02-01T00:00:00Z</updated>
+                    <published>2024-01-01T12:00:00+01:00</published>
+                    <author><name>Someone</name></author>
+                  </entry>
+                </feed>
+                """;
+        
+        List<FeedReader.Entry> entries = read(xml);
+        
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).feedTitle()).isEqualTo("Example Blog");
+        assertThat(entries.get(0).title()).isEqualTo("Hello World");
+        assertThat(entries.get(0).link()).isEqualTo("https://example.com/post");
+        assertThat(entries.get(0).guid()).isEqualTo("urn:post");
+        assertThat(entries.get(0).published()).isEqualTo(Instant.parse("2024-01-01T11:00:00Z"));
+    }
+    
+    private List<FeedReader.Entry> read(String xml) throws IOException {
+        List<FeedReader.Entry> entries = new ArrayList<>();
+        reader.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), entries::add);
+        return entries;
+    }
+}
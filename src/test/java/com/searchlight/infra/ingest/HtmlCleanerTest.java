@@ -0,0 +1,44 @@
+package com.searchlight.infra.ingest;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HtmlCleanerTest {
+    
+    private final HtmlCleaner cleaner = new HtmlCleaner();
+    
+    @Test
+    void testExtractsTitleAndTextInOnePass() {
+        Document doc = Jsoup.parse("""
+                <html><head><title> Page Title </title><style>p { color: red; }</style></head>
+                <body>
+                  <header><h1>Site</h1></header>
+                  <nav>Home | About</nav>
+                  <p>Hello   <b>bold</b>
+                     world</p>
+                  <div>Next<br>line</div>
+                  <script>var tracking = true;</script>
+                  <ul><li>one</li><li>two</li></ul>
+                  <footer>Copyright</footer>
+                </body></html>
+                """);
+        String before = doc.outerHtml();
+        
+        HtmlCleaner.Extracted extracted = cleaner.extract(doc);
+        
+        assertThat(extracted.title()).isEqualTo("Page Title");
+        assertThat(extracted.text()).isEqualTo("Hello bold world\n\nNext\nline\n\none\n\ntwo");
+        assertThat(doc.outerHtml()).as("document is not modified").isEqualTo(before);
+    }
+    
+    @Test
+    void testFallsBackToFirstHeadingForTitle() {
+        assertThat(cleaner.extractTitle("<body><header><h1>Heading</h1></header><p>text</p></body>"))
+                .isEqualTo("Heading");
+        assertThat(cleaner.clean("<body><header><h1>Heading</h1></header><p>text</p></body>"))
+                .isEqualTo("text");
+    }
+}
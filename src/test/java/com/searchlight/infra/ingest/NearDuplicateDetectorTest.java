@@ -0,0 +1,158 @@
+package com.searchlight.infra.ingest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearDuplicateDetectorTest {
+    
+    @Test
+    void testNearDuplicateFromAnotherSourceMatches() {
+        NearDuplicateDetector detector = detector(null, new SimpleMeterRegistry());
+        String story = randomText(new Random(1), 200);
+        String edited = story.replaceFirst("\\w+", "Reuters") + " (reporting by staff)";
+        
+        assertThat(checkAndAdd(detector, "source-a", "a#0", story)).isNull();
+        NearDuplicateDetector.Match match = checkAndAdd(detector, "source-b", "b#0", edited);
+        
+        assertThat(match).isNotNull();
+        assertThat(match.chunkId()).isEqualTo("a#0");
+        assertThat(match.similarity()).isGreaterThan(0.8);
+        // Duplicates are not added, the first copy stays canonical
+        assertThat(detector.size()).isEqualTo(1);
+    }
+    
+    @Test
+    void testDistinctTextAndSameSourceDoNotMatch() {
+        NearDuplicateDetector detector = detector(null, new SimpleMeterRegistry());
+        String story = randomText(new Random(1), 200);
+        
+        assertThat(checkAndAdd(detector, "source-a", "a#0", story)).isNull();
+        assertThat(checkAndAdd(detector, "source-b", "b#0", randomText(new Random(2), 200))).isNull();
+        // Re-ingesting the same page must not flag its own chunks
+        assertThat(checkAndAdd(detector, "source-a", "a#1", story)).isNull();
+        assertThat(detector.similarity(story, randomText(new Random(3), 200))).isLessThan(0.1);
+    }
+    
+    @Test
+    void testRemovedSourceNoLongerMatches() {
+        NearDuplicateDetector detector = detector(null, new SimpleMeterRegistry());
+        String story = randomText(new Random(1), 100);
+        
+        checkAndAdd(detector, "source-a", "a#0", story);
+        detector.removeSource("source-a");
+        
+        assertThat(detector.size()).isZero();
+        assertThat(checkAndAdd(detector, "source-b", "b#0", story)).isNull();
+    }
+    
+    @Test
+    void testCheckOnlyCommitsWhenAsked() {
+        NearDuplicateDetector detector = detector(null, new SimpleMeterRegistry());
+        String story = randomText(new Random(1), 100);
+        
+        // Embedding or indexing failed: the check is dropped without a commit
+        NearDuplicateDetector.SourceCheck failed = detector.forSource("source-a");
+        assertThat(failed.check("a#0", story)).isNull();
+        assertThat(detector.size()).isZero();
+        
+        NearDuplicateDetector.SourceCheck indexed = detector.forSource("source-b");
+        assertThat(indexed.check("b#0", story)).isNull();
+        indexed.commit();
+        assertThat(detector.size()).isEqualTo(1);
+        assertThat(detector.forSource("source-c").check("c#0", story).chunkId()).isEqualTo("b#0");
+    }
+    
+    @Test
+    void testCommitReplacesPreviousEntriesOfSource() {
+        NearDuplicateDetector detector = detector(null, new SimpleMeterRegistry());
+        
+        checkAndAdd(detector, "source-a", "a#0", randomText(new Random(1), 100));
+        checkAndAdd(detector, "source-a", "a#0", randomText(new Random(2), 100));
+        
+        assertThat(detector.size()).isEqualTo(1);
+        assertThat(detector.tombstones()).isEqualTo(1);
+    }
+    
+    @Test
+    void testCompactsWhenTombstonesPileUp() {
+        NearDuplicateDetector detector = detector(null, new SimpleMeterRegistry());
+        Random random = new Random(7);
+        for (int i = 0; i < 1200; i++) {
+            checkAndAdd(detector, "source-" + i, "c#" + i, randomText(random, 30));
+        }
+        String kept = randomText(new Random(8), 30);
+        checkAndAdd(detector, "source-kept", "kept#0", kept);
+        
+        for (int i = 0; i < 400; i++) {
+            detector.removeSource("source-" + i);
+        }
+        
+        assertThat(detector.size()).isEqualTo(801);
+        assertThat(detector.tombstones()).isLessThan(300);
+        assertThat(detector.forSource("source-new").check("new#0", kept).chunkId()).isEqualTo("kept#0");
+    }
+    
+    @Test
+    void testReportsDuplicateRate() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        NearDuplicateDetector detector = detector(null, registry);
+        String story = randomText(new Random(1), 100);
+        
+        checkAndAdd(detector, "source-a", "a#0", story);
+        checkAndAdd(detector, "source-b", "b#0", story);
+        
+        assertThat(registry.counter("ingest.dedup.duplicates").count()).isEqualTo(1.0);
+        assertThat(detector.getDuplicateRate()).isEqualTo(0.5);
+    }
+    
+    @Test
+    void testSnapshotSurvivesRestart(@TempDir Path dir) throws Exception {
+        Path snapshot = dir.resolve("minhash.bin");
+        String story = randomText(new Random(1), 100);
+        
+        NearDuplicateDetector first = detector(snapshot, new SimpleMeterRegistry());
+        first.initialize();
+        checkAndAdd(first, "source-a", "a#0", story);
+        checkAndAdd(first, "source-c", "c#0", randomText(new Random(5), 100));
+        first.removeSource("source-c");
+        first.save();
+        
+        NearDuplicateDetector second = detector(snapshot, new SimpleMeterRegistry());
+        second.initialize();
+        
+        assertThat(second.size()).isEqualTo(1);
+        assertThat(checkAndAdd(second, "source-b", "b#0", story).chunkId()).isEqualTo("a#0");
+    }
+    
+    private static NearDuplicateDetector.Match checkAndAdd(NearDuplicateDetector detector, String sourceId,
+                                                          String chunkId, String text) {
+        NearDuplicateDetector.SourceCheck check = detector.forSource(sourceId);
+        NearDuplicateDetector.Match match = check.check(chunkId, text);
+        check.commit();
+        return match;
+    }
+    
+    private static NearDuplicateDetector detector(Path snapshot, MeterRegistry registry) {
+        return new NearDuplicateDetector(true, snapshot != null ? snapshot.toString() : null, 0.8, 5, 16, 8,
+                NearDuplicateDetector.Action.SKIP, registry);
+    }
+    
+    private static String randomText(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int length = 2 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+            text.append(i % 15 == 14 ? ". " : " ");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,35 @@
+package com.searchlight.infra.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SitemapIngestServiceTest {
+    
+    @Test
+    void testRecentFingerprintsDeduplicateWithinWindow() {
+        SitemapIngestService.RecentFingerprints seen = new SitemapIngestService.RecentFingerprints(1000);
+        long first = SitemapIngestService.fingerprint("https://example.com/a");
+        
+        assertThat(seen.add(first)).isTrue();
+        assertThat(seen.add(first)).isFalse();
+        for (int i = 0; i < 400; i++) {
+            seen.add(SitemapIngestService.fingerprint("https://example.com/page-" + i));
+        }
+        assertThat(seen.add(first)).isFalse();
+    }
+    
+    @Test
+    void testRecentFingerprintsForgetOldestGeneration() {
+        SitemapIngestService.RecentFingerprints seen = new SitemapIngestService.RecentFingerprints(100);
+        long first = SitemapIngestService.fingerprint("https://example.com/a");
+        seen.add(first);
+        
+        // Two generations of 50 later, the first URL has been forgotten
+        for (int i = 0; i < 100; i++) {
+            assertThat(seen.add(SitemapIngestService.fingerprint("https://example.com/page-" + i))).isTrue();
+        }
+        
+        assertThat(seen.add(first)).isTrue();
+    }
+}
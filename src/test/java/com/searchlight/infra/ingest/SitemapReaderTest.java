@@ -0,0 +1,75 @@
+package com.searchlight.infra.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SitemapReaderTest {
+    
+    private final SitemapReader reader = new SitemapReader();
+    
+    @Test
+    void testReadsUrlset() throws IOException {
+        String xml = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <urlset xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+                  <url><loc>https://example.com/a</loc><lastmod>2024-05-01</lastmod></url>
+                  <url>
+                    <loc> https://example.com/b?x=1&amp;y=2 </loc>
+                    <lastmod>2024-05-02T10:30:00+02:00</lastmod>
+                    <changefreq>daily</changefreq>
+                  </url>
+                  <url><loc>https://example.com/c</loc><lastmod>yesterday</lastmod></url>
+                  <url><priority>0.5</priority></url>
+                </urlset>
+                """;
+        
+        List<SitemapReader.Entry> entries = read(xml);
+        
+        assertThat(entries).extracting(SitemapReader.Entry::location)
+                .containsExactly("https://example.com/a", "https://example.com/b?x=1&y=2", "https://example.com/c");
+        assertThat(entries.get(0).lastModified()).isEqualTo(Instant.parse("2024-05-01T00:00:00Z"));
+        assertThat(entries.get(1).lastModified()).isEqualTo(Instant.parse("2024-05-02T08:30:00Z"));
+        assertThat(entries.get(2).lastModified()).isNull();
+        assertThat(entries).noneMatch(SitemapReader.Entry::sitemap);
+    }
+    
+    @Test
+    void testReadsSitemapIndex() throws IOException {
+        String xml = """
+                <sitemapindex xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+                  <sitemap><loc>https://example.com/sitemap-1.xml.gz</loc></sitemap>
+                  <sitemap><loc>https://example.com/sitemap-2.xml.gz</loc></sitemap>
+                </sitemapindex>
+                """;
+        
+        List<SitemapReader.Entry> entries = read(xml);
+        
+        assertThat(entries).hasSize(2).allMatch(SitemapReader.Entry::sitemap);
+    }
+    
+    @Test
+    void testRejectsDoctype() {
+        String xml = """
+                <?xml version="1.0"?>
+                <!DOCTYPE urlset [<!ENTITY xxe SYSTEM "file:///etc/passwd">]>
+                <urlset><url><loc>&xxe;</loc></url></urlset>
+                """;
+        
+        assertThatThrownBy(() -> read(xml)).isInstanceOf(IOException.class);
+    }
+    
+    private List<SitemapReader.Entry> read(String xml) throws IOException {
+        List<SitemapReader.Entry> entries = new ArrayList<>();
+        reader.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), entries::add);
+        return entries;
+    }
+}
@@ -0,0 +1,143 @@
+package com.searchlight.infra.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WarcReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final WarcReader reader = new WarcReader(1 << 20);
+
+    @Test
+    void testReadsHtmlResponsesFromPlainArchive() throws IOException {
+        Path archive = tempDir.resolve("crawl.warc");
+        try (OutputStream out = Files.newOutputStream(archive)) {
+            for (byte[] record : sampleRecords()) {
+                out.write(record);
+            }
+        }
+
+        List<WarcReader.Response> responses = new ArrayList<>();
+        long records = reader.read(archive, responses::add);
+
+        assertThat(records).isEqualTo(5);
+        assertResponses(responses);
+    }
+
+    @Test
+    void testReadsPerRecordGzipArchive() throws IOException {
+        Path archive = tempDir.resolve("crawl.warc.gz");
+        try (OutputStream out = Files.newOutputStream(archive)) {
+            // Standard WARC layout: one gzip member per record, concatenated
+            for (byte[] record : sampleRecords()) {
+                ByteArrayOutputStream member = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(member)) {
+                    gzip.write(record);
+                }
+                out.write(member.toByteArray());
+            }
+        }
+
+        List<WarcReader.Response> responses = new ArrayList<>();
+        long records = reader.read(archive, responses::add);
+
+        assertThat(records).isEqualTo(5);
+        assertResponses(responses);
+    }
+
+    @Test
+    void testSkipsGzipBodiesThatDecodePastTheRecordLimit() throws IOException {
+        WarcReader smallReader = new WarcReader(4 << 10);
+        byte[] page = ("<html><body>" + "spam ".repeat(20_000) + "</body></html>").getBytes(StandardCharsets.UTF_8);
+        byte[] small = "<html><body>small</body></html>".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream in = new ByteArrayOutputStream();
+        in.writeBytes(record("response", "https://example.com/bomb", "application/http; msgtype=response",
+                http(200, "text/html", "Content-Encoding: gzip\r\n", gzip(page))));
+        in.writeBytes(record("response", "https://example.com/small", "application/http; msgtype=response",
+                http(200, "text/html", "Content-Encoding: gzip\r\n", gzip(small))));
+
+        List<WarcReader.Response> responses = new ArrayList<>();
+        long records = smallReader.read(new ByteArrayInputStream(in.toByteArray()), responses::add);
+
+        // The compressed record fits under the limit, its decoded body does not
+        assertThat(gzip(page).length).isLessThan(4 << 10);
+        assertThat(records).isEqualTo(2);
+        assertThat(responses).extracting(WarcReader.Response::targetUri)
+                .containsExactly("https://example.com/small");
+        assertThat(responses.get(0).text()).isEqualTo("<html><body>small</body></html>");
+    }
+
+    private void assertResponses(List<WarcReader.Response> responses) {
+        assertThat(responses).extracting(WarcReader.Response::targetUri)
+                .containsExactly("https://example.com/a", "https://example.com/b");
+        assertThat(responses.get(0).text()).contains("Café");
+        assertThat(responses.get(0).date()).isEqualTo(Instant.parse("2024-03-01T12:00:00Z"));
+        assertThat(responses.get(1).text()).isEqualTo("<html><body>chunked body</body></html>");
+    }
+
+    private List<byte[]> sampleRecords() {
+        return List.of(
+                record("warcinfo", null, "application/warc-fields", "software: test\r\n".getBytes(StandardCharsets.UTF_8)),
+                record("response", "https://example.com/a", "application/http; msgtype=response", http(200,
+                        "text/html; charset=ISO-8859-1", "",
+                        "<html><head><title>A</title></head><body>Café</body></html>"
+                                .getBytes(StandardCharsets.ISO_8859_1))),
+                record("response", "https://example.com/logo.png", "application/http; msgtype=response", http(200,
+                        "image/png", "", new byte[] {(byte) 0x89, 'P', 'N', 'G'})),
+                record("response", "https://example.com/missing", "application/http; msgtype=response", http(404,
+                        "text/html", "", "<html>not found</html>".getBytes(StandardCharsets.UTF_8))),
+                record("response", "https://example.com/b", "application/http; msgtype=response", http(200,
+                        "text/html", "Transfer-Encoding: chunked\r\n",
+                        "c\r\n<html><body>\r\n1a\r\nchunked body</body></html>\r\n0\r\n\r\n"
+                                .getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] http(int status, String contentType, String extraHeaders, byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(("HTTP/1.1 " + status + " X\r\nContent-Type: " + contentType + "\r\n" + extraHeaders + "\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1));
+        out.writeBytes(body);
+        return out.toByteArray();
+    }
+
+    private static byte[] record(String type, String uri, String contentType, byte[] block) {
+        StringBuilder headers = new StringBuilder("WARC/1.1\r\n")
+                .append("WARC-Type: ").append(type).append("\r\n")
+                .append("WARC-Date: 2024-03-01T12:00:00Z\r\n");
+        if (uri != null) {
+            headers.append("WARC-Target-URI: ").append(uri).append("\r\n");
+        }
+        headers.append("Content-Type: ").append(contentType).append("\r\n")
+                .append("Content-Length: ").append(block.length).append("\r\n\r\n");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(headers.toString().getBytes(StandardCharsets.ISO_8859_1));
+        out.writeBytes(block);
+        out.writeBytes("\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,52 @@
+package com.searchlight.infra.observability;
+
+import com.searchlight.infra.observability.IngestMetrics.Stage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IngestMetricsTest {
+    
+    private SimpleMeterRegistry registry;
+    private IngestMetrics metrics;
+    
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new IngestMetrics(registry);
+    }
+    
+    @Test
+    void testStageTimedAndFailuresCounted() {
+        assertThat(metrics.time(Stage.CHUNK, () -> 3)).isEqualTo(3);
+        assertThatThrownBy(() -> metrics.time(Stage.FETCH, () -> {
+            throw new IOException("connection reset");
+        })).isInstanceOf(IOException.class);
+        
+        assertThat(registry.get("ingest.stage.latency").tag("stage", "chunk").timer().count()).isEqualTo(1);
+        assertThat(registry.get("ingest.stage.latency").tag("stage", "fetch").timer().count()).isEqualTo(1);
+        assertThat(registry.get("ingest.stage.errors").tag("stage", "fetch").counter().count()).isEqualTo(1);
+        assertThat(registry.get("ingest.stage.errors").tag("stage", "chunk").counter().count()).isZero();
+    }
+    
+    @Test
+    void testLagRunsFromPublicationAndFetch() {
+        Instant now = Instant.now();
+        metrics.recordSearchable(now.minus(Duration.ofMinutes(10)), now.minusSeconds(2));
+        // A feed clock ahead of ours counts as no lag
+        metrics.recordSearchable(now.plus(Duration.ofHours(1)), null);
+        
+        assertThat(registry.get("ingest.lag").timer().count()).isEqualTo(2);
+        assertThat(registry.get("ingest.lag").timer().max(TimeUnit.SECONDS)).isBetween(600.0, 660.0);
+        assertThat(registry.get("ingest.searchable.latency").timer().count()).isEqualTo(1);
+        assertThat(registry.get("ingest.searchable.latency").timer().max(TimeUnit.SECONDS)).isBetween(2.0, 60.0);
+    }
+}
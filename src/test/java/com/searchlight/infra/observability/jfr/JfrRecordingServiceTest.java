@@ -0,0 +1,76 @@
+package com.searchlight.infra.observability.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JfrRecordingServiceTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private JfrRecordingService service;
+    
+    @BeforeEach
+    void setUp() {
+        service = new JfrRecordingService(tempDir.toString(), 60, 16);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+    
+    @Test
+    void testRecordsSearchlightEvents() throws Exception {
+        service.start(Duration.ofSeconds(30), "default");
+        assertThat(service.status()).containsEntry("state", "RUNNING");
+        
+        IndexBatchEvent event = new IndexBatchEvent();
+        event.begin();
+        event.operation = "batch";
+        event.documents = 3;
+        event.vectors = 2;
+        event.commit();
+        
+        Path file = service.stop();
+        assertThat(file).exists();
+        assertThat(service.status()).containsEntry("state", "NONE");
+        
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events)
+                .filteredOn(e -> e.getEventType().getName().equals("com.searchlight.IndexBatch"))
+                .singleElement()
+                .satisfies(e -> {
+                    assertThat(e.getString("operation")).isEqualTo("batch");
+                    assertThat(e.getInt("documents")).isEqualTo(3);
+                    assertThat(e.getInt("vectors")).isEqualTo(2);
+                });
+        Files.delete(file);
+    }
+    
+    @Test
+    void testOnlyOneRecordingAtATime() {
+        service.start(Duration.ofSeconds(30), "default");
+        assertThatThrownBy(() -> service.start(Duration.ofSeconds(30), "default"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+    
+    @Test
+    void testUnknownSettingsAreRejected() {
+        assertThatThrownBy(() -> service.start(Duration.ofSeconds(30), "no-such-settings"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(service.stop()).isNull();
+    }
+}
@@ -0,0 +1,52 @@
+package com.searchlight.infra.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeenGuidStoreTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testAddAndContains() throws Exception {
+        SeenGuidStore store = open();
+        
+        assertThat(store.contains("tag:example.com,2025:1")).isFalse();
+        assertThat(store.add("tag:example.com,2025:1")).isTrue();
+        assertThat(store.add("tag:example.com,2025:1")).isFalse();
+        assertThat(store.contains("tag:example.com,2025:1")).isTrue();
+        assertThat(store.contains("tag:example.com,2025:2")).isFalse();
+        store.close();
+    }
+    
+    @Test
+    void testReopenRestoresGuids() throws Exception {
+        SeenGuidStore store = open();
+        for (int i = 0; i < 5_000; i++) {
+            store.add("https://example.com/item/" + i);
+        }
+        store.close();
+        
+        SeenGuidStore reopened = open();
+        
+        assertThat(reopened.size()).isEqualTo(5_000);
+        for (int i = 0; i < 5_000; i++) {
+            assertThat(reopened.contains("https://example.com/item/" + i)).isTrue();
+        }
+        for (int i = 5_000; i < 10_000; i++) {
+            assertThat(reopened.contains("https://example.com/item/" + i)).isFalse();
+        }
+        reopened.close();
+    }
+    
+    private SeenGuidStore open() throws Exception {
+        SeenGuidStore store = new SeenGuidStore(tempDir.toString());
+        store.initialize();
+        return store;
+    }
+}
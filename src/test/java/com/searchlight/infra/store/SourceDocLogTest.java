@@ -0,0 +1,182 @@
+package com.searchlight.infra.store;
+
+import com.searchlight.domain.model.SourceDoc;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SourceDocLogTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testAppendAndLookupByUrl() throws Exception {
+        SourceDocLog log = open(64);
+        log.append(createDoc("https://example.com/a", "First article body"));
+        
+        Optional<SourceDoc> found = log.get("https://example.com/a");
+        
+        assertThat(found).isPresent();
+        assertThat(found.get().getContent()).isEqualTo("First article body");
+        assertThat(found.get().getPublishedAt()).isNotNull();
+        assertThat(log.get("https://example.com/missing")).isEmpty();
+        log.close();
+    }
+    
+    @Test
+    void testReopenRebuildsIndexAndReplaysLatestVersions() throws Exception {
+        SourceDocLog log = open(64);
+        log.append(createDoc("https://example.com/a", "old version"));
+        log.append(createDoc("https://example.com/b", "only version"));
+        log.append(createDoc("https://example.com/a", "new version"));
+        log.close();
+        
+        SourceDocLog reopened = open(64);
+        List<SourceDoc> replayed = new ArrayList<>();
+        int count = reopened.replay(replayed::add);
+        
+        assertThat(count).isEqualTo(2);
+        assertThat(replayed).extracting(SourceDoc::getContent)
+                .containsExactly("only version", "new version");
+        assertThat(reopened.get("https://example.com/a").get().getContent()).isEqualTo("new version");
+        reopened.close();
+    }
+    
+    @Test
+    void testRollsSegmentsWhenSizeExceeded() throws Exception {
+        SourceDocLog log = open(1);
+        Random random = new Random(42);
+        for (int i = 0; i < 20; i++) {
+            // Random letters barely compress, so 20 x 200KB must spill over several 1MB segments
+            StringBuilder body = new StringBuilder();
+            for (int j = 0; j < 200_000; j++) {
+                body.append((char) ('a' + random.nextInt(26)));
+            }
+            log.append(createDoc("https://example.com/" + i, body.toString()));
+        }
+        
+        assertThat(log.getSegmentCount()).isGreaterThan(1);
+        assertThat(log.size()).isEqualTo(20);
+        assertThat(log.replay(doc -> { })).isEqualTo(20);
+        log.close();
+    }
+    
+    @Test
+    void testReadOnlyLogReplaysButNeverWrites() throws Exception {
+        assertThatThrownBy(() -> SourceDocLog.readOnly(tempDir.resolve("missing").toString()).initialize())
+                .isInstanceOf(NoSuchFileException.class);
+        assertThat(tempDir.resolve("missing")).doesNotExist();
+        
+        SourceDocLog log = open(64);
+        log.append(createDoc("https://example.com/a", "only version"));
+        log.close();
+        
+        SourceDocLog readOnly = SourceDocLog.readOnly(tempDir.resolve("doclog").toString());
+        readOnly.initialize();
+        
+        assertThat(readOnly.replay(doc -> { })).isEqualTo(1);
+        assertThat(readOnly.get("https://example.com/a")).isPresent();
+        assertThatThrownBy(() -> readOnly.append(createDoc("https://example.com/b", "new")))
+                .isInstanceOf(IllegalStateException.class);
+        readOnly.close();
+    }
+    
+    @Test
+    void testTornTailIsIgnoredOnReopen() throws Exception {
+        SourceDocLog log = open(64);
+        log.append(createDoc("https://example.com/a", "intact"));
+        log.append(createDoc("https://example.com/b", "torn"));
+        log.close();
+        Path segment = onlySegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        
+        SourceDocLog reopened = open(64);
+        
+        assertThat(reopened.size()).isEqualTo(1);
+        assertThat(reopened.get("https://example.com/a")).isPresent();
+        reopened.close();
+    }
+    
+    @Test
+    void testCorruptRecordInsideSegmentFailsWithOffset() throws Exception {
+        SourceDocLog log = open(64);
+        log.append(createDoc("https://example.com/a", "first"));
+        log.append(createDoc("https://example.com/b", "second"));
+        log.close();
+        Path segment = onlySegment();
+        byte[] bytes = Files.readAllBytes(segment);
+        // Flip a byte in the first record's body, with a valid record behind it
+        bytes[12] ^= 0x55;
+        Files.write(segment, bytes);
+        
+        SourceDocLog reopened = new SourceDocLog(tempDir.resolve("doclog").toString(), true, 64);
+        
+        assertThatThrownBy(reopened::initialize)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("offset 0")
+                .hasMessageContaining("checksum mismatch");
+        assertThat(Files.size(segment)).isEqualTo(bytes.length);
+    }
+    
+    @Test
+    void testImplausibleLengthIsRejectedBeforeAllocating() throws Exception {
+        SourceDocLog log = open(64);
+        log.append(createDoc("https://example.com/a", "first"));
+        log.append(createDoc("https://example.com/b", "second"));
+        log.close();
+        Path segment = onlySegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, Integer.MAX_VALUE), 0);
+        }
+        
+        SourceDocLog reopened = new SourceDocLog(tempDir.resolve("doclog").toString(), true, 64);
+        
+        assertThatThrownBy(reopened::initialize)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("invalid body length");
+    }
+    
+    private SourceDocLog open(int segmentSizeMb) throws Exception {
+        SourceDocLog log = new SourceDocLog(tempDir.resolve("doclog").toString(), true, segmentSizeMb);
+        log.initialize();
+        return log;
+    }
+    
+    private Path onlySegment() throws Exception {
+        try (Stream<Path> files = Files.list(tempDir.resolve("doclog"))) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+    
+    private SourceDoc createDoc(String url, String content) {
+        return SourceDoc.builder()
+                .id(url)
+                .url(url)
+                .title("Title for " + url)
+                .content(content)
+                .source("test")
+                .publishedAt(Instant.now())
+                .fetchedAt(Instant.now())
+                .contentType("text/html")
+                .build();
+    }
+}